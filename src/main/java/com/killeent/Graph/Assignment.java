@@ -0,0 +1,64 @@
+package com.killeent.Graph;
+
+/**
+ * A minimum-cost assignment of the rows of a dense cost matrix to distinct columns, found by
+ * {@link BipartiteMatching#assignment}. It can be passed back to the solver as the starting
+ * point for the next assignment of a changed matrix of the same size.
+ */
+public class Assignment {
+
+    private final int[] columns;
+    private final long cost;
+
+    // the dual potentials of the rows and columns
+    final long[] rowPotentials;
+    final long[] columnPotentials;
+
+    Assignment(int[] columns, long cost, long[] rowPotentials, long[] columnPotentials) {
+        this.columns = columns;
+        this.cost = cost;
+        this.rowPotentials = rowPotentials;
+        this.columnPotentials = columnPotentials;
+    }
+
+    /**
+     * @return The column assigned to every row. The array is not copied and should not be
+     * modified.
+     */
+    public int[] getColumns() {
+        return columns;
+    }
+
+    /**
+     * @param row A row of the matrix.
+     * @throws java.lang.IllegalArgumentException if row is not a row of the matrix.
+     * @return The column assigned to row.
+     */
+    public int column(int row) {
+        if (row < 0 || row >= columns.length) {
+            throw new IllegalArgumentException("no such row: " + row);
+        }
+        return columns[row];
+    }
+
+    /**
+     * @return The number of rows.
+     */
+    public int rowCount() {
+        return columns.length;
+    }
+
+    /**
+     * @return The number of columns.
+     */
+    public int columnCount() {
+        return columnPotentials.length;
+    }
+
+    /**
+     * @return The total cost of the assigned entries.
+     */
+    public long getCost() {
+        return cost;
+    }
+}
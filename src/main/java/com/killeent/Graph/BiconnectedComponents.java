@@ -0,0 +1,313 @@
+package com.killeent.Graph;
+
+import java.util.Arrays;
+
+/**
+ * The biconnected structure of an undirected graph: its articulation vertices, bridges,
+ * biconnected components (blocks) and block-cut tree, all computed by a single iterative
+ * depth first search in O(V + E) time, following Hopcroft and Tarjan.
+ *
+ * A block is a maximal subgraph that stays connected after removing any one vertex; every
+ * edge belongs to exactly one block, and two blocks share at most one vertex, which is then
+ * an articulation vertex. A bridge is an edge that forms a block on its own and whose removal
+ * disconnects the graph. The block-cut tree has a node for every block and every articulation
+ * vertex, and an edge between a block and each articulation vertex it contains.
+ *
+ * Results are exposed as primitive arrays over the vertex and edge ids of the
+ * {@link CompactGraph} that was searched. An undirected edge is stored as two directed edges
+ * in the compact graph, and both are labelled with the same block.
+ */
+public class BiconnectedComponents<V extends Comparable<V>, E extends Comparable<E>> {
+
+    private final CompactGraph<V, E> graph;
+
+    private final boolean[] articulation;
+    private final int[] edgeBlocks;
+    private final int blockCount;
+    private final int[] blockOffsets;
+    private final int[] blockVertices;
+    private final int[] bridges;
+
+    // block-cut tree: nodes [0, blockCount) are blocks, the rest are articulation vertices
+    private final int[] cutNodes;
+    private final int[] cutVertices;
+    private final int[] treeOffsets;
+    private final int[] treeTargets;
+
+    /**
+     * Computes the biconnected components of a snapshot of an undirected graph.
+     *
+     * @param g The graph to decompose.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     */
+    public BiconnectedComponents(UndirectedGraph<V, E> g) {
+        this(checked(g));
+    }
+
+    /**
+     * Computes the biconnected components of an undirected compact graph.
+     *
+     * @param g The graph to decompose.
+     * @throws java.lang.IllegalArgumentException if g is null or directed.
+     */
+    public BiconnectedComponents(CompactGraph<V, E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("graph must be undirected");
+        }
+        graph = g;
+        int n = g.size();
+        int m = g.edgeCount();
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        int[] twins = g.twins();
+
+        // dfs[v] is the discovery order of v (0 if undiscovered); low[v] is the lowest dfs
+        // number reachable from the DFS subtree of v through at most one back edge
+        int[] dfs = new int[n];
+        int[] low = new int[n];
+        int[] next = new int[n];
+        int[] parentEdge = new int[n];
+        int[] callStack = new int[n];
+        int[] edgeStack = new int[m / 2 + 1];
+        articulation = new boolean[n];
+        edgeBlocks = new int[m];
+        Arrays.fill(edgeBlocks, -1);
+
+        // block membership is collected in CSR form as blocks are popped
+        IntList members = new IntList();
+        IntList memberOffsets = new IntList();
+        memberOffsets.add(0);
+        int[] lastBlock = new int[n];
+        Arrays.fill(lastBlock, -1);
+        IntList bridgeList = new IntList();
+
+        int explored = 0;
+        int blocks = 0;
+        for (int root = 0; root < n; root++) {
+            if (dfs[root] != 0) {
+                continue;
+            }
+            int callTop = 0;
+            int edgeTop = 0;
+            int rootChildren = 0;
+            dfs[root] = low[root] = ++explored;
+            parentEdge[root] = -1;
+            next[root] = offsets[root];
+            callStack[callTop++] = root;
+
+            while (callTop > 0) {
+                int v = callStack[callTop - 1];
+                if (next[v] < offsets[v + 1]) {
+                    int e = next[v]++;
+                    int w = targets[e];
+                    if (parentEdge[v] != -1 && e == twins[parentEdge[v]]) {
+                        // the tree edge we arrived through
+                        continue;
+                    }
+                    if (dfs[w] == 0) {
+                        // tree edge; descend
+                        dfs[w] = low[w] = ++explored;
+                        parentEdge[w] = e;
+                        next[w] = offsets[w];
+                        edgeStack[edgeTop++] = e;
+                        callStack[callTop++] = w;
+                        if (v == root) {
+                            rootChildren++;
+                        }
+                    } else if (dfs[w] < dfs[v]) {
+                        // back edge to an ancestor
+                        edgeStack[edgeTop++] = e;
+                        if (dfs[w] < low[v]) {
+                            low[v] = dfs[w];
+                        }
+                    }
+                    // otherwise this is the other direction of a back edge that was already
+                    // pushed from the descendant w
+                    continue;
+                }
+
+                // v is finished
+                callTop--;
+                if (v == root) {
+                    continue;
+                }
+                int p = callStack[callTop - 1];
+                if (low[v] < low[p]) {
+                    low[p] = low[v];
+                }
+                if (low[v] >= dfs[p]) {
+                    // p separates the subtree of v from the rest of the graph, so the edges
+                    // pushed since the tree edge (p, v) form a block
+                    int block = blocks++;
+                    int e;
+                    do {
+                        e = edgeStack[--edgeTop];
+                        edgeBlocks[e] = block;
+                        edgeBlocks[twins[e]] = block;
+                        int u = targets[twins[e]];
+                        int w = targets[e];
+                        if (lastBlock[u] != block) {
+                            lastBlock[u] = block;
+                            members.add(u);
+                        }
+                        if (lastBlock[w] != block) {
+                            lastBlock[w] = block;
+                            members.add(w);
+                        }
+                    } while (e != parentEdge[v]);
+                    memberOffsets.add(members.size());
+
+                    if (p != root) {
+                        articulation[p] = true;
+                    }
+                    if (low[v] > dfs[p]) {
+                        bridgeList.add(p);
+                        bridgeList.add(v);
+                    }
+                }
+            }
+            if (rootChildren > 1) {
+                articulation[root] = true;
+            }
+        }
+
+        blockCount = blocks;
+        blockOffsets = memberOffsets.toArray();
+        blockVertices = members.toArray();
+        bridges = bridgeList.toArray();
+
+        // number the articulation vertices as block-cut tree nodes
+        cutNodes = new int[n];
+        IntList cuts = new IntList();
+        for (int v = 0; v < n; v++) {
+            if (articulation[v]) {
+                cutNodes[v] = blockCount + cuts.size();
+                cuts.add(v);
+            } else {
+                cutNodes[v] = -1;
+            }
+        }
+        cutVertices = cuts.toArray();
+
+        // every (block, articulation vertex) membership is a tree edge; store both directions
+        int nodes = blockCount + cutVertices.length;
+        treeOffsets = new int[nodes + 1];
+        for (int b = 0; b < blockCount; b++) {
+            for (int i = blockOffsets[b]; i < blockOffsets[b + 1]; i++) {
+                int node = cutNodes[blockVertices[i]];
+                if (node != -1) {
+                    treeOffsets[b + 1]++;
+                    treeOffsets[node + 1]++;
+                }
+            }
+        }
+        for (int i = 0; i < nodes; i++) {
+            treeOffsets[i + 1] += treeOffsets[i];
+        }
+        treeTargets = new int[treeOffsets[nodes]];
+        int[] position = Arrays.copyOf(treeOffsets, nodes);
+        for (int b = 0; b < blockCount; b++) {
+            for (int i = blockOffsets[b]; i < blockOffsets[b + 1]; i++) {
+                int node = cutNodes[blockVertices[i]];
+                if (node != -1) {
+                    treeTargets[position[b]++] = node;
+                    treeTargets[position[node]++] = b;
+                }
+            }
+        }
+    }
+
+    private static <V extends Comparable<V>, E extends Comparable<E>> CompactGraph<V, E> checked(
+            UndirectedGraph<V, E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        return new CompactGraph<V, E>(g);
+    }
+
+    /**
+     * @return The graph that was decomposed.
+     */
+    public CompactGraph<V, E> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return For each vertex id, whether it is an articulation vertex. The array is not copied
+     * and should not be modified.
+     */
+    public boolean[] getArticulationVertices() {
+        return articulation;
+    }
+
+    /**
+     * @return The number of blocks.
+     */
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * @return The block of each edge id of the graph. The array is not copied and should not be
+     * modified.
+     */
+    public int[] getEdgeBlocks() {
+        return edgeBlocks;
+    }
+
+    /**
+     * @return CSR offsets into {@link #getBlockVertices()}: the vertices of block b are
+     * getBlockVertices()[getBlockOffsets()[b] .. getBlockOffsets()[b + 1] - 1].
+     */
+    public int[] getBlockOffsets() {
+        return blockOffsets;
+    }
+
+    /**
+     * @return The vertex ids of every block, indexed by {@link #getBlockOffsets()}.
+     */
+    public int[] getBlockVertices() {
+        return blockVertices;
+    }
+
+    /**
+     * @return The bridges as consecutive pairs of vertex ids: bridge i connects
+     * getBridges()[2i] and getBridges()[2i + 1].
+     */
+    public int[] getBridges() {
+        return bridges;
+    }
+
+    /**
+     * @return For each vertex id, its node in the block-cut tree, or -1 if it is not an
+     * articulation vertex. Blocks are nodes [0, getBlockCount()).
+     */
+    public int[] getCutNodes() {
+        return cutNodes;
+    }
+
+    /**
+     * @return The vertex id of each articulation vertex node of the block-cut tree, indexed by
+     * node - getBlockCount().
+     */
+    public int[] getCutVertices() {
+        return cutVertices;
+    }
+
+    /**
+     * @return CSR offsets of the block-cut tree (more precisely, forest) adjacency lists.
+     */
+    public int[] getTreeOffsets() {
+        return treeOffsets;
+    }
+
+    /**
+     * @return The neighbors of every block-cut tree node, indexed by {@link #getTreeOffsets()}.
+     */
+    public int[] getTreeTargets() {
+        return treeTargets;
+    }
+}
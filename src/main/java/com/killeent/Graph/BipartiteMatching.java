@@ -0,0 +1,619 @@
+package com.killeent.Graph;
+
+import com.killeent.PriorityQueue.IndexedHeap;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Matching algorithms for bipartite graphs: maximum-cardinality matchings of an undirected
+ * {@link CompactGraph} by Hopcroft-Karp, and minimum-cost matchings of an undirected graph or
+ * a dense cost matrix by the Hungarian method.
+ *
+ * {@link #hopcroftKarp} (Hopcroft and Karp, "An n^5/2 Algorithm for Maximum Matchings in
+ * Bipartite Graphs", 1973) repeatedly finds a maximal set of shortest augmenting paths with
+ * one breadth first search, which layers the graph, and depth first searches within the
+ * layers, so it takes O(m sqrt(n)) time. The searches use explicit stacks.
+ *
+ * {@link #minimumCost} and {@link #assignment} keep a dual potential for every vertex, such
+ * that no edge has a negative reduced cost (its cost minus the potentials of its endpoints)
+ * and matched edges have a reduced cost of zero, and match one left vertex at a time along a
+ * shortest augmenting path by reduced cost (Kuhn, "The Hungarian Method for the Assignment
+ * Problem", 1955, in the shortest path form of Jonker and Volgenant). The sparse form finds
+ * the paths with Djikstra's algorithm, the dense form by scanning the rows of the matrix.
+ *
+ * All three can warm-start from a previous result, typically for a slightly changed graph or
+ * matrix: pairs that are still edges are kept (and, for the weighted solvers, still
+ * optimal under the previous potentials), so only the vertices whose pairs changed are
+ * matched again.
+ */
+public class BipartiteMatching {
+
+    // Marks a vertex that is not in the current layering or search
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    // Marks a right vertex that cannot be on an augmenting path
+    private static final int DEAD = -1;
+
+    private static final long INFINITE = Long.MAX_VALUE / 4;
+
+    private BipartiteMatching() {
+    }
+
+    /**
+     * Finds a maximum-cardinality matching of a bipartite graph.
+     *
+     * @param g The graph to match; the sides are found by two-colouring it.
+     * @param previous A matching to start from, possibly of another snapshot of the graph, or
+     *                 null to start from the empty matching.
+     * @throws java.lang.IllegalArgumentException if g is null, directed or not bipartite.
+     * @return A maximum matching.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> Matching<V, E> hopcroftKarp(
+            CompactGraph<V, E> g, Matching<V, E> previous) {
+        boolean[] left = colour(g);
+        int n = g.size();
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        int[] mates = keep(g, previous);
+
+        int[] layers = new int[n];
+        int[] queue = new int[n];
+        int[] stack = new int[n];
+        int[] next = new int[n];
+        while (true) {
+            // layer the left vertices by their distance from a free left vertex
+            int head = 0;
+            int tail = 0;
+            for (int v = 0; v < n; v++) {
+                if (left[v] && mates[v] < 0) {
+                    layers[v] = 0;
+                    queue[tail++] = v;
+                } else {
+                    layers[v] = UNREACHED;
+                }
+            }
+            // the layer of the left vertices that reach a free right vertex first
+            int limit = UNREACHED;
+            while (head < tail) {
+                int v = queue[head++];
+                if (layers[v] > limit) {
+                    break;
+                }
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int mate = mates[targets[e]];
+                    if (mate < 0) {
+                        limit = layers[v];
+                    } else if (layers[mate] == UNREACHED) {
+                        layers[mate] = layers[v] + 1;
+                        queue[tail++] = mate;
+                    }
+                }
+            }
+            if (limit == UNREACHED) {
+                break;
+            }
+
+            // augment along vertex-disjoint shortest paths within the layers
+            for (int v = 0; v < n; v++) {
+                next[v] = offsets[v];
+            }
+            for (int root = 0; root < n; root++) {
+                if (!left[root] || mates[root] >= 0) {
+                    continue;
+                }
+                int top = 0;
+                stack[top++] = root;
+                while (top > 0) {
+                    int v = stack[top - 1];
+                    if (next[v] == offsets[v + 1]) {
+                        // a dead end: no path leaves v within the layers
+                        layers[v] = UNREACHED;
+                        top--;
+                        continue;
+                    }
+                    int target = targets[next[v]++];
+                    int mate = mates[target];
+                    if (mate < 0 && layers[v] == limit) {
+                        // every vertex on the stack takes the edge it last followed, and
+                        // leaves the layers so the paths of a phase stay disjoint
+                        for (int i = top - 1; i >= 0; i--) {
+                            int u = stack[i];
+                            int w = targets[next[u] - 1];
+                            mates[u] = w;
+                            mates[w] = u;
+                            layers[u] = UNREACHED;
+                        }
+                        break;
+                    }
+                    if (mate >= 0 && layers[mate] == layers[v] + 1 && layers[mate] <= limit) {
+                        stack[top++] = mate;
+                    }
+                }
+            }
+        }
+        return new Matching<V, E>(g, mates, 0, null);
+    }
+
+    /**
+     * Finds a matching of a bipartite graph with the most pairs, and with the smallest total
+     * cost among the matchings covering the same left vertices. Edge costs are the integer
+     * parts of the edge values, and may be negative; of parallel edges, the cheapest is used.
+     *
+     * @param g The graph to match.
+     * @param left The vertices on the left side; every edge must join one of them to a vertex
+     *             that is not one of them.
+     * @param previous A matching to start from, possibly of another snapshot of the graph, or
+     *                 null to start from the empty matching.
+     * @throws java.lang.IllegalArgumentException if g or left is null, g is directed, or an
+     * edge does not join the two sides.
+     * @return A minimum-cost matching.
+     */
+    public static <V extends Comparable<V>, E extends Number & Comparable<E>> Matching<V, E>
+            minimumCost(CompactGraph<V, E> g, Collection<V> left, Matching<V, E> previous) {
+        if (g == null || left == null) {
+            throw new IllegalArgumentException("null arguments to minimum cost matching");
+        }
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("matching needs an undirected graph");
+        }
+        int n = g.size();
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        boolean[] sides = new boolean[n];
+        for (V vertex : left) {
+            sides[g.id(vertex)] = true;
+        }
+        long[] costs = g.weights("edge cost", Long.MIN_VALUE);
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if (sides[v] == sides[targets[e]]) {
+                    throw new IllegalArgumentException("edge inside one side of the graph");
+                }
+            }
+        }
+
+        int[] mates = keep(g, previous);
+        long[] potentials = new long[n];
+        if (previous != null && previous.potentials() != null) {
+            CompactGraph<V, E> old = previous.getGraph();
+            for (int v = 0; v < n; v++) {
+                if (!sides[v] && old.containsVertex(g.vertex(v))) {
+                    potentials[v] = previous.potentials()[old.id(g.vertex(v))];
+                }
+            }
+        }
+        repair(g, sides, costs, mates, potentials);
+
+        long[] distances = new long[n];
+        int[] parents = new int[n];
+        int[] stamps = new int[n];
+        IntList settled = new IntList();
+        IndexedHeap heap = new IndexedHeap(n);
+        int stamp = 0;
+
+        // A free right vertex must have potential 0 for the result to be optimal, but one
+        // freed by the warm start may have a negative one. Raising it, and the potentials of
+        // the right vertices reached from it by alternating paths, grows a search tree, in
+        // Djikstra order, until it reaches a free left vertex, in which case the tree is
+        // augmented along the path, or one of the right vertices reaches potential 0, in
+        // which case the path to it alternates so it is the one left free.
+        for (int root = 0; root < n; root++) {
+            if (sides[root] || mates[root] >= 0 || potentials[root] >= 0) {
+                continue;
+            }
+            stamp++;
+            settled.clear();
+            heap.clear();
+            stamps[root] = stamp;
+            distances[root] = 0;
+            settled.add(root);
+            long limit = -potentials[root];
+            int last = root;
+            relax(root, 0, offsets, targets, costs, potentials, distances, parents, stamps,
+                    stamp, heap);
+            int end = -1;
+            while (!heap.isEmpty() && heap.key(heap.peek()) < limit) {
+                int vertex = heap.remove();
+                int mate = mates[vertex];
+                if (mate < 0) {
+                    end = vertex;
+                    break;
+                }
+                stamps[mate] = stamp;
+                distances[mate] = distances[vertex];
+                settled.add(mate);
+                if (distances[mate] - potentials[mate] < limit) {
+                    limit = distances[mate] - potentials[mate];
+                    last = mate;
+                }
+                relax(mate, distances[mate], offsets, targets, costs, potentials, distances,
+                        parents, stamps, stamp, heap);
+            }
+            long length = end < 0 ? limit : distances[end];
+            for (int i = 0; i < settled.size(); i++) {
+                int right = settled.get(i);
+                long slack = length - distances[right];
+                potentials[right] += slack;
+                if (mates[right] >= 0) {
+                    potentials[mates[right]] -= slack;
+                }
+            }
+            int vertex = end;
+            if (end < 0) {
+                vertex = mates[last];
+                if (vertex >= 0) {
+                    mates[last] = -1;
+                }
+            }
+            while (vertex >= 0) {
+                int parent = parents[vertex];
+                int previousMate = mates[parent];
+                mates[parent] = vertex;
+                mates[vertex] = parent;
+                vertex = parent == root ? -1 : previousMate;
+            }
+        }
+
+        // one Djikstra search per free left vertex, over the right vertices
+        for (int root = 0; root < n; root++) {
+            if (!sides[root] || mates[root] >= 0 || offsets[root] == offsets[root + 1]) {
+                continue;
+            }
+            stamp++;
+            settled.clear();
+            heap.clear();
+            relax(root, 0, offsets, targets, costs, potentials, distances, parents, stamps,
+                    stamp, heap);
+            int end = -1;
+            while (!heap.isEmpty()) {
+                int right = heap.remove();
+                settled.add(right);
+                int mate = mates[right];
+                if (mate < 0) {
+                    end = right;
+                    break;
+                }
+                relax(mate, distances[right], offsets, targets, costs, potentials, distances,
+                        parents, stamps, stamp, heap);
+            }
+            if (end < 0) {
+                // no augmenting path from root, now or later: every right vertex reached is
+                // matched to a left vertex whose edges all stay within the reached set, so
+                // later searches can skip them
+                for (int i = 0; i < settled.size(); i++) {
+                    stamps[settled.get(i)] = DEAD;
+                }
+                continue;
+            }
+
+            // shift the potentials so the path becomes tight and no reduced cost is negative
+            long length = distances[end];
+            potentials[root] += length;
+            for (int i = 0; i < settled.size() - 1; i++) {
+                int right = settled.get(i);
+                long slack = length - distances[right];
+                potentials[right] -= slack;
+                potentials[mates[right]] += slack;
+            }
+            for (int right = end; right >= 0; ) {
+                int parent = parents[right];
+                int previousMate = mates[parent];
+                mates[parent] = right;
+                mates[right] = parent;
+                right = parent == root ? -1 : previousMate;
+            }
+        }
+
+        // the potentials of the skipped vertices went stale as the others grew; lowering all
+        // skipped right potentials and raising their mates' by the same amount keeps the
+        // edges among them tight and makes no reduced cost negative, for the next warm start
+        long stale = 0;
+        for (int right = 0; right < n; right++) {
+            if (stamps[right] != DEAD) {
+                continue;
+            }
+            for (int e = offsets[right]; e < offsets[right + 1]; e++) {
+                int neighbor = targets[e];
+                if (mates[neighbor] < 0 || stamps[mates[neighbor]] != DEAD) {
+                    stale = Math.max(stale,
+                            potentials[neighbor] + potentials[right] - costs[e]);
+                }
+            }
+        }
+        for (int right = 0; right < n && stale > 0; right++) {
+            if (stamps[right] == DEAD) {
+                potentials[right] -= stale;
+                potentials[mates[right]] += stale;
+            }
+        }
+
+        long total = 0;
+        for (int v = 0; v < n; v++) {
+            if (sides[v] && mates[v] >= 0) {
+                total += cheapest(v, mates[v], offsets, targets, costs);
+            }
+        }
+        return new Matching<V, E>(g, mates, total, potentials);
+    }
+
+    /**
+     * Relaxes the edges out of a left vertex reached at the given distance.
+     */
+    private static void relax(int left, long distance, int[] offsets, int[] targets,
+                              long[] costs, long[] potentials, long[] distances, int[] parents,
+                              int[] stamps, int stamp, IndexedHeap heap) {
+        for (int e = offsets[left]; e < offsets[left + 1]; e++) {
+            int right = targets[e];
+            if (stamps[right] == DEAD) {
+                continue;
+            }
+            long reduced = costs[e] - potentials[left] - potentials[right];
+            long candidate = distance + reduced;
+            if (stamps[right] != stamp || candidate < distances[right]) {
+                if (stamps[right] == stamp && !heap.contains(right)) {
+                    // already settled; reduced costs are non-negative, so it cannot improve
+                    continue;
+                }
+                stamps[right] = stamp;
+                distances[right] = candidate;
+                parents[right] = left;
+                heap.update(right, candidate);
+            }
+        }
+    }
+
+    /**
+     * Restores the invariants of the weighted solver after a warm start, except that free
+     * right vertices may keep a negative potential: every left vertex gets the largest
+     * potential that leaves no reduced cost negative, and pairs whose edge is then no longer
+     * tight are dropped.
+     */
+    private static void repair(CompactGraph<?, ?> g, boolean[] sides, long[] costs,
+                               int[] mates, long[] potentials) {
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        for (int v = 0; v < g.size(); v++) {
+            if (!sides[v]) {
+                continue;
+            }
+            long best = INFINITE;
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                best = Math.min(best, costs[e] - potentials[targets[e]]);
+            }
+            potentials[v] = best == INFINITE ? 0 : best;
+            int mate = mates[v];
+            if (mate >= 0 && cheapest(v, mate, offsets, targets, costs)
+                    - potentials[mate] != best) {
+                mates[v] = -1;
+                mates[mate] = -1;
+            }
+        }
+    }
+
+    /**
+     * @return The cost of the cheapest edge from u to v.
+     */
+    private static long cheapest(int u, int v, int[] offsets, int[] targets, long[] costs) {
+        long best = INFINITE;
+        for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+            if (targets[e] == v) {
+                best = Math.min(best, costs[e]);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds an assignment of every row of a cost matrix to a distinct column with the
+     * smallest total cost, in O(rows^2 * columns) time.
+     *
+     * @param costs The cost of assigning each row to each column; there must be at least as
+     *              many columns as rows.
+     * @param previous An assignment to start from, for a matrix of the same size, or null.
+     * @throws java.lang.IllegalArgumentException if costs is null, not rectangular, has more
+     * rows than columns, or previous is for a matrix of a different size.
+     * @return A minimum-cost assignment.
+     */
+    public static Assignment assignment(long[][] costs, Assignment previous) {
+        if (costs == null) {
+            throw new IllegalArgumentException("null cost matrix");
+        }
+        int rows = costs.length;
+        int columns = rows == 0 ? 0 : costs[0].length;
+        for (long[] row : costs) {
+            if (row == null || row.length != columns) {
+                throw new IllegalArgumentException("cost matrix is not rectangular");
+            }
+        }
+        if (rows > columns) {
+            throw new IllegalArgumentException("more rows than columns");
+        }
+        if (previous != null && (previous.rowCount() != rows
+                || previous.columnCount() != columns)) {
+            throw new IllegalArgumentException("previous assignment is for another size");
+        }
+
+        // 1-based, as column 0 stands for the row being assigned; owners[j] is the row
+        // assigned to column j, or 0
+        long[] u = new long[rows + 1];
+        long[] v = new long[columns + 1];
+        int[] owners = new int[columns + 1];
+        if (previous != null) {
+            for (int j = 0; j < columns; j++) {
+                v[j + 1] = previous.columnPotentials[j];
+            }
+            for (int i = 0; i < rows; i++) {
+                owners[previous.getColumns()[i] + 1] = i + 1;
+            }
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int j = 1; j <= columns; j++) {
+                    if (owners[j] == 0) {
+                        v[j] = 0;
+                    }
+                }
+                int[] assigned = new int[rows + 1];
+                for (int j = 1; j <= columns; j++) {
+                    assigned[owners[j]] = j;
+                }
+                for (int i = 1; i <= rows; i++) {
+                    long best = INFINITE;
+                    for (int j = 1; j <= columns; j++) {
+                        best = Math.min(best, costs[i - 1][j - 1] - v[j]);
+                    }
+                    u[i] = best;
+                    int j = assigned[i];
+                    if (j > 0 && costs[i - 1][j - 1] - v[j] != best) {
+                        owners[j] = 0;
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        boolean[] assignedRows = new boolean[rows + 1];
+        for (int j = 1; j <= columns; j++) {
+            assignedRows[owners[j]] = true;
+        }
+        long[] slack = new long[columns + 1];
+        int[] way = new int[columns + 1];
+        boolean[] used = new boolean[columns + 1];
+        for (int i = 1; i <= rows; i++) {
+            if (assignedRows[i]) {
+                continue;
+            }
+            owners[0] = i;
+            int column = 0;
+            Arrays.fill(slack, INFINITE);
+            Arrays.fill(used, false);
+            // grow a tree of tight edges until it reaches a free column
+            do {
+                used[column] = true;
+                int row = owners[column];
+                long delta = INFINITE;
+                int nextColumn = 0;
+                for (int j = 1; j <= columns; j++) {
+                    if (!used[j]) {
+                        long reduced = costs[row - 1][j - 1] - u[row] - v[j];
+                        if (reduced < slack[j]) {
+                            slack[j] = reduced;
+                            way[j] = column;
+                        }
+                        if (slack[j] < delta) {
+                            delta = slack[j];
+                            nextColumn = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= columns; j++) {
+                    if (used[j]) {
+                        u[owners[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        slack[j] -= delta;
+                    }
+                }
+                column = nextColumn;
+            } while (owners[column] != 0);
+            // flip the path back to the root
+            do {
+                int previousColumn = way[column];
+                owners[column] = owners[previousColumn];
+                column = previousColumn;
+            } while (column != 0);
+        }
+
+        int[] result = new int[rows];
+        long total = 0;
+        for (int j = 1; j <= columns; j++) {
+            if (owners[j] != 0) {
+                result[owners[j] - 1] = j - 1;
+                total += costs[owners[j] - 1][j - 1];
+            }
+        }
+        return new Assignment(result, total, Arrays.copyOfRange(u, 1, rows + 1),
+                Arrays.copyOfRange(v, 1, columns + 1));
+    }
+
+    /**
+     * Two-colours an undirected graph.
+     *
+     * @throws java.lang.IllegalArgumentException if g is null, directed or not bipartite.
+     * @return For every vertex id, whether it is on the left side.
+     */
+    private static boolean[] colour(CompactGraph<?, ?> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("matching needs an undirected graph");
+        }
+        int n = g.size();
+        int[] colours = new int[n];
+        Arrays.fill(colours, -1);
+        int[] queue = new int[n];
+        for (int root = 0; root < n; root++) {
+            if (colours[root] >= 0) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            colours[root] = 0;
+            queue[tail++] = root;
+            while (head < tail) {
+                int v = queue[head++];
+                for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                    int w = g.targets[e];
+                    if (colours[w] < 0) {
+                        colours[w] = 1 - colours[v];
+                        queue[tail++] = w;
+                    } else if (colours[w] == colours[v]) {
+                        throw new IllegalArgumentException("graph is not bipartite");
+                    }
+                }
+            }
+        }
+        boolean[] left = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            left[v] = colours[v] == 0;
+        }
+        return left;
+    }
+
+    /**
+     * @return The mates of the vertices of g under the pairs of previous that are still
+     * edges of g, or no pairs if previous is null.
+     */
+    private static <V extends Comparable<V>, E extends Comparable<E>> int[] keep(
+            CompactGraph<V, E> g, Matching<V, E> previous) {
+        int[] mates = new int[g.size()];
+        Arrays.fill(mates, -1);
+        if (previous == null) {
+            return mates;
+        }
+        CompactGraph<V, E> old = previous.getGraph();
+        int[] oldMates = previous.getMates();
+        for (int v = 0; v < oldMates.length; v++) {
+            if (oldMates[v] < v) {
+                continue;
+            }
+            V a = old.vertex(v);
+            V b = old.vertex(oldMates[v]);
+            if (!g.containsVertex(a) || !g.containsVertex(b)) {
+                continue;
+            }
+            int x = g.id(a);
+            int y = g.id(b);
+            for (int e = g.offsets[x]; e < g.offsets[x + 1]; e++) {
+                if (g.targets[e] == y) {
+                    mates[x] = y;
+                    mates[y] = x;
+                    break;
+                }
+            }
+        }
+        return mates;
+    }
+}
@@ -0,0 +1,86 @@
+package com.killeent.Graph;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * The result of a breadth first search over a {@link CompactGraph}: the distance (in edges)
+ * from the source to every vertex, and the parent of every vertex in the BFS tree. Both are
+ * stored in primitive arrays indexed by the vertex ids of the graph.
+ */
+public class BreadthFirstTree<V extends Comparable<V>, E extends Comparable<E>> {
+
+    private final CompactGraph<V, E> graph;
+    private final int source;
+    private final int[] distances;
+    private final int[] parents;
+
+    BreadthFirstTree(CompactGraph<V, E> graph, int source, int[] distances, int[] parents) {
+        this.graph = graph;
+        this.source = source;
+        this.distances = distances;
+        this.parents = parents;
+    }
+
+    /**
+     * @return The graph that was searched.
+     */
+    public CompactGraph<V, E> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return The start vertex of the search.
+     */
+    public V getSource() {
+        return graph.vertex(source);
+    }
+
+    /**
+     * @return The distance from the source to each vertex id, or -1 if the vertex is not
+     * reachable. The array is not copied and should not be modified.
+     */
+    public int[] getDistances() {
+        return distances;
+    }
+
+    /**
+     * @return The id of the parent of each vertex id in the BFS tree, or -1 for the source
+     * and unreachable vertices. The array is not copied and should not be modified.
+     */
+    public int[] getParents() {
+        return parents;
+    }
+
+    /**
+     * Returns the distance from the source to the specified vertex.
+     *
+     * @param vertex The vertex to look up.
+     * @throws java.lang.IllegalArgumentException if vertex is null or not in the graph.
+     * @return The number of edges on a shortest path to vertex, or -1 if it is unreachable.
+     */
+    public int distance(V vertex) {
+        return distances[graph.id(vertex)];
+    }
+
+    /**
+     * Returns a shortest path from the source to the specified vertex.
+     *
+     * @param vertex The vertex to find the path to.
+     * @throws java.lang.IllegalArgumentException if vertex is null or not in the graph.
+     * @return The vertices on the path, starting with the source and ending with vertex, or an
+     * empty list if vertex is unreachable.
+     */
+    public List<V> path(V vertex) {
+        LinkedList<V> path = new LinkedList<V>();
+        int current = graph.id(vertex);
+        if (distances[current] < 0) {
+            return path;
+        }
+        while (current != -1) {
+            path.addFirst(graph.vertex(current));
+            current = parents[current];
+        }
+        return path;
+    }
+}
@@ -0,0 +1,350 @@
+package com.killeent.Graph;
+
+import com.killeent.PriorityQueue.IndexedHeap;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Shortest-path centrality measures over a {@link CompactGraph}: Brandes' betweenness
+ * centrality and closeness centrality, with unit edge lengths (BFS) or with the integer edge
+ * values as lengths (Djikstra's algorithm). Scores are returned as arrays indexed by vertex id.
+ *
+ * Both measures run one single-source search per vertex. The sources are dealt out to one
+ * worker per thread; every worker owns its search arrays and its own betweenness accumulator,
+ * and the accumulators are added together once all searches are done, so the searches never
+ * synchronize. For graphs where n searches are too slow,
+ * {@link #approximateBetweenness} runs searches from a random sample of sources instead.
+ */
+public class Centrality {
+
+    /**
+     * Computes the betweenness centrality of every vertex: the sum, over all ordered pairs of
+     * other vertices (s, t), of the fraction of shortest paths from s to t that pass through
+     * the vertex. In an undirected graph every unordered pair is counted once.
+     *
+     * @param g The graph to measure.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return The betweenness of each vertex id.
+     */
+    public static double[] betweenness(CompactGraph<?, ?> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        return betweenness(g, null, allVertices(g.size()));
+    }
+
+    /**
+     * Computes betweenness centrality using the edge values as edge lengths. See
+     * {@link #betweenness(CompactGraph)}.
+     *
+     * @param g The graph to measure.
+     * @throws java.lang.IllegalArgumentException if g is null or has an edge value that is
+     * not positive.
+     * @return The betweenness of each vertex id.
+     */
+    public static double[] weightedBetweenness(CompactGraph<?, Integer> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        return betweenness(g, lengths(g), allVertices(g.size()));
+    }
+
+    /**
+     * Estimates betweenness centrality from searches out of uniformly sampled source vertices
+     * (Brandes and Pich). Every search adds the dependencies of one source, which lie in
+     * [0, n - 2], so by Hoeffding's inequality and a union bound over the vertices, running
+     * {@link #sampleSize(int, double, double)} searches guarantees that with probability at
+     * least 1 - delta every estimate is within epsilon * n * (n - 2) of the exact betweenness
+     * (halved for undirected graphs, as the exact values are).
+     *
+     * @param g The graph to measure.
+     * @param epsilon The error bound, as a fraction of n * (n - 2); in (0, 1).
+     * @param delta The probability that some estimate exceeds the bound; in (0, 1).
+     * @param seed The seed for sampling sources.
+     * @throws java.lang.IllegalArgumentException if g is null, or epsilon or delta is not in
+     * (0, 1).
+     * @return The estimated betweenness of each vertex id. If the sample would be at least
+     * as large as the graph, the exact betweenness is returned.
+     */
+    public static double[] approximateBetweenness(CompactGraph<?, ?> g, double epsilon,
+                                                  double delta, long seed) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        int n = g.size();
+        int samples = sampleSize(n, epsilon, delta);
+        if (samples >= n) {
+            return betweenness(g, null, allVertices(n));
+        }
+        Random random = new Random(seed);
+        int[] sources = new int[samples];
+        for (int i = 0; i < samples; i++) {
+            sources[i] = random.nextInt(n);
+        }
+        double[] result = betweenness(g, null, sources);
+        double scale = (double) n / samples;
+        for (int v = 0; v < n; v++) {
+            result[v] *= scale;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of sampled sources needed by {@link #approximateBetweenness}:
+     * ceil(ln(2n / delta) / (2 epsilon^2)).
+     *
+     * @param n The number of vertices in the graph.
+     * @param epsilon The error bound, as a fraction of n * (n - 2); in (0, 1).
+     * @param delta The probability that some estimate exceeds the bound; in (0, 1).
+     * @throws java.lang.IllegalArgumentException if n is negative, or epsilon or delta is not
+     * in (0, 1).
+     * @return The number of searches to run.
+     */
+    public static int sampleSize(int n, double epsilon, double delta) {
+        if (n < 0) {
+            throw new IllegalArgumentException("negative graph size");
+        }
+        if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("epsilon and delta must be in (0, 1)");
+        }
+        double samples = Math.ceil(Math.log(2.0 * Math.max(n, 1) / delta)
+                / (2 * epsilon * epsilon));
+        return (int) Math.min(samples, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Computes the closeness centrality of every vertex from the lengths of the shortest
+     * paths leaving it. If r other vertices are reachable from v at a total distance of d,
+     * the closeness of v is (r / d) * (r / (n - 1)), which is the inverse of the average
+     * distance in a strongly connected graph, and is scaled down for vertices that reach only
+     * part of a disconnected graph (Wasserman and Faust). A vertex that reaches no other
+     * vertex has closeness 0.
+     *
+     * @param g The graph to measure.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return The closeness of each vertex id.
+     */
+    public static double[] closeness(CompactGraph<?, ?> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        return closeness(g, null);
+    }
+
+    /**
+     * Computes closeness centrality using the edge values as edge lengths. See
+     * {@link #closeness(CompactGraph)}.
+     *
+     * @param g The graph to measure.
+     * @throws java.lang.IllegalArgumentException if g is null or has an edge value that is
+     * not positive.
+     * @return The closeness of each vertex id.
+     */
+    public static double[] weightedCloseness(CompactGraph<?, Integer> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        return closeness(g, lengths(g));
+    }
+
+    /**
+     * Runs Brandes' algorithm from each of the passed sources, which may repeat.
+     *
+     * @param lengths The length of every edge, or null for unit lengths.
+     */
+    private static double[] betweenness(final CompactGraph<?, ?> g, final long[] lengths,
+                                        final int[] sources) {
+        final int n = g.size();
+        final int workers = Math.max(1, Math.min(Parallel.parallelism(), sources.length));
+        final double[][] accumulators = new double[workers][];
+        Parallel.forRange(0, workers, 1, new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int worker = from; worker < to; worker++) {
+                    Search search = new Search(g, lengths);
+                    double[] accumulator = new double[n];
+                    for (int i = worker; i < sources.length; i += workers) {
+                        search.accumulateDependencies(sources[i], accumulator);
+                    }
+                    accumulators[worker] = accumulator;
+                }
+            }
+        });
+
+        // add up the accumulators in a fixed order, so results do not depend on scheduling
+        final double[] result = new double[n];
+        final double scale = g.isDirected() ? 1.0 : 0.5;
+        Parallel.forRange(0, n, Parallel.grain(n, 4096), new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int v = from; v < to; v++) {
+                    double sum = 0;
+                    for (double[] accumulator : accumulators) {
+                        sum += accumulator[v];
+                    }
+                    result[v] = sum * scale;
+                }
+            }
+        });
+        return result;
+    }
+
+    private static double[] closeness(final CompactGraph<?, ?> g, final long[] lengths) {
+        final int n = g.size();
+        final double[] result = new double[n];
+        final int workers = Math.max(1, Math.min(Parallel.parallelism(), n));
+        Parallel.forRange(0, workers, 1, new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int worker = from; worker < to; worker++) {
+                    Search search = new Search(g, lengths);
+                    for (int v = worker; v < n; v += workers) {
+                        int reached = search.run(v);
+                        long total = 0;
+                        for (int i = 1; i < reached; i++) {
+                            total += search.distances[search.order[i]];
+                        }
+                        int others = reached - 1;
+                        result[v] = total == 0 ? 0
+                                : ((double) others / total) * ((double) others / (n - 1));
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return The edge values of g as edge lengths.
+     * @throws java.lang.IllegalArgumentException if an edge value is not positive.
+     */
+    private static long[] lengths(CompactGraph<?, Integer> g) {
+        return g.weights("edge length", 1);
+    }
+
+    private static int[] allVertices(int n) {
+        int[] vertices = new int[n];
+        for (int v = 0; v < n; v++) {
+            vertices[v] = v;
+        }
+        return vertices;
+    }
+
+    /**
+     * The arrays of a single-source shortest path search, reused from one source to the next.
+     * Only the entries of vertices reached by the last search are meaningful.
+     */
+    private static class Search {
+
+        private static final long UNREACHED = Long.MAX_VALUE;
+
+        private final int[] offsets;
+        private final int[] targets;
+        private final long[] lengths;
+        private final IndexedHeap heap;
+
+        // distances[v] and the number of shortest paths to v
+        final long[] distances;
+        final double[] paths;
+        final double[] dependencies;
+
+        // the reached vertices in the order their distances became final
+        final int[] order;
+        private int lastReached;
+
+        Search(CompactGraph<?, ?> g, long[] lengths) {
+            int n = g.size();
+            this.offsets = g.offsets;
+            this.targets = g.targets;
+            this.lengths = lengths;
+            this.heap = lengths == null ? null : new IndexedHeap(n);
+            distances = new long[n];
+            paths = new double[n];
+            dependencies = new double[n];
+            order = new int[n];
+            Arrays.fill(distances, UNREACHED);
+        }
+
+        private long length(int e) {
+            return lengths == null ? 1 : lengths[e];
+        }
+
+        /**
+         * Computes shortest path distances and counts from source, with BFS for unit lengths
+         * and Djikstra's algorithm otherwise.
+         *
+         * @return The number of vertices reached, which are order[0 .. result - 1].
+         */
+        int run(int source) {
+            // reset the vertices reached by the previous search
+            for (int i = 0; i < lastReached; i++) {
+                distances[order[i]] = UNREACHED;
+            }
+            distances[source] = 0;
+            paths[source] = 1;
+            int reached = 0;
+            if (lengths == null) {
+                order[reached++] = source;
+                for (int head = 0; head < reached; head++) {
+                    int v = order[head];
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        int w = targets[e];
+                        if (distances[w] == UNREACHED) {
+                            distances[w] = distances[v] + 1;
+                            paths[w] = 0;
+                            order[reached++] = w;
+                        }
+                        if (distances[w] == distances[v] + 1) {
+                            paths[w] += paths[v];
+                        }
+                    }
+                }
+                lastReached = reached;
+                return reached;
+            }
+            heap.update(source, 0);
+            while (!heap.isEmpty()) {
+                int v = heap.remove();
+                order[reached++] = v;
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    long distance = distances[v] + lengths[e];
+                    if (distances[w] == UNREACHED || distance < distances[w]) {
+                        distances[w] = distance;
+                        paths[w] = paths[v];
+                        heap.update(w, distance);
+                    } else if (distance == distances[w]) {
+                        paths[w] += paths[v];
+                    }
+                }
+            }
+            lastReached = reached;
+            return reached;
+        }
+
+        /**
+         * Adds the dependency of source on every other vertex to accumulator.
+         */
+        void accumulateDependencies(int source, double[] accumulator) {
+            int reached = run(source);
+
+            // visit vertices farthest first; a shortest path edge v -> w is one with
+            // distances[w] == distances[v] + length, so no predecessor lists are needed
+            for (int i = reached - 1; i >= 0; i--) {
+                int v = order[i];
+                double dependency = 0;
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    if (distances[w] != UNREACHED && distances[w] == distances[v] + length(e)) {
+                        dependency += paths[v] / paths[w] * (1 + dependencies[w]);
+                    }
+                }
+                dependencies[v] = dependency;
+                if (v != source) {
+                    accumulator[v] += dependency;
+                }
+            }
+        }
+    }
+}
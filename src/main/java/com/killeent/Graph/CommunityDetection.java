@@ -0,0 +1,678 @@
+package com.killeent.Graph;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Community detection on a weighted, undirected {@link CompactGraph} by modularity
+ * optimization, with the Louvain method (Blondel et al., "Fast unfolding of communities in
+ * large networks", 2008) and its Leiden refinement (Traag, Waltman and van Eck, "From Louvain
+ * to Leiden: guaranteeing well-connected communities", 2019).
+ *
+ * Both repeat two phases. First, vertices are moved one at a time to the neighbouring
+ * community that increases modularity most, until no move helps. Then every community is
+ * contracted to a single vertex and the process repeats on the smaller graph. Leiden adds a
+ * refinement phase in between: each community is split into well-connected sub-communities
+ * by merging singletons within it, the sub-communities are contracted instead, and the
+ * communities found by moving seed the next level. This prevents the badly connected, even
+ * disconnected, communities Louvain can produce.
+ *
+ * The communities, degrees and community totals are kept in primitive arrays indexed by
+ * vertex id. Moving is parallel: vertices are visited in a seeded random order, one colour
+ * class of a greedy colouring at a time, in fixed size batches whose best moves are found in
+ * parallel and then checked and applied in order. Refinement runs in parallel over
+ * communities, and contraction over the contracted vertices. None of the work depends on how
+ * it is split between threads, so the result depends only on the graph and the seed.
+ */
+public class CommunityDetection {
+
+    // Vertices whose moves are evaluated against the same community state
+    private static final int BATCH = 1024;
+
+    private static final int GRAIN = 64;
+
+    // Moves a vertex into an empty community of its own
+    private static final int ALONE = -1;
+
+    // Upper bounds that guarantee termination in the face of rounding
+    private static final int MAX_PASSES = 50;
+    private static final int MAX_LEVELS = 50;
+
+    private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+        @Override
+        protected Scratch initialValue() {
+            return new Scratch();
+        }
+    };
+
+    private CommunityDetection() {
+    }
+
+    /**
+     * Finds communities with the Louvain method.
+     *
+     * @param g The graph to cluster; edge values are the (non-negative) edge weights.
+     * @param resolution The resolution parameter; values above 1 favour smaller communities.
+     * @param seed The seed for the order vertices are visited in.
+     * @throws java.lang.IllegalArgumentException if g is null or directed, an edge weight is
+     * negative or not finite, or resolution is not positive.
+     * @return The communities.
+     */
+    public static <V extends Comparable<V>, E extends Number & Comparable<E>>
+            CommunityStructure<V, E> louvain(CompactGraph<V, E> g, double resolution, long seed) {
+        return detect(g, resolution, seed, false);
+    }
+
+    /**
+     * Finds communities with the Leiden algorithm. Sub-communities are merged greedily, which
+     * is the Leiden refinement with randomness parameter theta tending to 0.
+     *
+     * @param g The graph to cluster; edge values are the (non-negative) edge weights.
+     * @param resolution The resolution parameter; values above 1 favour smaller communities.
+     * @param seed The seed for the order vertices are visited in.
+     * @throws java.lang.IllegalArgumentException if g is null or directed, an edge weight is
+     * negative or not finite, or resolution is not positive.
+     * @return The communities.
+     */
+    public static <V extends Comparable<V>, E extends Number & Comparable<E>>
+            CommunityStructure<V, E> leiden(CompactGraph<V, E> g, double resolution, long seed) {
+        return detect(g, resolution, seed, true);
+    }
+
+    /**
+     * Computes the modularity of a division of the graph into communities.
+     *
+     * @param g The graph; edge values are the (non-negative) edge weights.
+     * @param communities The community of each vertex id, in [0, n).
+     * @param resolution The resolution parameter.
+     * @throws java.lang.IllegalArgumentException if g or communities is null, g is directed,
+     * an edge weight is negative, or communities does not assign every vertex a community in
+     * [0, n).
+     * @return The modularity, in [-1/2, 1] for resolution 1; 0 for a graph without edges.
+     */
+    public static double modularity(CompactGraph<?, ? extends Number> g, int[] communities,
+                                    double resolution) {
+        Level level = Level.of(g);
+        if (communities == null || communities.length != level.n) {
+            throw new IllegalArgumentException("communities must have one entry per vertex");
+        }
+        for (int c : communities) {
+            if (c < 0 || c >= level.n) {
+                throw new IllegalArgumentException("community out of range: " + c);
+            }
+        }
+        return modularity(level, communities, resolution);
+    }
+
+    private static <V extends Comparable<V>, E extends Number & Comparable<E>>
+            CommunityStructure<V, E> detect(CompactGraph<V, E> g, double resolution, long seed,
+                                            boolean refine) {
+        if (!(resolution > 0)) {
+            throw new IllegalArgumentException("resolution must be positive");
+        }
+        Level base = Level.of(g);
+        Random random = new Random(seed);
+
+        // mapping[v] is the vertex of the current level that contains vertex v of the graph
+        int[] mapping = identity(base.n);
+        Level level = base;
+        int[] initial = null;
+        int[] communities;
+        for (int depth = 0; ; depth++) {
+            communities = initial != null ? initial : identity(level.n);
+            int[] order = permutation(level.n, random);
+            int moves = moveVertices(level, communities, order, resolution);
+            if ((moves == 0 && initial == null) || depth == MAX_LEVELS - 1) {
+                break;
+            }
+            int[] membership;
+            int[] parents = null;
+            if (refine) {
+                membership = refine(level, communities, order, resolution);
+                int count = renumber(membership);
+                parents = new int[count];
+                for (int v = 0; v < level.n; v++) {
+                    parents[membership[v]] = communities[v];
+                }
+                renumber(parents);
+            } else {
+                membership = communities.clone();
+                renumber(membership);
+            }
+            if (moves == 0 && (parents == null || parents.length == level.n)) {
+                // nothing moved, and there is nothing left to contract
+                break;
+            }
+            for (int v = 0; v < base.n; v++) {
+                mapping[v] = membership[mapping[v]];
+            }
+            level = level.contract(membership, max(membership) + 1);
+            initial = parents;
+        }
+
+        int[] result = new int[base.n];
+        for (int v = 0; v < base.n; v++) {
+            result[v] = communities[mapping[v]];
+        }
+        int count = renumber(result);
+        Level aggregate = base.contract(result, count);
+        return new CommunityStructure<V, E>(g, result, count, modularity(base, result, resolution),
+                aggregate.offsets, aggregate.targets, aggregate.weights, aggregate.loops);
+    }
+
+    /**
+     * Repeatedly moves vertices to the neighbouring community with the largest modularity
+     * gain, updating communities in place.
+     *
+     * The vertices are visited one colour class of a greedy colouring at a time, in batches
+     * whose best moves are found in parallel. Vertices in a batch are not adjacent, so the
+     * edge weights each one sees into the communities stay exact while the batch is applied;
+     * only the community totals can change, so every move is checked against the current
+     * totals before it is made. Each move therefore increases modularity.
+     *
+     * @return The number of moves made.
+     */
+    private static int moveVertices(final Level level, final int[] communities, int[] order,
+                                    final double resolution) {
+        final double[] totals = new double[level.n];
+        final int[] sizes = new int[level.n];
+        for (int v = 0; v < level.n; v++) {
+            totals[communities[v]] += level.degrees[v];
+            sizes[communities[v]]++;
+        }
+        if (level.total == 0) {
+            return 0;
+        }
+        // the community ids no vertex is in, for vertices that leave to be alone
+        IntList empty = new IntList();
+        for (int c = level.n - 1; c >= 0; c--) {
+            if (sizes[c] == 0) {
+                empty.add(c);
+            }
+        }
+        final int[] vertices = order.clone();
+        int[] colourStarts = colourClasses(level, vertices);
+        final int[] targets = new int[Math.min(BATCH, level.n)];
+        final double[] ownWeights = new double[targets.length];
+        final double[] targetWeights = new double[targets.length];
+        int moves = 0;
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            int passMoves = 0;
+            for (int colour = 0; colour + 1 < colourStarts.length; colour++) {
+                for (int start = colourStarts[colour]; start < colourStarts[colour + 1];
+                     start += BATCH) {
+                    final int batchStart = start;
+                    int batchEnd = Math.min(colourStarts[colour + 1], start + BATCH);
+                    Parallel.forRange(0, batchEnd - start, GRAIN, new Parallel.RangeAction() {
+                        @Override
+                        public void apply(int from, int to) {
+                            Scratch scratch = SCRATCH.get();
+                            scratch.ensure(level.n);
+                            for (int i = from; i < to; i++) {
+                                int v = vertices[batchStart + i];
+                                targets[i] = bestCommunity(level, v, communities, totals,
+                                        sizes, resolution, scratch);
+                                ownWeights[i] = scratch.ownWeight;
+                                targetWeights[i] = scratch.targetWeight;
+                            }
+                        }
+                    });
+                    for (int i = 0; i < batchEnd - start; i++) {
+                        int v = vertices[start + i];
+                        int from = communities[v];
+                        int to = targets[i];
+                        if (to == from) {
+                            continue;
+                        }
+                        double degree = level.degrees[v];
+                        double scale = resolution * degree / level.total;
+                        double stay = ownWeights[i] - scale * (totals[from] - degree);
+                        if (to == ALONE) {
+                            // a vertex already alone has nowhere to go; any other vertex
+                            // shares its community, so one of the n community ids is free
+                            if (sizes[from] == 1 || !(stay < 0)) {
+                                continue;
+                            }
+                            to = empty.removeLast();
+                        } else if (!(targetWeights[i] - scale * totals[to] > stay)) {
+                            // another vertex of the batch made the move worse
+                            continue;
+                        }
+                        totals[from] -= degree;
+                        totals[to] += degree;
+                        sizes[from]--;
+                        sizes[to]++;
+                        if (sizes[from] == 0) {
+                            empty.add(from);
+                        }
+                        communities[v] = to;
+                        passMoves++;
+                    }
+                }
+            }
+            moves += passMoves;
+            if (passMoves == 0) {
+                break;
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Colours the vertices greedily, giving each the smallest colour none of its neighbours
+     * has, and sorts order by colour, keeping the order within each colour.
+     *
+     * @return The start of each colour class in order, followed by the number of vertices.
+     */
+    private static int[] colourClasses(Level level, int[] order) {
+        int[] colours = new int[level.n];
+        Arrays.fill(colours, -1);
+        // used[c] == v marks colour c as taken by a neighbour of v
+        int[] used = new int[level.n + 1];
+        Arrays.fill(used, -1);
+        int count = 0;
+        for (int v : order) {
+            for (int e = level.offsets[v]; e < level.offsets[v + 1]; e++) {
+                int colour = colours[level.targets[e]];
+                if (colour >= 0) {
+                    used[colour] = v;
+                }
+            }
+            int colour = 0;
+            while (used[colour] == v) {
+                colour++;
+            }
+            colours[v] = colour;
+            count = Math.max(count, colour + 1);
+        }
+
+        int[] starts = new int[count + 1];
+        for (int v = 0; v < level.n; v++) {
+            starts[colours[v] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            starts[c + 1] += starts[c];
+        }
+        int[] next = Arrays.copyOf(starts, count);
+        int[] sorted = new int[level.n];
+        for (int v : order) {
+            sorted[next[colours[v]]++] = v;
+        }
+        System.arraycopy(sorted, 0, order, 0, level.n);
+        return starts;
+    }
+
+    /**
+     * Finds the community v gains most modularity by joining, and records the weight of the
+     * edges from v to its own community and to that one in the scratch space.
+     *
+     * @return The best community, v's own if no move gains anything, or {@link #ALONE} if v
+     * gains most by leaving for an empty community.
+     */
+    private static int bestCommunity(Level level, int v, int[] communities, double[] totals,
+                                     int[] sizes, double resolution, Scratch scratch) {
+        int own = communities[v];
+        double[] weights = scratch.weights;
+        IntList touched = scratch.touched;
+        for (int e = level.offsets[v]; e < level.offsets[v + 1]; e++) {
+            scratch.add(communities[level.targets[e]], level.weights[e]);
+        }
+        double scale = resolution * level.degrees[v] / level.total;
+        int best = own;
+        double bestGain = weights[own] - scale * (totals[own] - level.degrees[v]);
+        for (int i = 0; i < touched.size(); i++) {
+            int c = touched.get(i);
+            double gain = weights[c] - scale * totals[c];
+            if (c != own && gain > bestGain) {
+                best = c;
+                bestGain = gain;
+            }
+        }
+        scratch.ownWeight = weights[own];
+        scratch.targetWeight = weights[best];
+        scratch.clear();
+        return bestGain < 0 && sizes[own] > 1 ? ALONE : best;
+    }
+
+    /**
+     * Splits every community into well-connected sub-communities: starting from singletons,
+     * each vertex that is still a singleton and is well connected to the rest of its
+     * community joins the well-connected sub-community it gains most modularity by joining.
+     *
+     * @return The sub-community of each vertex, named by one of its vertices.
+     */
+    private static int[] refine(final Level level, final int[] communities, int[] order,
+                                final double resolution) {
+        final int n = level.n;
+        final double[] communityTotals = new double[n];
+        for (int v = 0; v < n; v++) {
+            communityTotals[communities[v]] += level.degrees[v];
+        }
+
+        // the members of each community, in visiting order
+        final int[] starts = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            starts[communities[v] + 1]++;
+        }
+        for (int c = 0; c < n; c++) {
+            starts[c + 1] += starts[c];
+        }
+        final int[] members = new int[n];
+        int[] next = Arrays.copyOf(starts, n);
+        for (int v : order) {
+            members[next[communities[v]]++] = v;
+        }
+
+        final int[] refined = identity(n);
+        final double[] totals = level.degrees.clone();
+        final int[] sizes = new int[n];
+        Arrays.fill(sizes, 1);
+        // external[c] is the weight of the edges from sub-community c to the rest of its
+        // community
+        final double[] external = new double[n];
+        Parallel.forRange(0, n, Parallel.grain(n, GRAIN), new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                Scratch scratch = SCRATCH.get();
+                scratch.ensure(n);
+                double[] weights = scratch.weights;
+                IntList touched = scratch.touched;
+                for (int c = from; c < to; c++) {
+                    for (int i = starts[c]; i < starts[c + 1]; i++) {
+                        int v = members[i];
+                        for (int e = level.offsets[v]; e < level.offsets[v + 1]; e++) {
+                            if (communities[level.targets[e]] == c) {
+                                external[v] += level.weights[e];
+                            }
+                        }
+                    }
+                    double communityTotal = communityTotals[c];
+                    double scale = resolution / level.total;
+                    for (int i = starts[c]; i < starts[c + 1]; i++) {
+                        int v = members[i];
+                        double degree = level.degrees[v];
+                        if (sizes[v] != 1 || refined[v] != v
+                                || external[v] < scale * degree * (communityTotal - degree)) {
+                            continue;
+                        }
+                        for (int e = level.offsets[v]; e < level.offsets[v + 1]; e++) {
+                            int w = level.targets[e];
+                            if (communities[w] == c) {
+                                scratch.add(refined[w], level.weights[e]);
+                            }
+                        }
+                        int best = -1;
+                        double bestGain = 0;
+                        for (int j = 0; j < touched.size(); j++) {
+                            int sub = touched.get(j);
+                            double subTotal = totals[sub];
+                            if (external[sub] < scale * subTotal * (communityTotal - subTotal)) {
+                                continue;
+                            }
+                            double gain = weights[sub] - scale * degree * totals[sub];
+                            if (gain > bestGain) {
+                                best = sub;
+                                bestGain = gain;
+                            }
+                        }
+                        if (best >= 0) {
+                            refined[v] = best;
+                            sizes[v] = 0;
+                            sizes[best]++;
+                            totals[best] += degree;
+                            external[best] += external[v] - 2 * weights[best];
+                        }
+                        scratch.clear();
+                    }
+                }
+            }
+        });
+        return refined;
+    }
+
+    /**
+     * Computes the modularity of a division of a level into communities.
+     */
+    private static double modularity(Level level, int[] communities, double resolution) {
+        if (level.total == 0) {
+            return 0;
+        }
+        double[] internal = new double[level.n];
+        double[] totals = new double[level.n];
+        for (int v = 0; v < level.n; v++) {
+            int c = communities[v];
+            totals[c] += level.degrees[v];
+            internal[c] += 2 * level.loops[v];
+            for (int e = level.offsets[v]; e < level.offsets[v + 1]; e++) {
+                if (communities[level.targets[e]] == c) {
+                    internal[c] += level.weights[e];
+                }
+            }
+        }
+        double result = 0;
+        for (int c = 0; c < level.n; c++) {
+            double fraction = totals[c] / level.total;
+            result += internal[c] / level.total - resolution * fraction * fraction;
+        }
+        return result;
+    }
+
+    /**
+     * Renames the labels in place to 0, 1, ... in order of first appearance.
+     *
+     * @return The number of distinct labels.
+     */
+    private static int renumber(int[] labels) {
+        int[] names = new int[max(labels) + 1];
+        Arrays.fill(names, -1);
+        int count = 0;
+        for (int i = 0; i < labels.length; i++) {
+            if (names[labels[i]] < 0) {
+                names[labels[i]] = count++;
+            }
+            labels[i] = names[labels[i]];
+        }
+        return count;
+    }
+
+    private static int max(int[] values) {
+        int max = -1;
+        for (int value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    private static int[] identity(int n) {
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = i;
+        }
+        return result;
+    }
+
+    private static int[] permutation(int n, Random random) {
+        int[] result = identity(n);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = result[i];
+            result[i] = result[j];
+            result[j] = temp;
+        }
+        return result;
+    }
+
+    /**
+     * Per-thread accumulator for the edge weight from one vertex into each community.
+     */
+    private static class Scratch {
+
+        double[] weights = new double[0];
+        boolean[] marked = new boolean[0];
+        final IntList touched = new IntList();
+
+        // the results of the last call to bestCommunity
+        double ownWeight;
+        double targetWeight;
+
+        void ensure(int n) {
+            if (weights.length < n) {
+                weights = new double[n];
+                marked = new boolean[n];
+            }
+        }
+
+        /**
+         * Adds weight to the entry of c; edges of weight 0 still mark c as touched.
+         */
+        void add(int c, double weight) {
+            if (!marked[c]) {
+                marked[c] = true;
+                touched.add(c);
+            }
+            weights[c] += weight;
+        }
+
+        void clear() {
+            for (int i = 0; i < touched.size(); i++) {
+                weights[touched.get(i)] = 0;
+                marked[touched.get(i)] = false;
+            }
+            touched.clear();
+        }
+    }
+
+    /**
+     * One level of the hierarchy: a weighted undirected graph in CSR form with every edge
+     * stored in both directions, and the weight of the edges inside each (contracted) vertex
+     * as a self loop. The degree of a vertex counts its loop twice.
+     */
+    private static class Level {
+
+        final int n;
+        final int[] offsets;
+        final int[] targets;
+        final double[] weights;
+        final double[] loops;
+        final double[] degrees;
+
+        // twice the total edge weight
+        final double total;
+
+        Level(int[] offsets, int[] targets, double[] weights, double[] loops) {
+            this.n = loops.length;
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            this.loops = loops;
+            this.degrees = new double[n];
+            double sum = 0;
+            for (int v = 0; v < n; v++) {
+                degrees[v] = 2 * loops[v];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    degrees[v] += weights[e];
+                }
+                sum += degrees[v];
+            }
+            this.total = sum;
+        }
+
+        /**
+         * Copies the weights of a graph, ignoring self loops and summing parallel edges.
+         */
+        static Level of(CompactGraph<?, ? extends Number> g) {
+            if (g == null) {
+                throw new IllegalArgumentException("null graph");
+            }
+            if (g.isDirected()) {
+                throw new IllegalArgumentException("community detection requires an "
+                        + "undirected graph");
+            }
+            double[] weights = g.doubleWeights("edge weight", 0);
+            int n = g.size();
+            for (int v = 0; v < n; v++) {
+                for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                    // self loops are ignored
+                    if (g.targets[e] == v) {
+                        weights[e] = 0;
+                    }
+                }
+            }
+            int[] identity = identity(n);
+            return new Level(g.offsets, g.targets, weights, new double[n]).contract(identity, n);
+        }
+
+        /**
+         * Contracts every set of vertices with the same membership into one vertex; edges
+         * inside a set become part of its loop, and edges between two sets are summed.
+         *
+         * @param membership The vertex of the contracted level each vertex belongs to.
+         * @param size The number of vertices of the contracted level.
+         */
+        Level contract(final int[] membership, final int size) {
+            final int[] starts = new int[size + 1];
+            for (int v = 0; v < n; v++) {
+                starts[membership[v] + 1]++;
+            }
+            for (int c = 0; c < size; c++) {
+                starts[c + 1] += starts[c];
+            }
+            final int[] members = new int[n];
+            int[] next = Arrays.copyOf(starts, size);
+            for (int v = 0; v < n; v++) {
+                members[next[membership[v]]++] = v;
+            }
+
+            final int[][] coarseTargets = new int[size][];
+            final double[][] coarseWeights = new double[size][];
+            final double[] coarseLoops = new double[size];
+            Parallel.forRange(0, size, Parallel.grain(size, GRAIN), new Parallel.RangeAction() {
+                @Override
+                public void apply(int from, int to) {
+                    Scratch scratch = SCRATCH.get();
+                    scratch.ensure(size);
+                    double[] sums = scratch.weights;
+                    IntList touched = scratch.touched;
+                    for (int c = from; c < to; c++) {
+                        double loop = 0;
+                        for (int i = starts[c]; i < starts[c + 1]; i++) {
+                            int v = members[i];
+                            loop += loops[v];
+                            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                                int d = membership[targets[e]];
+                                if (d == c) {
+                                    // seen from both ends
+                                    loop += weights[e] / 2;
+                                } else {
+                                    scratch.add(d, weights[e]);
+                                }
+                            }
+                        }
+                        coarseLoops[c] = loop;
+                        coarseTargets[c] = new int[touched.size()];
+                        coarseWeights[c] = new double[touched.size()];
+                        for (int i = 0; i < touched.size(); i++) {
+                            coarseTargets[c][i] = touched.get(i);
+                            coarseWeights[c][i] = sums[touched.get(i)];
+                        }
+                        scratch.clear();
+                    }
+                }
+            });
+
+            int[] newOffsets = new int[size + 1];
+            for (int c = 0; c < size; c++) {
+                newOffsets[c + 1] = newOffsets[c] + coarseTargets[c].length;
+            }
+            int[] newTargets = new int[newOffsets[size]];
+            double[] newWeights = new double[newOffsets[size]];
+            for (int c = 0; c < size; c++) {
+                System.arraycopy(coarseTargets[c], 0, newTargets, newOffsets[c],
+                        coarseTargets[c].length);
+                System.arraycopy(coarseWeights[c], 0, newWeights, newOffsets[c],
+                        coarseWeights[c].length);
+            }
+            return new Level(newOffsets, newTargets, newWeights, coarseLoops);
+        }
+    }
+}
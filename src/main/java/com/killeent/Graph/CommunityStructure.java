@@ -0,0 +1,128 @@
+package com.killeent.Graph;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The result of community detection over a {@link CompactGraph}; see
+ * {@link CommunityDetection}. Communities are numbered 0, 1, ... in order of their smallest
+ * vertex id. The aggregated community graph has one vertex per community, and the summed
+ * weight of the edges between two communities as the value of the edge joining them.
+ */
+public class CommunityStructure<V extends Comparable<V>, E extends Comparable<E>> {
+
+    private final CompactGraph<V, E> graph;
+    private final int[] communities;
+    private final int count;
+    private final double modularity;
+
+    // the aggregated graph, in CSR form with every edge stored in both directions
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final double[] internalWeights;
+
+    CommunityStructure(CompactGraph<V, E> graph, int[] communities, int count, double modularity,
+                       int[] offsets, int[] targets, double[] weights, double[] internalWeights) {
+        this.graph = graph;
+        this.communities = communities;
+        this.count = count;
+        this.modularity = modularity;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.internalWeights = internalWeights;
+    }
+
+    /**
+     * @return The graph that was clustered.
+     */
+    public CompactGraph<V, E> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return The community of each vertex id, in [0, count()). The array is not copied and
+     * should not be modified.
+     */
+    public int[] getCommunities() {
+        return communities;
+    }
+
+    /**
+     * @return The number of communities.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return The modularity of the communities, at the resolution they were found with.
+     */
+    public double getModularity() {
+        return modularity;
+    }
+
+    /**
+     * @param vertex The vertex to look up.
+     * @throws java.lang.IllegalArgumentException if vertex is null or not in the graph.
+     * @return The community of vertex.
+     */
+    public int community(V vertex) {
+        return communities[graph.id(vertex)];
+    }
+
+    /**
+     * @param community A community number.
+     * @throws java.lang.IllegalArgumentException if community is not in [0, count()).
+     * @return The vertices in the community.
+     */
+    public Set<V> members(int community) {
+        checkCommunity(community);
+        Set<V> result = new HashSet<V>();
+        for (int v = 0; v < communities.length; v++) {
+            if (communities[v] == community) {
+                result.add(graph.vertex(v));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param community A community number.
+     * @throws java.lang.IllegalArgumentException if community is not in [0, count()).
+     * @return The total weight of the edges with both endpoints in the community.
+     */
+    public double internalWeight(int community) {
+        checkCommunity(community);
+        return internalWeights[community];
+    }
+
+    /**
+     * Builds the aggregated community graph. Edges inside a community are not part of it;
+     * see {@link #internalWeight(int)}.
+     *
+     * @return A new graph with the vertices 0 .. count() - 1, and an edge between every two
+     * communities joined by an edge, valued with the total weight of the edges between them.
+     */
+    public UndirectedGraph<Integer, Double> getAggregateGraph() {
+        UndirectedGraph<Integer, Double> result = new UndirectedHashGraph<Integer, Double>();
+        for (int c = 0; c < count; c++) {
+            result.addVertex(c);
+        }
+        for (int c = 0; c < count; c++) {
+            for (int e = offsets[c]; e < offsets[c + 1]; e++) {
+                if (c < targets[e]) {
+                    result.addEdge(c, targets[e], weights[e]);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void checkCommunity(int community) {
+        if (community < 0 || community >= count) {
+            throw new IllegalArgumentException("no such community: " + community);
+        }
+    }
+}
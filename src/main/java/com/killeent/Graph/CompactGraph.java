@@ -0,0 +1,417 @@
+package com.killeent.Graph;
+
+import java.util.*;
+
+/**
+ * An immutable, array-based snapshot of a {@link SimpleLabeledGraph}. Vertices are assigned
+ * dense integer ids in [0, size()) and the edges are stored in compressed sparse row (CSR)
+ * form, so the outgoing edges of vertex i are targets[offsets[i]] .. targets[offsets[i+1] - 1].
+ *
+ * The snapshot is intended for algorithms that touch every edge many times: it avoids
+ * hashing vertices and iterating linked lists in the inner loops. Later changes to the
+ * source graph are not reflected in the snapshot.
+ */
+public class CompactGraph<V extends Comparable<V>, E extends Comparable<E>> {
+
+    private final VertexIndex<V> index;
+    private final boolean directed;
+
+    // CSR representation of the outgoing edges
+    final int[] offsets;
+    final int[] targets;
+    final E[] values;
+
+    // CSR representation of the incoming edges; built on demand for directed graphs
+    private volatile int[] inOffsets;
+    private volatile int[] inSources;
+
+    // the reverse direction of every edge of an undirected graph; built on demand
+    private int[] twins;
+
+    /**
+     * Creates a snapshot of the passed graph.
+     *
+     * An undirected graph that is being modified by other threads may be caught with an edge
+     * at one endpoint only, and {@link #twins()} then fails; take the snapshot with
+     * {@link ConcurrentUndirectedHashGraph#snapshot()} instead.
+     *
+     * @param g The graph to copy.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     */
+    @SuppressWarnings("unchecked")
+    public CompactGraph(SimpleLabeledGraph<V, E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        directed = !(g instanceof UndirectedGraph);
+        if (g instanceof MappedGraph) {
+            // a graph file is already in CSR form with sorted vertex ids, so the edge arrays
+            // are bulk copies and no Edge objects are created
+            MappedGraph<V, E> mapped = (MappedGraph<V, E>) g;
+            int n = mapped.size();
+            index = new VertexIndex<V>(n);
+            for (int i = 0; i < n; i++) {
+                index.intern(mapped.vertex(i));
+            }
+            offsets = new int[n + 1];
+            mapped.offsets.duplicate().get(offsets);
+            targets = new int[mapped.edgeCount()];
+            mapped.targets.duplicate().get(targets);
+            values = (E[]) new Comparable<?>[targets.length];
+            for (int e = 0; e < targets.length; e++) {
+                values[e] = mapped.value(e);
+            }
+            return;
+        }
+        // copy the vertices and take every neighbor collection exactly once, so a graph that
+        // is modified concurrently (see ConcurrentDirectedHashGraph) yields a snapshot in
+        // which every vertex's edges were current at some point; edges to vertices added after
+        // the vertex set was copied are left out
+        List<V> vertexList = new ArrayList<V>(g.vertices());
+        Collection<Edge<V, E>>[] neighbors =
+                (Collection<Edge<V, E>>[]) new Collection<?>[vertexList.size()];
+        for (int i = 0; i < neighbors.length; i++) {
+            neighbors[i] = g.neighbors(vertexList.get(i));
+        }
+        CompactGraph<V, E> copy = of(vertexList, neighbors, directed);
+        index = copy.index;
+        offsets = copy.offsets;
+        targets = copy.targets;
+        values = copy.values;
+    }
+
+    /**
+     * Builds a snapshot from copies of the vertices and of their neighbor collections; the
+     * neighbors of vertexList.get(i) are neighbors[i]. Edges to vertices that are not in the
+     * list are left out.
+     */
+    @SuppressWarnings("unchecked")
+    static <V extends Comparable<V>, E extends Comparable<E>> CompactGraph<V, E> of(
+            List<V> vertexList, Collection<Edge<V, E>>[] neighbors, boolean directed) {
+        int n = vertexList.size();
+        VertexIndex<V> index = new VertexIndex<V>(n);
+        for (V vertex : vertexList) {
+            index.intern(vertex);
+        }
+        // first pass computes the offsets, second pass fills in the edges
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            int degree = 0;
+            for (Edge<V, E> edge : neighbors[i]) {
+                if (index.contains(edge.getDestination())) {
+                    degree++;
+                }
+            }
+            offsets[i + 1] = offsets[i] + degree;
+        }
+        int[] targets = new int[offsets[n]];
+        E[] values = (E[]) new Comparable<?>[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            int position = offsets[i];
+            for (Edge<V, E> edge : neighbors[i]) {
+                int target = index.id(edge.getDestination());
+                if (target >= 0) {
+                    targets[position] = target;
+                    values[position] = edge.getValue();
+                    position++;
+                }
+            }
+        }
+        return new CompactGraph<V, E>(index, directed, offsets, targets, values);
+    }
+
+    /**
+     * Wraps CSR arrays that were built directly, e.g. by {@link EdgeListLoader}. The arrays
+     * are not copied.
+     */
+    CompactGraph(VertexIndex<V> index, boolean directed, int[] offsets, int[] targets,
+                 E[] values) {
+        this.index = index;
+        this.directed = directed;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.values = values;
+    }
+
+    /**
+     * @return The number of vertices in the graph.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * @return The number of (directed) edges in the graph. Every edge of an undirected graph is
+     * counted once in each direction.
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * @return True if the snapshot was taken from a directed graph, otherwise false.
+     */
+    public boolean isDirected() {
+        return directed;
+    }
+
+    /**
+     * Returns the id of the specified vertex.
+     *
+     * @param vertex The vertex to look up.
+     * @throws java.lang.IllegalArgumentException if vertex is null or is not in the graph.
+     * @return The id of the vertex.
+     */
+    public int id(V vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("vertex cannot be null");
+        }
+        int id = index.id(vertex);
+        if (id < 0) {
+            throw new IllegalArgumentException("vertex not in graph");
+        }
+        return id;
+    }
+
+    /**
+     * @return True if the vertex is in the graph, otherwise false.
+     */
+    public boolean containsVertex(V vertex) {
+        return index.contains(vertex);
+    }
+
+    /**
+     * @return The vertex with the specified id.
+     */
+    public V vertex(int id) {
+        return index.vertex(id);
+    }
+
+    /**
+     * @return The number of edges leaving the vertex with the specified id.
+     */
+    public int outDegree(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * @return The number of edges entering the vertex with the specified id.
+     */
+    public int inDegree(int id) {
+        int[] in = inOffsets();
+        return in[id + 1] - in[id];
+    }
+
+    /**
+     * @return The id of the target of the ith edge leaving the specified vertex.
+     */
+    public int target(int id, int i) {
+        return targets[offsets[id] + i];
+    }
+
+    /**
+     * @return The value of the ith edge leaving the specified vertex.
+     */
+    public E value(int id, int i) {
+        return values[offsets[id] + i];
+    }
+
+    /**
+     * @return The value of the edge at the specified position of the CSR arrays.
+     */
+    E value(int e) {
+        return values[e];
+    }
+
+    /**
+     * Reads the edge values of a graph with integral edge values, in CSR order.
+     *
+     * The values array is created as a Comparable[] and E is erased, so a caller that knows E
+     * is Integer cannot use the array as an Integer[]: the cast fails at runtime. Algorithms
+     * that need numeric edge values read them through this method or {@link #doubleWeights},
+     * which cast one value at a time.
+     *
+     * @param what What the values mean, for the error message, e.g. "edge weight".
+     * @param min The smallest value allowed.
+     * @throws java.lang.IllegalArgumentException if a value is less than min.
+     * @return The values, as longs.
+     */
+    long[] weights(String what, long min) {
+        long[] weights = new long[values.length];
+        for (int e = 0; e < weights.length; e++) {
+            weights[e] = ((Number) values[e]).longValue();
+            if (weights[e] < min) {
+                throw new IllegalArgumentException(what + " less than " + min + ": "
+                        + weights[e]);
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Reads the edge values of a graph with numeric edge values, in CSR order; see
+     * {@link #weights}.
+     *
+     * @param what What the values mean, for the error message, e.g. "edge weight".
+     * @param min The smallest value allowed.
+     * @throws java.lang.IllegalArgumentException if a value is less than min, or is not finite.
+     * @return The values, as doubles.
+     */
+    double[] doubleWeights(String what, double min) {
+        double[] weights = new double[values.length];
+        for (int e = 0; e < weights.length; e++) {
+            weights[e] = ((Number) values[e]).doubleValue();
+            if (!(weights[e] >= min) || Double.isInfinite(weights[e])) {
+                throw new IllegalArgumentException(what + " not a finite number of at least "
+                        + min + ": " + weights[e]);
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * @return The id of the source of the ith edge entering the specified vertex.
+     */
+    public int source(int id, int i) {
+        return inSources()[inOffsets()[id] + i];
+    }
+
+    /**
+     * @return The CSR offsets of the incoming edges. For undirected graphs these are the
+     * outgoing offsets.
+     */
+    int[] inOffsets() {
+        if (!directed) {
+            return offsets;
+        }
+        if (inOffsets == null) {
+            buildTranspose();
+        }
+        return inOffsets;
+    }
+
+    /**
+     * @return The sources of the incoming edges, indexed by {@link #inOffsets()}. For undirected
+     * graphs these are the outgoing targets.
+     */
+    int[] inSources() {
+        if (!directed) {
+            return targets;
+        }
+        if (inOffsets == null) {
+            buildTranspose();
+        }
+        return inSources;
+    }
+
+    /**
+     * Pairs up the two directions of every edge of an undirected graph: if edge e goes from u
+     * to v, then twins()[e] is an edge from v to u. Parallel edges are paired one-to-one.
+     *
+     * The edges are bucketed by their (smaller, larger) endpoint pair with two stable counting
+     * sorts, so this takes linear time.
+     *
+     * @throws java.lang.IllegalStateException if the graph is directed.
+     */
+    synchronized int[] twins() {
+        if (directed) {
+            throw new IllegalStateException("twins are only defined for undirected graphs");
+        }
+        if (twins != null) {
+            return twins;
+        }
+        int n = index.size();
+        int m = targets.length;
+        int[] sources = new int[m];
+        for (int i = 0; i < n; i++) {
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                sources[e] = i;
+            }
+        }
+
+        // sort by the larger endpoint, then stably by the smaller one
+        int[] byHigh = countingSort(null, sources, m, n, true);
+        int[] byPair = countingSort(byHigh, sources, m, n, false);
+
+        int[] result = new int[m];
+        int[] forward = new int[m];
+        int[] backward = new int[m];
+        for (int i = 0; i < m; ) {
+            int low = Math.min(sources[byPair[i]], targets[byPair[i]]);
+            int high = Math.max(sources[byPair[i]], targets[byPair[i]]);
+            int forwardCount = 0;
+            int backwardCount = 0;
+            int j = i;
+            while (j < m && Math.min(sources[byPair[j]], targets[byPair[j]]) == low
+                    && Math.max(sources[byPair[j]], targets[byPair[j]]) == high) {
+                int e = byPair[j++];
+                if (sources[e] == low) {
+                    forward[forwardCount++] = e;
+                } else {
+                    backward[backwardCount++] = e;
+                }
+            }
+            if (forwardCount != backwardCount) {
+                throw new IllegalStateException("undirected graph has unpaired edges");
+            }
+            for (int k = 0; k < forwardCount; k++) {
+                result[forward[k]] = backward[k];
+                result[backward[k]] = forward[k];
+            }
+            i = j;
+        }
+        twins = result;
+        return twins;
+    }
+
+    /**
+     * Stably sorts edge ids by the larger (high) or smaller endpoint.
+     *
+     * @param order The edge ids to sort, or null for 0 .. m - 1.
+     */
+    private int[] countingSort(int[] order, int[] sources, int m, int n, boolean high) {
+        int[] counts = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            int key = high ? Math.max(sources[e], targets[e]) : Math.min(sources[e], targets[e]);
+            counts[key + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            counts[i + 1] += counts[i];
+        }
+        int[] result = new int[m];
+        for (int i = 0; i < m; i++) {
+            int e = order == null ? i : order[i];
+            int key = high ? Math.max(sources[e], targets[e]) : Math.min(sources[e], targets[e]);
+            result[counts[key]++] = e;
+        }
+        return result;
+    }
+
+    /**
+     * Builds the CSR representation of the incoming edges using a counting sort on the edge
+     * targets.
+     */
+    private synchronized void buildTranspose() {
+        if (inOffsets != null) {
+            return;
+        }
+        int n = index.size();
+        int[] in = new int[n + 1];
+        for (int e = 0; e < targets.length; e++) {
+            in[targets[e] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            in[i + 1] += in[i];
+        }
+        int[] position = new int[n];
+        System.arraycopy(in, 0, position, 0, n);
+        int[] sources = new int[targets.length];
+        for (int i = 0; i < n; i++) {
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                sources[position[targets[e]]++] = i;
+            }
+        }
+        inSources = sources;
+        inOffsets = in;
+    }
+}
@@ -0,0 +1,62 @@
+package com.killeent.Graph;
+
+/**
+ * An immutable, array-based snapshot of a {@link TemporalGraph}, taken by
+ * {@link TemporalGraph#compact()}. It is a {@link CompactGraph} whose edges also carry a
+ * timestamp, so every static algorithm can run on the graph of all its edges; the outgoing
+ * edges of every vertex are sorted by time, so the time-respecting searches of
+ * {@link TemporalPaths} find the edges leaving a vertex after a given time by binary search.
+ *
+ * Unlike a snapshot of a {@link SimpleLabeledGraph}, the graph may hold several edges between
+ * the same two vertices.
+ */
+public class CompactTemporalGraph<V extends Comparable<V>, E extends Comparable<E>>
+        extends CompactGraph<V, E> {
+
+    // the timestamp of every edge, in the same order as the targets
+    final long[] times;
+
+    CompactTemporalGraph(VertexIndex<V> index, boolean directed, int[] offsets, int[] targets,
+                         E[] values, long[] times) {
+        super(index, directed, offsets, targets, values);
+        this.times = times;
+    }
+
+    /**
+     * @param id A vertex id.
+     * @param i The index of one of its outgoing edges, in [0, outDegree(id)).
+     * @return The timestamp of the i'th outgoing edge of the vertex.
+     */
+    public long time(int id, int i) {
+        return times[offsets[id] + i];
+    }
+
+    /**
+     * Finds the first outgoing edge of a vertex with a time of at least the passed one, by
+     * binary search.
+     *
+     * @param id A vertex id.
+     * @param time The time to look for.
+     * @return The index i in [0, outDegree(id)] of the first edge with time(id, i) >= time, or
+     * outDegree(id) if there is none.
+     */
+    public int firstAtOrAfter(int id, long time) {
+        return lowerBound(offsets[id], offsets[id + 1], time) - offsets[id];
+    }
+
+    /**
+     * @return The first position in [from, to) of the times array with a time of at least the
+     * passed one, or to if there is none.
+     */
+    int lowerBound(int from, int to, long time) {
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (times[middle] < time) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+}
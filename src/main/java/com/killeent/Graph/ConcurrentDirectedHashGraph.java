@@ -0,0 +1,39 @@
+package com.killeent.Graph;
+
+/**
+ * A simple, directed graph G = (V, E) that has no self-loops or multi-edges and can be
+ * safely modified and read by many threads at once.
+ *
+ * Every vertex has its own lock, so threads adding edges out of different vertices never
+ * block each other, and {@link #neighbors} returns a lock-free snapshot of the vertex's
+ * outgoing edges.
+ */
+public class ConcurrentDirectedHashGraph<V extends Comparable<V>, E extends Comparable<E>>
+        extends ConcurrentHashGraph<V, E> implements DirectedGraph<V, E> {
+
+    public ConcurrentDirectedHashGraph() {
+        super();
+    }
+
+    @Override
+    public void addEdge(V vertexA, V vertexB, E value) {
+        Adjacency<V, E> source = endpoints(vertexA, vertexB, value)[0];
+        if (vertexA.equals(vertexB)) {
+            throw new IllegalArgumentException("no self edges allowed");
+        }
+        Edge<V, E> candidate = new Edge<V, E>(vertexA, vertexB, value);
+        synchronized (source) {
+            if (!source.containsLocked(candidate)) {
+                source.add(candidate);
+            }
+        }
+    }
+
+    @Override
+    public boolean removeEdge(V vertexA, V vertexB, E value) {
+        Adjacency<V, E> source = endpoints(vertexA, vertexB, value)[0];
+        synchronized (source) {
+            return source.remove(new Edge<V, E>(vertexA, vertexB, value));
+        }
+    }
+}
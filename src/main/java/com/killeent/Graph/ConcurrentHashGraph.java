@@ -0,0 +1,257 @@
+package com.killeent.Graph;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared implementation of the thread-safe hash graphs. Vertices live in a
+ * {@link java.util.concurrent.ConcurrentHashMap}, and every vertex owns a copy-on-write list
+ * of its outgoing edges guarded by its own lock, so writers only contend when they modify the
+ * same vertex. Readers never lock: {@link #neighbors} returns the snapshot of the list that
+ * was current when it was called, which later writes never modify.
+ */
+abstract class ConcurrentHashGraph<V extends Comparable<V>, E extends Comparable<E>>
+        implements SimpleLabeledGraph<V, E> {
+
+    /**
+     * The adjacency list of a single vertex. Writers hold the monitor of the Adjacency and
+     * publish a new {@link Snapshot} through the volatile field.
+     *
+     * The edges are kept in fixed-size blocks, copy-on-write per block: an append writes into
+     * a slot that no published snapshot can see and publishes a larger size, so it takes O(1)
+     * amortized time; a removal moves the last edge into the hole, copying only the blocks it
+     * changes and the block list. Once a vertex has more than a few edges, writers find edges
+     * through a hash map of their positions instead of scanning, so ingesting the edges of a
+     * hub is linear rather than quadratic in its degree.
+     */
+    static final class Adjacency<V extends Comparable<V>, E extends Comparable<E>> {
+
+        private static final int SHIFT = 6;
+        private static final int BLOCK = 1 << SHIFT;
+        private static final int MASK = BLOCK - 1;
+
+        // the degree above which writers index the positions of the edges
+        private static final int INDEXED = 16;
+
+        // Lock order for operations that modify two adjacency lists
+        final long order;
+        volatile Snapshot<V, E> edges;
+
+        // the position of every edge once there are more than INDEXED; only used by writers
+        private Map<Edge<V, E>, Integer> positions;
+
+        Adjacency(long order) {
+            this.order = order;
+            this.edges = new Snapshot<V, E>(new Object[0][], 0);
+        }
+
+        /**
+         * Scans the current snapshot for an edge; safe to call without the monitor.
+         */
+        boolean contains(Edge<V, E> edge) {
+            for (Edge<V, E> candidate : edges) {
+                if (candidate.equals(edge)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Checks for an edge in O(1) time for indexed lists. Must be called while holding the
+         * monitor.
+         */
+        boolean containsLocked(Edge<V, E> edge) {
+            return indexOf(edge) >= 0;
+        }
+
+        /**
+         * Appends an edge. Must be called while holding the monitor.
+         */
+        void add(Edge<V, E> edge) {
+            Snapshot<V, E> current = edges;
+            int size = current.size;
+            Object[][] blocks = current.blocks;
+            int block = size >>> SHIFT;
+            if (block == blocks.length) {
+                blocks = Arrays.copyOf(blocks, Math.max(1, blocks.length * 2));
+            }
+            if (blocks[block] == null) {
+                blocks[block] = new Object[BLOCK];
+            }
+            blocks[block][size & MASK] = edge;
+            edges = new Snapshot<V, E>(blocks, size + 1);
+            if (positions != null) {
+                positions.put(edge, size);
+            } else if (size + 1 > INDEXED) {
+                positions = new HashMap<Edge<V, E>, Integer>();
+                for (int i = 0; i <= size; i++) {
+                    positions.put(edges.get(i), i);
+                }
+            }
+        }
+
+        /**
+         * Removes an edge, moving the last edge into its place. Must be called while holding
+         * the monitor.
+         *
+         * @return True if the edge was present, otherwise false.
+         */
+        boolean remove(Edge<V, E> edge) {
+            int i = indexOf(edge);
+            if (i < 0) {
+                return false;
+            }
+            Snapshot<V, E> current = edges;
+            int last = current.size - 1;
+            // published snapshots still read the old blocks, so every changed block is copied,
+            // including the last one, whose freed slot the next append will reuse
+            Object[][] blocks = current.blocks.clone();
+            Object[] lastBlock = blocks[last >>> SHIFT].clone();
+            blocks[last >>> SHIFT] = lastBlock;
+            Object moved = lastBlock[last & MASK];
+            lastBlock[last & MASK] = null;
+            if (i != last) {
+                Object[] block = (i >>> SHIFT) == (last >>> SHIFT) ? lastBlock
+                        : blocks[i >>> SHIFT].clone();
+                blocks[i >>> SHIFT] = block;
+                block[i & MASK] = moved;
+            }
+            edges = new Snapshot<V, E>(blocks, last);
+            if (positions != null) {
+                positions.remove(edge);
+                if (i != last) {
+                    positions.put(edges.get(i), i);
+                }
+            }
+            return true;
+        }
+
+        private int indexOf(Edge<V, E> edge) {
+            if (positions != null) {
+                Integer position = positions.get(edge);
+                return position == null ? -1 : position;
+            }
+            Snapshot<V, E> current = edges;
+            for (int i = 0; i < current.size; i++) {
+                if (current.get(i).equals(edge)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * An immutable view of the first size edges of a list of blocks. The slots it covers are
+     * never written again.
+     */
+    static final class Snapshot<V extends Comparable<V>, E extends Comparable<E>>
+            extends AbstractList<Edge<V, E>> implements RandomAccess {
+
+        final Object[][] blocks;
+        final int size;
+
+        Snapshot(Object[][] blocks, int size) {
+            this.blocks = blocks;
+            this.size = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Edge<V, E> get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index: " + index);
+            }
+            return (Edge<V, E>) blocks[index >>> Adjacency.SHIFT][index & Adjacency.MASK];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    protected final ConcurrentMap<V, Adjacency<V, E>> graph;
+    private final AtomicLong nextOrder;
+
+    protected ConcurrentHashGraph() {
+        graph = new ConcurrentHashMap<V, Adjacency<V, E>>();
+        nextOrder = new AtomicLong();
+    }
+
+    @Override
+    public void addVertex(V vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("vertex cannot be null");
+        }
+        if (!graph.containsKey(vertex)) {
+            graph.putIfAbsent(vertex, new Adjacency<V, E>(nextOrder.getAndIncrement()));
+        }
+    }
+
+    @Override
+    public boolean containsVertex(V vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("vertex cannot be null");
+        }
+        return graph.containsKey(vertex);
+    }
+
+    @Override
+    public Set<V> vertices() {
+        return Collections.unmodifiableSet(graph.keySet());
+    }
+
+    @Override
+    public boolean containsEdge(V vertexA, V vertexB, E edge) {
+        if (vertexA == null || vertexB == null || edge == null) {
+            throw new IllegalArgumentException("arguments cannot be null");
+        }
+        Adjacency<V, E> adjacency = graph.get(vertexA);
+        return adjacency != null && graph.containsKey(vertexB)
+                && adjacency.contains(new Edge<V, E>(vertexA, vertexB, edge));
+    }
+
+    /**
+     * Returns a snapshot of the edges connected to the specified vertex. The snapshot is not
+     * affected by later changes to the graph, and iterating it takes no locks.
+     */
+    @Override
+    public Collection<Edge<V, E>> neighbors(V vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("vertex cannot be null");
+        }
+        Adjacency<V, E> adjacency = graph.get(vertex);
+        if (adjacency == null) {
+            throw new IllegalArgumentException("vertex not in graph");
+        }
+        return Collections.unmodifiableList(adjacency.edges);
+    }
+
+    @Override
+    public void clear() {
+        graph.clear();
+    }
+
+    /**
+     * Looks up the adjacency lists of both endpoints of an edge, validating the arguments.
+     */
+    @SuppressWarnings("unchecked")
+    protected Adjacency<V, E>[] endpoints(V vertexA, V vertexB, E edge) {
+        if (vertexA == null || vertexB == null || edge == null) {
+            throw new IllegalArgumentException("arguments cannot be null");
+        }
+        Adjacency<V, E> a = graph.get(vertexA);
+        if (a == null) {
+            throw new IllegalArgumentException("vertexA not in the graph");
+        }
+        Adjacency<V, E> b = graph.get(vertexB);
+        if (b == null) {
+            throw new IllegalArgumentException("vertexB not in the graph");
+        }
+        return (Adjacency<V, E>[]) new Adjacency<?, ?>[] {a, b};
+    }
+}
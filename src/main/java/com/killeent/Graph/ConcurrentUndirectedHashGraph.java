@@ -0,0 +1,91 @@
+package com.killeent.Graph;
+
+import java.util.*;
+
+/**
+ * A simple, undirected graph G = (V, E) that has no self-loops or multi-edges and can be
+ * safely modified and read by many threads at once.
+ *
+ * Every vertex has its own lock. Adding or removing an edge locks both endpoints, always in
+ * the order the vertices were created, so both directions of an edge appear and disappear
+ * together without risk of deadlock. {@link #neighbors} returns a lock-free snapshot.
+ */
+public class ConcurrentUndirectedHashGraph<V extends Comparable<V>, E extends Comparable<E>>
+        extends ConcurrentHashGraph<V, E> implements UndirectedGraph<V, E> {
+
+    public ConcurrentUndirectedHashGraph() {
+        super();
+    }
+
+    @Override
+    public void addEdge(V vertexA, V vertexB, E edge) {
+        Adjacency<V, E>[] endpoints = endpoints(vertexA, vertexB, edge);
+        if (vertexA.equals(vertexB)) {
+            throw new IllegalArgumentException("no self edges allowed");
+        }
+        Edge<V, E> forward = new Edge<V, E>(vertexA, vertexB, edge);
+        Adjacency<V, E> first = first(endpoints);
+        Adjacency<V, E> second = first == endpoints[0] ? endpoints[1] : endpoints[0];
+        synchronized (first) {
+            synchronized (second) {
+                if (!endpoints[0].containsLocked(forward)) {
+                    endpoints[0].add(forward);
+                    endpoints[1].add(new Edge<V, E>(vertexB, vertexA, edge));
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean removeEdge(V vertexA, V vertexB, E edge) {
+        Adjacency<V, E>[] endpoints = endpoints(vertexA, vertexB, edge);
+        Adjacency<V, E> first = first(endpoints);
+        Adjacency<V, E> second = first == endpoints[0] ? endpoints[1] : endpoints[0];
+        synchronized (first) {
+            synchronized (second) {
+                return endpoints[0].remove(new Edge<V, E>(vertexA, vertexB, edge)) &&
+                        endpoints[1].remove(new Edge<V, E>(vertexB, vertexA, edge));
+            }
+        }
+    }
+
+    /**
+     * Takes a snapshot in which every edge appears in both directions, as
+     * {@link CompactGraph#twins()} and the algorithms built on it need. The snapshot copies
+     * the neighbors of one vertex at a time, so an edge added or removed between the copies
+     * of its two endpoints would be seen at one end only; such an edge is left out. The
+     * {@link CompactGraph} constructor does not pair the edges this way.
+     *
+     * @return A snapshot of the graph.
+     */
+    @SuppressWarnings("unchecked")
+    public CompactGraph<V, E> snapshot() {
+        List<V> vertexList = new ArrayList<V>(vertices());
+        int n = vertexList.size();
+        Collection<Edge<V, E>>[] neighbors = (Collection<Edge<V, E>>[]) new Collection<?>[n];
+        Set<Edge<V, E>> copied = new HashSet<Edge<V, E>>();
+        for (int i = 0; i < n; i++) {
+            neighbors[i] = neighbors(vertexList.get(i));
+            copied.addAll(neighbors[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            List<Edge<V, E>> paired = new ArrayList<Edge<V, E>>(neighbors[i].size());
+            for (Edge<V, E> edge : neighbors[i]) {
+                if (copied.contains(new Edge<V, E>(edge.getDestination(), edge.getSource(),
+                        edge.getValue()))) {
+                    paired.add(edge);
+                }
+            }
+            neighbors[i] = paired;
+        }
+        return CompactGraph.of(vertexList, neighbors, false);
+    }
+
+    /**
+     * @return The endpoint whose lock must be taken first.
+     */
+    private static <V extends Comparable<V>, E extends Comparable<E>> Adjacency<V, E> first(
+            Adjacency<V, E>[] endpoints) {
+        return endpoints[0].order < endpoints[1].order ? endpoints[0] : endpoints[1];
+    }
+}
@@ -0,0 +1,91 @@
+package com.killeent.Graph;
+
+import com.killeent.UnionFind.ConcurrentUnionFind;
+
+/**
+ * Finds the connected components of a {@link CompactGraph} with a
+ * {@link com.killeent.UnionFind.ConcurrentUnionFind}. The edges are split into ranges that are
+ * united in parallel, without locks, and the vertices are then labelled with the component
+ * of their root, also in parallel. Edge direction is ignored, so for a directed graph the
+ * result is its weakly connected components.
+ */
+public class ConnectedComponents {
+
+    private static final int GRAIN = 4096;
+
+    private ConnectedComponents() {
+    }
+
+    /**
+     * Labels the connected components of the graph. Components are numbered in order of their
+     * smallest vertex id, so the labelling does not depend on thread scheduling.
+     *
+     * @param g The graph to decompose.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return The component of each vertex id, in [0, count).
+     */
+    public static int[] label(CompactGraph<?, ?> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        final int n = g.size();
+        final int[] offsets = g.offsets;
+        final int[] targets = g.targets;
+        final boolean directed = g.isDirected();
+        final ConcurrentUnionFind sets = new ConcurrentUnionFind(n);
+        Parallel.forRange(0, n, Parallel.grain(n, GRAIN), new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int v = from; v < to; v++) {
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        int w = targets[e];
+                        // an undirected edge is stored from both ends; one union is enough
+                        if (directed || v < w) {
+                            sets.union(v, w);
+                        }
+                    }
+                }
+            }
+        });
+
+        final int[] roots = new int[n];
+        Parallel.forRange(0, n, Parallel.grain(n, GRAIN), new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int v = from; v < to; v++) {
+                    roots[v] = sets.find(v);
+                }
+            }
+        });
+
+        // the first vertex seen with a root names the component; roots are vertex ids, so the
+        // label of a component can be stored at its root
+        int[] labels = new int[n];
+        int[] rootLabels = new int[n];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            int root = roots[v];
+            if (rootLabels[root] == 0) {
+                rootLabels[root] = ++count;
+            }
+            labels[v] = rootLabels[root] - 1;
+        }
+        return labels;
+    }
+
+    /**
+     * @param components A labelling returned by {@link #label}.
+     * @throws java.lang.IllegalArgumentException if components is null.
+     * @return The number of components in the labelling.
+     */
+    public static int count(int[] components) {
+        if (components == null) {
+            throw new IllegalArgumentException("null components");
+        }
+        int max = -1;
+        for (int component : components) {
+            max = Math.max(max, component);
+        }
+        return max + 1;
+    }
+}
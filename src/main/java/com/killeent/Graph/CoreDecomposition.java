@@ -0,0 +1,90 @@
+package com.killeent.Graph;
+
+/**
+ * Computes the core number of every vertex of an undirected {@link CompactGraph}: the
+ * largest k such that the vertex belongs to the k-core, the maximal subgraph in which every
+ * vertex has at least k neighbours. Self loops and parallel edges are ignored.
+ *
+ * Uses the O(n + m) algorithm of Batagelj and Zaversnik ("An O(m) Algorithm for Cores
+ * Decomposition of Networks", 2003): the vertices are kept bucket-sorted by their current
+ * degree, and repeatedly the vertex of lowest degree is removed, taking that degree as its
+ * core number and moving each remaining neighbour down one bucket in constant time. The
+ * peeling itself is sequential; building the sorted adjacency snapshot runs in parallel.
+ */
+public class CoreDecomposition {
+
+    private CoreDecomposition() {
+    }
+
+    /**
+     * @param g The graph to decompose.
+     * @throws java.lang.IllegalArgumentException if g is null or directed.
+     * @return The core number of each vertex id.
+     */
+    public static int[] coreNumbers(CompactGraph<?, ?> g) {
+        SortedAdjacency adjacency = SortedAdjacency.of(g, "core decomposition");
+        int n = adjacency.n;
+        int[] degrees = new int[n];
+        int maxDegree = 0;
+        for (int v = 0; v < n; v++) {
+            degrees[v] = adjacency.degree(v);
+            maxDegree = Math.max(maxDegree, degrees[v]);
+        }
+
+        // bin sort the vertices by degree; starts[d] is the first position of degree d
+        int[] starts = new int[maxDegree + 2];
+        for (int v = 0; v < n; v++) {
+            starts[degrees[v] + 1]++;
+        }
+        for (int d = 0; d <= maxDegree; d++) {
+            starts[d + 1] += starts[d];
+        }
+        int[] order = new int[n];
+        int[] positions = new int[n];
+        int[] next = new int[maxDegree + 1];
+        System.arraycopy(starts, 0, next, 0, maxDegree + 1);
+        for (int v = 0; v < n; v++) {
+            positions[v] = next[degrees[v]]++;
+            order[positions[v]] = v;
+        }
+
+        // degrees[v] becomes the core number of v once v is removed
+        for (int i = 0; i < n; i++) {
+            int v = order[i];
+            for (int e = adjacency.offsets[v]; e < adjacency.offsets[v + 1]; e++) {
+                int w = adjacency.targets[e];
+                if (degrees[w] > degrees[v]) {
+                    // swap w with the first vertex of its bin, then shrink the bin past it
+                    int dw = degrees[w];
+                    int first = order[starts[dw]];
+                    if (first != w) {
+                        int pw = positions[w];
+                        order[pw] = first;
+                        positions[first] = pw;
+                        order[starts[dw]] = w;
+                        positions[w] = starts[dw];
+                    }
+                    starts[dw]++;
+                    degrees[w]--;
+                }
+            }
+        }
+        return degrees;
+    }
+
+    /**
+     * @param coreNumbers The core numbers returned by {@link #coreNumbers}.
+     * @throws java.lang.IllegalArgumentException if coreNumbers is null.
+     * @return The degeneracy of the graph: its largest core number, or 0 if it is empty.
+     */
+    public static int degeneracy(int[] coreNumbers) {
+        if (coreNumbers == null) {
+            throw new IllegalArgumentException("null core numbers");
+        }
+        int max = 0;
+        for (int core : coreNumbers) {
+            max = Math.max(max, core);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,199 @@
+package com.killeent.Graph;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Level-synchronous parallel breadth first search over a {@link CompactGraph}, following
+ * Beamer et al., "Direction-Optimizing Breadth-First Search" (SC 2012).
+ *
+ * Each level is expanded either top-down (every frontier vertex claims its unvisited
+ * out-neighbors) or bottom-up (every unvisited vertex looks for a parent among its
+ * in-neighbors in the frontier). Bottom-up steps are much cheaper once the frontier covers a
+ * large fraction of the edges, which is typical for the middle levels of low-diameter graphs.
+ * Frontiers are stored as bitsets so switching between the two directions is free.
+ */
+final class DirectionOptimizingBFS {
+
+    // Switch to bottom-up once the frontier has more than 1/ALPHA of the unexplored edges
+    static final int ALPHA = 14;
+
+    // Switch back to top-down once the frontier has fewer than 1/BETA of the vertices
+    static final int BETA = 24;
+
+    // Minimum number of bitset words handled by a single task
+    private static final int WORD_GRAIN = 64;
+
+    private DirectionOptimizingBFS() {
+    }
+
+    /**
+     * Runs BFS from source, filling in the distance and parent of every vertex. Unreachable
+     * vertices have distance and parent -1, as does the parent of the source.
+     *
+     * @param g The graph to search.
+     * @param source The id of the start vertex.
+     * @param distances Output array of size g.size().
+     * @param parents Output array of size g.size().
+     */
+    static void search(final CompactGraph<?, ?> g, int source, final int[] distances,
+                       final int[] parents) {
+        final int n = g.size();
+        final int words = (n + 63) >>> 6;
+        Arrays.fill(distances, -1);
+        Arrays.fill(parents, -1);
+
+        final AtomicLongArray visited = new AtomicLongArray(words);
+        AtomicLongArray frontier = new AtomicLongArray(words);
+        visited.set(source >>> 6, 1L << source);
+        frontier.set(source >>> 6, 1L << source);
+        distances[source] = 0;
+
+        long frontierEdges = g.outDegree(source);
+        long unexploredEdges = g.edgeCount() - frontierEdges;
+        long frontierSize = 1;
+        boolean bottomUp = false;
+        int level = 0;
+
+        while (frontierSize > 0) {
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontierSize < n / BETA) {
+                bottomUp = false;
+            }
+            level++;
+
+            AtomicLongArray next = new AtomicLongArray(words);
+            if (bottomUp) {
+                frontierEdges = bottomUpStep(g, level, frontier, next, visited, distances, parents);
+            } else {
+                frontierEdges = topDownStep(g, level, frontier, next, visited, distances, parents);
+            }
+            unexploredEdges -= frontierEdges;
+            frontierSize = count(next);
+            frontier = next;
+        }
+    }
+
+    /**
+     * Expands the frontier by scanning the out-edges of every frontier vertex. Vertices are
+     * claimed by atomically setting their visited bit, so each vertex gets exactly one parent.
+     *
+     * @return The sum of the out-degrees of the new frontier.
+     */
+    private static long topDownStep(final CompactGraph<?, ?> g, final int level,
+                                    final AtomicLongArray frontier, final AtomicLongArray next,
+                                    final AtomicLongArray visited, final int[] distances,
+                                    final int[] parents) {
+        final int[] offsets = g.offsets;
+        final int[] targets = g.targets;
+        return Parallel.sum(0, frontier.length(), WORD_GRAIN, new Parallel.RangeSum() {
+            @Override
+            public long apply(int from, int to) {
+                long edges = 0;
+                for (int w = from; w < to; w++) {
+                    long bits = frontier.get(w);
+                    while (bits != 0) {
+                        int u = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                            int v = targets[e];
+                            if (setBit(visited, v)) {
+                                parents[v] = u;
+                                distances[v] = level;
+                                setBit(next, v);
+                                edges += offsets[v + 1] - offsets[v];
+                            }
+                        }
+                    }
+                }
+                return edges;
+            }
+        });
+    }
+
+    /**
+     * Expands the frontier by having every unvisited vertex search its in-edges for a vertex
+     * in the frontier. Tasks own whole bitset words, so no atomic updates are needed.
+     *
+     * @return The sum of the out-degrees of the new frontier.
+     */
+    private static long bottomUpStep(final CompactGraph<?, ?> g, final int level,
+                                     final AtomicLongArray frontier, final AtomicLongArray next,
+                                     final AtomicLongArray visited, final int[] distances,
+                                     final int[] parents) {
+        final int n = g.size();
+        final int[] offsets = g.offsets;
+        final int[] inOffsets = g.inOffsets();
+        final int[] inSources = g.inSources();
+        return Parallel.sum(0, frontier.length(), WORD_GRAIN, new Parallel.RangeSum() {
+            @Override
+            public long apply(int from, int to) {
+                long edges = 0;
+                for (int w = from; w < to; w++) {
+                    long seen = visited.get(w);
+                    long unvisited = ~seen;
+                    if (w == (n - 1) >>> 6 && (n & 63) != 0) {
+                        unvisited &= (1L << (n & 63)) - 1;
+                    }
+                    long found = 0;
+                    while (unvisited != 0) {
+                        int bit = Long.numberOfTrailingZeros(unvisited);
+                        unvisited &= unvisited - 1;
+                        int v = (w << 6) + bit;
+                        for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+                            int u = inSources[e];
+                            if ((frontier.get(u >>> 6) & (1L << u)) != 0) {
+                                parents[v] = u;
+                                distances[v] = level;
+                                found |= 1L << bit;
+                                edges += offsets[v + 1] - offsets[v];
+                                break;
+                            }
+                        }
+                    }
+                    if (found != 0) {
+                        visited.set(w, seen | found);
+                        next.set(w, found);
+                    }
+                }
+                return edges;
+            }
+        });
+    }
+
+    /**
+     * Atomically sets the specified bit.
+     *
+     * @return True if this call set the bit, false if it was already set.
+     */
+    private static boolean setBit(AtomicLongArray bits, int index) {
+        int w = index >>> 6;
+        long mask = 1L << index;
+        while (true) {
+            long current = bits.get(w);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (bits.compareAndSet(w, current, current | mask)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return The number of set bits.
+     */
+    private static long count(final AtomicLongArray bits) {
+        return Parallel.sum(0, bits.length(), WORD_GRAIN * 16, new Parallel.RangeSum() {
+            @Override
+            public long apply(int from, int to) {
+                long count = 0;
+                for (int w = from; w < to; w++) {
+                    count += Long.bitCount(bits.get(w));
+                }
+                return count;
+            }
+        });
+    }
+}
@@ -0,0 +1,570 @@
+package com.killeent.Graph;
+
+import com.killeent.PriorityQueue.IndexedHeap;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * An immutable landmark-based distance oracle over a {@link CompactGraph}, answering
+ * approximate shortest distance queries in time proportional to the number of landmarks.
+ *
+ * A few landmark vertices are chosen, and the distances from every landmark to every vertex
+ * (and, in directed graphs, from every vertex to every landmark) are computed with one
+ * search per landmark, in parallel. By the triangle inequality, d(u, v) lies between
+ *
+ *   lower: max over landmarks L of d(L, v) - d(L, u) and d(u, L) - d(v, L)
+ *   upper: min over landmarks L of d(u, L) + d(L, v)
+ *
+ * The upper bound is the usual estimate for ranking; the lower bound is consistent, so it is
+ * an A* heuristic that never overestimates (see {@link Graphs#aStarPath}). A lower bound of
+ * {@link #INFINITE} proves that u does not reach v, while an upper bound of
+ * {@link #INFINITE} only means that no landmark lies on a path from u to v.
+ *
+ * Distances are either hop counts ({@link #unweighted}) or sums of non-negative integer edge
+ * weights ({@link #weighted}), and are stored as ints, with the landmarks of a vertex next
+ * to each other so a query touches few cache lines. An oracle can be written to a file with
+ * {@link #write} and memory-mapped back with {@link #open}; the file stores vertices by
+ * their rank in sorted order, so it can be opened over any snapshot of the same graph.
+ *
+ * Queries are thread-safe.
+ */
+public class DistanceOracle<V extends Comparable<V>, E extends Comparable<E>> {
+
+    /**
+     * The distance between vertices that are not connected.
+     */
+    public static final long INFINITE = Long.MAX_VALUE;
+
+    private static final int MAGIC = 0x4B47444F;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 5 * 4;
+
+    // Marks an unreachable vertex in the distance tables
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final CompactGraph<V, E> graph;
+    private final boolean weighted;
+    private final int landmarkCount;
+    private final int[] landmarks;
+
+    // the row of the tables holding each vertex id, or null if rows are vertex ids
+    private final int[] rows;
+
+    // forward[row * landmarkCount + l] is the distance from landmark l to the vertex, and
+    // backward[...] the distance from the vertex to landmark l; the same buffer for
+    // undirected graphs
+    private final IntBuffer forward;
+    private final IntBuffer backward;
+
+    private DistanceOracle(CompactGraph<V, E> graph, boolean weighted, int[] landmarks,
+                           int[] rows, IntBuffer forward, IntBuffer backward) {
+        this.graph = graph;
+        this.weighted = weighted;
+        this.landmarkCount = landmarks.length;
+        this.landmarks = landmarks;
+        this.rows = rows;
+        this.forward = forward;
+        this.backward = backward;
+    }
+
+    /**
+     * Builds an oracle over hop counts, with one breadth first search per landmark.
+     *
+     * @param g The graph to index.
+     * @param landmarks The number of landmarks; more landmarks give tighter bounds but take
+     *                  more memory and slower queries. At most g.size() are used.
+     * @throws java.lang.IllegalArgumentException if g is null, landmarks is not positive, or
+     * the distance tables would not fit in an array.
+     * @return The oracle.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> DistanceOracle<V, E>
+            unweighted(CompactGraph<V, E> g, int landmarks) {
+        return build(g, landmarks, null);
+    }
+
+    /**
+     * Builds an oracle over edge weights, with one run of Dijkstra's algorithm per landmark.
+     *
+     * @param g The graph to index.
+     * @param landmarks The number of landmarks; more landmarks give tighter bounds but take
+     *                  more memory and slower queries. At most g.size() are used.
+     * @throws java.lang.IllegalArgumentException if g is null, landmarks is not positive, an
+     * edge weight is negative, a distance does not fit in an int, or the distance tables
+     * would not fit in an array.
+     * @return The oracle.
+     */
+    public static <V extends Comparable<V>> DistanceOracle<V, Integer> weighted(
+            CompactGraph<V, Integer> g, int landmarks) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        // the values are Integers, so the checked weights fit in the int tables
+        long[] values = g.weights("edge weight", 0);
+        int[] weights = new int[values.length];
+        for (int e = 0; e < weights.length; e++) {
+            weights[e] = (int) values[e];
+        }
+        return build(g, landmarks, weights);
+    }
+
+    /**
+     * @param weights The weight of every edge, or null to count hops.
+     */
+    private static <V extends Comparable<V>, E extends Comparable<E>> DistanceOracle<V, E>
+            build(CompactGraph<V, E> g, int landmarkCount, int[] weights) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        if (landmarkCount <= 0) {
+            throw new IllegalArgumentException("landmark count must be positive");
+        }
+        final int n = g.size();
+        final int[] landmarks = chooseLandmarks(g, Math.min(landmarkCount, n));
+        final int count = landmarks.length;
+        if ((long) n * count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many landmarks for the graph size");
+        }
+
+        final int[] offsets = g.offsets;
+        final int[] targets = g.targets;
+        final int[] forwardWeights = weights;
+        final int[] forward = new int[n * count];
+        final int[] backward;
+        final int[] inOffsets;
+        final int[] inSources;
+        final int[] inWeights;
+        if (g.isDirected()) {
+            backward = new int[n * count];
+            inOffsets = new int[n + 1];
+            inSources = new int[targets.length];
+            inWeights = weights == null ? null : new int[targets.length];
+            transpose(offsets, targets, weights, inOffsets, inSources, inWeights);
+        } else {
+            backward = null;
+            inOffsets = null;
+            inSources = null;
+            inWeights = null;
+        }
+
+        Parallel.forRange(0, count, 1, new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                int[] distances = new int[n];
+                int[] queue = new int[n];
+                IndexedHeap heap = forwardWeights == null ? null : new IndexedHeap(n);
+                for (int l = from; l < to; l++) {
+                    search(offsets, targets, forwardWeights, landmarks[l], distances, queue,
+                            heap);
+                    store(distances, forward, l, count);
+                    if (backward != null) {
+                        search(inOffsets, inSources, inWeights, landmarks[l], distances, queue,
+                                heap);
+                        store(distances, backward, l, count);
+                    }
+                }
+            }
+        });
+        IntBuffer forwardBuffer = IntBuffer.wrap(forward);
+        return new DistanceOracle<V, E>(g, weights != null, landmarks, null, forwardBuffer,
+                backward == null ? forwardBuffer : IntBuffer.wrap(backward));
+    }
+
+    /**
+     * Chooses the landmarks in order of decreasing degree, skipping the neighbours of the
+     * landmarks already chosen so they are spread over the graph. High-degree vertices lie on
+     * many shortest paths, which keeps the upper bounds tight.
+     */
+    private static int[] chooseLandmarks(CompactGraph<?, ?> g, int count) {
+        final int[] degrees = new int[g.size()];
+        Integer[] order = new Integer[g.size()];
+        for (int v = 0; v < degrees.length; v++) {
+            degrees[v] = g.outDegree(v);
+            order[v] = v;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return degrees[a] != degrees[b] ? degrees[b] - degrees[a] : a - b;
+            }
+        });
+        int[] result = new int[count];
+        int chosen = 0;
+        boolean[] excluded = new boolean[degrees.length];
+        for (int pass = 0; pass < 2 && chosen < count; pass++) {
+            // the second pass fills up with neighbours if there were not enough others
+            for (int i = 0; i < order.length && chosen < count; i++) {
+                int v = order[i];
+                if (excluded[v] && (pass == 0 || contains(result, chosen, v))) {
+                    continue;
+                }
+                result[chosen++] = v;
+                excluded[v] = true;
+                for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                    excluded[g.targets[e]] = true;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds the CSR representation of the reversed edges, carrying the weights along.
+     */
+    private static void transpose(int[] offsets, int[] targets, int[] weights, int[] inOffsets,
+                                  int[] inSources, int[] inWeights) {
+        int n = offsets.length - 1;
+        for (int target : targets) {
+            inOffsets[target + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            inOffsets[i + 1] += inOffsets[i];
+        }
+        int[] position = Arrays.copyOf(inOffsets, n);
+        for (int i = 0; i < n; i++) {
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                int slot = position[targets[e]]++;
+                inSources[slot] = i;
+                if (weights != null) {
+                    inWeights[slot] = weights[e];
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the distance from the source to every vertex, by breadth first search if
+     * weights is null and by Dijkstra's algorithm otherwise.
+     */
+    private static void search(int[] offsets, int[] targets, int[] weights, int source,
+                               int[] distances, int[] queue, IndexedHeap heap) {
+        Arrays.fill(distances, UNREACHED);
+        distances[source] = 0;
+        if (weights == null) {
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = source;
+            while (head < tail) {
+                int v = queue[head++];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    if (distances[targets[e]] == UNREACHED) {
+                        distances[targets[e]] = distances[v] + 1;
+                        queue[tail++] = targets[e];
+                    }
+                }
+            }
+            return;
+        }
+        heap.clear();
+        heap.update(source, 0);
+        while (!heap.isEmpty()) {
+            int v = heap.remove();
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                long distance = (long) distances[v] + weights[e];
+                if (distance < distances[targets[e]]) {
+                    if (distance >= UNREACHED) {
+                        throw new IllegalArgumentException("distance too large for an oracle");
+                    }
+                    distances[targets[e]] = (int) distance;
+                    heap.update(targets[e], distance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the distances from landmark l into its column of the table.
+     */
+    private static void store(int[] distances, int[] table, int l, int count) {
+        for (int v = 0; v < distances.length; v++) {
+            table[v * count + l] = distances[v];
+        }
+    }
+
+    /**
+     * @return The graph the oracle answers queries on.
+     */
+    public CompactGraph<V, E> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return True if distances are sums of edge weights, false if they are hop counts.
+     */
+    public boolean isWeighted() {
+        return weighted;
+    }
+
+    /**
+     * @return The number of landmarks.
+     */
+    public int landmarkCount() {
+        return landmarkCount;
+    }
+
+    /**
+     * @return The ith landmark, in [0, landmarkCount()).
+     */
+    public V landmark(int i) {
+        if (i < 0 || i >= landmarkCount) {
+            throw new IllegalArgumentException("no such landmark: " + i);
+        }
+        return graph.vertex(landmarks[i]);
+    }
+
+    /**
+     * Returns a lower bound on the distance from one vertex to another.
+     *
+     * @throws java.lang.IllegalArgumentException if from or to is null or not in the graph.
+     * @return A lower bound on the distance, or {@link #INFINITE} if from does not reach to.
+     */
+    public long lowerBound(V from, V to) {
+        return lowerBoundId(graph.id(from), graph.id(to));
+    }
+
+    /**
+     * Returns an upper bound on the distance from one vertex to another; this is the usual
+     * distance estimate.
+     *
+     * @throws java.lang.IllegalArgumentException if from or to is null or not in the graph.
+     * @return An upper bound on the distance, or {@link #INFINITE} if there is no path from
+     * from to to through a landmark.
+     */
+    public long upperBound(V from, V to) {
+        return upperBoundId(graph.id(from), graph.id(to));
+    }
+
+    /**
+     * Like {@link #lowerBound}, for vertex ids of {@link #getGraph()}.
+     *
+     * @throws java.lang.IllegalArgumentException if from or to is not a vertex id.
+     */
+    public long lowerBoundId(int from, int to) {
+        checkId(from);
+        checkId(to);
+        if (from == to) {
+            return 0;
+        }
+        int fromBase = row(from) * landmarkCount;
+        int toBase = row(to) * landmarkCount;
+        long best = 0;
+        for (int l = 0; l < landmarkCount; l++) {
+            int fromLandmark = forward.get(fromBase + l);
+            int toLandmark = forward.get(toBase + l);
+            // a landmark that reaches from but not to, or reaches to but not from
+            // (undirected), rules out a path
+            if (toLandmark == UNREACHED) {
+                if (fromLandmark != UNREACHED) {
+                    return INFINITE;
+                }
+            } else if (fromLandmark != UNREACHED) {
+                best = Math.max(best, (long) toLandmark - fromLandmark);
+            }
+            if (backward != forward) {
+                int fromDistance = backward.get(fromBase + l);
+                int toDistance = backward.get(toBase + l);
+                if (fromDistance == UNREACHED) {
+                    if (toDistance != UNREACHED) {
+                        return INFINITE;
+                    }
+                } else if (toDistance != UNREACHED) {
+                    best = Math.max(best, (long) fromDistance - toDistance);
+                }
+            } else if (fromLandmark != UNREACHED && toLandmark != UNREACHED) {
+                best = Math.max(best, (long) fromLandmark - toLandmark);
+            } else if (fromLandmark != UNREACHED || toLandmark != UNREACHED) {
+                return INFINITE;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Like {@link #upperBound}, for vertex ids of {@link #getGraph()}.
+     *
+     * @throws java.lang.IllegalArgumentException if from or to is not a vertex id.
+     */
+    public long upperBoundId(int from, int to) {
+        checkId(from);
+        checkId(to);
+        if (from == to) {
+            return 0;
+        }
+        int fromBase = row(from) * landmarkCount;
+        int toBase = row(to) * landmarkCount;
+        long best = INFINITE;
+        for (int l = 0; l < landmarkCount; l++) {
+            int first = backward.get(fromBase + l);
+            int second = forward.get(toBase + l);
+            if (first != UNREACHED && second != UNREACHED) {
+                best = Math.min(best, (long) first + second);
+            }
+        }
+        return best;
+    }
+
+    private int row(int id) {
+        return rows == null ? id : rows[id];
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= graph.size()) {
+            throw new IllegalArgumentException("no such vertex id: " + id);
+        }
+    }
+
+    /**
+     * Writes the oracle to a file, which can be opened with {@link #open}. The file holds a
+     * header (magic, version, flags, vertex count and landmark count, as big-endian ints),
+     * the sorted ranks of the landmarks, and the distance tables with one row per vertex in
+     * sorted order.
+     *
+     * @param file The file to write; an existing file is replaced.
+     * @throws java.lang.IllegalArgumentException if file is null.
+     * @throws java.io.IOException if the file cannot be written.
+     */
+    public void write(File file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("null file");
+        }
+        int n = graph.size();
+        int[] sorted = sortedIds(graph);
+        int[] ranks = new int[n];
+        for (int rank = 0; rank < n; rank++) {
+            ranks[sorted[rank]] = rank;
+        }
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt((graph.isDirected() ? 1 : 0) | (weighted ? 2 : 0));
+            out.writeInt(n);
+            out.writeInt(landmarkCount);
+            for (int landmark : landmarks) {
+                out.writeInt(ranks[landmark]);
+            }
+            writeTable(out, forward, sorted);
+            if (backward != forward) {
+                writeTable(out, backward, sorted);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeTable(DataOutputStream out, IntBuffer table, int[] sorted)
+            throws IOException {
+        for (int id : sorted) {
+            int base = row(id) * landmarkCount;
+            for (int l = 0; l < landmarkCount; l++) {
+                out.writeInt(table.get(base + l));
+            }
+        }
+    }
+
+    /**
+     * Opens an oracle written by {@link #write}. The distance tables are memory-mapped, not
+     * read, so opening is fast and the operating system pages them in as they are queried.
+     * The file is mapped read-only, and the channel is closed before returning.
+     *
+     * @param file The file to open.
+     * @param g A snapshot of the graph the oracle was built from; it must have the same
+     *          vertices and, for the distances to be valid, the same edges.
+     * @throws java.lang.IllegalArgumentException if an argument is null, or if the file is not
+     * an oracle file for a graph with the size and direction of g.
+     * @throws java.io.IOException if the file cannot be read.
+     * @return The oracle.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> DistanceOracle<V, E> open(
+            File file, CompactGraph<V, E> g) throws IOException {
+        if (file == null || g == null) {
+            throw new IllegalArgumentException("null argument");
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            if (channel.size() < HEADER_SIZE) {
+                throw new IllegalArgumentException("not an oracle file");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IllegalArgumentException("not an oracle file");
+            }
+            int flags = header.getInt();
+            int n = header.getInt();
+            int count = header.getInt();
+            boolean directed = (flags & 1) != 0;
+            if (n != g.size() || directed != g.isDirected()) {
+                throw new IllegalArgumentException("oracle file is for a different graph");
+            }
+            long tableBytes = 4L * n * count;
+            long expected = HEADER_SIZE + 4L * count + (directed ? 2 : 1) * tableBytes;
+            if (count < 0 || count > n || tableBytes > Integer.MAX_VALUE
+                    || channel.size() != expected) {
+                throw new IllegalArgumentException("corrupt oracle file");
+            }
+
+            // the file is in sorted vertex order, while ids follow the snapshot
+            int[] sorted = sortedIds(g);
+            int[] rows = new int[n];
+            for (int rank = 0; rank < n; rank++) {
+                rows[sorted[rank]] = rank;
+            }
+            IntBuffer landmarkBuffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_SIZE, 4L * count).asIntBuffer();
+            int[] landmarks = new int[count];
+            for (int l = 0; l < count; l++) {
+                int rank = landmarkBuffer.get(l);
+                if (rank < 0 || rank >= n) {
+                    throw new IllegalArgumentException("corrupt oracle file");
+                }
+                landmarks[l] = sorted[rank];
+            }
+            long start = HEADER_SIZE + 4L * count;
+            IntBuffer forward = channel.map(FileChannel.MapMode.READ_ONLY, start, tableBytes)
+                    .asIntBuffer();
+            IntBuffer backward = directed
+                    ? channel.map(FileChannel.MapMode.READ_ONLY, start + tableBytes, tableBytes)
+                    .asIntBuffer() : forward;
+            return new DistanceOracle<V, E>(g, (flags & 2) != 0, landmarks, rows, forward,
+                    backward);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * @return The vertex ids of g, ordered by vertex.
+     */
+    private static <V extends Comparable<V>> int[] sortedIds(final CompactGraph<V, ?> g) {
+        Integer[] order = new Integer[g.size()];
+        for (int v = 0; v < order.length; v++) {
+            order[v] = v;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return g.vertex(a).compareTo(g.vertex(b));
+            }
+        });
+        int[] result = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+}
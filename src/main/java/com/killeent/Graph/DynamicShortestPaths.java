@@ -0,0 +1,453 @@
+package com.killeent.Graph;
+
+import com.killeent.PriorityQueue.IndexedHeap;
+
+import java.util.*;
+
+/**
+ * A directed graph with positive integer edge weights that keeps a shortest path tree from a
+ * fixed source vertex up to date as edges are added and removed, following Ramalingam and
+ * Reps, "An Incremental Algorithm for a Generalization of the Shortest-Path Problem"
+ * (J. Algorithms 1996). An edge is reweighted by removing it and adding it with its new
+ * weight.
+ *
+ * Adding an edge that shortens a path runs Djikstra's algorithm seeded with just the head
+ * of the edge, so it only visits the vertices whose distance drops. Removing an edge of the
+ * shortest path DAG first finds the vertices that have lost every shortest path, by counting
+ * down the tight edges into each vertex, and then runs Djikstra's algorithm over those
+ * vertices only. Any other update only touches the endpoints of the edge. In all cases the
+ * work depends on how much of the tree changes rather than on the size of the graph.
+ */
+public class DynamicShortestPaths<V extends Comparable<V>> implements DirectedGraph<V, Integer> {
+
+    private static final long UNREACHED = Long.MAX_VALUE;
+
+    // answers the graph queries, and decides whether an added or removed edge is new
+    private final DirectedGraph<V, Integer> graph;
+    private final V source;
+
+    // the edges by vertex id with their weights alongside, so that a repair can test whether
+    // an edge is tight without boxing: outTargets/outWeights push decreases forward, and
+    // inSources/inWeights find a vertex's best remaining parent
+    private VertexIndex<V> index;
+    private List<IntList> outTargets;
+    private List<IntList> outWeights;
+    private List<IntList> inSources;
+    private List<IntList> inWeights;
+
+    // distances[v] from the source, and the last edge of a shortest path to v
+    private long[] distances;
+    private int[] parents;
+    private int[] parentWeights;
+
+    // scratch state for the repairs; a vertex has been reached by the current repair iff its
+    // mark equals the current stamp, and remaining[v] then counts its unaffected tight edges
+    private IndexedHeap heap;
+    private int[] mark;
+    private int[] remaining;
+    private int stamp;
+
+    /**
+     * Creates a graph containing just the source vertex.
+     *
+     * @param source The vertex to measure distances from.
+     * @throws java.lang.IllegalArgumentException if source is null.
+     */
+    public DynamicShortestPaths(V source) {
+        if (source == null) {
+            throw new IllegalArgumentException("source cannot be null");
+        }
+        this.graph = new DirectedHashGraph<V, Integer>();
+        this.source = source;
+        clear();
+    }
+
+    /**
+     * Creates a graph containing all the vertices and edges of the passed graph.
+     *
+     * @param g The graph to copy.
+     * @param source The vertex to measure distances from; added if it is not in g.
+     * @throws java.lang.IllegalArgumentException if g or source is null, or g has an edge
+     * weight that is not positive.
+     */
+    public DynamicShortestPaths(DirectedGraph<V, Integer> g, V source) {
+        this(source);
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        for (V vertex : g.vertices()) {
+            addVertex(vertex);
+        }
+        // insert the edges without repairs, then compute the tree once
+        for (V vertex : g.vertices()) {
+            for (Edge<V, Integer> edge : g.neighbors(vertex)) {
+                checkWeight(edge.getValue());
+                if (!graph.containsEdge(vertex, edge.getDestination(), edge.getValue())) {
+                    graph.addEdge(vertex, edge.getDestination(), edge.getValue());
+                    link(index.id(vertex), index.id(edge.getDestination()), edge.getValue());
+                }
+            }
+        }
+        recompute();
+    }
+
+    /**
+     * @return The vertex distances are measured from.
+     */
+    public V getSource() {
+        return source;
+    }
+
+    @Override
+    public void addVertex(V vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("vertex cannot be null");
+        }
+        if (index.contains(vertex)) {
+            return;
+        }
+        graph.addVertex(vertex);
+        int id = index.intern(vertex);
+        if (id == distances.length) {
+            int capacity = id * 2;
+            distances = Arrays.copyOf(distances, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            parentWeights = Arrays.copyOf(parentWeights, capacity);
+            mark = Arrays.copyOf(mark, capacity);
+            remaining = Arrays.copyOf(remaining, capacity);
+            heap = new IndexedHeap(capacity);
+        }
+        outTargets.add(new IntList());
+        outWeights.add(new IntList());
+        inSources.add(new IntList());
+        inWeights.add(new IntList());
+        distances[id] = id == 0 ? 0 : UNREACHED;
+        parents[id] = -1;
+    }
+
+    @Override
+    public boolean containsVertex(V vertex) {
+        return graph.containsVertex(vertex);
+    }
+
+    @Override
+    public Set<V> vertices() {
+        return graph.vertices();
+    }
+
+    /**
+     * Adds an edge from vertex A to vertex B if it does not already exist, and lowers the
+     * distances of the vertices it gives a shorter path to.
+     *
+     * @throws java.lang.IllegalArgumentException if the weight is not positive, in addition
+     * to the conditions of {@link SimpleLabeledGraph#addEdge}.
+     */
+    @Override
+    public void addEdge(V vertexA, V vertexB, Integer weight) {
+        if (vertexA == null || vertexB == null || weight == null) {
+            throw new IllegalArgumentException("arguments cannot be null");
+        }
+        checkWeight(weight);
+        if (graph.containsEdge(vertexA, vertexB, weight)) {
+            return;
+        }
+        graph.addEdge(vertexA, vertexB, weight);
+        int x = index.id(vertexA);
+        int y = index.id(vertexB);
+        link(x, y, weight);
+        if (distances[x] != UNREACHED && distances[x] + weight < distances[y]) {
+            distances[y] = distances[x] + weight;
+            parents[y] = x;
+            parentWeights[y] = weight;
+            heap.update(y, distances[y]);
+            propagateDecreases();
+        }
+    }
+
+    @Override
+    public boolean containsEdge(V vertexA, V vertexB, Integer weight) {
+        return graph.containsEdge(vertexA, vertexB, weight);
+    }
+
+    /**
+     * Removes the edge from vertex A to vertex B, and raises the distances of the vertices
+     * that lose every shortest path with it.
+     */
+    @Override
+    public boolean removeEdge(V vertexA, V vertexB, Integer weight) {
+        if (!graph.removeEdge(vertexA, vertexB, weight)) {
+            return false;
+        }
+        int x = index.id(vertexA);
+        int y = index.id(vertexB);
+        unlink(x, y, weight);
+        if (distances[x] == UNREACHED || distances[x] + weight != distances[y]) {
+            // not a shortest path edge
+            return true;
+        }
+        if (++stamp == 0) {
+            Arrays.fill(mark, 0);
+            stamp = 1;
+        }
+        remaining[y] = tightEdges(y);
+        if (remaining[y] == 0) {
+            repairIncreases(y);
+        } else if (parents[y] == x && parentWeights[y] == weight) {
+            // y still has a shortest path; point it at another tight edge
+            reparent(y);
+        }
+        return true;
+    }
+
+    @Override
+    public Collection<Edge<V, Integer>> neighbors(V vertex) {
+        return graph.neighbors(vertex);
+    }
+
+    /**
+     * Removes every vertex and edge, except for the source vertex.
+     */
+    @Override
+    public void clear() {
+        graph.clear();
+        index = new VertexIndex<V>();
+        outTargets = new ArrayList<IntList>();
+        outWeights = new ArrayList<IntList>();
+        inSources = new ArrayList<IntList>();
+        inWeights = new ArrayList<IntList>();
+        distances = new long[16];
+        parents = new int[16];
+        parentWeights = new int[16];
+        mark = new int[16];
+        remaining = new int[16];
+        heap = new IndexedHeap(16);
+        stamp = 0;
+        addVertex(source);
+    }
+
+    /**
+     * @param vertex A vertex in the graph.
+     * @throws java.lang.IllegalArgumentException if vertex is null or not in the graph.
+     * @return The length of a shortest path from the source to the vertex, or -1 if there is
+     * no path.
+     */
+    public long distance(V vertex) {
+        long distance = distances[id(vertex)];
+        return distance == UNREACHED ? -1 : distance;
+    }
+
+    /**
+     * Reads a shortest path from the source to the passed vertex off the tree.
+     *
+     * @param end A vertex in the graph.
+     * @param path An output parameter where the edges of the path will be stored, if one
+     *             exists.
+     * @throws java.lang.IllegalArgumentException if end or path is null, or end is not in the
+     * graph.
+     * @return True if end is reachable from the source, otherwise false.
+     */
+    public boolean path(V end, List<Edge<V, Integer>> path) {
+        if (path == null) {
+            throw new IllegalArgumentException("null path");
+        }
+        int v = id(end);
+        if (distances[v] == UNREACHED) {
+            return false;
+        }
+        LinkedList<Edge<V, Integer>> edges = new LinkedList<Edge<V, Integer>>();
+        for (; parents[v] >= 0; v = parents[v]) {
+            edges.addFirst(new Edge<V, Integer>(index.vertex(parents[v]), index.vertex(v),
+                    parentWeights[v]));
+        }
+        path.addAll(edges);
+        return true;
+    }
+
+    /**
+     * Throws the tree away and recomputes it with Djikstra's algorithm over the whole graph.
+     * The tree is always kept up to date, so this is only useful as a baseline.
+     */
+    public void recompute() {
+        for (int v = 0; v < index.size(); v++) {
+            distances[v] = UNREACHED;
+            parents[v] = -1;
+        }
+        distances[0] = 0;
+        heap.update(0, 0);
+        propagateDecreases();
+    }
+
+    private int id(V vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("vertex cannot be null");
+        }
+        int id = index.id(vertex);
+        if (id < 0) {
+            throw new IllegalArgumentException("vertex not in graph");
+        }
+        return id;
+    }
+
+    private static void checkWeight(int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("edge weights must be positive");
+        }
+    }
+
+    private void link(int x, int y, int weight) {
+        outTargets.get(x).add(y);
+        outWeights.get(x).add(weight);
+        inSources.get(y).add(x);
+        inWeights.get(y).add(weight);
+    }
+
+    private void unlink(int x, int y, int weight) {
+        remove(outTargets.get(x), outWeights.get(x), y, weight);
+        remove(inSources.get(y), inWeights.get(y), x, weight);
+    }
+
+    /**
+     * Removes one (vertex, weight) entry from a pair of parallel lists, by moving the last
+     * entry into its place.
+     */
+    private static void remove(IntList vertices, IntList weights, int vertex, int weight) {
+        for (int i = 0; i < vertices.size(); i++) {
+            if (vertices.get(i) == vertex && weights.get(i) == weight) {
+                vertices.set(i, vertices.get(vertices.size() - 1));
+                weights.set(i, weights.get(weights.size() - 1));
+                vertices.removeLast();
+                weights.removeLast();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return The number of edges into v that lie on a shortest path, with the current
+     * distances.
+     */
+    private int tightEdges(int v) {
+        int count = 0;
+        IntList sources = inSources.get(v);
+        IntList weights = inWeights.get(v);
+        for (int i = 0; i < sources.size(); i++) {
+            int p = sources.get(i);
+            if (distances[p] != UNREACHED && distances[p] + weights.get(i) == distances[v]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Points the tree edge of v at any edge into v that lies on a shortest path.
+     */
+    private void reparent(int v) {
+        IntList sources = inSources.get(v);
+        IntList weights = inWeights.get(v);
+        for (int i = 0; i < sources.size(); i++) {
+            int p = sources.get(i);
+            if (distances[p] != UNREACHED && distances[p] + weights.get(i) == distances[v]) {
+                parents[v] = p;
+                parentWeights[v] = weights.get(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs Djikstra's algorithm from the vertices in the heap, relaxing every edge that
+     * lowers a distance.
+     */
+    private void propagateDecreases() {
+        while (!heap.isEmpty()) {
+            int v = heap.remove();
+            IntList targets = outTargets.get(v);
+            IntList weights = outWeights.get(v);
+            for (int i = 0; i < targets.size(); i++) {
+                int w = targets.get(i);
+                long distance = distances[v] + weights.get(i);
+                if (distance < distances[w]) {
+                    distances[w] = distance;
+                    parents[w] = v;
+                    parentWeights[w] = weights.get(i);
+                    heap.update(w, distance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the stamp of the last repair, so that tests can reach the wrap around.
+     */
+    void setStamp(int stamp) {
+        this.stamp = stamp;
+    }
+
+    /**
+     * Recomputes the distances of the vertices that lost every shortest path after the last
+     * tight edge into start was removed. remaining[start] must be 0 for the current stamp.
+     */
+    private void repairIncreases(int start) {
+        // phase 1: a vertex is affected once all its tight in-edges come from affected
+        // vertices; weights are positive, so the tight edges form a DAG and this terminates
+        IntList affected = new IntList();
+        IntList touched = new IntList();
+        mark[start] = stamp;
+        affected.add(start);
+        for (int i = 0; i < affected.size(); i++) {
+            int v = affected.get(i);
+            IntList targets = outTargets.get(v);
+            IntList weights = outWeights.get(v);
+            for (int j = 0; j < targets.size(); j++) {
+                int w = targets.get(j);
+                if (distances[v] + weights.get(j) != distances[w]) {
+                    continue;
+                }
+                if (mark[w] != stamp) {
+                    mark[w] = stamp;
+                    remaining[w] = tightEdges(w);
+                    touched.add(w);
+                }
+                if (--remaining[w] == 0) {
+                    affected.add(w);
+                }
+            }
+        }
+
+        // phase 2: give every affected vertex its best distance through an unaffected
+        // vertex, then settle the affected vertices among themselves
+        for (int i = 0; i < affected.size(); i++) {
+            int v = affected.get(i);
+            distances[v] = UNREACHED;
+            parents[v] = -1;
+        }
+        for (int i = 0; i < affected.size(); i++) {
+            int v = affected.get(i);
+            IntList sources = inSources.get(v);
+            IntList weights = inWeights.get(v);
+            for (int j = 0; j < sources.size(); j++) {
+                int p = sources.get(j);
+                if (distances[p] != UNREACHED && distances[p] + weights.get(j) < distances[v]) {
+                    distances[v] = distances[p] + weights.get(j);
+                    parents[v] = p;
+                    parentWeights[v] = weights.get(j);
+                }
+            }
+            if (distances[v] != UNREACHED) {
+                heap.update(v, distances[v]);
+            }
+        }
+        propagateDecreases();
+
+        // the affected vertices got longer, so unaffected vertices whose tree edge came from
+        // one of them must switch to one of their remaining tight edges
+        for (int i = 0; i < touched.size(); i++) {
+            int w = touched.get(i);
+            int parent = parents[w];
+            if (remaining[w] > 0 && mark[parent] == stamp && remaining[parent] == 0) {
+                reparent(w);
+            }
+        }
+    }
+}
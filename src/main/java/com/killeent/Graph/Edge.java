@@ -59,8 +59,14 @@ public class Edge<V extends Comparable<V>, E extends Comparable<E>> {
                 && this.getValue().equals(other.getValue());
     }
 
+    /**
+     * Combines the hashes of the source, destination and value asymmetrically, so the two
+     * directions of an undirected edge, and edges that differ only in value, hash apart.
+     */
     @Override
     public int hashCode() {
-        return source.hashCode() + destination.hashCode();
+        int result = source.hashCode();
+        result = 31 * result + destination.hashCode();
+        return 31 * result + value.hashCode();
     }
 }
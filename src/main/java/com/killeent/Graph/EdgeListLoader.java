@@ -0,0 +1,641 @@
+package com.killeent.Graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads a graph from an edge-list file with long vertex ids and int edge weights, without
+ * creating an object per line. The file is memory-mapped in chunks that are parsed in
+ * parallel into primitive arrays; the vertex ids are then interned by sorting the distinct
+ * ids, so vertex i of the result is the i-th smallest id, and the CSR arrays of a
+ * {@link CompactGraph} are filled directly. A hash graph can be built from those arrays.
+ *
+ * Two formats are read:
+ * <ul>
+ * <li>{@link Format#TEXT}: one edge per line, "source destination [weight]", separated by
+ * spaces, tabs or commas. Blank lines and lines starting with '#' or '%' are skipped. The
+ * weight of an unweighted file, or a line without one, is 1. A line with more fields is
+ * malformed.</li>
+ * <li>{@link Format#BINARY}: big-endian records of a long source and a long destination,
+ * followed by an int weight if the file is weighted.</li>
+ * </ul>
+ *
+ * Self loops are dropped, as are repeated edges with the same endpoints and weight, as the
+ * hash graphs do. For an undirected graph, every edge is stored in both directions.
+ *
+ * The progress of a load can be read from other threads while it runs, see
+ * {@link #getPhase()}, {@link #getBytesParsed()} and {@link #getThroughput()}.
+ */
+public class EdgeListLoader {
+
+    /**
+     * The layout of an edge-list file.
+     */
+    public enum Format {
+        TEXT, BINARY
+    }
+
+    /**
+     * The stages of a load, in order.
+     */
+    public enum Phase {
+        WAITING, PARSING, INTERNING, BUILDING, DONE
+    }
+
+    // bytes per parsed chunk, and the longest text line that may cross a chunk boundary
+    private static final int CHUNK = 1 << 24;
+    private static final int MAX_LINE = 1 << 16;
+
+    private static final int GRAIN = 1 << 12;
+
+    private final File file;
+    private final Format format;
+    private final boolean directed;
+    private final boolean weighted;
+
+    // progress of the current or last load
+    private volatile Phase phase;
+    private volatile long totalBytes;
+    private volatile long started;
+    private volatile long finished;
+    private final AtomicLong bytesParsed;
+    private final AtomicLong edgesParsed;
+
+    /**
+     * Creates a loader for an edge-list file.
+     *
+     * @param file The file to load.
+     * @param format The layout of the file.
+     * @param directed True to load a directed graph, false for an undirected one.
+     * @param weighted True if the edges carry weights.
+     * @throws java.lang.IllegalArgumentException if file or format is null.
+     */
+    public EdgeListLoader(File file, Format format, boolean directed, boolean weighted) {
+        if (file == null || format == null) {
+            throw new IllegalArgumentException("null arguments to edge list loader");
+        }
+        this.file = file;
+        this.format = format;
+        this.directed = directed;
+        this.weighted = weighted;
+        this.phase = Phase.WAITING;
+        this.bytesParsed = new AtomicLong();
+        this.edgesParsed = new AtomicLong();
+    }
+
+    /**
+     * Loads the file into a {@link CompactGraph}.
+     *
+     * @throws java.lang.IllegalArgumentException if the file is malformed, a text line is
+     * longer than 65536 bytes, or the graph has more than 2^31 - 1 stored edges.
+     * @throws java.io.IOException if the file cannot be read.
+     * @return The loaded graph.
+     */
+    public synchronized CompactGraph<Long, Integer> loadCompact() throws IOException {
+        started = System.nanoTime();
+        totalBytes = file.length();
+        finished = 0;
+        bytesParsed.set(0);
+        edgesParsed.set(0);
+        phase = Phase.PARSING;
+        final Chunk[] chunks = parse();
+
+        phase = Phase.INTERNING;
+        final long[] ids = intern(chunks);
+        VertexIndex<Long> index = new VertexIndex<Long>(ids.length);
+        for (long id : ids) {
+            index.intern(id);
+        }
+
+        phase = Phase.BUILDING;
+        CompactGraph<Long, Integer> g = build(chunks, index);
+        finished = System.nanoTime();
+        phase = Phase.DONE;
+        return g;
+    }
+
+    /**
+     * Loads the file into a {@link DirectedHashGraph} or an {@link UndirectedHashGraph}. The
+     * file is parsed as for {@link #loadCompact()}; only the final inserts are sequential.
+     *
+     * @throws java.lang.IllegalArgumentException if the file is malformed, a text line is
+     * longer than 65536 bytes, or the graph has more than 2^31 - 1 stored edges.
+     * @throws java.io.IOException if the file cannot be read.
+     * @return The loaded graph.
+     */
+    public synchronized SimpleLabeledGraph<Long, Integer> loadHashGraph() throws IOException {
+        CompactGraph<Long, Integer> compact = loadCompact();
+        phase = Phase.BUILDING;
+        SimpleLabeledGraph<Long, Integer> g = directed
+                ? new DirectedHashGraph<Long, Integer>()
+                : new UndirectedHashGraph<Long, Integer>();
+        int n = compact.size();
+        for (int v = 0; v < n; v++) {
+            g.addVertex(compact.vertex(v));
+        }
+        for (int v = 0; v < n; v++) {
+            for (int e = compact.offsets[v]; e < compact.offsets[v + 1]; e++) {
+                int target = compact.targets[e];
+                // an undirected edge is stored twice but added once
+                if (directed || v < target) {
+                    g.addEdge(compact.vertex(v), compact.vertex(target), compact.value(e));
+                }
+            }
+        }
+        finished = System.nanoTime();
+        phase = Phase.DONE;
+        return g;
+    }
+
+    /**
+     * @return The stage the current or last load is in.
+     */
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return The size of the file being loaded, or 0 before the first load.
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * @return The number of bytes of the file parsed so far.
+     */
+    public long getBytesParsed() {
+        return bytesParsed.get();
+    }
+
+    /**
+     * @return The number of edges parsed so far, including self loops and repeated edges.
+     */
+    public long getEdgesParsed() {
+        return edgesParsed.get();
+    }
+
+    /**
+     * @return The fraction of the file parsed so far, in [0, 1].
+     */
+    public double getProgress() {
+        long total = totalBytes;
+        if (total == 0) {
+            return phase == Phase.WAITING ? 0 : 1;
+        }
+        return bytesParsed.get() / (double) total;
+    }
+
+    /**
+     * @return The time spent on the current or last load, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        if (phase == Phase.WAITING) {
+            return 0;
+        }
+        long end = finished;
+        return (end == 0 ? System.nanoTime() : end) - started;
+    }
+
+    /**
+     * @return The average number of bytes parsed per second in the current or last load.
+     */
+    public double getThroughput() {
+        long elapsed = getElapsedNanos();
+        return elapsed == 0 ? 0 : bytesParsed.get() * 1e9 / elapsed;
+    }
+
+    /**
+     * Maps the file in chunks and parses them in parallel.
+     */
+    private Chunk[] parse() throws IOException {
+        final ByteBuffer[] buffers;
+        final long[] starts;
+        final long size;
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            size = channel.size();
+            totalBytes = size;
+            int record = weighted ? 20 : 16;
+            if (format == Format.BINARY && size % record != 0) {
+                throw new IllegalArgumentException("truncated binary edge list");
+            }
+            // binary chunks hold whole records
+            long chunk = format == Format.BINARY ? CHUNK / record * record : CHUNK;
+            int count = (int) ((size + chunk - 1) / chunk);
+            buffers = new ByteBuffer[count];
+            starts = new long[count + 1];
+            for (int i = 0; i < count; i++) {
+                starts[i] = i * chunk;
+                starts[i + 1] = Math.min(size, (i + 1) * chunk);
+                // a text chunk also maps the byte before it, to tell whether it starts a
+                // line, and the bytes after it, to finish its last line
+                long from = format == Format.TEXT && i > 0 ? starts[i] - 1 : starts[i];
+                long to = format == Format.TEXT ? Math.min(size, starts[i + 1] + MAX_LINE)
+                        : starts[i + 1];
+                buffers[i] = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+            }
+        } finally {
+            raf.close();
+        }
+
+        final Chunk[] chunks = new Chunk[buffers.length];
+        Parallel.forRange(0, buffers.length, 1, new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    int length = (int) (starts[i + 1] - starts[i]);
+                    chunks[i] = format == Format.TEXT
+                            ? parseText(buffers[i], starts[i], length, size)
+                            : parseBinary(buffers[i], length);
+                    buffers[i] = null;
+                    bytesParsed.addAndGet(length);
+                    edgesParsed.addAndGet(chunks[i].size);
+                }
+            }
+        });
+        return chunks;
+    }
+
+    /**
+     * Parses the lines of a text chunk that start within its length bytes.
+     *
+     * @param buffer The chunk, preceded by one byte unless it starts the file.
+     * @param start The position of the chunk in the file.
+     * @param size The size of the file.
+     */
+    private Chunk parseText(ByteBuffer buffer, long start, int length, long size) {
+        Chunk chunk = new Chunk(length / 16 + 16);
+        // the position of the buffer in the file, for error messages
+        long base = start > 0 ? start - 1 : 0;
+        int limit = buffer.limit();
+        // a line that runs to the end of the mapped bytes is only complete if they reach the
+        // end of the file, which a chunk before the last one may do when its last line is
+        // unterminated
+        boolean last = base + limit == size;
+        int end = length;
+        int position = 0;
+        if (start > 0) {
+            // skip the rest of a line that started in the previous chunk
+            end++;
+            position = 1;
+            if (buffer.get(0) != '\n') {
+                while (position < limit && buffer.get(position - 1) != '\n') {
+                    position++;
+                }
+            }
+        }
+        long[] number = new long[1];
+        while (position < end) {
+            int line = position;
+            position = skipSeparators(buffer, position, limit);
+            if (position == limit || isLineEnd(buffer.get(position))) {
+                position = nextLine(buffer, position, limit, last, base + line);
+                continue;
+            }
+            byte b = buffer.get(position);
+            if (b == '#' || b == '%') {
+                position = nextLine(buffer, position, limit, last, base + line);
+                continue;
+            }
+            position = parseNumber(buffer, position, limit, number, base + line);
+            long source = number[0];
+            position = skipSeparators(buffer, position, limit);
+            position = parseNumber(buffer, position, limit, number, base + line);
+            long destination = number[0];
+            int weight = 1;
+            position = skipSeparators(buffer, position, limit);
+            if (weighted && position < limit && !isLineEnd(buffer.get(position))) {
+                position = parseNumber(buffer, position, limit, number, base + line);
+                if (number[0] != (int) number[0]) {
+                    throw new IllegalArgumentException("weight out of range at byte "
+                            + (base + line));
+                }
+                weight = (int) number[0];
+                position = skipSeparators(buffer, position, limit);
+            }
+            if (position < limit && !isLineEnd(buffer.get(position))) {
+                throw new IllegalArgumentException("malformed edge at byte " + (base + line));
+            }
+            chunk.add(source, destination, weight);
+            position = nextLine(buffer, position, limit, last, base + line);
+        }
+        return chunk;
+    }
+
+    private static boolean isLineEnd(byte b) {
+        return b == '\n' || b == '\r';
+    }
+
+    private static int skipSeparators(ByteBuffer buffer, int position, int limit) {
+        while (position < limit) {
+            byte b = buffer.get(position);
+            if (b != ' ' && b != '\t' && b != ',') {
+                break;
+            }
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * @return The position after the end of the line holding position.
+     * @throws java.lang.IllegalArgumentException if the line runs past the mapped bytes.
+     */
+    private static int nextLine(ByteBuffer buffer, int position, int limit, boolean last,
+                                long line) {
+        while (position < limit) {
+            if (buffer.get(position++) == '\n') {
+                return position;
+            }
+        }
+        if (!last) {
+            throw new IllegalArgumentException("line too long at byte " + line);
+        }
+        return position;
+    }
+
+    /**
+     * Parses an optionally negative decimal number into result[0].
+     *
+     * @return The position after the number.
+     * @throws java.lang.IllegalArgumentException if there is no number at position.
+     */
+    private static int parseNumber(ByteBuffer buffer, int position, int limit, long[] result,
+                                   long line) {
+        boolean negative = position < limit && buffer.get(position) == '-';
+        if (negative) {
+            position++;
+        }
+        int first = position;
+        long value = 0;
+        while (position < limit) {
+            int digit = buffer.get(position) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            value = value * 10 + digit;
+            position++;
+        }
+        if (position == first || position - first > 18) {
+            throw new IllegalArgumentException("malformed edge at byte " + line);
+        }
+        result[0] = negative ? -value : value;
+        return position;
+    }
+
+    private Chunk parseBinary(ByteBuffer buffer, int length) {
+        int record = weighted ? 20 : 16;
+        Chunk chunk = new Chunk(length / record);
+        for (int position = 0; position < length; position += record) {
+            chunk.add(buffer.getLong(position), buffer.getLong(position + 8),
+                    weighted ? buffer.getInt(position + 16) : 1);
+        }
+        return chunk;
+    }
+
+    /**
+     * Replaces the vertex ids of every chunk by their rank among the distinct ids.
+     *
+     * @return The distinct ids, in increasing order.
+     */
+    private static long[] intern(final Chunk[] chunks) {
+        final int[] offsets = new int[chunks.length + 1];
+        for (int i = 0; i < chunks.length; i++) {
+            long next = offsets[i] + 2L * chunks[i].size;
+            if (next > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("too many edges");
+            }
+            offsets[i + 1] = (int) next;
+        }
+        final long[] all = new long[offsets[chunks.length]];
+        Parallel.forRange(0, chunks.length, 1, new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    Chunk chunk = chunks[i];
+                    System.arraycopy(chunk.sources, 0, all, offsets[i], chunk.size);
+                    System.arraycopy(chunk.destinations, 0, all, offsets[i] + chunk.size,
+                            chunk.size);
+                }
+            }
+        });
+        Arrays.parallelSort(all);
+        int distinct = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i == 0 || all[i] != all[i - 1]) {
+                all[distinct++] = all[i];
+            }
+        }
+        final long[] ids = Arrays.copyOf(all, distinct);
+        final IdTable table = new IdTable(ids);
+        Parallel.forRange(0, chunks.length, 1, new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    chunks[i].rank(table);
+                }
+            }
+        });
+        return ids;
+    }
+
+    /**
+     * Fills the CSR arrays: counts the degrees, scatters every edge, packed with its weight,
+     * to its source, then sorts and deduplicates each adjacency list.
+     */
+    private CompactGraph<Long, Integer> build(final Chunk[] chunks, VertexIndex<Long> index) {
+        final int n = index.size();
+        final AtomicIntegerArray cursors = new AtomicIntegerArray(n + 1);
+        Parallel.forRange(0, chunks.length, 1, new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    Chunk chunk = chunks[i];
+                    for (int j = 0; j < chunk.size; j++) {
+                        int source = chunk.sourceIds[j];
+                        int destination = chunk.destinationIds[j];
+                        if (source != destination) {
+                            cursors.incrementAndGet(source);
+                            if (!directed) {
+                                cursors.incrementAndGet(destination);
+                            }
+                        }
+                    }
+                }
+            }
+        });
+        final int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            long next = (long) offsets[v] + cursors.get(v);
+            if (next > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("too many edges");
+            }
+            offsets[v + 1] = (int) next;
+            cursors.set(v, offsets[v]);
+        }
+
+        // the target in the high half, so sorting orders by target, then weight
+        final long[] packed = new long[offsets[n]];
+        Parallel.forRange(0, chunks.length, 1, new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    Chunk chunk = chunks[i];
+                    for (int j = 0; j < chunk.size; j++) {
+                        int source = chunk.sourceIds[j];
+                        int destination = chunk.destinationIds[j];
+                        long weight = chunk.weights[j] & 0xFFFFFFFFL;
+                        if (source != destination) {
+                            packed[cursors.getAndIncrement(source)] =
+                                    ((long) destination << 32) | weight;
+                            if (!directed) {
+                                packed[cursors.getAndIncrement(destination)] =
+                                        ((long) source << 32) | weight;
+                            }
+                        }
+                    }
+                    chunks[i] = null;
+                }
+            }
+        });
+
+        final int[] degrees = new int[n];
+        Parallel.forRange(0, n, Parallel.grain(n, GRAIN), new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int v = from; v < to; v++) {
+                    Arrays.sort(packed, offsets[v], offsets[v + 1]);
+                    int degree = 0;
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        if (e == offsets[v] || packed[e] != packed[e - 1]) {
+                            degree++;
+                        }
+                    }
+                    degrees[v] = degree;
+                }
+            }
+        });
+        final int[] compacted = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            compacted[v + 1] = compacted[v] + degrees[v];
+        }
+        final int[] targets = new int[compacted[n]];
+        final Integer[] values = new Integer[compacted[n]];
+        Parallel.forRange(0, n, Parallel.grain(n, GRAIN), new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int v = from; v < to; v++) {
+                    int position = compacted[v];
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        if (e == offsets[v] || packed[e] != packed[e - 1]) {
+                            targets[position] = (int) (packed[e] >>> 32);
+                            values[position] = (int) packed[e];
+                            position++;
+                        }
+                    }
+                }
+            }
+        });
+        return new CompactGraph<Long, Integer>(index, directed, compacted, targets, values);
+    }
+
+    /**
+     * The edges parsed from one chunk of the file, as parallel primitive arrays.
+     */
+    private static final class Chunk {
+
+        long[] sources;
+        long[] destinations;
+        int[] weights;
+        int size;
+
+        // the interned ids of the endpoints, once ranked
+        int[] sourceIds;
+        int[] destinationIds;
+
+        Chunk(int capacity) {
+            capacity = Math.max(capacity, 1);
+            sources = new long[capacity];
+            destinations = new long[capacity];
+            weights = new int[capacity];
+        }
+
+        void add(long source, long destination, int weight) {
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, size * 2);
+                destinations = Arrays.copyOf(destinations, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            sources[size] = source;
+            destinations[size] = destination;
+            weights[size] = weight;
+            size++;
+        }
+
+        /**
+         * Replaces the endpoints by their interned ids, and frees the long arrays.
+         */
+        void rank(IdTable table) {
+            sourceIds = new int[size];
+            destinationIds = new int[size];
+            for (int i = 0; i < size; i++) {
+                sourceIds[i] = table.get(sources[i]);
+                destinationIds[i] = table.get(destinations[i]);
+            }
+            sources = null;
+            destinations = null;
+        }
+    }
+
+    /**
+     * An open-addressing map from the distinct vertex ids to their index, which is read by
+     * every parsing thread; a probe usually costs one cache miss, where a binary search of
+     * the sorted ids costs several.
+     */
+    private static final class IdTable {
+
+        private final long[] keys;
+        private final int[] values;
+        private final int mask;
+
+        IdTable(long[] ids) {
+            int capacity = Integer.highestOneBit(Math.max(ids.length, 1) * 2 - 1) * 2;
+            keys = new long[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+            Arrays.fill(values, -1);
+            for (int i = 0; i < ids.length; i++) {
+                int slot = slot(ids[i]);
+                while (values[slot] >= 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = ids[i];
+                values[slot] = i;
+            }
+        }
+
+        /**
+         * @return The index of a key that is in the table.
+         */
+        int get(long key) {
+            int slot = slot(key);
+            while (keys[slot] != key || values[slot] < 0) {
+                slot = (slot + 1) & mask;
+            }
+            return values[slot];
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,571 @@
+package com.killeent.Graph;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A flow network built from a directed graph whose edge values are capacities, for computing
+ * maximum flows and minimum cuts with Dinic's algorithm or with push-relabel.
+ *
+ * The residual graph is stored in primitive arrays: every edge (u, v) becomes a forward arc
+ * out of u and a reverse arc out of v, grouped by tail vertex as in a {@link CompactGraph}.
+ * Parallel edges between the same pair of vertices are merged into one arc whose capacity
+ * is their sum.
+ *
+ * The flow of the last query is kept in the residual graph. A query with the same source
+ * and sink starts from that flow instead of from zero, and {@link #setCapacity} repairs the
+ * flow in place when a capacity drops below it, so a sequence of what-if queries with a few
+ * changed capacities only does the work the changes require.
+ */
+public class FlowNetwork<V extends Comparable<V>> {
+
+    private static final long INFINITE = Long.MAX_VALUE;
+
+    private final VertexIndex<V> index;
+
+    // residual graph: the arcs out of v are offsets[v] .. offsets[v + 1] - 1
+    private final int[] offsets;
+    private final int[] heads;
+    private final int[] reverses;
+    private final boolean[] forward;
+
+    // capacity of every arc (0 for reverse arcs) and its remaining residual capacity
+    private final long[] capacities;
+    private final long[] residuals;
+
+    // scratch arrays shared by the algorithms
+    private final int[] heights;
+    private final int[] current;
+    private final int[] queue;
+
+    // the source and sink of the flow in the residual graph, or -1 if the flow is zero
+    private int source;
+    private int sink;
+
+    /**
+     * Builds the residual graph of the passed graph, with no flow.
+     *
+     * @param g A graph whose edge values are the edge capacities.
+     * @throws java.lang.IllegalArgumentException if g is null or has a negative capacity.
+     */
+    public FlowNetwork(DirectedGraph<V, Integer> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        index = new VertexIndex<V>(g.vertices().size());
+        for (V vertex : g.vertices()) {
+            index.intern(vertex);
+        }
+        int n = index.size();
+
+        // merge parallel edges: slots[w] is the pair (v, w) of the current v, or -1
+        IntList tails = new IntList();
+        IntList pairHeads = new IntList();
+        long[] pairCapacities = new long[16];
+        int[] slots = new int[n];
+        Arrays.fill(slots, -1);
+        IntList touched = new IntList();
+        for (int v = 0; v < n; v++) {
+            for (Edge<V, Integer> edge : g.neighbors(index.vertex(v))) {
+                int capacity = edge.getValue();
+                if (capacity < 0) {
+                    throw new IllegalArgumentException("capacities cannot be negative");
+                }
+                int w = index.id(edge.getDestination());
+                if (w < 0 || w == v) {
+                    continue;
+                }
+                if (slots[w] < 0) {
+                    slots[w] = tails.size();
+                    touched.add(w);
+                    tails.add(v);
+                    pairHeads.add(w);
+                    if (slots[w] == pairCapacities.length) {
+                        pairCapacities = Arrays.copyOf(pairCapacities, slots[w] * 2);
+                    }
+                }
+                pairCapacities[slots[w]] += capacity;
+            }
+            for (int i = 0; i < touched.size(); i++) {
+                slots[touched.get(i)] = -1;
+            }
+            touched.clear();
+        }
+
+        int pairs = tails.size();
+        offsets = new int[n + 1];
+        for (int k = 0; k < pairs; k++) {
+            offsets[tails.get(k) + 1]++;
+            offsets[pairHeads.get(k) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = Arrays.copyOf(offsets, n);
+        heads = new int[2 * pairs];
+        reverses = new int[2 * pairs];
+        forward = new boolean[2 * pairs];
+        capacities = new long[2 * pairs];
+        residuals = new long[2 * pairs];
+        for (int k = 0; k < pairs; k++) {
+            int v = tails.get(k);
+            int w = pairHeads.get(k);
+            int a = next[v]++;
+            int b = next[w]++;
+            heads[a] = w;
+            heads[b] = v;
+            reverses[a] = b;
+            reverses[b] = a;
+            forward[a] = true;
+            capacities[a] = pairCapacities[k];
+            residuals[a] = pairCapacities[k];
+        }
+
+        heights = new int[n];
+        current = new int[n];
+        queue = new int[Math.max(n, 1)];
+        source = -1;
+        sink = -1;
+    }
+
+    /**
+     * @return The number of vertices in the network.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Computes a maximum flow from source to sink with Dinic's algorithm: repeatedly build
+     * the BFS level graph of the residual graph and saturate it with a blocking flow, found by
+     * depth-first searches that never revisit an exhausted arc. This takes O(n^2 m) time, and
+     * far less on unit-capacity networks.
+     *
+     * @param source The vertex the flow leaves.
+     * @param sink The vertex the flow enters.
+     * @throws java.lang.IllegalArgumentException if source or sink is null or not in the
+     * network, or if they are the same vertex.
+     * @return The value of the maximum flow.
+     */
+    public long dinic(V source, V sink) {
+        int s = id(source);
+        int t = id(sink);
+        prepare(s, t);
+        int[] levels = heights;
+        int[] path = queue;
+        while (buildLevels(s, t, levels)) {
+            System.arraycopy(offsets, 0, current, 0, levels.length);
+            int depth = 0;
+            int v = s;
+            while (true) {
+                if (v == t) {
+                    // augment along the path, then resume from the tail of the first arc
+                    // it saturated
+                    long bottleneck = INFINITE;
+                    for (int i = 0; i < depth; i++) {
+                        bottleneck = Math.min(bottleneck, residuals[path[i]]);
+                    }
+                    int resume = -1;
+                    for (int i = 0; i < depth; i++) {
+                        int a = path[i];
+                        residuals[a] -= bottleneck;
+                        residuals[reverses[a]] += bottleneck;
+                        if (resume < 0 && residuals[a] == 0) {
+                            resume = i;
+                        }
+                    }
+                    depth = resume;
+                    v = heads[reverses[path[resume]]];
+                    continue;
+                }
+                int a = current[v];
+                while (a < offsets[v + 1]
+                        && (residuals[a] == 0 || levels[heads[a]] != levels[v] + 1)) {
+                    a++;
+                }
+                current[v] = a;
+                if (a < offsets[v + 1]) {
+                    path[depth++] = a;
+                    v = heads[a];
+                } else if (depth == 0) {
+                    break;
+                } else {
+                    // v is exhausted; drop it from the level graph and retreat
+                    levels[v] = -1;
+                    v = heads[reverses[path[--depth]]];
+                    current[v]++;
+                }
+            }
+        }
+        return netFlow(s);
+    }
+
+    /**
+     * Computes a maximum flow from source to sink with the FIFO push-relabel algorithm of
+     * Goldberg and Tarjan. Excess is pushed along arcs that go one level down a height
+     * function; vertices are relabelled to exact residual distances every n relabels (the
+     * global-relabel heuristic), and when no vertex is left at some height below n, every
+     * vertex above it is lifted past n at once (the gap heuristic). Excess that cannot reach
+     * the sink is returned to the source, so the result is a flow and not just a preflow.
+     *
+     * @param source The vertex the flow leaves.
+     * @param sink The vertex the flow enters.
+     * @throws java.lang.IllegalArgumentException if source or sink is null or not in the
+     * network, or if they are the same vertex.
+     * @return The value of the maximum flow.
+     */
+    public long pushRelabel(V source, V sink) {
+        int s = id(source);
+        int t = id(sink);
+        prepare(s, t);
+        int n = size();
+        long[] excess = new long[n];
+        for (int v = 0; v < n; v++) {
+            excess[v] = -netFlow(v);
+        }
+        for (int a = offsets[s]; a < offsets[s + 1]; a++) {
+            long delta = residuals[a];
+            residuals[a] = 0;
+            residuals[reverses[a]] += delta;
+            excess[heads[a]] += delta;
+        }
+
+        int[] counts = new int[2 * n + 1];
+        boolean[] queued = new boolean[n];
+        int[] size = new int[1];
+        int head = globalRelabel(s, t, excess, counts, queued, size);
+        int relabels = 0;
+        while (size[0] > 0) {
+            int v = queue[head];
+            head = (head + 1) % n;
+            size[0]--;
+            queued[v] = false;
+
+            // discharge v
+            while (excess[v] > 0 && heights[v] < 2 * n) {
+                int a = current[v];
+                if (a == offsets[v + 1]) {
+                    relabel(v, counts);
+                    if (++relabels == n) {
+                        relabels = 0;
+                        head = globalRelabel(s, t, excess, counts, queued, size);
+                        break;
+                    }
+                    continue;
+                }
+                int w = heads[a];
+                if (residuals[a] > 0 && heights[v] == heights[w] + 1) {
+                    long delta = Math.min(excess[v], residuals[a]);
+                    residuals[a] -= delta;
+                    residuals[reverses[a]] += delta;
+                    excess[v] -= delta;
+                    excess[w] += delta;
+                    if (w != s && w != t && !queued[w]) {
+                        queued[w] = true;
+                        queue[(head + size[0]++) % n] = w;
+                    }
+                } else {
+                    current[v]++;
+                }
+            }
+        }
+        return netFlow(s);
+    }
+
+    /**
+     * Changes the capacity of the edge from vertex A to vertex B. If the edge now carries more
+     * flow than its capacity, the surplus is routed back to the source from vertex A and back
+     * from the sink to vertex B, so the residual graph again holds a valid flow for the next
+     * query.
+     *
+     * @param vertexA The tail of the edge.
+     * @param vertexB The head of the edge.
+     * @param capacity The new capacity.
+     * @throws java.lang.IllegalArgumentException if a vertex is null or not in the network,
+     * there is no edge from vertex A to vertex B, or capacity is negative.
+     */
+    public void setCapacity(V vertexA, V vertexB, long capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacities cannot be negative");
+        }
+        int a = arc(id(vertexA), id(vertexB));
+        long flow = capacities[a] - residuals[a];
+        capacities[a] = capacity;
+        if (flow <= capacity) {
+            residuals[a] = capacity - flow;
+            return;
+        }
+        long surplus = flow - capacity;
+        residuals[a] = 0;
+        residuals[reverses[a]] = capacity;
+
+        // vertex A now receives surplus more than it sends, and vertex B sends surplus more
+        // than it receives; the flow that caused this can be traced back along residual arcs.
+        // The source and sink need no repair, they just send or receive less
+        int u = heads[reverses[a]];
+        int w = heads[a];
+        boolean repairU = u != source && u != sink;
+        boolean repairW = w != source && w != sink;
+        if ((repairU && reroute(u, source, surplus) < surplus)
+                || (repairW && reroute(sink, w, surplus) < surplus)) {
+            // unreachable for a valid flow; start the next query from zero to stay safe
+            clearFlow();
+        }
+    }
+
+    /**
+     * @param vertexA The tail of the edge.
+     * @param vertexB The head of the edge.
+     * @throws java.lang.IllegalArgumentException if a vertex is null or not in the network, or
+     * there is no edge from vertex A to vertex B.
+     * @return The capacity of the edge from vertex A to vertex B.
+     */
+    public long capacity(V vertexA, V vertexB) {
+        return capacities[arc(id(vertexA), id(vertexB))];
+    }
+
+    /**
+     * @param vertexA The tail of the edge.
+     * @param vertexB The head of the edge.
+     * @throws java.lang.IllegalArgumentException if a vertex is null or not in the network, or
+     * there is no edge from vertex A to vertex B.
+     * @return The flow on the edge from vertex A to vertex B in the last computed flow.
+     */
+    public long flow(V vertexA, V vertexB) {
+        int a = arc(id(vertexA), id(vertexB));
+        return capacities[a] - residuals[a];
+    }
+
+    /**
+     * Returns the source side of a minimum cut for the last computed maximum flow: the vertices
+     * still reachable from the source in the residual graph. The edges leaving this set are
+     * saturated and their capacities sum to the value of the flow.
+     *
+     * @throws java.lang.IllegalStateException if no flow has been computed since the network
+     * was built or its flow was cleared.
+     * @return The source side of the cut.
+     */
+    public Set<V> minCut() {
+        if (source < 0) {
+            throw new IllegalStateException("no flow has been computed");
+        }
+        boolean[] reached = new boolean[size()];
+        reached[source] = true;
+        queue[0] = source;
+        int tail = 1;
+        Set<V> result = new HashSet<V>();
+        for (int head = 0; head < tail; head++) {
+            int v = queue[head];
+            result.add(index.vertex(v));
+            for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+                if (residuals[a] > 0 && !reached[heads[a]]) {
+                    reached[heads[a]] = true;
+                    queue[tail++] = heads[a];
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes all flow from the network; the capacities are kept.
+     */
+    public void clearFlow() {
+        System.arraycopy(capacities, 0, residuals, 0, residuals.length);
+        source = -1;
+        sink = -1;
+    }
+
+    private int id(V vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("vertex cannot be null");
+        }
+        int id = index.id(vertex);
+        if (id < 0) {
+            throw new IllegalArgumentException("vertex not in the network");
+        }
+        return id;
+    }
+
+    /**
+     * @return The forward arc from v to w.
+     * @throws java.lang.IllegalArgumentException if there is no edge from v to w.
+     */
+    private int arc(int v, int w) {
+        for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+            if (heads[a] == w && forward[a]) {
+                return a;
+            }
+        }
+        throw new IllegalArgumentException("no such edge");
+    }
+
+    /**
+     * Keeps the current flow if it was computed for the same source and sink, and clears it
+     * otherwise.
+     */
+    private void prepare(int s, int t) {
+        if (s == t) {
+            throw new IllegalArgumentException("source and sink must differ");
+        }
+        if (s != source || t != sink) {
+            clearFlow();
+        }
+        source = s;
+        sink = t;
+    }
+
+    /**
+     * @return The flow leaving v minus the flow entering it.
+     */
+    private long netFlow(int v) {
+        long total = 0;
+        for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+            total += capacities[a] - residuals[a];
+        }
+        return total;
+    }
+
+    /**
+     * Labels every vertex with its BFS distance from s in the residual graph, or -1.
+     *
+     * @return True if t is reachable from s.
+     */
+    private boolean buildLevels(int s, int t, int[] levels) {
+        Arrays.fill(levels, -1);
+        int[] bfs = new int[levels.length];
+        levels[s] = 0;
+        bfs[0] = s;
+        int tail = 1;
+        for (int head = 0; head < tail; head++) {
+            int v = bfs[head];
+            for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+                int w = heads[a];
+                if (residuals[a] > 0 && levels[w] < 0) {
+                    levels[w] = levels[v] + 1;
+                    bfs[tail++] = w;
+                }
+            }
+        }
+        return levels[t] >= 0;
+    }
+
+    /**
+     * Lifts v to one more than its lowest residual neighbour, applying the gap heuristic if v
+     * was the last vertex at its height.
+     */
+    private void relabel(int v, int[] counts) {
+        int n = size();
+        int old = heights[v];
+        int lowest = 2 * n - 1;
+        for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+            if (residuals[a] > 0) {
+                lowest = Math.min(lowest, heights[heads[a]]);
+            }
+        }
+        counts[old]--;
+        heights[v] = lowest + 1;
+        counts[heights[v]]++;
+        current[v] = offsets[v];
+        if (counts[old] == 0 && old < n) {
+            // nothing above the gap can reach the sink any more
+            for (int w = 0; w < n; w++) {
+                if (heights[w] > old && heights[w] < n) {
+                    counts[heights[w]]--;
+                    heights[w] = n + 1;
+                    counts[n + 1]++;
+                    current[w] = offsets[w];
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets every height to the exact residual distance to t, or n plus the residual distance
+     * to s for vertices that cannot reach t, and refills the queue with the active vertices.
+     *
+     * @param size Output parameter for the number of queued vertices.
+     * @return The position of the head of the queue.
+     */
+    private int globalRelabel(int s, int t, long[] excess, int[] counts, boolean[] queued,
+                              int[] size) {
+        int n = size();
+        Arrays.fill(heights, 2 * n);
+        int[] bfs = new int[n];
+        heights[t] = 0;
+        heights[s] = n;
+        bfs[0] = t;
+        int tail = 1;
+        for (int root = 0; root < 2; root++) {
+            if (root == 1) {
+                bfs[0] = s;
+                tail = 1;
+            }
+            for (int head = 0; head < tail; head++) {
+                int w = bfs[head];
+                for (int a = offsets[w]; a < offsets[w + 1]; a++) {
+                    int v = heads[a];
+                    if (residuals[reverses[a]] > 0 && heights[v] == 2 * n) {
+                        heights[v] = heights[w] + 1;
+                        bfs[tail++] = v;
+                    }
+                }
+            }
+        }
+
+        Arrays.fill(counts, 0);
+        Arrays.fill(queued, false);
+        size[0] = 0;
+        for (int v = 0; v < n; v++) {
+            counts[heights[v]]++;
+            current[v] = offsets[v];
+            if (v != s && v != t && excess[v] > 0 && heights[v] < 2 * n) {
+                queued[v] = true;
+                queue[size[0]++] = v;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Moves up to amount units of flow from one vertex to another along augmenting paths of
+     * the residual graph.
+     *
+     * @return The amount moved.
+     */
+    private long reroute(int from, int to, long amount) {
+        int n = size();
+        int[] parents = new int[n];
+        long moved = 0;
+        while (moved < amount) {
+            Arrays.fill(parents, -1);
+            parents[from] = from;
+            queue[0] = from;
+            int tail = 1;
+            for (int head = 0; head < tail && parents[to] < 0; head++) {
+                int v = queue[head];
+                for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+                    int w = heads[a];
+                    if (residuals[a] > 0 && parents[w] < 0) {
+                        parents[w] = a;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            if (parents[to] < 0) {
+                break;
+            }
+            long bottleneck = amount - moved;
+            for (int v = to; v != from; v = heads[reverses[parents[v]]]) {
+                bottleneck = Math.min(bottleneck, residuals[parents[v]]);
+            }
+            for (int v = to; v != from; v = heads[reverses[parents[v]]]) {
+                residuals[parents[v]] -= bottleneck;
+                residuals[reverses[parents[v]]] += bottleneck;
+            }
+            moved += bottleneck;
+        }
+        return moved;
+    }
+}
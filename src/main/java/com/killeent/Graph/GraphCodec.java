@@ -0,0 +1,80 @@
+package com.killeent.Graph;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Converts vertex or edge values to and from bytes, so they can be stored in a graph file
+ * (see {@link MappedGraph}). Codecs for the common value types are provided as constants.
+ */
+public interface GraphCodec<T> {
+
+    /**
+     * @return The encoded form of value.
+     */
+    byte[] encode(T value);
+
+    /**
+     * Decodes a value without modifying the position of the buffer.
+     *
+     * @param buffer The buffer holding the encoded value.
+     * @param offset The absolute position of the first byte of the value.
+     * @param length The number of bytes of the value.
+     * @return The decoded value.
+     */
+    T decode(ByteBuffer buffer, int offset, int length);
+
+    GraphCodec<Integer> INTEGER = new GraphCodec<Integer>() {
+        @Override
+        public byte[] encode(Integer value) {
+            return ByteBuffer.allocate(4).putInt(value).array();
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer, int offset, int length) {
+            return buffer.getInt(offset);
+        }
+    };
+
+    GraphCodec<Long> LONG = new GraphCodec<Long>() {
+        @Override
+        public byte[] encode(Long value) {
+            return ByteBuffer.allocate(8).putLong(value).array();
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer, int offset, int length) {
+            return buffer.getLong(offset);
+        }
+    };
+
+    GraphCodec<Double> DOUBLE = new GraphCodec<Double>() {
+        @Override
+        public byte[] encode(Double value) {
+            return ByteBuffer.allocate(8).putDouble(value).array();
+        }
+
+        @Override
+        public Double decode(ByteBuffer buffer, int offset, int length) {
+            return buffer.getDouble(offset);
+        }
+    };
+
+    GraphCodec<String> STRING = new GraphCodec<String>() {
+        private final Charset utf8 = Charset.forName("UTF-8");
+
+        @Override
+        public byte[] encode(String value) {
+            return value.getBytes(utf8);
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer, int offset, int length) {
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = buffer.get(offset + i);
+            }
+            return new String(bytes, utf8);
+        }
+    };
+}
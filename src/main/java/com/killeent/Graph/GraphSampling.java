@@ -0,0 +1,235 @@
+package com.killeent.Graph;
+
+import java.util.Random;
+
+/**
+ * Draws smaller graphs from a {@link CompactGraph} for exploratory analysis. Each sampler
+ * picks a set of vertices and returns the subgraph they induce, as a new
+ * {@link DirectedHashGraph} or {@link UndirectedHashGraph} like the graph the snapshot was
+ * taken from; inducing the subgraph, rather than keeping only the edges the sampler walked,
+ * keeps the degree distribution of the sample close to that of the graph (Leskovec and
+ * Faloutsos, "Sampling from Large Graphs", 2006; Ahmed, Neville and Kompella, "Network
+ * Sampling: From Static to Streaming Graphs", 2013).
+ *
+ * <ul>
+ * <li>{@link #randomWalk}: a random walk that flies back to its start with probability 0.15
+ * at every step, and moves to a new random start when it stops finding new vertices or its
+ * start has no outgoing edges.</li>
+ * <li>{@link #forestFire}: a fire that spreads from a random vertex to a geometrically
+ * distributed number of its unburned neighbors, and restarts elsewhere when it dies out.</li>
+ * <li>{@link #edgeReservoir}: a uniform sample of edges, kept in a reservoir over one pass,
+ * together with every other edge between their endpoints.</li>
+ * </ul>
+ *
+ * Directed graphs are walked and burned along outgoing edges only.
+ */
+public class GraphSampling {
+
+    private static final double FLY_BACK = 0.15;
+
+    // steps a walk may take without finding a new vertex before it moves; flying back every
+    // 1 / FLY_BACK steps on average keeps it near its start, so this many idle steps mean the
+    // neighborhood of the start is exhausted, however large the sample
+    private static final int PATIENCE = 1000;
+
+    private GraphSampling() {
+    }
+
+    /**
+     * Samples vertices by a random walk with restarts.
+     *
+     * @param g The graph to sample.
+     * @param vertices The number of vertices to sample; at most the size of the graph.
+     * @param seed The seed for the walk.
+     * @throws java.lang.IllegalArgumentException if g is null, or vertices is negative or
+     * larger than the graph.
+     * @return The subgraph induced by the sampled vertices.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>>
+            SimpleLabeledGraph<V, E> randomWalk(CompactGraph<V, E> g, int vertices, long seed) {
+        check(g, vertices);
+        Random random = new Random(seed);
+        boolean[] sampled = new boolean[g.size()];
+        int count = 0;
+        int start = random.nextInt(Math.max(g.size(), 1));
+        int at = start;
+        int idle = 0;
+        while (count < vertices) {
+            if (!sampled[at]) {
+                sampled[at] = true;
+                count++;
+                idle = 0;
+            } else if (++idle > PATIENCE) {
+                // stuck in a small or exhausted region
+                start = random.nextInt(g.size());
+                at = start;
+                idle = 0;
+                continue;
+            }
+            int degree = g.outDegree(at);
+            if (degree == 0 && at == start) {
+                // flying back would only return here
+                start = random.nextInt(g.size());
+                at = start;
+                idle = 0;
+                continue;
+            }
+            if (degree == 0 || random.nextDouble() < FLY_BACK) {
+                at = start;
+            } else {
+                at = g.targets[g.offsets[at] + random.nextInt(degree)];
+            }
+        }
+        return induced(g, sampled);
+    }
+
+    /**
+     * Samples vertices by forest fire.
+     *
+     * @param g The graph to sample.
+     * @param vertices The number of vertices to sample; at most the size of the graph.
+     * @param burn The forward burning probability, in [0, 1); a burning vertex spreads the fire
+     *             to burn / (1 - burn) of its unburned neighbors on average.
+     * @param seed The seed for the fire.
+     * @throws java.lang.IllegalArgumentException if g is null, vertices is negative or larger
+     * than the graph, or burn is not in [0, 1).
+     * @return The subgraph induced by the burned vertices.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>>
+            SimpleLabeledGraph<V, E> forestFire(CompactGraph<V, E> g, int vertices, double burn,
+                                                long seed) {
+        check(g, vertices);
+        if (!(burn >= 0 && burn < 1)) {
+            throw new IllegalArgumentException("burning probability not in [0, 1)");
+        }
+        Random random = new Random(seed);
+        int n = g.size();
+        boolean[] sampled = new boolean[n];
+        int[] queue = new int[n];
+        int[] candidates = new int[n];
+        int count = 0;
+        while (count < vertices) {
+            int seedVertex = random.nextInt(n);
+            if (sampled[seedVertex]) {
+                continue;
+            }
+            sampled[seedVertex] = true;
+            count++;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = seedVertex;
+            while (head < tail && count < vertices) {
+                int v = queue[head++];
+                int unburned = 0;
+                for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                    if (!sampled[g.targets[e]]) {
+                        candidates[unburned++] = g.targets[e];
+                    }
+                }
+                // geometric with mean burn / (1 - burn)
+                int spread = 0;
+                while (random.nextDouble() < burn) {
+                    spread++;
+                }
+                spread = Math.min(spread, unburned);
+                for (int i = 0; i < spread && count < vertices; i++) {
+                    int pick = i + random.nextInt(unburned - i);
+                    int w = candidates[pick];
+                    candidates[pick] = candidates[i];
+                    if (!sampled[w]) {
+                        sampled[w] = true;
+                        count++;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+        }
+        return induced(g, sampled);
+    }
+
+    /**
+     * Samples edges uniformly in one pass with a reservoir, and returns the subgraph induced
+     * by their endpoints.
+     *
+     * @param g The graph to sample.
+     * @param edges The number of edges to sample; an undirected edge counts once. All edges
+     *              are kept if the graph has fewer.
+     * @param seed The seed for the reservoir.
+     * @throws java.lang.IllegalArgumentException if g is null or edges is negative.
+     * @return The subgraph induced by the endpoints of the sampled edges.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>>
+            SimpleLabeledGraph<V, E> edgeReservoir(CompactGraph<V, E> g, int edges, long seed) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        if (edges < 0) {
+            throw new IllegalArgumentException("negative sample size");
+        }
+        Random random = new Random(seed);
+        // the reservoir holds the packed source and target of each sampled edge
+        long[] reservoir = new long[edges];
+        long seen = 0;
+        for (int v = 0; v < g.size(); v++) {
+            for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                int target = g.targets[e];
+                if (!g.isDirected() && target < v) {
+                    continue;
+                }
+                long edge = VertexIndex.edge(v, target);
+                if (seen < edges) {
+                    reservoir[(int) seen] = edge;
+                } else {
+                    long slot = (long) (random.nextDouble() * (seen + 1));
+                    if (slot < edges) {
+                        reservoir[(int) slot] = edge;
+                    }
+                }
+                seen++;
+            }
+        }
+        boolean[] sampled = new boolean[g.size()];
+        for (int i = 0; i < Math.min(seen, edges); i++) {
+            sampled[VertexIndex.source(reservoir[i])] = true;
+            sampled[VertexIndex.destination(reservoir[i])] = true;
+        }
+        return induced(g, sampled);
+    }
+
+    private static void check(CompactGraph<?, ?> g, int vertices) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        if (vertices < 0 || vertices > g.size()) {
+            throw new IllegalArgumentException("sample size not in [0, " + g.size() + "]");
+        }
+    }
+
+    /**
+     * @return The subgraph of g induced by the sampled vertex ids.
+     */
+    private static <V extends Comparable<V>, E extends Comparable<E>> SimpleLabeledGraph<V, E>
+            induced(CompactGraph<V, E> g, boolean[] sampled) {
+        SimpleLabeledGraph<V, E> result = g.isDirected()
+                ? new DirectedHashGraph<V, E>()
+                : new UndirectedHashGraph<V, E>();
+        for (int v = 0; v < g.size(); v++) {
+            if (sampled[v]) {
+                result.addVertex(g.vertex(v));
+            }
+        }
+        for (int v = 0; v < g.size(); v++) {
+            if (!sampled[v]) {
+                continue;
+            }
+            for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                int target = g.targets[e];
+                // an undirected edge is stored twice but added once
+                if (sampled[target] && target != v && (g.isDirected() || v < target)) {
+                    result.addEdge(g.vertex(v), g.vertex(target), g.value(e));
+                }
+            }
+        }
+        return result;
+    }
+}
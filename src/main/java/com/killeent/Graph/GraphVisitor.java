@@ -0,0 +1,47 @@
+package com.killeent.Graph;
+
+/**
+ * Receives the events of a traversal run by {@link Traversals}. Vertices and edges are
+ * identified by their ids in the {@link CompactGraph} being traversed, so no objects are
+ * created per vertex; an edge id e is the position of the edge in the CSR arrays, i.e. the
+ * ith edge leaving v has id offsets[v] + i.
+ *
+ * Every method does nothing by default, so a visitor overrides only the events it needs.
+ * Returning false from {@link #discover} ends the traversal early.
+ */
+public abstract class GraphVisitor {
+
+    /**
+     * Called when a vertex is first reached.
+     *
+     * @param vertex The vertex reached.
+     * @param parent The vertex it was reached from, or -1 for a start vertex.
+     * @param distance The number of edges (or, for Djikstra's algorithm, the weight) of the
+     *                 path it was reached by; -1 for topological orders.
+     * @return True to continue the traversal, false to end it.
+     */
+    public boolean discover(int vertex, int parent, long distance) {
+        return true;
+    }
+
+    /**
+     * Called when a vertex is done with: all its edges have been followed, or, for
+     * Djikstra's algorithm, its distance is final and its edges have been relaxed.
+     *
+     * @param vertex The finished vertex.
+     */
+    public void finish(int vertex) {
+    }
+
+    /**
+     * Called when an edge gives its target a shorter (or, in the first-found searches, its
+     * first) path. In a breadth or depth first search these are the tree edges.
+     *
+     * @param edge The id of the edge.
+     * @param from The source of the edge.
+     * @param to The target of the edge.
+     * @param distance The new distance of to.
+     */
+    public void relax(int edge, int from, int to, long distance) {
+    }
+}
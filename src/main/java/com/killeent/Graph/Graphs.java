@@ -1,8 +1,11 @@
 package com.killeent.Graph;
 
-import com.killeent.Misc.Pair;
+import com.killeent.PriorityQueue.IndexedHeap;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Stream;
 
 /**
  * Various Graph Search/Sort/Traversal algorithms.
@@ -11,6 +14,9 @@ import java.util.*;
  */
 public class Graphs {
 
+    // Marks a vertex that has not been reached by a search
+    private static final int UNDISCOVERED = -2;
+
     /**
      * Performs BFS on the input graph to find a shortest path between two vertices, if
      * one exists.
@@ -33,31 +39,40 @@ public class Graphs {
             throw new IllegalArgumentException("vertex missing from graph");
         }
 
-        Queue<V> queue = new LinkedList<V>();
-        Map<V, Edge<V,E>> discovered = new HashMap<V, Edge<V,E>>();
-        queue.add(start);
-        discovered.put(start, null);
-
-        // perform DFS to find the shortest path
-        while (!queue.isEmpty()) {
-            V candidate = queue.remove();
+        CompactGraph<V, E> compact = new CompactGraph<V, E>(g);
+        int source = compact.id(start);
+        int target = compact.id(end);
+        int[] offsets = compact.offsets;
+        int[] targets = compact.targets;
+
+        // parentEdges[v] is the edge the search reached v through, or UNDISCOVERED
+        int[] parents = new int[compact.size()];
+        int[] parentEdges = new int[compact.size()];
+        Arrays.fill(parentEdges, UNDISCOVERED);
+        parentEdges[source] = -1;
+        int[] queue = new int[compact.size()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+
+        // perform BFS to find the shortest path
+        while (head < tail) {
+            int candidate = queue[head++];
 
             // if we have found the end, build up the list of edges we took
             // to get here
-            if (candidate.equals(end)) {
-                Edge<V, E> temp = discovered.get(candidate);
-                while (temp != null) {
-                    path.add(0, temp);
-                    temp = discovered.get(temp.getSource());
-                }
+            if (candidate == target) {
+                buildPath(compact, parents, parentEdges, target, path);
                 return true;
             }
 
             // otherwise, queue up all outgoing edges to non-discovered vertices
-            for (Edge<V,E> neighbor : g.neighbors(candidate)) {
-                if (!discovered.containsKey(neighbor.getDestination())) {
-                    discovered.put(neighbor.getDestination(), neighbor);
-                    queue.add(neighbor.getDestination());
+            for (int e = offsets[candidate]; e < offsets[candidate + 1]; e++) {
+                int neighbor = targets[e];
+                if (parentEdges[neighbor] == UNDISCOVERED) {
+                    parents[neighbor] = candidate;
+                    parentEdges[neighbor] = e;
+                    queue[tail++] = neighbor;
                 }
             }
         }
@@ -66,6 +81,74 @@ public class Graphs {
         return false;
     }
 
+    /**
+     * Appends the edges of a search tree path from the root to end to path.
+     *
+     * @param parents The parent id of every reached vertex.
+     * @param parentEdges The index of the edge each vertex was reached through; -1 for the root.
+     */
+    private static <V extends Comparable<V>, E extends Comparable<E>> void buildPath(
+            CompactGraph<V, E> g, int[] parents, int[] parentEdges, int end,
+            List<Edge<V, E>> path) {
+        List<Edge<V, E>> reversed = new ArrayList<Edge<V, E>>();
+        for (int v = end; parentEdges[v] != -1; v = parents[v]) {
+            reversed.add(new Edge<V, E>(g.vertex(parents[v]), g.vertex(v),
+                    g.values[parentEdges[v]]));
+        }
+        Collections.reverse(reversed);
+        path.addAll(reversed);
+    }
+
+    /**
+     * Performs a parallel, direction-optimizing BFS from the start vertex, computing the
+     * distance to and BFS parent of every vertex in the graph. The graph is first copied into
+     * a {@link CompactGraph}; callers running many searches should take the snapshot once and
+     * use {@link #parallelBreadthFirstSearch(CompactGraph, Comparable)}.
+     *
+     * @param g The graph to search.
+     * @param start The start node to consider.
+     * @throws java.lang.IllegalArgumentException if any passed parameters are null.
+     * @throws java.lang.IllegalArgumentException if start isn't in the graph.
+     * @return The BFS tree rooted at start.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> BreadthFirstTree<V, E>
+            parallelBreadthFirstSearch(SimpleLabeledGraph<V, E> g, V start) {
+        if (g == null || start == null) {
+            throw new IllegalArgumentException("null arguments to breadth first search");
+        }
+        if (!g.containsVertex(start)) {
+            throw new IllegalArgumentException("vertex missing from graph");
+        }
+        return parallelBreadthFirstSearch(new CompactGraph<V, E>(g), start);
+    }
+
+    /**
+     * Performs a parallel, direction-optimizing BFS from the start vertex, computing the
+     * distance to and BFS parent of every vertex in the graph.
+     *
+     * Each level of the search is expanded in parallel, either top-down from the frontier or
+     * bottom-up from the unvisited vertices, depending on which is expected to touch fewer
+     * edges. Distances are deterministic; when a vertex has several parents on the previous
+     * level, which one is recorded depends on thread scheduling.
+     *
+     * @param g The graph to search.
+     * @param start The start node to consider.
+     * @throws java.lang.IllegalArgumentException if any passed parameters are null.
+     * @throws java.lang.IllegalArgumentException if start isn't in the graph.
+     * @return The BFS tree rooted at start.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> BreadthFirstTree<V, E>
+            parallelBreadthFirstSearch(CompactGraph<V, E> g, V start) {
+        if (g == null || start == null) {
+            throw new IllegalArgumentException("null arguments to breadth first search");
+        }
+        int source = g.id(start);
+        int[] distances = new int[g.size()];
+        int[] parents = new int[g.size()];
+        DirectionOptimizingBFS.search(g, source, distances, parents);
+        return new BreadthFirstTree<V, E>(g, source, distances, parents);
+    }
+
     /**
      * Performs Djikstra's algorithm on the input graph with non-negative integer edges
      * to find a shortest path between two vertices, if one exists.
@@ -88,61 +171,54 @@ public class Graphs {
             throw new IllegalArgumentException("vertex missing from graph");
         }
 
+        CompactGraph<V, Integer> compact = new CompactGraph<V, Integer>(g);
+        int source = compact.id(start);
+        int target = compact.id(end);
+        int n = compact.size();
+        int[] offsets = compact.offsets;
+        int[] targets = compact.targets;
+        long[] weights = compact.weights("edge weight", Long.MIN_VALUE);
+
         // Initialize distances, parents for vertices in the graph
-        final Map<V, Integer> distances = new HashMap<V, Integer>();
-        Map<V, Edge<V,Integer>> parents = new HashMap<V, Edge<V, Integer>>();
-        for (V vertex : g.vertices()) {
-            distances.put(vertex, Integer.MAX_VALUE);
-            parents.put(vertex, null);
-        }
-        distances.put(start, 0);
+        long[] distances = new long[n];
+        Arrays.fill(distances, Long.MAX_VALUE);
+        int[] parents = new int[n];
+        int[] parentEdges = new int[n];
+        parentEdges[source] = -1;
+        distances[source] = 0;
 
         // Order by distance to vertex
-        PriorityQueue<V> queue = new PriorityQueue<V>(g.vertices().size(), new Comparator<V>() {
-            @Override
-            public int compare(V o1, V o2) {
-                return distances.get(o1) - distances.get(o2);
-            }
-        });
-        queue.add(start);
+        IndexedHeap queue = new IndexedHeap(n);
+        queue.update(source, 0);
 
         // Keep track of what we have discovered
-        Set<V> discovered = new HashSet<V>();
+        boolean[] discovered = new boolean[n];
 
         while (!queue.isEmpty()) {
-            V candidate = queue.remove();
-
-            if (candidate.equals(end)) {
-                // rebuild path
-                Edge<V, Integer> inEdge = parents.get(candidate);
+            int candidate = queue.remove();
 
-                while (inEdge != null) {
-                    path.add(0, inEdge);
-                    inEdge = parents.get(inEdge.getSource());
-                }
+            if (candidate == target) {
+                buildPath(compact, parents, parentEdges, target, path);
                 return true;
             }
-            discovered.add(candidate);
+            discovered[candidate] = true;
 
             // iterate over edges, updating distances/parents for neighbors if they are lesser
-            for (Edge<V, Integer> edge : g.neighbors(candidate)) {
-                V neighbor = edge.getDestination();
-                if (!discovered.contains(neighbor)) {
+            for (int e = offsets[candidate]; e < offsets[candidate + 1]; e++) {
+                int neighbor = targets[e];
+                if (!discovered[neighbor]) {
                     // if the distance from source to this node + the edge distance is less
                     // than the current distance for the neighbor, update its distance and
                     // set this node as parent
-                    int distance = distances.get(candidate) + edge.getValue();
-                    if (distance <= distances.get(neighbor)) {
-                        distances.put(neighbor, distance);
-                        parents.put(neighbor, edge);
-
-                        // approximate decreaseKey
-                        queue.remove(neighbor);
-                        queue.add(neighbor);
+                    long distance = distances[candidate] + weights[e];
+                    if (distance <= distances[neighbor]) {
+                        distances[neighbor] = distance;
+                        parents[neighbor] = candidate;
+                        parentEdges[neighbor] = e;
+                        queue.update(neighbor, distance);
                     }
                 }
             }
-
         }
 
         // no path found
@@ -174,71 +250,137 @@ public class Graphs {
             throw new IllegalArgumentException("vertex missing from graph");
         }
 
-        final Map<V, Pair<Integer>> distances = new HashMap<V, Pair<Integer>>();
-        Map<V, Edge<V, Integer>> parents = new HashMap<V, Edge<V, Integer>>();
-        for (V vertex : g.vertices()) {
-            distances.put(vertex, new Pair<Integer>(Integer.MAX_VALUE, Integer.MAX_VALUE));
-            parents.put(vertex, null);
-        }
-        distances.put(start, new Pair<Integer>(0, 0));
-
-        Comparator<V> vertexComparator = new Comparator<V>() {
-            @Override
-            public int compare(V o1, V o2) {
-                Pair<Integer> p1 = distances.get(o1);
-                Pair<Integer> p2 = distances.get(o2);
-
-                // order by distance first, then the number of edges
-                if (p1.getFirst() != p2.getFirst()) {
-                    return p1.getFirst() - p2.getFirst();
-                } else {
-                    return p1.getSecond() - p2.getSecond();
-                }
-            }
-        };
-
-        PriorityQueue<V> queue = new PriorityQueue<V>(11, vertexComparator);
-        queue.add(start);
-
-        Set<V> discovered = new HashSet<V>();
+        CompactGraph<V, Integer> compact = new CompactGraph<V, Integer>(g);
+        int source = compact.id(start);
+        int target = compact.id(end);
+        int n = compact.size();
+        int[] offsets = compact.offsets;
+        int[] targets = compact.targets;
+        long[] weights = compact.weights("edge weight", Long.MIN_VALUE);
+
+        // the weight and number of edges of the best known path to every vertex
+        long[] distances = new long[n];
+        int[] lengths = new int[n];
+        Arrays.fill(distances, Long.MAX_VALUE);
+        Arrays.fill(lengths, Integer.MAX_VALUE);
+        int[] parents = new int[n];
+        int[] parentEdges = new int[n];
+        parentEdges[source] = -1;
+        distances[source] = 0;
+        lengths[source] = 0;
+
+        // order by distance first, then the number of edges
+        IndexedHeap queue = new IndexedHeap(n);
+        queue.update(source, 0, 0);
+
+        boolean[] discovered = new boolean[n];
 
         while (!queue.isEmpty()) {
-            V candidate = queue.remove();
+            int candidate = queue.remove();
 
-            if (candidate.equals(end)) {
-                // rebuild path
-                Edge<V, Integer> inEdge = parents.get(candidate);
-
-                while (inEdge != null) {
-                    path.add(0, inEdge);
-                    inEdge = parents.get(inEdge.getSource());
-                }
+            if (candidate == target) {
+                buildPath(compact, parents, parentEdges, target, path);
                 return true;
             }
-            discovered.add(candidate);
+            discovered[candidate] = true;
 
-            Pair<Integer> candidateDistance = distances.get(candidate);
-            for (Edge<V, Integer> edge : g.neighbors(candidate)) {
-                V neighbor = edge.getDestination();
-                if (!discovered.contains(neighbor)) {
+            for (int e = offsets[candidate]; e < offsets[candidate + 1]; e++) {
+                int neighbor = targets[e];
+                if (!discovered[neighbor]) {
                     // if the distance from source to this node + the edge distance is less
                     // than the current distance for the neighbor, or if the distance is
                     // the same but the number of edges in the path from the source to this node
                     // is less than the current number, update its distance and set candidate
                     // to the parent
-                    Pair<Integer> oldDistance = distances.get(neighbor);
-                    Pair<Integer> newDistance = new Pair<Integer>(
-                            candidateDistance.getFirst() + edge.getValue(),
-                            candidateDistance.getSecond() + 1);
-                    if (newDistance.getFirst() < oldDistance.getFirst() ||
-                            (newDistance.getFirst().equals(oldDistance.getFirst()) &&
-                                    newDistance.getSecond() < oldDistance.getSecond())) {
-                        distances.put(neighbor, newDistance);
-                        parents.put(neighbor, edge);
-
-                        // approximate decreaseKey
-                        queue.remove(neighbor);
-                        queue.add(neighbor);
+                    long distance = distances[candidate] + weights[e];
+                    int length = lengths[candidate] + 1;
+                    if (distance < distances[neighbor] ||
+                            (distance == distances[neighbor] && length < lengths[neighbor])) {
+                        distances[neighbor] = distance;
+                        lengths[neighbor] = length;
+                        parents[neighbor] = candidate;
+                        parentEdges[neighbor] = e;
+                        queue.update(neighbor, distance, length);
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Performs A* search on the graph of a weighted {@link DistanceOracle} to find a shortest
+     * path between two vertices, if one exists. The landmark lower bounds of the oracle are
+     * the heuristic: they never overestimate and obey the triangle inequality, so the path is
+     * a shortest one, and vertices the oracle proves cannot reach end are never expanded.
+     *
+     * @param oracle A weighted oracle; the search runs on its graph.
+     * @param start The start node to consider.
+     * @param end The node to find the shortest path to.
+     * @param path An output parameter where the shortest path will be stored in one
+     *             exists.
+     * @throws java.lang.IllegalArgumentException if any passed parameters are null.
+     * @throws java.lang.IllegalArgumentException if the oracle counts hops.
+     * @throws java.lang.IllegalArgumentException if start or end isn't in the graph.
+     * @return True if start and end are connected, otherwise false.
+     */
+    public static <V extends Comparable<V>> boolean aStarPath(DistanceOracle<V, Integer> oracle,
+            V start, V end, List<Edge<V, Integer>> path) {
+        if (oracle == null || start == null || end == null || path == null) {
+            throw new IllegalArgumentException("null arguments to shortest path");
+        }
+        if (!oracle.isWeighted()) {
+            throw new IllegalArgumentException("A* needs an oracle over edge weights");
+        }
+        CompactGraph<V, Integer> compact = oracle.getGraph();
+        int source = compact.id(start);
+        int target = compact.id(end);
+        int n = compact.size();
+        int[] offsets = compact.offsets;
+        int[] targets = compact.targets;
+        long[] weights = compact.weights("edge weight", 0);
+
+        long[] distances = new long[n];
+        Arrays.fill(distances, Long.MAX_VALUE);
+        // the heuristic of every vertex, computed when it is first reached
+        long[] estimates = new long[n];
+        int[] parents = new int[n];
+        int[] parentEdges = new int[n];
+        parentEdges[source] = -1;
+        distances[source] = 0;
+        estimates[source] = oracle.lowerBoundId(source, target);
+        if (estimates[source] == DistanceOracle.INFINITE) {
+            return false;
+        }
+
+        // order by distance plus the estimate of the remaining distance
+        IndexedHeap queue = new IndexedHeap(n);
+        queue.update(source, estimates[source]);
+        boolean[] discovered = new boolean[n];
+
+        while (!queue.isEmpty()) {
+            int candidate = queue.remove();
+            if (candidate == target) {
+                buildPath(compact, parents, parentEdges, target, path);
+                return true;
+            }
+            discovered[candidate] = true;
+
+            for (int e = offsets[candidate]; e < offsets[candidate + 1]; e++) {
+                int neighbor = targets[e];
+                if (discovered[neighbor]) {
+                    continue;
+                }
+                long distance = distances[candidate] + weights[e];
+                if (distance < distances[neighbor]) {
+                    if (distances[neighbor] == Long.MAX_VALUE) {
+                        estimates[neighbor] = oracle.lowerBoundId(neighbor, target);
+                    }
+                    distances[neighbor] = distance;
+                    if (estimates[neighbor] != DistanceOracle.INFINITE) {
+                        parents[neighbor] = candidate;
+                        parentEdges[neighbor] = e;
+                        queue.update(neighbor, distance + estimates[neighbor]);
                     }
                 }
             }
@@ -246,10 +388,130 @@ public class Graphs {
         return false;
     }
 
+    /**
+     * Finds up to k shortest loopless paths between two vertices of a graph with non-negative
+     * integer edges, by Yen's algorithm with parallel spur searches; see
+     * {@link KShortestPaths}.
+     *
+     * @param g The graph to search.
+     * @param start The start node to consider.
+     * @param end The node to find the paths to.
+     * @param k The number of paths to find.
+     * @throws java.lang.IllegalArgumentException if any passed parameters are null.
+     * @throws java.lang.IllegalArgumentException if start or end isn't in the graph, k is not
+     * positive, or an edge weight is negative.
+     * @return The paths in order of increasing weight; fewer than k if there are no more.
+     */
+    public static <V extends Comparable<V>> List<List<Edge<V, Integer>>> kShortestPaths(
+            SimpleLabeledGraph<V, Integer> g, V start, V end, int k) {
+        if (g == null) {
+            throw new IllegalArgumentException("null arguments to k shortest paths");
+        }
+        return KShortestPaths.yen(new CompactGraph<V, Integer>(g), start, end, k);
+    }
+
+    /**
+     * Finds a maximum-cardinality matching of a bipartite graph by Hopcroft-Karp; see
+     * {@link BipartiteMatching}.
+     *
+     * @param g The graph to match.
+     * @throws java.lang.IllegalArgumentException if g is null or not bipartite.
+     * @return The mate of every matched vertex, in both directions.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> Map<V, V> maximumMatching(
+            UndirectedGraph<V, E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null arguments to maximum matching");
+        }
+        CompactGraph<V, E> compact = new CompactGraph<V, E>(g);
+        int[] mates = BipartiteMatching.hopcroftKarp(compact, null).getMates();
+        Map<V, V> result = new HashMap<V, V>();
+        for (int v = 0; v < mates.length; v++) {
+            if (mates[v] >= 0) {
+                result.put(compact.vertex(v), compact.vertex(mates[v]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the vertices reachable from start in breadth first order, as a lazy stream; a
+     * short-circuiting operation such as findFirst stops the search. See {@link Traversals}
+     * for the other orders and for visitors.
+     *
+     * @param g The graph to search.
+     * @param start The start node to consider.
+     * @throws java.lang.IllegalArgumentException if any passed parameters are null.
+     * @throws java.lang.IllegalArgumentException if start isn't in the graph.
+     * @return The stream of vertices, over a snapshot of g.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> Stream<V>
+            breadthFirstStream(SimpleLabeledGraph<V, E> g, V start) {
+        if (g == null || start == null) {
+            throw new IllegalArgumentException("null arguments to breadth first search");
+        }
+        return Traversals.breadthFirstStream(new CompactGraph<V, E>(g), start);
+    }
+
+    /**
+     * Returns the vertices reachable from start in depth first pre-order, as a lazy stream.
+     *
+     * @param g The graph to search.
+     * @param start The start node to consider.
+     * @throws java.lang.IllegalArgumentException if any passed parameters are null.
+     * @throws java.lang.IllegalArgumentException if start isn't in the graph.
+     * @return The stream of vertices, over a snapshot of g.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> Stream<V>
+            depthFirstStream(SimpleLabeledGraph<V, E> g, V start) {
+        if (g == null || start == null) {
+            throw new IllegalArgumentException("null arguments to depth first search");
+        }
+        return Traversals.depthFirstStream(new CompactGraph<V, E>(g), start);
+    }
+
+    /**
+     * Returns the vertices of a DAG in topological order, as a lazy stream.
+     *
+     * @param g The graph to sort.
+     * @throws java.lang.IllegalArgumentException if g is null or contains a cycle.
+     * @return The stream of vertices, over a snapshot of g.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> Stream<V>
+            topologicalStream(DirectedGraph<V, E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        return Traversals.topologicalStream(new CompactGraph<V, E>(g));
+    }
+
+    /**
+     * Returns the vertices reachable from start in order of increasing distance, as a lazy
+     * stream, so the k nearest vertices cost only as much of Djikstra's algorithm as it
+     * takes to settle them.
+     *
+     * @param g The graph to search.
+     * @param start The start node to consider.
+     * @throws java.lang.IllegalArgumentException if any passed parameters are null.
+     * @throws java.lang.IllegalArgumentException if start isn't in the graph, or an edge
+     * weight is negative.
+     * @return The stream of vertices, over a snapshot of g.
+     */
+    public static <V extends Comparable<V>> Stream<V> djikstraStream(
+            SimpleLabeledGraph<V, Integer> g, V start) {
+        if (g == null || start == null) {
+            throw new IllegalArgumentException("null arguments to shortest path");
+        }
+        return Traversals.djikstraStream(new CompactGraph<V, Integer>(g), start);
+    }
+
     /**
      * Leverages DFS to detect the presence of a cycle in an undirected graph, if
      * one exists.
      *
+     * The search uses an explicit stack and int-indexed state arrays over a
+     * {@link CompactGraph} snapshot, so it does not overflow the call stack on long paths.
+     *
      * @param g The graph to search.
      * @param start Start node to begin our search at.
      * @throws java.lang.IllegalArgumentException if g or start is null.
@@ -265,34 +527,40 @@ public class Graphs {
             throw new IllegalArgumentException("vertex missing from graph");
         }
 
-        Map<V,V> discovered = new HashMap<V,V>();   // nodes we have seen and their parents
-        discovered.put(start, null);
-
-        return containsCycle(g, start, discovered);
-    }
-
-    /**
-     * Recursive helper function to detect the presence of a cycle in an undirected graph.
-     *
-     * @param g The graph to search.
-     * @param candidate node to search at.
-     * @param discovered Set of nodes that we have discovered along with their parents.
-     * @return true if the graph contains a cycle, otherwise false.
-     */
-    private static <V extends Comparable<V>, E extends Comparable<E>> boolean containsCycle(
-            UndirectedGraph<V,E> g, V candidate, Map<V,V> discovered) {
-        for (Edge<V,E> neighbor : g.neighbors(candidate)) {
-            V dst = neighbor.getDestination();
-            if (discovered.containsKey(dst) &&
-                    (discovered.get(candidate) == null || !discovered.get(candidate).equals(dst))) {
+        CompactGraph<V,E> compact = new CompactGraph<V, E>(g);
+        int n = compact.size();
+        int[] offsets = compact.offsets;
+        int[] targets = compact.targets;
+
+        // parent[v] is the parent of v in the DFS tree, -1 for the root and UNDISCOVERED for
+        // vertices we have not seen yet; next[v] is the next edge of v to explore
+        int[] parent = new int[n];
+        int[] next = new int[n];
+        Arrays.fill(parent, UNDISCOVERED);
+        int[] stack = new int[n];
+        int top = 0;
+
+        int root = compact.id(start);
+        parent[root] = -1;
+        next[root] = offsets[root];
+        stack[top++] = root;
+
+        while (top > 0) {
+            int candidate = stack[top - 1];
+            if (next[candidate] == offsets[candidate + 1]) {
+                // all edges explored; backtrack
+                top--;
+                continue;
+            }
+            int dst = targets[next[candidate]++];
+            if (parent[dst] == UNDISCOVERED) {
+                // tree edge; descend
+                parent[dst] = candidate;
+                next[dst] = offsets[dst];
+                stack[top++] = dst;
+            } else if (parent[candidate] != dst) {
                 // this is a back edge; there is a cycle
                 return true;
-            } else if (!discovered.containsKey(dst)) {
-                // tree edge; recurse
-                discovered.put(dst, candidate);
-                if (containsCycle(g, dst, discovered)) {
-                    return true;
-                }
             }
         }
         return false;
@@ -302,6 +570,9 @@ public class Graphs {
      * Leverages DFS to find all of the articulation vertices in an undirected graph, if any.
      * An articulation vertex is a vertex whose removal disconnects the graph.
      *
+     * The search uses an explicit stack and int-indexed state arrays over a
+     * {@link CompactGraph} snapshot, so it does not overflow the call stack on long paths.
+     *
      * @param g The graph to search.
      * @param start Start node to begin our search at.
      * @throws java.lang.IllegalArgumentException if g is null, or start is null.
@@ -318,125 +589,88 @@ public class Graphs {
             throw new IllegalArgumentException("vertex missing from graph");
         }
 
+        CompactGraph<V,E> compact = new CompactGraph<V, E>(g);
+        int n = compact.size();
+        int[] offsets = compact.offsets;
+        int[] targets = compact.targets;
+
         // a vertex v's dfs number is the order in which it was explored in the dfs algorithm; the
-        // first vertex explored has dfs number = 1, the second vertex explored = 2, etc.
-        Map<V, Integer> dfsNumber = new HashMap<V, Integer>();
+        // first vertex explored has dfs number = 1, the second vertex explored = 2, etc. A dfs
+        // number of 0 means the vertex has not been discovered yet.
+        int[] dfsNumber = new int[n];
 
         // A vertex v's low value is the lowest dfs number of any vertex in the dfs subtree rooted
         // at vertex (including v) or connected to a vertex in that subtree by a back edge
-        Map<V, Integer> low = new HashMap<V, Integer>();
+        int[] low = new int[n];
 
         // A vertex v's tree out degree is the number of edges connected to v in the tree
         // formed by DFS
-        Map<V, Integer> degree = new HashMap<V, Integer>();
-
-        // Vertices we have seen and their parent
-        Map<V,V> discovered = new HashMap<V, V>();
-        discovered.put(start, null);
-
-        Set<V> result = new HashSet<V>();
-        articulationVertices(g, start, dfsNumber, low, degree, discovered, result);
-        return Collections.unmodifiableSet(result);
-    }
-
-    /**
-     * Recursive helper function to calculate the articulation vertices in an undirected
-     * graph using DFS.
-     *
-     * @param g The graph to search.
-     * @param candidate The current node to evaluate.
-     * @param dfsNumber Keeps track of the DFS ordering of nodes.
-     * @param low Keeps track of the lowest node in the DFS tree reachable from the subtree of the
-     *            candidate.
-     * @param degree Keeps track of the the degree of every node.
-     * @param discovered Keeps track of discovered nodes and their parent.
-     * @param result Stores the articulation vertices in the graph.
-     */
-    private static <V extends Comparable<V>, E extends Comparable<E>> void articulationVertices(
-            UndirectedGraph<V,E> g, V candidate, Map<V,Integer> dfsNumber, Map<V,Integer> low,
-            Map<V, Integer> degree, Map<V,V> discovered, Set<V> result) {
-        // initialize dfs number to the number of discovered vertices
-        dfsNumber.put(candidate, discovered.size());
-
-        // initialize low to be the candidate's dfs number
-        low.put(candidate, dfsNumber.get(candidate));
-
-        // initialize DFS degree to be 0
-        degree.put(candidate, 0);
-
-        for (Edge<V,E> neighbor : g.neighbors(candidate)) {
-            V dst = neighbor.getDestination();
-            if (!discovered.containsKey(dst)) {
-                // tree edge
-
-                // mark dst as discovered, set candidate as parent
-                discovered.put(dst, candidate);
-
-                // increment the candidate's DFS degree count
-                degree.put(candidate, degree.get(candidate) + 1);
-
-                // recurse
-                articulationVertices(g, dst, dfsNumber, low, degree, discovered, result);
-
-                // update low value if the child links to something above us in the DFS tree
-                if (low.get(dst) < low.get(candidate)) {
-                    low.put(candidate, low.get(dst));
-                }
-            } else if (discovered.containsKey(dst) &&
-                    (discovered.get(candidate) == null || !discovered.get(candidate).equals(dst))) {
-                // back edge; update low value
-                if (dfsNumber.get(dst) < low.get(candidate)) {
-                    low.put(candidate, dfsNumber.get(dst));
+        int[] degree = new int[n];
+
+        // The parent of every discovered vertex (-1 for the root), and the next edge to explore
+        int[] parent = new int[n];
+        int[] next = new int[n];
+        boolean[] articulation = new boolean[n];
+        int[] stack = new int[n];
+        int top = 0;
+        int explored = 0;
+
+        int root = compact.id(start);
+        dfsNumber[root] = low[root] = ++explored;
+        parent[root] = -1;
+        next[root] = offsets[root];
+        stack[top++] = root;
+
+        while (top > 0) {
+            int candidate = stack[top - 1];
+            if (next[candidate] < offsets[candidate + 1]) {
+                int dst = targets[next[candidate]++];
+                if (dfsNumber[dst] == 0) {
+                    // tree edge; mark dst as discovered, set candidate as parent and descend
+                    dfsNumber[dst] = low[dst] = ++explored;
+                    parent[dst] = candidate;
+                    next[dst] = offsets[dst];
+                    degree[candidate]++;
+                    stack[top++] = dst;
+                } else if (dst != parent[candidate] && dfsNumber[dst] < low[candidate]) {
+                    // back edge; update low value
+                    low[candidate] = dfsNumber[dst];
                 }
+                continue;
             }
-        }
-
-        // We have now processed the candidate and can determine if it is an articulation vertex
-        // or not
-        V parent = discovered.get(candidate);
-        int dfs = dfsNumber.get(candidate);
-        int deg = degree.get(candidate);
-        int lw = low.get(candidate);
 
-        // First, if current node is the root of the tree, we check to see if it has degree > 1;
-        // if so, it is an articulation vertex because removing it disconnects its 2+ children
-        if (parent == null) {
-            if (deg > 1) {
-                result.add(candidate);
+            // We have now processed the candidate and can pop it off the stack
+            top--;
+            int p = parent[candidate];
+            if (p == -1) {
+                // If the current node is the root of the tree, it is an articulation vertex if
+                // it has more than one child, as removing it disconnects them
+                if (degree[candidate] > 1) {
+                    articulation[candidate] = true;
+                }
+                continue;
             }
-            return;
-        }
-
-        // If the earliest reachable vertex of the candidate is the candidate, then deleting the
-        // edge (candidate, parent(candidate)) disconnects the graph. This is because no edge in
-        // the graph represented by the DFS subtree rooted at the candidate is connected to
-        // an ancestor of the candidate.
-        //
-        // The parent is an articulation vertex if it is not the root, and the candidate is an
-        // articulation vertex if it is not a leaf
-        if (lw == dfs) {
-            if (discovered.get(parent) != null) {
-                // parent is not the root, so it is an articulation vertex
-                result.add(parent);
+
+            // update the parent's low value if the candidate links to something above it
+            if (low[candidate] < low[p]) {
+                low[p] = low[candidate];
             }
-            if (deg > 0) {
-                // candidate is not a leaf, so it is an articulation vertex
-                result.add(candidate);
+
+            // If no vertex in the subtree rooted at the candidate has a back edge to a proper
+            // ancestor of the parent, removing the parent disconnects the subtree from the
+            // rest of the graph; so the parent is an articulation vertex unless it is the root
+            if (low[candidate] >= dfsNumber[p] && parent[p] != -1) {
+                articulation[p] = true;
             }
         }
 
-        // If the earliest reachable vertex of the candidate is the parent of the candidate, then
-        // the parent of candidate must be an articulation vertex unless it is the root.
-        //
-        // Note that the candidate cannot be an articulation vertex, as it is connected to the
-        // parent through one of the nodes in the graph represented by the DFS subtree rooted at
-        // candidate
-        if (lw == dfsNumber.get(parent)) {
-            if (discovered.get(parent) != null) {
-                // parent is not the root, so it is an articulation vertex
-                result.add(parent);
+        Set<V> result = new HashSet<V>();
+        for (int v = 0; v < n; v++) {
+            if (articulation[v]) {
+                result.add(compact.vertex(v));
             }
         }
+        return Collections.unmodifiableSet(result);
     }
 
     /**
@@ -444,6 +678,9 @@ public class Graphs {
      * If the passed graph is not a DAG (i.e. it contains cycles), the behavior of this function
      * is undefined.
      *
+     * The DFS uses an explicit stack and int-indexed state arrays over a {@link CompactGraph}
+     * snapshot, so it does not overflow the call stack on long paths.
+     *
      * @param g The graph to sort.
      * @throws java.lang.IllegalArgumentException if g is null.
      * @return A list of vertices in topological order.
@@ -454,51 +691,585 @@ public class Graphs {
             throw new IllegalArgumentException("null graph");
         }
 
-        Set<V> visited = new HashSet<V>();
-        Stack<V> stack = new Stack<V>();
+        CompactGraph<V,E> compact = new CompactGraph<V, E>(g);
+        int n = compact.size();
+        int[] offsets = compact.offsets;
+        int[] targets = compact.targets;
+
+        boolean[] visited = new boolean[n];
+        int[] next = new int[n];
+        int[] stack = new int[n];
+
+        // vertices are written to the order from the back as they finish, so the first vertex
+        // to finish ends up last
+        int[] order = new int[n];
+        int finished = n;
 
-        for (V candidate : g.vertices()) {
+        for (int candidate = 0; candidate < n; candidate++) {
 
             // vertex was already discovered in a previous DFS iteration
-            if (visited.contains(candidate)) {
+            if (visited[candidate]) {
                 continue;
             }
 
             // perform DFS on this node to find all of its subsequent elements
-            topologicalSort(candidate, g, visited, stack);
+            int top = 0;
+            visited[candidate] = true;
+            next[candidate] = offsets[candidate];
+            stack[top++] = candidate;
+            while (top > 0) {
+                int vertex = stack[top - 1];
+                if (next[vertex] < offsets[vertex + 1]) {
+                    int dst = targets[next[vertex]++];
+                    if (!visited[dst]) {
+                        visited[dst] = true;
+                        next[dst] = offsets[dst];
+                        stack[top++] = dst;
+                    }
+                } else {
+                    // we have visited all subsequent nodes in the graph; we can now place
+                    // ourselves in the order
+                    top--;
+                    order[--finished] = vertex;
+                }
+            }
         }
 
-        // we now have a stack containing the nodes in topological ordering (with the
-        // first element on the top of the stack). Convert this to a list.
-        List<V> result = new LinkedList<V>();
-        while (!stack.isEmpty()) {
-            result.add(stack.pop());
+        List<V> result = new ArrayList<V>(n);
+        for (int i = 0; i < n; i++) {
+            result.add(compact.vertex(order[i]));
         }
         return result;
     }
 
     /**
-     * Recursive helper function for topological sort. Performs DFS on the candidate node.
+     * Splits the passed DAG into topological levels using Kahn's algorithm. Level 0 contains
+     * the vertices with no incoming edges, and every other vertex is in the level after the
+     * last of its predecessors. The vertices within a level form an antichain - no two are
+     * connected by a path - so each level can be scheduled concurrently once the previous
+     * levels have finished.
      *
-     * @param candidate The node to begin our DFS search at.
-     * @param g The graph containing candidate.
-     * @param visited The nodes we have visited in the graph.
-     * @param result The stack maintaining the topological order of visited nodes.
+     * @param g The graph to sort.
+     * @throws java.lang.IllegalArgumentException if g is null or contains a cycle.
+     * @return A list of levels, each of which is a list of vertices.
      */
-    private static <V extends Comparable<V>, E extends Comparable<E>> void topologicalSort(
-            V candidate, DirectedGraph<V,E> g, Set<V> visited, Stack<V> result) {
-        visited.add(candidate);
+    public static <V extends Comparable<V>, E extends Comparable<E>> List<List<V>> topologicalLevels(
+            DirectedGraph<V,E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+
+        CompactGraph<V,E> compact = new CompactGraph<V, E>(g);
+        int[] levels = topologicalLevels(compact);
 
-        // consider all outgoing edges
-        for (Edge<V,E> e : g.neighbors(candidate)) {
-            if (!visited.contains(e.getDestination())) {
-                topologicalSort(e.getDestination(), g, visited, result);
+        List<List<V>> result = new ArrayList<List<V>>();
+        for (int v = 0; v < levels.length; v++) {
+            while (result.size() <= levels[v]) {
+                result.add(new ArrayList<V>());
             }
+            result.get(levels[v]).add(compact.vertex(v));
+        }
+        return result;
+    }
+
+    /**
+     * Computes the topological level of every vertex in the passed DAG using Kahn's algorithm.
+     * Each level is processed in parallel: the in-degree counters of the successors of the
+     * current level are decremented atomically, and the vertices whose counter reaches zero
+     * form the next level.
+     *
+     * @param g The graph to sort.
+     * @throws java.lang.IllegalArgumentException if g is null or contains a cycle.
+     * @return The level of each vertex id.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> int[] topologicalLevels(
+            CompactGraph<V,E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        final int n = g.size();
+        final int[] offsets = g.offsets;
+        final int[] targets = g.targets;
+        int[] inOffsets = g.inOffsets();
+
+        final AtomicIntegerArray remaining = new AtomicIntegerArray(n);
+        int[] frontier = new int[n];
+        int frontierSize = 0;
+        for (int v = 0; v < n; v++) {
+            int inDegree = inOffsets[v + 1] - inOffsets[v];
+            remaining.set(v, inDegree);
+            if (inDegree == 0) {
+                frontier[frontierSize++] = v;
+            }
+        }
+
+        int[] levels = new int[n];
+        int[] next = new int[n];
+        int processed = 0;
+        for (int level = 0; frontierSize > 0; level++) {
+            for (int i = 0; i < frontierSize; i++) {
+                levels[frontier[i]] = level;
+            }
+            processed += frontierSize;
+
+            final int[] current = frontier;
+            final int[] successors = next;
+            final AtomicInteger count = new AtomicInteger();
+            Parallel.forRange(0, frontierSize, Parallel.grain(frontierSize, 256),
+                    new Parallel.RangeAction() {
+                @Override
+                public void apply(int from, int to) {
+                    for (int i = from; i < to; i++) {
+                        int u = current[i];
+                        for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                            if (remaining.decrementAndGet(targets[e]) == 0) {
+                                successors[count.getAndIncrement()] = targets[e];
+                            }
+                        }
+                    }
+                }
+            });
+
+            // keep the levels independent of thread scheduling
+            frontierSize = count.get();
+            Arrays.sort(successors, 0, frontierSize);
+            next = frontier;
+            frontier = successors;
         }
 
-        // we have visited all subsequent nodes in the graph; we can now place ourselves on
-        // the stack
-        result.push(candidate);
+        if (processed < n) {
+            throw new IllegalArgumentException("graph contains a cycle");
+        }
+        return levels;
+    }
+
+    /**
+     * Finds the strongly connected components of a directed graph, i.e. the maximal sets of
+     * vertices that can all reach each other, using Tarjan's algorithm.
+     *
+     * @param g The graph to decompose.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return The components, in topological order of the condensation: no edge goes from a
+     * component to an earlier one.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> List<Set<V>>
+            stronglyConnectedComponents(DirectedGraph<V,E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        CompactGraph<V,E> compact = new CompactGraph<V, E>(g);
+        int[] components = StronglyConnectedComponents.tarjan(compact);
+
+        List<Set<V>> result = new ArrayList<Set<V>>();
+        for (int i = StronglyConnectedComponents.count(components); i > 0; i--) {
+            result.add(new HashSet<V>());
+        }
+        for (int v = 0; v < components.length; v++) {
+            result.get(components[v]).add(compact.vertex(v));
+        }
+        return result;
+    }
+
+    /**
+     * Collapses every strongly connected component of a directed graph into a single vertex.
+     * The result is a DAG whose vertices are the component numbers, ordered so that every
+     * edge goes from a lower to a higher number, and which can be passed straight to
+     * {@link #topologicalSort} or {@link #topologicalLevels(DirectedGraph)}. The value of
+     * each edge is the number of edges of g between the two components.
+     *
+     * @param g The graph to condense.
+     * @param components Output parameter that will map every vertex to its component.
+     * @throws java.lang.IllegalArgumentException if g or components is null.
+     * @return The condensation of g.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> DirectedGraph<Integer, Integer>
+            condensation(DirectedGraph<V,E> g, Map<V, Integer> components) {
+        if (g == null || components == null) {
+            throw new IllegalArgumentException("null arguments to condensation");
+        }
+        CompactGraph<V,E> compact = new CompactGraph<V, E>(g);
+        int[] labels = StronglyConnectedComponents.tarjan(compact);
+        for (int v = 0; v < labels.length; v++) {
+            components.put(compact.vertex(v), labels[v]);
+        }
+        return StronglyConnectedComponents.condensation(compact, labels);
+    }
+
+    /**
+     * Builds an index answering reachability queries on the graph much faster than a search
+     * per query; see {@link ReachabilityIndex}.
+     *
+     * @param g The graph to index.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return The index, over a snapshot of g.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> ReachabilityIndex<V>
+            reachabilityIndex(SimpleLabeledGraph<V, E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        return new ReachabilityIndex<V>(new CompactGraph<V, E>(g));
+    }
+
+    /**
+     * Builds a landmark-based distance oracle over the weights of a graph, estimating shortest
+     * distances without a search per query; see {@link DistanceOracle}.
+     *
+     * @param g The graph to index.
+     * @param landmarks The number of landmarks.
+     * @throws java.lang.IllegalArgumentException if g is null, landmarks is not positive, or
+     * an edge weight is negative.
+     * @return The oracle, over a snapshot of g.
+     */
+    public static <V extends Comparable<V>> DistanceOracle<V, Integer> distanceOracle(
+            SimpleLabeledGraph<V, Integer> g, int landmarks) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        return DistanceOracle.weighted(new CompactGraph<V, Integer>(g), landmarks);
+    }
+
+    /**
+     * Finds the connected components of an undirected graph, i.e. the maximal sets of vertices
+     * joined by paths. The edges are merged in parallel by a lock-free union-find; see
+     * {@link ConnectedComponents}.
+     *
+     * @param g The graph to decompose.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return The components, ordered by the smallest vertex id they contain.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> List<Set<V>>
+            connectedComponents(UndirectedGraph<V,E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        CompactGraph<V,E> compact = new CompactGraph<V, E>(g);
+        int[] components = ConnectedComponents.label(compact);
+
+        List<Set<V>> result = new ArrayList<Set<V>>();
+        for (int i = ConnectedComponents.count(components); i > 0; i--) {
+            result.add(new HashSet<V>());
+        }
+        for (int v = 0; v < components.length; v++) {
+            result.get(components[v]).add(compact.vertex(v));
+        }
+        return result;
+    }
+
+    /**
+     * Counts the triangles of an undirected graph in parallel; see {@link Triangles}.
+     *
+     * @param g The graph to count the triangles of.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return The number of triangles in the graph.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> long triangleCount(
+            UndirectedGraph<V, E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        return Triangles.count(new CompactGraph<V, E>(g));
+    }
+
+    /**
+     * Computes the local clustering coefficient of every vertex of an undirected graph; see
+     * {@link Triangles#clustering(CompactGraph)}.
+     *
+     * @param g The graph to measure.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return A map from every vertex to its clustering coefficient.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> Map<V, Double>
+            clusteringCoefficients(UndirectedGraph<V, E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        CompactGraph<V, E> compact = new CompactGraph<V, E>(g);
+        return byVertex(compact, Triangles.clustering(compact));
+    }
+
+    /**
+     * Computes the core number of every vertex of an undirected graph; see
+     * {@link CoreDecomposition}.
+     *
+     * @param g The graph to decompose.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return A map from every vertex to its core number.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> Map<V, Integer>
+            coreNumbers(UndirectedGraph<V, E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        CompactGraph<V, E> compact = new CompactGraph<V, E>(g);
+        int[] cores = CoreDecomposition.coreNumbers(compact);
+        Map<V, Integer> result = new HashMap<V, Integer>(compact.size() * 2);
+        for (int v = 0; v < compact.size(); v++) {
+            result.put(compact.vertex(v), cores[v]);
+        }
+        return result;
+    }
+
+    /**
+     * Finds communities of a weighted undirected graph with the Leiden algorithm at
+     * resolution 1; see {@link CommunityDetection}.
+     *
+     * @param g The graph to cluster; edge values are the (non-negative) edge weights.
+     * @param seed The seed for the order vertices are visited in.
+     * @throws java.lang.IllegalArgumentException if g is null or has a negative edge weight.
+     * @return The communities, ordered by the smallest vertex id they contain.
+     */
+    public static <V extends Comparable<V>, E extends Number & Comparable<E>> List<Set<V>>
+            communities(UndirectedGraph<V, E> g, long seed) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        CommunityStructure<V, E> structure =
+                CommunityDetection.leiden(new CompactGraph<V, E>(g), 1, seed);
+        List<Set<V>> result = new ArrayList<Set<V>>();
+        for (int i = 0; i < structure.count(); i++) {
+            result.add(new HashSet<V>());
+        }
+        for (int v = 0; v < structure.getCommunities().length; v++) {
+            result.get(structure.getCommunities()[v]).add(structure.getGraph().vertex(v));
+        }
+        return result;
+    }
+
+    /**
+     * Computes the value of a maximum flow from source to sink with Dinic's algorithm. Build a
+     * {@link FlowNetwork} directly to get the minimum cut, use push-relabel, or to run
+     * repeated queries with changing capacities.
+     *
+     * @param g A graph whose edge values are the edge capacities.
+     * @param source The vertex the flow leaves.
+     * @param sink The vertex the flow enters.
+     * @throws java.lang.IllegalArgumentException if g, source or sink is null, source or sink
+     * is not in the graph, source equals sink, or a capacity is negative.
+     * @return The value of the maximum flow.
+     */
+    public static <V extends Comparable<V>> long maxFlow(DirectedGraph<V, Integer> g, V source,
+                                                         V sink) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        return new FlowNetwork<V>(g).dinic(source, sink);
+    }
+
+    /**
+     * Splits a graph into k parts of about equal size with few edges between them, using
+     * multilevel partitioning with at most 3% imbalance; see {@link Partitioner#multilevel}.
+     *
+     * @param g The graph to partition.
+     * @param k The number of parts.
+     * @throws java.lang.IllegalArgumentException if g is null or k is not positive.
+     * @return The parts, each with its local graph and ghost vertex table.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> List<Partition<V, E>>
+            partition(SimpleLabeledGraph<V, E> g, int k) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        CompactGraph<V, E> compact = new CompactGraph<V, E>(g);
+        return Partitioner.split(compact, Partitioner.multilevel(compact, k, 0.03, 0), k);
+    }
+
+    /**
+     * Finds a minimum spanning forest of a weighted undirected graph with Kruskal's algorithm;
+     * see {@link SpanningTrees#kruskal}.
+     *
+     * @param g The graph to span; edge values are the edge weights.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return A new graph with every vertex of g and the edges of the forest.
+     */
+    public static <V extends Comparable<V>, E extends Number & Comparable<E>> UndirectedGraph<V, E>
+            kruskalSpanningTree(UndirectedGraph<V, E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        CompactGraph<V, E> compact = new CompactGraph<V, E>(g);
+        return spanningForest(compact, SpanningTrees.kruskal(compact));
+    }
+
+    /**
+     * Finds a minimum spanning forest of a weighted undirected graph with Prim's algorithm;
+     * see {@link SpanningTrees#prim}.
+     *
+     * @param g The graph to span; edge values are the edge weights.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return A new graph with every vertex of g and the edges of the forest.
+     */
+    public static <V extends Comparable<V>, E extends Number & Comparable<E>> UndirectedGraph<V, E>
+            primSpanningTree(UndirectedGraph<V, E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        CompactGraph<V, E> compact = new CompactGraph<V, E>(g);
+        return spanningForest(compact, SpanningTrees.prim(compact));
+    }
+
+    /**
+     * Finds a minimum spanning forest of a weighted undirected graph with parallel Boruvka;
+     * see {@link SpanningTrees#boruvka}.
+     *
+     * @param g The graph to span; edge values are the edge weights.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return A new graph with every vertex of g and the edges of the forest.
+     */
+    public static <V extends Comparable<V>, E extends Number & Comparable<E>> UndirectedGraph<V, E>
+            boruvkaSpanningTree(UndirectedGraph<V, E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        CompactGraph<V, E> compact = new CompactGraph<V, E>(g);
+        return spanningForest(compact, SpanningTrees.boruvka(compact));
+    }
+
+    /**
+     * @return A graph with every vertex of g and the passed edges of g.
+     */
+    private static <V extends Comparable<V>, E extends Comparable<E>> UndirectedGraph<V, E>
+            spanningForest(CompactGraph<V, E> g, int[] edges) {
+        UndirectedGraph<V, E> result = new UndirectedHashGraph<V, E>();
+        for (int v = 0; v < g.size(); v++) {
+            result.addVertex(g.vertex(v));
+        }
+        for (int e : edges) {
+            result.addEdge(g.vertex(g.targets[g.twins()[e]]), g.vertex(g.targets[e]),
+                    g.values[e]);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the PageRank of every vertex in a directed graph. The graph is copied into a
+     * {@link CompactGraph} and ranked in parallel; see
+     * {@link LinkAnalysis#pageRank(CompactGraph, double, double, int, double[])} for the
+     * ranking on vertex ids, personalized PageRank and warm starts.
+     *
+     * @param g The graph to rank.
+     * @param damping The probability of following an edge, in [0, 1); usually 0.85.
+     * @param tolerance The L1 distance between two iterates at which to stop.
+     * @param maxIterations The maximum number of iterations to run.
+     * @throws java.lang.IllegalArgumentException if g is null, damping is not in [0, 1),
+     * tolerance is not positive or maxIterations is negative.
+     * @return A map from every vertex to its PageRank; the ranks sum to 1.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> Map<V, Double> pageRank(
+            DirectedGraph<V, E> g, double damping, double tolerance, int maxIterations) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        CompactGraph<V, E> compact = new CompactGraph<V, E>(g);
+        return byVertex(compact,
+                LinkAnalysis.pageRank(compact, damping, tolerance, maxIterations, null));
+    }
+
+    /**
+     * Computes the betweenness centrality of every vertex with Brandes' algorithm, counting
+     * paths by their number of edges. The searches from different sources run in parallel;
+     * see {@link Centrality#betweenness(CompactGraph)}.
+     *
+     * @param g The graph to measure.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return A map from every vertex to its betweenness.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> Map<V, Double>
+            betweennessCentrality(SimpleLabeledGraph<V, E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        CompactGraph<V, E> compact = new CompactGraph<V, E>(g);
+        return byVertex(compact, Centrality.betweenness(compact));
+    }
+
+    /**
+     * Computes the betweenness centrality of every vertex with Brandes' algorithm, using
+     * Djikstra's algorithm with the edge values as lengths; see
+     * {@link Centrality#weightedBetweenness(CompactGraph)}.
+     *
+     * @param g The graph to measure.
+     * @throws java.lang.IllegalArgumentException if g is null or has an edge value that is
+     * not positive.
+     * @return A map from every vertex to its betweenness.
+     */
+    public static <V extends Comparable<V>> Map<V, Double> weightedBetweennessCentrality(
+            SimpleLabeledGraph<V, Integer> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        CompactGraph<V, Integer> compact = new CompactGraph<V, Integer>(g);
+        return byVertex(compact, Centrality.weightedBetweenness(compact));
+    }
+
+    /**
+     * Estimates the betweenness centrality of every vertex from a random sample of sources.
+     * With probability at least 1 - delta, every estimate is within epsilon * n * (n - 2) of
+     * the exact value; see {@link Centrality#approximateBetweenness}.
+     *
+     * @param g The graph to measure.
+     * @param epsilon The error bound, as a fraction of n * (n - 2); in (0, 1).
+     * @param delta The probability that some estimate exceeds the bound; in (0, 1).
+     * @param seed The seed for sampling sources.
+     * @throws java.lang.IllegalArgumentException if g is null, or epsilon or delta is not in
+     * (0, 1).
+     * @return A map from every vertex to its estimated betweenness.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> Map<V, Double>
+            approximateBetweennessCentrality(SimpleLabeledGraph<V, E> g, double epsilon,
+                                             double delta, long seed) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        CompactGraph<V, E> compact = new CompactGraph<V, E>(g);
+        return byVertex(compact, Centrality.approximateBetweenness(compact, epsilon, delta, seed));
+    }
+
+    /**
+     * Computes the closeness centrality of every vertex, counting paths by their number of
+     * edges; see {@link Centrality#closeness(CompactGraph)}.
+     *
+     * @param g The graph to measure.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return A map from every vertex to its closeness.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> Map<V, Double>
+            closenessCentrality(SimpleLabeledGraph<V, E> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        CompactGraph<V, E> compact = new CompactGraph<V, E>(g);
+        return byVertex(compact, Centrality.closeness(compact));
+    }
+
+    /**
+     * Computes the closeness centrality of every vertex, using the edge values as lengths;
+     * see {@link Centrality#weightedCloseness(CompactGraph)}.
+     *
+     * @param g The graph to measure.
+     * @throws java.lang.IllegalArgumentException if g is null or has an edge value that is
+     * not positive.
+     * @return A map from every vertex to its closeness.
+     */
+    public static <V extends Comparable<V>> Map<V, Double> weightedClosenessCentrality(
+            SimpleLabeledGraph<V, Integer> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        CompactGraph<V, Integer> compact = new CompactGraph<V, Integer>(g);
+        return byVertex(compact, Centrality.weightedCloseness(compact));
+    }
+
+    /**
+     * @return A map from every vertex of g to its entry in scores, which is indexed by id.
+     */
+    private static <V extends Comparable<V>, E extends Comparable<E>> Map<V, Double> byVertex(
+            CompactGraph<V, E> g, double[] scores) {
+        Map<V, Double> result = new HashMap<V, Double>(g.size() * 2);
+        for (int v = 0; v < g.size(); v++) {
+            result.put(g.vertex(v), scores[v]);
+        }
+        return result;
     }
 
     /**
@@ -524,32 +1295,48 @@ public class Graphs {
             throw new IllegalArgumentException("start not in graph");
         }
 
-        // initialize costs
-        for (V vertex : g.vertices()) {
-            if (vertex.equals(start)) {
-                costs.put(vertex, 0.0);
-                predecessors.put(vertex, null);
-            } else {
-                costs.put(vertex, Double.MAX_VALUE);
-            }
-        }
+        CompactGraph<V, Double> compact = new CompactGraph<V, Double>(g);
+        int n = compact.size();
+        int source = compact.id(start);
+        int[] offsets = compact.offsets;
+        int[] targets = compact.targets;
+        double[] weights = compact.doubleWeights("edge weight", -Double.MAX_VALUE);
+
+        // initialize costs; -1 marks a vertex without a predecessor
+        double[] estimates = new double[n];
+        int[] parents = new int[n];
+        Arrays.fill(estimates, Double.MAX_VALUE);
+        Arrays.fill(parents, -1);
+        estimates[source] = 0.0;
 
         // relax edges n-1 times, where n is the number of vertices in the input graph
-        for (int i = 0; i < g.vertices().size() - 1; i++) {
+        boolean changed = true;
+        for (int i = 0; i < n - 1 && changed; i++) {
             // iterate over all edges in the graph; for any edge (u, v) with weight w,
             // if the current distance estimate to u from start + w is less than the
             // current distance estimate to v, update v with the lower estimate and set
-            // u as v's predecessor
-            for (V vertex : g.vertices()) {
-                for (Edge<V, Double> edge : g.neighbors(vertex)) {
-                    double estimate = costs.get(edge.getSource()) + edge.getValue();
-                    if (estimate < costs.get(edge.getDestination())) {
-                        costs.put(edge.getDestination(), estimate);
-                        predecessors.put(edge.getDestination(), edge.getSource());
+            // u as v's predecessor. Once a pass changes nothing, no later pass will.
+            changed = false;
+            for (int u = 0; u < n; u++) {
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    double estimate = estimates[u] + weights[e];
+                    if (estimate < estimates[targets[e]]) {
+                        estimates[targets[e]] = estimate;
+                        parents[targets[e]] = u;
+                        changed = true;
                     }
                 }
             }
         }
+
+        // map the results back to vertices
+        predecessors.put(start, null);
+        for (int v = 0; v < n; v++) {
+            costs.put(compact.vertex(v), estimates[v]);
+            if (v != source && parents[v] >= 0) {
+                predecessors.put(compact.vertex(v), compact.vertex(parents[v]));
+            }
+        }
     }
 
 }
@@ -0,0 +1,186 @@
+package com.killeent.Graph;
+
+import com.killeent.UnionFind.UnionFind;
+
+import java.util.*;
+
+/**
+ * An undirected graph that keeps track of its connected components as vertices and edges
+ * stream in. Every vertex is interned to an id in a {@link com.killeent.UnionFind.UnionFind},
+ * so adding an edge and asking whether two vertices are connected both take near-constant
+ * amortized time.
+ *
+ * A union-find cannot split sets, so removing an edge only marks the components as stale;
+ * they are rebuilt from the remaining edges, in O(n + m), by the next query.
+ */
+public class IncrementalConnectedComponents<V extends Comparable<V>, E extends Comparable<E>>
+        implements UndirectedGraph<V, E> {
+
+    // holds the edges, which are replayed into a new union-find once a removal makes the
+    // sets stale; the union-find only sees vertex ids
+    private final UndirectedGraph<V, E> graph;
+
+    private VertexIndex<V> index;
+    private UnionFind sets;
+
+    // true if an edge was removed since the union-find was last built
+    private boolean stale;
+
+    /**
+     * Creates a new, empty graph.
+     */
+    public IncrementalConnectedComponents() {
+        graph = new UndirectedHashGraph<V, E>();
+        index = new VertexIndex<V>();
+        sets = new UnionFind(0);
+    }
+
+    /**
+     * Creates a new graph containing all the vertices and edges of the passed graph.
+     *
+     * @param g The graph to copy.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     */
+    public IncrementalConnectedComponents(UndirectedGraph<V, E> g) {
+        this();
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        for (V vertex : g.vertices()) {
+            addVertex(vertex);
+        }
+        for (V vertex : g.vertices()) {
+            for (Edge<V, E> edge : g.neighbors(vertex)) {
+                addEdge(edge.getSource(), edge.getDestination(), edge.getValue());
+            }
+        }
+    }
+
+    @Override
+    public void addVertex(V vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("vertex cannot be null");
+        }
+        if (index.contains(vertex)) {
+            return;
+        }
+        graph.addVertex(vertex);
+        index.intern(vertex);
+        sets.add();
+    }
+
+    @Override
+    public boolean containsVertex(V vertex) {
+        return graph.containsVertex(vertex);
+    }
+
+    @Override
+    public Set<V> vertices() {
+        return graph.vertices();
+    }
+
+    /**
+     * Adds an edge between vertex A and vertex B if it does not already exist, and merges
+     * their components.
+     */
+    @Override
+    public void addEdge(V vertexA, V vertexB, E edge) {
+        graph.addEdge(vertexA, vertexB, edge);
+        if (!stale) {
+            sets.union(index.id(vertexA), index.id(vertexB));
+        }
+    }
+
+    @Override
+    public boolean containsEdge(V vertexA, V vertexB, E edge) {
+        return graph.containsEdge(vertexA, vertexB, edge);
+    }
+
+    @Override
+    public boolean removeEdge(V vertexA, V vertexB, E edge) {
+        if (!graph.removeEdge(vertexA, vertexB, edge)) {
+            return false;
+        }
+        stale = true;
+        return true;
+    }
+
+    @Override
+    public Collection<Edge<V, E>> neighbors(V vertex) {
+        return graph.neighbors(vertex);
+    }
+
+    @Override
+    public void clear() {
+        graph.clear();
+        index = new VertexIndex<V>();
+        sets = new UnionFind(0);
+        stale = false;
+    }
+
+    /**
+     * @param vertexA A vertex in the graph.
+     * @param vertexB A vertex in the graph.
+     * @throws java.lang.IllegalArgumentException if vertexA or vertexB is null or not in the
+     * graph.
+     * @return True if there is a path between vertexA and vertexB, otherwise false.
+     */
+    public boolean connected(V vertexA, V vertexB) {
+        int a = id(vertexA);
+        int b = id(vertexB);
+        return components().sameSet(a, b);
+    }
+
+    /**
+     * @return The number of connected components in the graph.
+     */
+    public int componentCount() {
+        return components().sets();
+    }
+
+    /**
+     * Returns the vertices in the same connected component as the passed vertex. This scans
+     * every vertex, so prefer {@link #connected} to test a single pair.
+     *
+     * @param vertex A vertex in the graph.
+     * @throws java.lang.IllegalArgumentException if vertex is null or not in the graph.
+     * @return The connected component containing the vertex.
+     */
+    public Set<V> component(V vertex) {
+        int root = components().find(id(vertex));
+        Set<V> result = new HashSet<V>();
+        for (int v = 0; v < index.size(); v++) {
+            if (sets.find(v) == root) {
+                result.add(index.vertex(v));
+            }
+        }
+        return result;
+    }
+
+    private int id(V vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("vertex cannot be null");
+        }
+        int id = index.id(vertex);
+        if (id < 0) {
+            throw new IllegalArgumentException("vertex not in graph");
+        }
+        return id;
+    }
+
+    /**
+     * @return The union-find, rebuilt from the current edges if any edge has been removed.
+     */
+    private UnionFind components() {
+        if (stale) {
+            sets = new UnionFind(index.size());
+            for (int v = 0; v < index.size(); v++) {
+                for (Edge<V, E> edge : graph.neighbors(index.vertex(v))) {
+                    sets.union(v, index.id(edge.getDestination()));
+                }
+            }
+            stale = false;
+        }
+        return sets;
+    }
+}
@@ -0,0 +1,296 @@
+package com.killeent.Graph;
+
+import java.util.*;
+
+/**
+ * A directed acyclic graph that keeps a topological ordering of its vertices up to date as
+ * edges are inserted, using the algorithm of Pearce and Kelly, "A Dynamic Topological Sort
+ * Algorithm for Directed Acyclic Graphs" (JEA 2006).
+ *
+ * Inserting an edge (x, y) that already agrees with the order costs O(1). Otherwise only the
+ * vertices whose position lies between y and x and that are reachable from y (or reach x) are
+ * visited and shuffled, which is usually far less work than re-sorting the whole graph.
+ * Removing edges never invalidates the order. Insertions that would create a cycle are
+ * rejected.
+ */
+public class IncrementalTopologicalOrder<V extends Comparable<V>, E extends Comparable<E>>
+        implements DirectedGraph<V, E> {
+
+    // answers the graph queries and owns the edge values
+    private final DirectedGraph<V, E> graph;
+
+    private final Map<V, Integer> ids;
+    private final List<V> vertices;
+    // the successors and predecessors of every vertex id, walked by the forward and backward
+    // searches of a reorder; an edge removal takes its entry out of both
+    private final List<IntList> out;
+    private final List<IntList> in;
+
+    // order[id] is the position of a vertex in the ordering; vertexAt is its inverse
+    private int[] order;
+    private int[] vertexAt;
+
+    // scratch state for the searches; a vertex is visited in the current search iff its
+    // mark equals the current stamp
+    private int[] mark;
+    private int stamp;
+
+    /**
+     * Creates a new, empty graph.
+     */
+    public IncrementalTopologicalOrder() {
+        graph = new DirectedHashGraph<V, E>();
+        ids = new HashMap<V, Integer>();
+        vertices = new ArrayList<V>();
+        out = new ArrayList<IntList>();
+        in = new ArrayList<IntList>();
+        order = new int[16];
+        vertexAt = new int[16];
+        mark = new int[16];
+    }
+
+    /**
+     * Creates a new graph containing all the vertices and edges of the passed DAG.
+     *
+     * @param g The graph to copy.
+     * @throws java.lang.IllegalArgumentException if g is null or contains a cycle.
+     */
+    public IncrementalTopologicalOrder(DirectedGraph<V, E> g) {
+        this();
+        // adding the vertices in topological order means no edge insertion has to reorder
+        for (List<V> level : Graphs.topologicalLevels(g)) {
+            for (V vertex : level) {
+                addVertex(vertex);
+            }
+        }
+        for (V vertex : g.vertices()) {
+            for (Edge<V, E> edge : g.neighbors(vertex)) {
+                addEdge(edge.getSource(), edge.getDestination(), edge.getValue());
+            }
+        }
+    }
+
+    @Override
+    public void addVertex(V vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("vertex cannot be null");
+        }
+        if (ids.containsKey(vertex)) {
+            return;
+        }
+        graph.addVertex(vertex);
+        int id = vertices.size();
+        if (id == order.length) {
+            order = Arrays.copyOf(order, id * 2);
+            vertexAt = Arrays.copyOf(vertexAt, id * 2);
+            mark = Arrays.copyOf(mark, id * 2);
+        }
+        ids.put(vertex, id);
+        vertices.add(vertex);
+        out.add(new IntList());
+        in.add(new IntList());
+
+        // a new vertex has no edges, so it can go at the end of the order
+        order[id] = id;
+        vertexAt[id] = id;
+    }
+
+    @Override
+    public boolean containsVertex(V vertex) {
+        return graph.containsVertex(vertex);
+    }
+
+    @Override
+    public Set<V> vertices() {
+        return graph.vertices();
+    }
+
+    /**
+     * Adds an edge between vertex A and vertex B if it does not already exist, and updates the
+     * topological order.
+     *
+     * @throws java.lang.IllegalArgumentException if the edge would create a cycle, in addition
+     * to the conditions of {@link SimpleLabeledGraph#addEdge}.
+     */
+    @Override
+    public void addEdge(V vertexA, V vertexB, E edge) {
+        if (vertexA == null || vertexB == null || edge == null) {
+            throw new IllegalArgumentException("arguments cannot be null");
+        }
+        if (!ids.containsKey(vertexA)) {
+            throw new IllegalArgumentException("vertexA not in the graph");
+        }
+        if (!ids.containsKey(vertexB)) {
+            throw new IllegalArgumentException("vertexB not in the graph");
+        }
+        if (graph.containsEdge(vertexA, vertexB, edge)) {
+            return;
+        }
+        int x = ids.get(vertexA);
+        int y = ids.get(vertexB);
+        if (x == y) {
+            throw new IllegalArgumentException("no self edges allowed");
+        }
+        if (order[y] < order[x]) {
+            reorder(x, y);
+        }
+        graph.addEdge(vertexA, vertexB, edge);
+        out.get(x).add(y);
+        in.get(y).add(x);
+    }
+
+    @Override
+    public boolean containsEdge(V vertexA, V vertexB, E edge) {
+        return graph.containsEdge(vertexA, vertexB, edge);
+    }
+
+    @Override
+    public boolean removeEdge(V vertexA, V vertexB, E edge) {
+        if (!graph.removeEdge(vertexA, vertexB, edge)) {
+            return false;
+        }
+        int x = ids.get(vertexA);
+        int y = ids.get(vertexB);
+        out.get(x).removeValue(y);
+        in.get(y).removeValue(x);
+        return true;
+    }
+
+    @Override
+    public Collection<Edge<V, E>> neighbors(V vertex) {
+        return graph.neighbors(vertex);
+    }
+
+    @Override
+    public void clear() {
+        graph.clear();
+        ids.clear();
+        vertices.clear();
+        out.clear();
+        in.clear();
+    }
+
+    /**
+     * @return An unmodifiable list of the vertices in topological order.
+     */
+    public List<V> order() {
+        List<V> result = new ArrayList<V>(vertices.size());
+        for (int i = 0; i < vertices.size(); i++) {
+            result.add(vertices.get(vertexAt[i]));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Returns the position of the vertex in the topological order.
+     *
+     * @param vertex The vertex to look up.
+     * @throws java.lang.IllegalArgumentException if vertex is null or not in the graph.
+     * @return A position in [0, vertices().size()).
+     */
+    public int position(V vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("vertex cannot be null");
+        }
+        Integer id = ids.get(vertex);
+        if (id == null) {
+            throw new IllegalArgumentException("vertex not in graph");
+        }
+        return order[id];
+    }
+
+    /**
+     * Restores the order before inserting the edge (x, y) where y currently precedes x. The
+     * vertices reachable from y that precede x (deltaF) must move after the vertices that reach
+     * x and follow y (deltaB); together they are reassigned the positions they already occupy.
+     *
+     * @throws java.lang.IllegalArgumentException if the edge would create a cycle.
+     */
+    private void reorder(int x, int y) {
+        int lower = order[y];
+        int upper = order[x];
+
+        IntList forward = search(y, upper, true);
+        if (forward == null) {
+            throw new IllegalArgumentException("edge would create a cycle");
+        }
+        IntList backward = search(x, lower, false);
+
+        int[] deltaF = sortByOrder(forward);
+        int[] deltaB = sortByOrder(backward);
+        int[] positions = new int[deltaF.length + deltaB.length];
+        for (int i = 0; i < deltaB.length; i++) {
+            positions[i] = order[deltaB[i]];
+        }
+        for (int i = 0; i < deltaF.length; i++) {
+            positions[deltaB.length + i] = order[deltaF[i]];
+        }
+        Arrays.sort(positions);
+
+        int next = 0;
+        for (int v : deltaB) {
+            order[v] = positions[next];
+            vertexAt[positions[next++]] = v;
+        }
+        for (int v : deltaF) {
+            order[v] = positions[next];
+            vertexAt[positions[next++]] = v;
+        }
+    }
+
+    /**
+     * Collects the vertices reachable from start, following out-edges to vertices positioned
+     * before bound (forward) or in-edges from vertices positioned after bound (backward).
+     *
+     * @return The visited vertices, or null if a forward search reached the vertex at bound.
+     */
+    private IntList search(int start, int bound, boolean forward) {
+        if (++stamp == 0) {
+            Arrays.fill(mark, 0);
+            stamp = 1;
+        }
+        IntList visited = new IntList();
+        IntList stack = new IntList();
+        mark[start] = stamp;
+        stack.add(start);
+        while (!stack.isEmpty()) {
+            int v = stack.removeLast();
+            visited.add(v);
+            IntList edges = forward ? out.get(v) : in.get(v);
+            for (int i = 0; i < edges.size(); i++) {
+                int w = edges.get(i);
+                if (forward && order[w] == bound) {
+                    return null;
+                }
+                boolean inRange = forward ? order[w] < bound : order[w] > bound;
+                if (inRange && mark[w] != stamp) {
+                    mark[w] = stamp;
+                    stack.add(w);
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Sets the stamp of the last search, so that tests can reach the wrap around.
+     */
+    void setStamp(int stamp) {
+        this.stamp = stamp;
+    }
+
+    /**
+     * @return The vertices in the list, sorted by their current position.
+     */
+    private int[] sortByOrder(IntList list) {
+        int[] positions = new int[list.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = order[list.get(i)];
+        }
+        Arrays.sort(positions);
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = vertexAt[positions[i]];
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,83 @@
+package com.killeent.Graph;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive ints, used for adjacency lists and work queues that would
+ * otherwise box every element.
+ */
+final class IntList {
+
+    private int[] elements;
+    private int size;
+
+    IntList() {
+        this(4);
+    }
+
+    IntList(int capacity) {
+        elements = new int[Math.max(1, capacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int get(int index) {
+        return elements[index];
+    }
+
+    void set(int index, int value) {
+        elements[index] = value;
+    }
+
+    void add(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
+        }
+        elements[size++] = value;
+    }
+
+    /**
+     * Removes and returns the last element.
+     */
+    int removeLast() {
+        return elements[--size];
+    }
+
+    /**
+     * Removes the first occurrence of value by swapping the last element into its place.
+     *
+     * @return True if the value was found, otherwise false.
+     */
+    boolean removeValue(int value) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == value) {
+                elements[i] = elements[--size];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean contains(int value) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
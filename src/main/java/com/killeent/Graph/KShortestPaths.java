@@ -0,0 +1,550 @@
+package com.killeent.Graph;
+
+import com.killeent.PriorityQueue.IndexedHeap;
+
+import java.util.*;
+
+/**
+ * Finds the k shortest paths between two vertices of a {@link CompactGraph} with non-negative
+ * integer edge weights, for offering alternatives to the shortest path.
+ *
+ * Both algorithms start with one Djikstra search over the reversed graph from the end vertex,
+ * giving the distance from every vertex to the end and a shortest path tree towards it.
+ *
+ * {@link #yen} finds loopless paths (Yen, "Finding the K Shortest Loopless Paths in a
+ * Network", 1971). Every path after the first deviates from an earlier one at some spur
+ * vertex; the candidates are found by searching from each spur vertex of the last path with
+ * the edges taken by earlier paths sharing the same root, and the root's vertices, removed.
+ * The spur searches of one round are independent and run in parallel, and each is an A*
+ * search guided by the distances to the end, which remain lower bounds when edges and
+ * vertices are removed.
+ *
+ * {@link #eppstein} finds paths that may repeat vertices (Eppstein, "Finding the k Shortest
+ * Paths", 1998). A path is represented implicitly by the sequence of sidetracks, i.e. edges
+ * off the shortest path tree, it takes; a sidetrack costs how much longer it makes the path.
+ * The sidetracks reachable along the tree from every vertex are kept in persistent leftist
+ * heaps that share their structure with the heap of the next vertex on the tree, so after
+ * the reverse search every further path costs O(log k) plus the time to write it out.
+ *
+ * Both return the paths in order of increasing weight, as lists of edges; the path from a
+ * vertex to itself is the empty list.
+ */
+public class KShortestPaths {
+
+    private KShortestPaths() {
+    }
+
+    /**
+     * Finds up to k shortest loopless paths from start to end.
+     *
+     * @param g The graph to search.
+     * @param start The start of the paths.
+     * @param end The end of the paths.
+     * @param k The number of paths to find.
+     * @throws java.lang.IllegalArgumentException if any argument is null, start or end is not
+     * in g, k is not positive, or an edge weight is negative.
+     * @return The paths in order of increasing weight; fewer than k if there are no more.
+     */
+    public static <V extends Comparable<V>> List<List<Edge<V, Integer>>> yen(
+            final CompactGraph<V, Integer> g, V start, V end, int k) {
+        final Search search = new Search(g, start, end, k);
+        List<int[]> result = new ArrayList<int[]>();
+        int[] first = search.spur(search.source, null, null, 0);
+        if (first == null) {
+            return search.paths(result);
+        }
+        result.add(first);
+
+        // candidates are compared by weight then edges, and deduplicated by their edges
+        PriorityQueue<Candidate> candidates = new PriorityQueue<Candidate>();
+        Set<Candidate> known = new HashSet<Candidate>();
+        known.add(new Candidate(first, search.weight(first)));
+        while (result.size() < k) {
+            final int[] previous = result.get(result.size() - 1);
+            final List<int[]> found = result;
+            final Candidate[] spurs = new Candidate[previous.length];
+            Parallel.forRange(0, previous.length, 1, new Parallel.RangeAction() {
+                @Override
+                public void apply(int from, int to) {
+                    for (int i = from; i < to; i++) {
+                        spurs[i] = search.candidate(previous, i, found);
+                    }
+                }
+            });
+            for (Candidate spur : spurs) {
+                if (spur != null && known.add(spur)) {
+                    candidates.add(spur);
+                }
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+            result.add(candidates.poll().edges);
+        }
+        return search.paths(result);
+    }
+
+    /**
+     * Finds the k shortest paths from start to end, which may visit vertices more than once.
+     *
+     * @param g The graph to search.
+     * @param start The start of the paths.
+     * @param end The end of the paths.
+     * @param k The number of paths to find.
+     * @throws java.lang.IllegalArgumentException if any argument is null, start or end is not
+     * in g, k is not positive, or an edge weight is negative.
+     * @return The paths in order of increasing weight; fewer than k only if there are no more,
+     * which happens only when no cycle can be reached on the way from start to end.
+     */
+    public static <V extends Comparable<V>> List<List<Edge<V, Integer>>> eppstein(
+            CompactGraph<V, Integer> g, V start, V end, int k) {
+        Search search = new Search(g, start, end, k);
+        List<int[]> result = new ArrayList<int[]>();
+        long[] distances = search.toEnd;
+        if (distances[search.source] == Long.MAX_VALUE) {
+            return search.paths(result);
+        }
+
+        // heaps[v] holds the sidetracks out of the tree path from v to the end
+        int[] offsets = search.offsets;
+        int[] targets = search.targets;
+        long[] weights = search.weights;
+        HeapNode[] heaps = new HeapNode[offsets.length - 1];
+        for (int v : search.order) {
+            int tree = search.tree[v];
+            HeapNode heap = tree < 0 ? null : heaps[targets[tree]];
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if (e != tree && distances[targets[e]] != Long.MAX_VALUE) {
+                    long delta = weights[e] + distances[targets[e]] - distances[v];
+                    heap = HeapNode.merge(heap, new HeapNode(delta, e, null, null));
+                }
+            }
+            heaps[v] = heap;
+        }
+
+        result.add(search.walk(null));
+        PriorityQueue<Sidetracks> queue = new PriorityQueue<Sidetracks>();
+        if (heaps[search.source] != null) {
+            queue.add(new Sidetracks(distances[search.source] + heaps[search.source].key,
+                    heaps[search.source], null));
+        }
+        while (result.size() < k && !queue.isEmpty()) {
+            Sidetracks next = queue.poll();
+            HeapNode node = next.node;
+            result.add(search.walk(next));
+            // replace the last sidetrack by the next cheapest one out of the same heap
+            for (HeapNode child : new HeapNode[] {node.left, node.right}) {
+                if (child != null) {
+                    queue.add(new Sidetracks(next.cost - node.key + child.key, child,
+                            next.before));
+                }
+            }
+            // or take another sidetrack after it
+            HeapNode after = heaps[targets[node.edge]];
+            if (after != null) {
+                queue.add(new Sidetracks(next.cost + after.key, after,
+                        new Sidetracks(next.cost, node, next.before)));
+            }
+        }
+        return search.paths(result);
+    }
+
+    /**
+     * A candidate path for Yen's algorithm.
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+
+        final int[] edges;
+        final long weight;
+
+        Candidate(int[] edges, long weight) {
+            this.edges = edges;
+            this.weight = weight;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            if (weight != other.weight) {
+                return weight < other.weight ? -1 : 1;
+            }
+            if (edges.length != other.edges.length) {
+                return edges.length - other.edges.length;
+            }
+            for (int i = 0; i < edges.length; i++) {
+                if (edges[i] != other.edges[i]) {
+                    return edges[i] < other.edges[i] ? -1 : 1;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Candidate && Arrays.equals(edges, ((Candidate) o).edges);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(edges);
+        }
+    }
+
+    /**
+     * A node of a persistent leftist heap of sidetracks, ordered by the extra weight they add.
+     * Nodes are never modified once built, so heaps share them.
+     */
+    private static final class HeapNode {
+
+        final long key;
+        final int edge;
+        final HeapNode left;
+        final HeapNode right;
+        final int rank;
+
+        HeapNode(long key, int edge, HeapNode left, HeapNode right) {
+            this.key = key;
+            this.edge = edge;
+            // leftist: the right spine is the shorter one
+            if (rank(left) < rank(right)) {
+                this.left = right;
+                this.right = left;
+            } else {
+                this.left = left;
+                this.right = right;
+            }
+            this.rank = rank(this.right) + 1;
+        }
+
+        static int rank(HeapNode node) {
+            return node == null ? 0 : node.rank;
+        }
+
+        /**
+         * @return A heap holding the nodes of both heaps, copying only the nodes on the right
+         * spine of the result.
+         */
+        static HeapNode merge(HeapNode a, HeapNode b) {
+            if (a == null) {
+                return b;
+            }
+            if (b == null) {
+                return a;
+            }
+            if (b.key < a.key) {
+                HeapNode swap = a;
+                a = b;
+                b = swap;
+            }
+            return new HeapNode(a.key, a.edge, a.left, merge(a.right, b));
+        }
+    }
+
+    /**
+     * A path of Eppstein's algorithm: the sidetrack at node, taken after the sidetracks of
+     * before, for a total weight of cost.
+     */
+    private static final class Sidetracks implements Comparable<Sidetracks> {
+
+        final long cost;
+        final HeapNode node;
+        final Sidetracks before;
+
+        Sidetracks(long cost, HeapNode node, Sidetracks before) {
+            this.cost = cost;
+            this.node = node;
+            this.before = before;
+        }
+
+        @Override
+        public int compareTo(Sidetracks other) {
+            return cost < other.cost ? -1 : (cost > other.cost ? 1 : 0);
+        }
+    }
+
+    /**
+     * The state shared by both algorithms: the graph arrays, and the reverse Djikstra search
+     * from the end vertex.
+     */
+    private static final class Search {
+
+        final CompactGraph<?, Integer> graph;
+        final int source;
+        final int target;
+        final int[] offsets;
+        final int[] targets;
+        final int[] sources;
+        final long[] weights;
+
+        // the distance from every vertex to the end, the edge leaving every vertex on its
+        // shortest path to the end (-1 for the end and unreachable vertices), and the
+        // vertices that reach the end by increasing distance
+        final long[] toEnd;
+        final int[] tree;
+        final int[] order;
+
+        private final ThreadLocal<SpurState> states = new ThreadLocal<SpurState>() {
+            @Override
+            protected SpurState initialValue() {
+                return new SpurState(toEnd.length);
+            }
+        };
+
+        <V extends Comparable<V>> Search(CompactGraph<V, Integer> g, V start, V end, int k) {
+            if (g == null || start == null || end == null) {
+                throw new IllegalArgumentException("null arguments to k shortest paths");
+            }
+            if (k <= 0) {
+                throw new IllegalArgumentException("k must be positive");
+            }
+            graph = g;
+            source = g.id(start);
+            target = g.id(end);
+            offsets = g.offsets;
+            targets = g.targets;
+            int n = g.size();
+            int m = targets.length;
+            weights = g.weights("edge weight", 0);
+            sources = new int[m];
+            for (int v = 0; v < n; v++) {
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    sources[e] = v;
+                }
+            }
+
+            // the edges entering every vertex, by edge id
+            int[] inOffsets = new int[n + 1];
+            for (int e = 0; e < m; e++) {
+                inOffsets[targets[e] + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                inOffsets[v + 1] += inOffsets[v];
+            }
+            int[] position = Arrays.copyOf(inOffsets, n);
+            int[] inEdges = new int[m];
+            for (int e = 0; e < m; e++) {
+                inEdges[position[targets[e]]++] = e;
+            }
+
+            toEnd = new long[n];
+            Arrays.fill(toEnd, Long.MAX_VALUE);
+            tree = new int[n];
+            Arrays.fill(tree, -1);
+            IntList settled = new IntList();
+            IndexedHeap heap = new IndexedHeap(n);
+            boolean[] done = new boolean[n];
+            toEnd[target] = 0;
+            heap.update(target, 0);
+            while (!heap.isEmpty()) {
+                int v = heap.remove();
+                done[v] = true;
+                settled.add(v);
+                for (int i = inOffsets[v]; i < inOffsets[v + 1]; i++) {
+                    int e = inEdges[i];
+                    int u = sources[e];
+                    long distance = toEnd[v] + weights[e];
+                    if (!done[u] && distance < toEnd[u]) {
+                        toEnd[u] = distance;
+                        tree[u] = e;
+                        heap.update(u, distance);
+                    }
+                }
+            }
+            order = settled.toArray();
+        }
+
+        long weight(int[] path) {
+            long total = 0;
+            for (int e : path) {
+                total += weights[e];
+            }
+            return total;
+        }
+
+        /**
+         * Finds the spur path of Yen's algorithm that leaves the ith vertex of previous.
+         *
+         * @return The candidate, or null if there is no such path.
+         */
+        Candidate candidate(int[] previous, int i, List<int[]> found) {
+            SpurState state = states.get();
+            int stamp = state.nextStamp();
+            // the root must not be revisited, and must not continue like an earlier path
+            for (int j = 0; j < i; j++) {
+                state.bannedVertices[sources[previous[j]]] = stamp;
+            }
+            IntList bannedEdges = state.bannedEdges;
+            bannedEdges.clear();
+            for (int[] path : found) {
+                if (path.length > i && sharesRoot(path, previous, i)) {
+                    bannedEdges.add(path[i]);
+                }
+            }
+            int spurVertex = i == 0 ? source : targets[previous[i - 1]];
+            int[] spur = spur(spurVertex, state, bannedEdges, stamp);
+            if (spur == null) {
+                return null;
+            }
+            int[] edges = new int[i + spur.length];
+            System.arraycopy(previous, 0, edges, 0, i);
+            System.arraycopy(spur, 0, edges, i, spur.length);
+            return new Candidate(edges, weight(edges));
+        }
+
+        private static boolean sharesRoot(int[] path, int[] previous, int length) {
+            for (int j = 0; j < length; j++) {
+                if (path[j] != previous[j]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Runs an A* search from start to the end vertex, guided by the distances to the end,
+         * avoiding the vertices marked with stamp and the banned edges.
+         *
+         * @param state The search state, or null to use this thread's.
+         * @return The edges of a shortest path, or null if there is none.
+         */
+        int[] spur(int start, SpurState state, IntList bannedEdges, int stamp) {
+            if (toEnd[start] == Long.MAX_VALUE) {
+                return null;
+            }
+            if (state == null) {
+                state = states.get();
+                stamp = state.nextStamp();
+            }
+            int[] seen = state.seen;
+            long[] distances = state.distances;
+            int[] parentEdges = state.parentEdges;
+            IndexedHeap heap = state.heap;
+            heap.clear();
+            seen[start] = stamp;
+            distances[start] = 0;
+            parentEdges[start] = -1;
+            heap.update(start, toEnd[start]);
+            while (!heap.isEmpty()) {
+                int v = heap.remove();
+                if (v == target) {
+                    IntList path = new IntList();
+                    for (int e = parentEdges[v]; e >= 0; e = parentEdges[sources[e]]) {
+                        path.add(e);
+                    }
+                    int[] result = path.toArray();
+                    for (int a = 0, b = result.length - 1; a < b; a++, b--) {
+                        int swap = result[a];
+                        result[a] = result[b];
+                        result[b] = swap;
+                    }
+                    return result;
+                }
+                // a consistent heuristic settles every vertex at most once
+                state.bannedVertices[v] = stamp;
+                // every banned edge leaves the start, which is settled first and only once
+                boolean checkBanned = v == start;
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    if (state.bannedVertices[w] == stamp || toEnd[w] == Long.MAX_VALUE
+                            || (checkBanned && isBanned(bannedEdges, e))) {
+                        continue;
+                    }
+                    long distance = distances[v] + weights[e];
+                    if (seen[w] != stamp || distance < distances[w]) {
+                        seen[w] = stamp;
+                        distances[w] = distance;
+                        parentEdges[w] = e;
+                        heap.update(w, distance + toEnd[w]);
+                    }
+                }
+            }
+            return null;
+        }
+
+        private static boolean isBanned(IntList edges, int e) {
+            if (edges == null) {
+                return false;
+            }
+            for (int i = 0; i < edges.size(); i++) {
+                if (edges.get(i) == e) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return The path from the start to the end taking the sidetracks, in order, and
+         * following the shortest path tree in between.
+         */
+        int[] walk(Sidetracks path) {
+            IntList sidetracks = new IntList();
+            if (path != null) {
+                sidetracks.add(path.node.edge);
+                for (Sidetracks s = path.before; s != null; s = s.before) {
+                    sidetracks.add(s.node.edge);
+                }
+            }
+            IntList edges = new IntList();
+            int v = source;
+            for (int i = sidetracks.size() - 1; i >= -1; i--) {
+                int stop = i >= 0 ? sources[sidetracks.get(i)] : target;
+                while (v != stop) {
+                    edges.add(tree[v]);
+                    v = targets[tree[v]];
+                }
+                if (i >= 0) {
+                    edges.add(sidetracks.get(i));
+                    v = targets[sidetracks.get(i)];
+                }
+            }
+            return edges.toArray();
+        }
+
+        @SuppressWarnings("unchecked")
+        <V extends Comparable<V>> List<List<Edge<V, Integer>>> paths(List<int[]> found) {
+            CompactGraph<V, Integer> g = (CompactGraph<V, Integer>) graph;
+            List<List<Edge<V, Integer>>> result = new ArrayList<List<Edge<V, Integer>>>();
+            for (int[] path : found) {
+                List<Edge<V, Integer>> edges = new ArrayList<Edge<V, Integer>>(path.length);
+                for (int e : path) {
+                    edges.add(new Edge<V, Integer>(g.vertex(sources[e]), g.vertex(targets[e]),
+                            g.value(e)));
+                }
+                result.add(edges);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The arrays of one thread's spur searches. Entries are valid only when their stamp
+     * matches the current search, so nothing is cleared between searches.
+     */
+    private static final class SpurState {
+
+        final int[] seen;
+        final int[] bannedVertices;
+        final long[] distances;
+        final int[] parentEdges;
+        final IndexedHeap heap;
+        final IntList bannedEdges = new IntList();
+        private int stamp;
+
+        SpurState(int n) {
+            seen = new int[n];
+            bannedVertices = new int[n];
+            distances = new long[n];
+            parentEdges = new int[n];
+            heap = new IndexedHeap(n);
+        }
+
+        int nextStamp() {
+            if (++stamp == 0) {
+                Arrays.fill(seen, 0);
+                Arrays.fill(bannedVertices, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
+    }
+}
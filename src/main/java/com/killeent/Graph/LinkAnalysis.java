@@ -0,0 +1,403 @@
+package com.killeent.Graph;
+
+import java.util.Arrays;
+
+/**
+ * Link analysis ranking over a {@link CompactGraph}: PageRank, personalized PageRank and
+ * Kleinberg's HITS hubs and authorities. Scores are returned as arrays indexed by vertex id.
+ *
+ * The iterative methods pull scores along the incoming edges of every vertex, so each vertex
+ * is written by exactly one thread and the vertices are processed in parallel without
+ * synchronization. Every iteration is deterministic: the same graph and arguments always give
+ * the same scores. They stop when the L1 distance between two consecutive iterates drops below
+ * the passed tolerance, and accept the result of an earlier run as a warm start, which
+ * converges in a few iterations when the graph has changed only a little.
+ */
+public class LinkAnalysis {
+
+    // Vertices per parallel task
+    private static final int GRAIN = 4096;
+
+    /**
+     * The hub and authority scores computed by {@link #hits}.
+     */
+    public static class HubsAndAuthorities {
+
+        private final double[] hubs;
+        private final double[] authorities;
+        private final int iterations;
+
+        HubsAndAuthorities(double[] hubs, double[] authorities, int iterations) {
+            this.hubs = hubs;
+            this.authorities = authorities;
+            this.iterations = iterations;
+        }
+
+        /**
+         * @return The hub score of each vertex id; the scores sum to 1.
+         */
+        public double[] getHubs() {
+            return hubs;
+        }
+
+        /**
+         * @return The authority score of each vertex id; the scores sum to 1.
+         */
+        public double[] getAuthorities() {
+            return authorities;
+        }
+
+        /**
+         * @return The number of iterations that were run.
+         */
+        public int getIterations() {
+            return iterations;
+        }
+    }
+
+    /**
+     * Computes the PageRank of every vertex by power iteration. A random surfer follows an
+     * outgoing edge chosen uniformly at random with probability damping, and otherwise jumps
+     * to a vertex chosen uniformly at random; the surfer always jumps from a vertex without
+     * outgoing edges.
+     *
+     * @param g The graph to rank.
+     * @param damping The probability of following an edge, in [0, 1); usually 0.85.
+     * @param tolerance The L1 distance between two iterates at which to stop.
+     * @param maxIterations The maximum number of iterations to run.
+     * @param initial Scores to start from, e.g. the result of an earlier run; null to start
+     *                from the uniform distribution.
+     * @throws java.lang.IllegalArgumentException if g is null, damping is not in [0, 1),
+     * tolerance is not positive, maxIterations is negative, or initial has the wrong length.
+     * @return The PageRank of each vertex id; the ranks sum to 1.
+     */
+    public static double[] pageRank(CompactGraph<?, ?> g, double damping, double tolerance,
+                                    int maxIterations, double[] initial) {
+        return personalizedPageRank(g, null, damping, tolerance, maxIterations, initial);
+    }
+
+    /**
+     * Computes personalized PageRank by power iteration. This is {@link #pageRank}, except
+     * that the surfer jumps to vertex v with probability proportional to teleport[v] instead
+     * of uniformly.
+     *
+     * @param g The graph to rank.
+     * @param teleport The non-negative teleport weight of each vertex id, or null for the
+     *                 uniform distribution. The weights need not sum to 1.
+     * @param damping The probability of following an edge, in [0, 1); usually 0.85.
+     * @param tolerance The L1 distance between two iterates at which to stop.
+     * @param maxIterations The maximum number of iterations to run.
+     * @param initial Scores to start from, e.g. the result of an earlier run; null to start
+     *                from the teleport distribution.
+     * @throws java.lang.IllegalArgumentException if g is null, teleport or initial has the
+     * wrong length, teleport has a negative entry or sums to 0, damping is not in [0, 1),
+     * tolerance is not positive, or maxIterations is negative.
+     * @return The personalized PageRank of each vertex id; the ranks sum to 1.
+     */
+    public static double[] personalizedPageRank(CompactGraph<?, ?> g, double[] teleport,
+                                                final double damping, double tolerance,
+                                                int maxIterations, double[] initial) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        checkParameters(damping, tolerance, maxIterations);
+        final int n = g.size();
+        if (n == 0) {
+            return new double[0];
+        }
+        final double[] jump = teleport == null ? uniform(n) : normalize(teleport, n, "teleport");
+        double[] rank = initial == null ? jump.clone() : normalize(initial, n, "initial");
+        double[] next = new double[n];
+        final double[] contributions = new double[n];
+        final int[] offsets = g.offsets;
+        final int[] inOffsets = g.inOffsets();
+        final int[] inSources = g.inSources();
+        int grain = Parallel.grain(n, GRAIN);
+
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            // spread the rank of every vertex over its outgoing edges; vertices without
+            // outgoing edges send their rank along the teleport distribution instead
+            final double[] current = rank;
+            double dangling = Parallel.sumDoubles(0, n, grain, new Parallel.RangeDoubleSum() {
+                @Override
+                public double apply(int from, int to) {
+                    double sum = 0;
+                    for (int u = from; u < to; u++) {
+                        int degree = offsets[u + 1] - offsets[u];
+                        if (degree == 0) {
+                            contributions[u] = 0;
+                            sum += current[u];
+                        } else {
+                            contributions[u] = current[u] / degree;
+                        }
+                    }
+                    return sum;
+                }
+            });
+
+            final double[] updated = next;
+            final double jumpMass = (1 - damping) + damping * dangling;
+            double change = Parallel.sumDoubles(0, n, grain, new Parallel.RangeDoubleSum() {
+                @Override
+                public double apply(int from, int to) {
+                    double sum = 0;
+                    for (int v = from; v < to; v++) {
+                        double incoming = 0;
+                        for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+                            incoming += contributions[inSources[e]];
+                        }
+                        updated[v] = damping * incoming + jumpMass * jump[v];
+                        sum += Math.abs(updated[v] - current[v]);
+                    }
+                    return sum;
+                }
+            });
+            next = rank;
+            rank = updated;
+            if (change < tolerance) {
+                break;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Approximates the personalized PageRank of every vertex with respect to a single source
+     * vertex using the push algorithm of Andersen, Chung and Lang. Unlike power iteration,
+     * the number of pushes depends only on the part of the graph near the source, not on the
+     * size of the graph, which makes it suitable for answering many single-source queries.
+     *
+     * The algorithm keeps an estimate p and a residual r, starting from r = 1 at the source.
+     * Pushing a vertex u moves (1 - damping) r[u] into p[u] and spreads the rest of r[u] over
+     * its outgoing edges. Vertices are pushed until r[u] &lt; epsilon * max(1, outDegree(u))
+     * for every u. The estimates never exceed the exact scores, and the mass still missing
+     * from them is the sum of the remaining residuals.
+     *
+     * @param g The graph to rank.
+     * @param source The id of the vertex to personalize to.
+     * @param damping The probability of following an edge, in [0, 1); usually 0.85.
+     * @param epsilon The residual per edge at which to stop pushing a vertex.
+     * @throws java.lang.IllegalArgumentException if g is null, source is not a vertex id,
+     * damping is not in [0, 1) or epsilon is not positive.
+     * @return The approximate personalized PageRank of each vertex id.
+     */
+    public static double[] approximatePersonalizedPageRank(CompactGraph<?, ?> g, int source,
+                                                           double damping, double epsilon) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        if (source < 0 || source >= g.size()) {
+            throw new IllegalArgumentException("source not in graph");
+        }
+        checkParameters(damping, epsilon, 0);
+        int n = g.size();
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        double[] estimates = new double[n];
+        double[] residuals = new double[n];
+        boolean[] queued = new boolean[n];
+
+        // vertices whose residual is above the threshold, in a circular queue
+        int[] queue = new int[n];
+        int head = 0;
+        int count = 1;
+        residuals[source] = 1;
+        queue[0] = source;
+        queued[source] = true;
+        while (count > 0) {
+            int u = queue[head];
+            head = head + 1 == n ? 0 : head + 1;
+            count--;
+            queued[u] = false;
+
+            double residual = residuals[u];
+            residuals[u] = 0;
+            estimates[u] += (1 - damping) * residual;
+            double spread = damping * residual;
+            int degree = offsets[u + 1] - offsets[u];
+            if (degree == 0) {
+                // the surfer jumps back to the source from a vertex without outgoing edges
+                count = push(source, spread, offsets[source + 1] - offsets[source], epsilon,
+                        residuals, queued, queue, head, count);
+            } else {
+                double share = spread / degree;
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    count = push(v, share, offsets[v + 1] - offsets[v], epsilon, residuals,
+                            queued, queue, head, count);
+                }
+            }
+        }
+        return estimates;
+    }
+
+    /**
+     * Computes Kleinberg's hub and authority scores by power iteration. The authority of a
+     * vertex is the sum of the hub scores of the vertices pointing to it, and the hub score of
+     * a vertex is the sum of the authorities it points to; both are normalized to sum to 1
+     * after every iteration.
+     *
+     * @param g The graph to rank.
+     * @param tolerance The L1 distance between two iterates of the hub scores at which to stop.
+     * @param maxIterations The maximum number of iterations to run.
+     * @param initialHubs Hub scores to start from, e.g. the result of an earlier run; null to
+     *                    start from the uniform distribution.
+     * @throws java.lang.IllegalArgumentException if g is null, tolerance is not positive,
+     * maxIterations is negative or initialHubs has the wrong length.
+     * @return The hub and authority scores of each vertex id.
+     */
+    public static HubsAndAuthorities hits(CompactGraph<?, ?> g, double tolerance,
+                                          int maxIterations, double[] initialHubs) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        checkParameters(0, tolerance, maxIterations);
+        final int n = g.size();
+        if (n == 0) {
+            return new HubsAndAuthorities(new double[0], new double[0], 0);
+        }
+        final int[] offsets = g.offsets;
+        final int[] targets = g.targets;
+        final int[] inOffsets = g.inOffsets();
+        final int[] inSources = g.inSources();
+        int grain = Parallel.grain(n, GRAIN);
+        double[] hubs = initialHubs == null ? uniform(n) : normalize(initialHubs, n, "initial");
+        double[] nextHubs = new double[n];
+        final double[] authorities = new double[n];
+
+        int iteration = 0;
+        while (iteration < maxIterations) {
+            iteration++;
+            final double[] current = hubs;
+            double authoritySum = Parallel.sumDoubles(0, n, grain,
+                    new Parallel.RangeDoubleSum() {
+                        @Override
+                        public double apply(int from, int to) {
+                            double sum = 0;
+                            for (int v = from; v < to; v++) {
+                                double score = 0;
+                                for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+                                    score += current[inSources[e]];
+                                }
+                                authorities[v] = score;
+                                sum += score;
+                            }
+                            return sum;
+                        }
+                    });
+            scale(authorities, authoritySum, grain);
+
+            final double[] updated = nextHubs;
+            double hubSum = Parallel.sumDoubles(0, n, grain, new Parallel.RangeDoubleSum() {
+                @Override
+                public double apply(int from, int to) {
+                    double sum = 0;
+                    for (int u = from; u < to; u++) {
+                        double score = 0;
+                        for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                            score += authorities[targets[e]];
+                        }
+                        updated[u] = score;
+                        sum += score;
+                    }
+                    return sum;
+                }
+            });
+            scale(updated, hubSum, grain);
+
+            double change = Parallel.sumDoubles(0, n, grain, new Parallel.RangeDoubleSum() {
+                @Override
+                public double apply(int from, int to) {
+                    double sum = 0;
+                    for (int u = from; u < to; u++) {
+                        sum += Math.abs(updated[u] - current[u]);
+                    }
+                    return sum;
+                }
+            });
+            nextHubs = hubs;
+            hubs = updated;
+            if (change < tolerance) {
+                break;
+            }
+        }
+        return new HubsAndAuthorities(hubs, authorities, iteration);
+    }
+
+    /**
+     * Adds amount to the residual of v, and queues v if its residual crosses the threshold.
+     *
+     * @return The new number of queued vertices.
+     */
+    private static int push(int v, double amount, int degree, double epsilon,
+                            double[] residuals, boolean[] queued, int[] queue, int head,
+                            int count) {
+        residuals[v] += amount;
+        if (!queued[v] && residuals[v] >= epsilon * Math.max(1, degree)) {
+            queued[v] = true;
+            queue[(head + count) % queue.length] = v;
+            return count + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Divides every score by sum, or resets the scores to the uniform distribution if they
+     * are all zero (e.g. in a graph without edges).
+     */
+    private static void scale(final double[] scores, final double sum, int grain) {
+        final double uniform = 1.0 / scores.length;
+        Parallel.forRange(0, scores.length, grain, new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    scores[i] = sum > 0 ? scores[i] / sum : uniform;
+                }
+            }
+        });
+    }
+
+    private static double[] uniform(int n) {
+        double[] result = new double[n];
+        Arrays.fill(result, 1.0 / n);
+        return result;
+    }
+
+    /**
+     * @return A copy of the passed weights, scaled to sum to 1.
+     * @throws java.lang.IllegalArgumentException if weights does not have length n, has a
+     * negative entry or sums to 0.
+     */
+    private static double[] normalize(double[] weights, int n, String name) {
+        if (weights.length != n) {
+            throw new IllegalArgumentException(name + " must have one entry per vertex");
+        }
+        double sum = 0;
+        for (double weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException(name + " has a negative entry");
+            }
+            sum += weight;
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException(name + " sums to zero");
+        }
+        double[] result = new double[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = weights[i] / sum;
+        }
+        return result;
+    }
+
+    private static void checkParameters(double damping, double tolerance, int maxIterations) {
+        if (!(damping >= 0 && damping < 1)) {
+            throw new IllegalArgumentException("damping must be in [0, 1)");
+        }
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("tolerance must be positive");
+        }
+        if (maxIterations < 0) {
+            throw new IllegalArgumentException("negative iteration count");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.killeent.Graph;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A read-only, directed graph backed by a memory-mapped graph file. See {@link MappedGraph}.
+ */
+public class MappedDirectedGraph<V extends Comparable<V>, E extends Comparable<E>>
+        extends MappedGraph<V, E> implements DirectedGraph<V, E> {
+
+    MappedDirectedGraph(ByteBuffer[] sections, int size, GraphCodec<V> vertexCodec,
+                        GraphCodec<E> edgeCodec) {
+        super(sections, size, vertexCodec, edgeCodec);
+    }
+}
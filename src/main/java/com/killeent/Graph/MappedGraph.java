@@ -0,0 +1,470 @@
+package com.killeent.Graph;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * A read-only graph backed by a memory-mapped graph file. Opening a file only maps it: vertices
+ * and edge values are decoded on demand by {@link #neighbors}, {@link #vertices} and
+ * {@link #containsVertex}, so a graph with millions of edges is ready as soon as the mapping
+ * exists, and the operating system pages the file in as it is read.
+ *
+ * A graph file is written by {@link #write} and has the following layout, with all numbers
+ * big-endian:
+ *
+ *   header:   magic, version, flags (1 if directed), vertex count n, edge count m (ints),
+ *             followed by the (offset, length) longs of the six sections below
+ *   section 0: int[n + 1] byte offsets of the vertices within section 1
+ *   section 1: the encoded vertices, in ascending order
+ *   section 2: int[n + 1] CSR offsets; the edges leaving vertex i are edges
+ *              offsets[i] .. offsets[i + 1] - 1
+ *   section 3: int[m] the index of the destination of every edge
+ *   section 4: int[m + 1] byte offsets of the edge values within section 5
+ *   section 5: the encoded edge values
+ *
+ * A vertex is identified by its index in the sorted dictionary, which is found by binary search.
+ * Every edge of an undirected graph is stored once in each direction.
+ *
+ * All methods that would modify the graph throw {@link java.lang.UnsupportedOperationException}.
+ */
+public abstract class MappedGraph<V extends Comparable<V>, E extends Comparable<E>>
+        implements SimpleLabeledGraph<V, E> {
+
+    private static final int MAGIC = 0x4B475246;
+    private static final int VERSION = 1;
+    private static final int SECTIONS = 6;
+    private static final int HEADER_SIZE = 5 * 4 + SECTIONS * 2 * 8;
+
+    private final GraphCodec<V> vertexCodec;
+    private final GraphCodec<E> edgeCodec;
+    private final int size;
+
+    private final IntBuffer vertexOffsets;
+    private final ByteBuffer vertexData;
+    final IntBuffer offsets;
+    final IntBuffer targets;
+    private final IntBuffer valueOffsets;
+    private final ByteBuffer valueData;
+
+    MappedGraph(ByteBuffer[] sections, int size, GraphCodec<V> vertexCodec,
+                GraphCodec<E> edgeCodec) {
+        this.vertexCodec = vertexCodec;
+        this.edgeCodec = edgeCodec;
+        this.size = size;
+        vertexOffsets = sections[0].asIntBuffer();
+        vertexData = sections[1];
+        offsets = sections[2].asIntBuffer();
+        targets = sections[3].asIntBuffer();
+        valueOffsets = sections[4].asIntBuffer();
+        valueData = sections[5];
+    }
+
+    /**
+     * Writes a graph to a graph file.
+     *
+     * @param g The graph to write.
+     * @param file The file to write; an existing file is replaced.
+     * @param vertexCodec Encodes the vertices.
+     * @param edgeCodec Encodes the edge values.
+     * @throws java.lang.IllegalArgumentException if any argument is null.
+     * @throws java.io.IOException if the file cannot be written.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> void write(
+            SimpleLabeledGraph<V, E> g, File file, GraphCodec<V> vertexCodec,
+            GraphCodec<E> edgeCodec) throws IOException {
+        if (g == null || file == null || vertexCodec == null || edgeCodec == null) {
+            throw new IllegalArgumentException("null argument");
+        }
+        List<V> vertices = new ArrayList<V>(g.vertices());
+        Collections.sort(vertices);
+        int n = vertices.size();
+        Map<V, Integer> ids = new HashMap<V, Integer>(n * 2);
+        for (int i = 0; i < n; i++) {
+            ids.put(vertices.get(i), i);
+        }
+
+        // gather the edges first, so the section lengths are known before anything is written
+        byte[][] encodedVertices = new byte[n][];
+        int[] vertexOffsets = new int[n + 1];
+        int[] offsets = new int[n + 1];
+        IntList targets = new IntList();
+        List<byte[]> encodedValues = new ArrayList<byte[]>();
+        long valueBytes = 0;
+        for (int i = 0; i < n; i++) {
+            encodedVertices[i] = vertexCodec.encode(vertices.get(i));
+            vertexOffsets[i + 1] = checkedSize(
+                    (long) vertexOffsets[i] + encodedVertices[i].length);
+            for (Edge<V, E> edge : g.neighbors(vertices.get(i))) {
+                Integer target = ids.get(edge.getDestination());
+                if (target != null) {
+                    byte[] value = edgeCodec.encode(edge.getValue());
+                    targets.add(target);
+                    encodedValues.add(value);
+                    valueBytes += value.length;
+                }
+            }
+            offsets[i + 1] = targets.size();
+        }
+        int m = targets.size();
+        checkedSize(valueBytes);
+        checkedSize(4L * (m + 1));
+
+        long[] lengths = {4L * (n + 1), vertexOffsets[n], 4L * (n + 1), 4L * m, 4L * (m + 1),
+                valueBytes};
+        long[] starts = new long[SECTIONS];
+        long position = HEADER_SIZE;
+        for (int s = 0; s < SECTIONS; s++) {
+            position = (position + 7) & ~7L;
+            starts[s] = position;
+            position += lengths[s];
+        }
+
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(g instanceof UndirectedGraph ? 0 : 1);
+            out.writeInt(n);
+            out.writeInt(m);
+            for (int s = 0; s < SECTIONS; s++) {
+                out.writeLong(starts[s]);
+                out.writeLong(lengths[s]);
+            }
+            long written = HEADER_SIZE;
+            written = pad(out, written, starts[0]);
+            for (int offset : vertexOffsets) {
+                out.writeInt(offset);
+            }
+            written = pad(out, written + lengths[0], starts[1]);
+            for (byte[] vertex : encodedVertices) {
+                out.write(vertex);
+            }
+            written = pad(out, written + lengths[1], starts[2]);
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+            written = pad(out, written + lengths[2], starts[3]);
+            for (int e = 0; e < m; e++) {
+                out.writeInt(targets.get(e));
+            }
+            written = pad(out, written + lengths[3], starts[4]);
+            int valueOffset = 0;
+            out.writeInt(0);
+            for (byte[] value : encodedValues) {
+                valueOffset += value.length;
+                out.writeInt(valueOffset);
+            }
+            pad(out, written + lengths[4], starts[5]);
+            for (byte[] value : encodedValues) {
+                out.write(value);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Opens a graph file, which must have been written from a directed graph.
+     *
+     * @throws java.lang.IllegalArgumentException if an argument is null, or if the file is not
+     * a graph file of a directed graph.
+     * @throws java.io.IOException if the file cannot be read.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> MappedDirectedGraph<V, E>
+            openDirected(File file, GraphCodec<V> vertexCodec, GraphCodec<E> edgeCodec)
+            throws IOException {
+        MappedGraph<V, E> g = open(file, vertexCodec, edgeCodec);
+        if (!(g instanceof MappedDirectedGraph)) {
+            throw new IllegalArgumentException("graph file holds an undirected graph");
+        }
+        return (MappedDirectedGraph<V, E>) g;
+    }
+
+    /**
+     * Opens a graph file, which must have been written from an undirected graph.
+     *
+     * @throws java.lang.IllegalArgumentException if an argument is null, or if the file is not
+     * a graph file of an undirected graph.
+     * @throws java.io.IOException if the file cannot be read.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> MappedUndirectedGraph<V, E>
+            openUndirected(File file, GraphCodec<V> vertexCodec, GraphCodec<E> edgeCodec)
+            throws IOException {
+        MappedGraph<V, E> g = open(file, vertexCodec, edgeCodec);
+        if (!(g instanceof MappedUndirectedGraph)) {
+            throw new IllegalArgumentException("graph file holds a directed graph");
+        }
+        return (MappedUndirectedGraph<V, E>) g;
+    }
+
+    /**
+     * Opens a graph file. The result is a {@link MappedDirectedGraph} or a
+     * {@link MappedUndirectedGraph}, depending on the graph the file was written from.
+     *
+     * The file is mapped read-only, and the channel is closed before returning; the mapping
+     * stays valid until the graph is garbage collected.
+     *
+     * The section lengths are checked against the vertex and edge counts in the header, so a
+     * truncated or corrupt file is rejected here rather than failing partway through a query.
+     *
+     * @throws java.lang.IllegalArgumentException if an argument is null, if the file is not a
+     * graph file, or if its sections do not match its header.
+     * @throws java.io.IOException if the file cannot be read.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> MappedGraph<V, E> open(
+            File file, GraphCodec<V> vertexCodec, GraphCodec<E> edgeCodec) throws IOException {
+        if (file == null || vertexCodec == null || edgeCodec == null) {
+            throw new IllegalArgumentException("null argument");
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            if (channel.size() < HEADER_SIZE) {
+                throw new IllegalArgumentException("not a graph file");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IllegalArgumentException("not a graph file");
+            }
+            boolean directed = header.getInt() == 1;
+            int n = header.getInt();
+            int m = header.getInt();
+            if (n < 0 || m < 0) {
+                throw new IllegalArgumentException("corrupt graph file: negative count");
+            }
+            // the lengths the fixed-width sections must have, or -1 for the encoded ones
+            long[] expected = {4L * (n + 1), -1, 4L * (n + 1), 4L * m, 4L * (m + 1), -1};
+            ByteBuffer[] sections = new ByteBuffer[SECTIONS];
+            for (int s = 0; s < SECTIONS; s++) {
+                long start = header.getLong();
+                long length = header.getLong();
+                if (start < HEADER_SIZE || length < 0 || length > channel.size() - start) {
+                    throw new IllegalArgumentException(
+                            "corrupt graph file: section " + s + " is truncated");
+                }
+                if (expected[s] >= 0 && length != expected[s]) {
+                    throw new IllegalArgumentException("corrupt graph file: section " + s
+                            + " does not match " + n + " vertices and " + m + " edges");
+                }
+                sections[s] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+            checkBounds(sections[0], sections[1].limit(), n, "vertex");
+            checkBounds(sections[2], m, n, "edge");
+            checkBounds(sections[4], sections[5].limit(), m, "value");
+            if (directed) {
+                return new MappedDirectedGraph<V, E>(sections, n, vertexCodec, edgeCodec);
+            }
+            return new MappedUndirectedGraph<V, E>(sections, n, vertexCodec, edgeCodec);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Checks that the count + 1 entries of an offset section run from 0 to last, the length of
+     * the section they index. Only the two ends are read, so opening does not page in the
+     * whole file.
+     */
+    private static void checkBounds(ByteBuffer section, int last, int count, String name) {
+        IntBuffer offsets = section.asIntBuffer();
+        if (offsets.get(0) != 0 || offsets.get(count) != last) {
+            throw new IllegalArgumentException("corrupt graph file: " + name
+                    + " offsets do not span their section");
+        }
+    }
+
+    /**
+     * @return The number of vertices in the graph.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of edges in the file. Every edge of an undirected graph is counted once
+     * in each direction.
+     */
+    public int edgeCount() {
+        return targets.limit();
+    }
+
+    /**
+     * @return The vertex at the specified index of the sorted vertex dictionary.
+     */
+    V vertex(int index) {
+        int start = vertexOffsets.get(index);
+        return vertexCodec.decode(vertexData, start, vertexOffsets.get(index + 1) - start);
+    }
+
+    /**
+     * @return The value of the specified edge.
+     */
+    E value(int edge) {
+        int start = valueOffsets.get(edge);
+        return edgeCodec.decode(valueData, start, valueOffsets.get(edge + 1) - start);
+    }
+
+    /**
+     * Binary searches the vertex dictionary.
+     *
+     * @return The index of the vertex, or -1 if it is not in the graph.
+     */
+    int index(V vertex) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = vertex(mid).compareTo(vertex);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void addVertex(V vertex) {
+        throw new UnsupportedOperationException("mapped graphs are read-only");
+    }
+
+    @Override
+    public boolean containsVertex(V vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("null vertex");
+        }
+        return index(vertex) >= 0;
+    }
+
+    @Override
+    public Set<V> vertices() {
+        return new AbstractSet<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new Iterator<V>() {
+                    private int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public V next() {
+                        if (next >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        return vertex(next++);
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException("mapped graphs are read-only");
+                    }
+                };
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return o != null && index((V) o) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public void addEdge(V vertexA, V vertexB, E edge) {
+        throw new UnsupportedOperationException("mapped graphs are read-only");
+    }
+
+    @Override
+    public boolean containsEdge(V vertexA, V vertexB, E edge) {
+        if (vertexA == null || vertexB == null || edge == null) {
+            throw new IllegalArgumentException("null argument");
+        }
+        int source = index(vertexA);
+        int destination = index(vertexB);
+        if (source < 0 || destination < 0) {
+            return false;
+        }
+        for (int e = offsets.get(source); e < offsets.get(source + 1); e++) {
+            if (targets.get(e) == destination && value(e).equals(edge)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean removeEdge(V vertexA, V vertexB, E edge) {
+        throw new UnsupportedOperationException("mapped graphs are read-only");
+    }
+
+    @Override
+    public Collection<Edge<V, E>> neighbors(final V vertex) {
+        if (vertex == null) {
+            throw new NullPointerException("null vertex");
+        }
+        int index = index(vertex);
+        if (index < 0) {
+            throw new IllegalArgumentException("vertex not in graph");
+        }
+        final int start = offsets.get(index);
+        final int end = offsets.get(index + 1);
+        return new AbstractList<Edge<V, E>>() {
+            @Override
+            public Edge<V, E> get(int i) {
+                if (i < 0 || i >= end - start) {
+                    throw new IndexOutOfBoundsException("index: " + i);
+                }
+                return new Edge<V, E>(vertex, vertex(targets.get(start + i)), value(start + i));
+            }
+
+            @Override
+            public int size() {
+                return end - start;
+            }
+        };
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("mapped graphs are read-only");
+    }
+
+    /**
+     * @throws java.lang.IllegalArgumentException if a section would not fit in an int-indexed
+     * buffer.
+     */
+    private static int checkedSize(long bytes) {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("graph too large for a graph file");
+        }
+        return (int) bytes;
+    }
+
+    /**
+     * Writes zeros until the stream is at the target position.
+     *
+     * @return The target position.
+     */
+    private static long pad(DataOutputStream out, long position, long target)
+            throws IOException {
+        for (long p = position; p < target; p++) {
+            out.writeByte(0);
+        }
+        return target;
+    }
+}
@@ -0,0 +1,15 @@
+package com.killeent.Graph;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A read-only, undirected graph backed by a memory-mapped graph file. See {@link MappedGraph}.
+ */
+public class MappedUndirectedGraph<V extends Comparable<V>, E extends Comparable<E>>
+        extends MappedGraph<V, E> implements UndirectedGraph<V, E> {
+
+    MappedUndirectedGraph(ByteBuffer[] sections, int size, GraphCodec<V> vertexCodec,
+                          GraphCodec<E> edgeCodec) {
+        super(sections, size, vertexCodec, edgeCodec);
+    }
+}
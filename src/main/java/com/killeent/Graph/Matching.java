@@ -0,0 +1,78 @@
+package com.killeent.Graph;
+
+/**
+ * A matching of a bipartite {@link CompactGraph}, found by {@link BipartiteMatching}. It can
+ * be passed back to the solver as the starting point for the next matching of a changed
+ * graph.
+ */
+public class Matching<V extends Comparable<V>, E extends Comparable<E>> {
+
+    private final CompactGraph<V, E> graph;
+    private final int[] mates;
+    private final int size;
+    private final long cost;
+
+    // the dual potential of every vertex, for warm-starting weighted matchings; null for
+    // cardinality matchings
+    private final long[] potentials;
+
+    Matching(CompactGraph<V, E> graph, int[] mates, long cost, long[] potentials) {
+        this.graph = graph;
+        this.mates = mates;
+        this.cost = cost;
+        this.potentials = potentials;
+        int matched = 0;
+        for (int mate : mates) {
+            if (mate >= 0) {
+                matched++;
+            }
+        }
+        this.size = matched / 2;
+    }
+
+    /**
+     * @return The graph that was matched.
+     */
+    public CompactGraph<V, E> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return The id of the mate of every vertex id, or -1 for unmatched vertices. The array
+     * is not copied and should not be modified.
+     */
+    public int[] getMates() {
+        return mates;
+    }
+
+    /**
+     * @return The number of matched pairs.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The total cost of the matched edges, for weighted matchings; 0 otherwise.
+     */
+    public long getCost() {
+        return cost;
+    }
+
+    /**
+     * @param vertex The vertex to look up.
+     * @throws java.lang.IllegalArgumentException if vertex is null or not in the graph.
+     * @return The vertex matched to vertex, or null if it is unmatched.
+     */
+    public V mate(V vertex) {
+        int mate = mates[graph.id(vertex)];
+        return mate < 0 ? null : graph.vertex(mate);
+    }
+
+    /**
+     * @return The dual potentials, or null for a cardinality matching.
+     */
+    long[] potentials() {
+        return potentials;
+    }
+}
@@ -0,0 +1,396 @@
+package com.killeent.Graph;
+
+import java.util.Arrays;
+
+/**
+ * The neighborhood function of a graph: N(t), the number of ordered pairs of vertices (x, y)
+ * such that y can be reached from x in at most t steps, for t = 0 (where every vertex only
+ * reaches itself) up to the largest finite distance. The distance distribution, average
+ * distance and effective diameter follow from it.
+ *
+ * {@link #hyperAnf} estimates it in near-linear time and O(n 2^b) memory (Boldi, Rosa and
+ * Vigna, "HyperANF: Approximating the Neighbourhood Function of Very Large Graphs on a
+ * Budget", 2011). Every vertex keeps a HyperLogLog counter of 2^b registers (Flajolet et al.,
+ * 2007) for the set of vertices within distance t of it. Iteration t + 1 takes the union of
+ * the counters of each vertex and its out-neighbors, which is a register-wise maximum, and
+ * N(t + 1) is the sum of the estimated counter sizes; iteration stops when no counter
+ * changes. The registers are bytes packed eight to a long, so one long operation takes the
+ * maximum of eight registers; only vertices whose counter or a neighbor's counter changed
+ * are updated; and the vertices are updated in parallel. Each counter has a relative
+ * standard error of 1.04 / sqrt(2^b), but the errors of a sum over many vertices mostly
+ * cancel out.
+ *
+ * {@link #exact} computes the same function by a breadth first search from every vertex, for
+ * small graphs and for testing.
+ */
+public class NeighborhoodFunction {
+
+    private static final int GRAIN = 1024;
+
+    // Detects, in every byte of a long, whether one register is at least another
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    // N(t) for t = 0 .. the largest finite distance
+    private final double[] values;
+
+    private NeighborhoodFunction(double[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Estimates the neighborhood function with HyperANF.
+     *
+     * @param g The graph to analyse; directed graphs are followed along outgoing edges.
+     * @param log2Registers b, the base 2 logarithm of the number of registers per vertex, in
+     *                      [4, 16]; 2^b bytes are used per vertex, twice over.
+     * @param maxDistance The number of iterations after which to stop even if counters are
+     *                    still changing.
+     * @param seed The seed for the hash function of the counters.
+     * @throws java.lang.IllegalArgumentException if g is null, log2Registers is not in
+     * [4, 16], maxDistance is negative, or the counters need more than 2^31 longs.
+     * @return The estimated neighborhood function.
+     */
+    public static NeighborhoodFunction hyperAnf(CompactGraph<?, ?> g, int log2Registers,
+                                                int maxDistance, long seed) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        if (log2Registers < 4 || log2Registers > 16) {
+            throw new IllegalArgumentException("log2Registers not in [4, 16]");
+        }
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("negative maximum distance");
+        }
+        final int n = g.size();
+        final int[] offsets = g.offsets;
+        final int[] targets = g.targets;
+        final int registers = 1 << log2Registers;
+        // longs per counter
+        final int words = registers / 8;
+        if ((long) n * words > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("too many registers; lower log2Registers");
+        }
+        long[] current = new long[n * words];
+        long[] next = new long[n * words];
+
+        // every counter starts out holding its own vertex
+        for (int v = 0; v < n; v++) {
+            long hash = mix(v + seed * 0x9E3779B97F4A7C15L);
+            int register = (int) (hash >>> (64 - log2Registers));
+            long rest = hash << log2Registers;
+            int rank = Math.min(Long.numberOfLeadingZeros(rest), 64 - log2Registers) + 1;
+            current[v * words + register / 8] |= (long) rank << (8 * (register % 8));
+        }
+        System.arraycopy(current, 0, next, 0, current.length);
+
+        final int grain = Parallel.grain(n, GRAIN);
+        double[] values = new double[Math.min(maxDistance, n) + 1];
+        values[0] = sum(current, n, words, grain);
+        boolean[] changed = new boolean[n];
+        Arrays.fill(changed, true);
+        boolean[] nextChanged = new boolean[n];
+        int t = 0;
+        while (t < maxDistance) {
+            final long[] from = current;
+            final long[] to = next;
+            final boolean[] was = changed;
+            final boolean[] is = nextChanged;
+            long updated = Parallel.sum(0, n, grain, new Parallel.RangeSum() {
+                @Override
+                public long apply(int start, int end) {
+                    long count = 0;
+                    for (int v = start; v < end; v++) {
+                        is[v] = false;
+                        boolean stale = was[v];
+                        for (int e = offsets[v]; e < offsets[v + 1] && !stale; e++) {
+                            stale = was[targets[e]];
+                        }
+                        if (!stale) {
+                            continue;
+                        }
+                        int base = v * words;
+                        System.arraycopy(from, base, to, base, words);
+                        boolean grew = false;
+                        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                            int other = targets[e] * words;
+                            for (int i = 0; i < words; i++) {
+                                long merged = max(to[base + i], from[other + i]);
+                                if (merged != to[base + i]) {
+                                    to[base + i] = merged;
+                                    grew = true;
+                                }
+                            }
+                        }
+                        if (grew) {
+                            is[v] = true;
+                            count++;
+                        }
+                    }
+                    return count;
+                }
+            });
+            current = to;
+            next = from;
+            changed = is;
+            nextChanged = was;
+            if (updated == 0) {
+                break;
+            }
+            t++;
+            values[t] = sum(current, n, words, grain);
+        }
+        return new NeighborhoodFunction(Arrays.copyOf(values, t + 1));
+    }
+
+    /**
+     * Computes the neighborhood function exactly, by a breadth first search from every
+     * vertex, in O(nm) time.
+     *
+     * @param g The graph to analyse; directed graphs are followed along outgoing edges.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return The neighborhood function.
+     */
+    public static NeighborhoodFunction exact(CompactGraph<?, ?> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        int n = g.size();
+        long[] pairs = new long[n + 1];
+        int[] distances = new int[n];
+        int[] queue = new int[n];
+        Arrays.fill(distances, -1);
+        int diameter = 0;
+        for (int source = 0; source < n; source++) {
+            int head = 0;
+            int tail = 0;
+            distances[source] = 0;
+            queue[tail++] = source;
+            while (head < tail) {
+                int v = queue[head++];
+                pairs[distances[v]]++;
+                diameter = Math.max(diameter, distances[v]);
+                for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                    int w = g.targets[e];
+                    if (distances[w] < 0) {
+                        distances[w] = distances[v] + 1;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            for (int i = 0; i < tail; i++) {
+                distances[queue[i]] = -1;
+            }
+        }
+        double[] values = new double[n == 0 ? 1 : diameter + 1];
+        long total = 0;
+        for (int t = 0; t < values.length; t++) {
+            total += pairs[t];
+            values[t] = total;
+        }
+        return new NeighborhoodFunction(values);
+    }
+
+    /**
+     * @return N(t) for t = 0 up to {@link #maxDistance()}. The array is not copied and should
+     * not be modified.
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    /**
+     * @return The largest distance the function was computed to; for an exact function, or an
+     * estimate that was not cut off, the largest finite distance between two vertices.
+     */
+    public int maxDistance() {
+        return values.length - 1;
+    }
+
+    /**
+     * @param t A distance.
+     * @throws java.lang.IllegalArgumentException if t is negative.
+     * @return N(t), the number of pairs (x, y) with y within distance t of x, including x = y.
+     */
+    public double value(int t) {
+        if (t < 0) {
+            throw new IllegalArgumentException("negative distance");
+        }
+        return values[Math.min(t, values.length - 1)];
+    }
+
+    /**
+     * @param t A distance.
+     * @throws java.lang.IllegalArgumentException if t is negative.
+     * @return The number of pairs at distance exactly t.
+     */
+    public double pairsAt(int t) {
+        return t == 0 ? value(0) : value(t) - value(t - 1);
+    }
+
+    /**
+     * @return The number of pairs (x, y) of distinct vertices such that y is reachable from x.
+     */
+    public double reachablePairs() {
+        return values[values.length - 1] - values[0];
+    }
+
+    /**
+     * @return The average distance between distinct vertices x and y such that y is reachable
+     * from x, or 0 if there are none.
+     */
+    public double averageDistance() {
+        double total = 0;
+        for (int t = 1; t < values.length; t++) {
+            total += t * pairsAt(t);
+        }
+        double pairs = reachablePairs();
+        return pairs <= 0 ? 0 : total / pairs;
+    }
+
+    /**
+     * @return The effective diameter: the 90th percentile of the distances between distinct
+     * reachable pairs, see {@link #effectiveDiameter(double)}.
+     */
+    public double effectiveDiameter() {
+        return effectiveDiameter(0.9);
+    }
+
+    /**
+     * Computes the distance within which the given fraction of the distinct reachable pairs
+     * lie, interpolating linearly between integer distances.
+     *
+     * @param fraction The fraction of pairs, in (0, 1].
+     * @throws java.lang.IllegalArgumentException if fraction is not in (0, 1].
+     * @return The interpolated distance, or 0 if no distinct pairs are reachable.
+     */
+    public double effectiveDiameter(double fraction) {
+        if (!(fraction > 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("fraction not in (0, 1]");
+        }
+        double wanted = fraction * reachablePairs();
+        if (wanted <= 0) {
+            return 0;
+        }
+        double previous = 0;
+        for (int t = 1; t < values.length; t++) {
+            double within = values[t] - values[0];
+            if (within >= wanted) {
+                return t - 1 + (wanted - previous) / (within - previous);
+            }
+            previous = within;
+        }
+        return values.length - 1;
+    }
+
+    /**
+     * @return The register-wise maximum of two words of registers, each below 128.
+     */
+    private static long max(long x, long y) {
+        // the high bit of every byte is set where the byte of x is at least that of y
+        long atLeast = ((x | HIGH_BITS) - (y & ~HIGH_BITS)) & HIGH_BITS;
+        long mask = (atLeast >>> 7) * 0xFF;
+        return (x & mask) | (y & ~mask);
+    }
+
+    /**
+     * @return The sum of the estimated sizes of all counters.
+     */
+    private static double sum(final long[] counters, int n, final int words, int grain) {
+        return Parallel.sumDoubles(0, n, grain, new Parallel.RangeDoubleSum() {
+            @Override
+            public double apply(int from, int to) {
+                int[] histogram = new int[66];
+                double total = 0;
+                for (int v = from; v < to; v++) {
+                    total += estimate(counters, v * words, words, histogram);
+                }
+                return total;
+            }
+        });
+    }
+
+    /**
+     * Estimates the size of a counter with the improved estimator of Ertl ("New Cardinality
+     * Estimation Algorithms for HyperLogLog Sketches", 2017), which, unlike the raw estimate
+     * with a linear counting correction, is nearly unbiased over the whole range of sizes; the
+     * raw estimate overshoots by up to ten percent just above the linear counting range, and
+     * the sum of many counters does not average that away.
+     *
+     * @param histogram Scratch space for the number of registers of each rank; at least
+     *                  66 - b entries, zeroed on return.
+     * @return The estimated number of distinct vertices in the counter.
+     */
+    private static double estimate(long[] counters, int base, int words, int[] histogram) {
+        int registers = words * 8;
+        int maxRank = 65 - Integer.numberOfTrailingZeros(registers);
+        for (int i = 0; i < words; i++) {
+            long word = counters[base + i];
+            if (word == 0) {
+                histogram[0] += 8;
+                continue;
+            }
+            for (int shift = 0; shift < 64; shift += 8) {
+                histogram[(int) (word >>> shift) & 0xFF]++;
+            }
+        }
+        double z = registers * tau(1 - histogram[maxRank] / (double) registers);
+        histogram[maxRank] = 0;
+        for (int k = maxRank - 1; k >= 1; k--) {
+            z = 0.5 * (z + histogram[k]);
+            histogram[k] = 0;
+        }
+        z += registers * sigma(histogram[0] / (double) registers);
+        histogram[0] = 0;
+        return registers / (2 * Math.log(2)) * registers / z;
+    }
+
+    /**
+     * @return x + sum over k >= 1 of x^(2^k) 2^(k - 1), for x in [0, 1].
+     */
+    private static double sigma(double x) {
+        if (x == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (z != previous);
+        return z;
+    }
+
+    /**
+     * @return (1 - x - sum over k >= 1 of (1 - x^(2^-k))^2 2^-k) / 3, for x in [0, 1].
+     */
+    private static double tau(double x) {
+        if (x == 0 || x == 1) {
+            return 0;
+        }
+        double y = 1;
+        double z = 1 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= (1 - x) * (1 - x) * y;
+        } while (z != previous);
+        return z / 3;
+    }
+
+    /**
+     * @return A 64-bit mix of x (the finalizer of MurmurHash3).
+     */
+    private static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xFF51AFD7ED558CCDL;
+        x ^= x >>> 33;
+        x *= 0xC4CEB3FE1A85EC53L;
+        x ^= x >>> 33;
+        return x;
+    }
+}
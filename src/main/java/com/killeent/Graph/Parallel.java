@@ -0,0 +1,173 @@
+package com.killeent.Graph;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Small helpers for running data-parallel loops over integer ranges on the common
+ * {@link java.util.concurrent.ForkJoinPool}. Ranges are split in half until they are no
+ * larger than the grain size, so callers should pick a grain that amortizes task overhead.
+ */
+final class Parallel {
+
+    private Parallel() {
+    }
+
+    /**
+     * Body of a parallel loop over the half-open range [from, to).
+     */
+    interface RangeAction {
+        void apply(int from, int to);
+    }
+
+    /**
+     * Body of a parallel sum over the half-open range [from, to).
+     */
+    interface RangeSum {
+        long apply(int from, int to);
+    }
+
+    /**
+     * Body of a parallel floating point sum over the half-open range [from, to).
+     */
+    interface RangeDoubleSum {
+        double apply(int from, int to);
+    }
+
+    /**
+     * @return The number of threads available to parallel loops.
+     */
+    static int parallelism() {
+        return ForkJoinPool.getCommonPoolParallelism();
+    }
+
+    /**
+     * Picks a grain size that splits n items into a few tasks per thread, but never fewer than
+     * minimum items per task.
+     */
+    static int grain(int n, int minimum) {
+        return Math.max(minimum, n / (parallelism() * 4 + 1));
+    }
+
+    /**
+     * Runs body over [from, to) in parallel.
+     */
+    static void forRange(int from, int to, int grain, RangeAction body) {
+        if (to - from <= grain) {
+            if (from < to) {
+                body.apply(from, to);
+            }
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new ForAction(from, to, Math.max(1, grain), body));
+    }
+
+    /**
+     * Runs body over [from, to) in parallel and returns the sum of the partial results.
+     */
+    static long sum(int from, int to, int grain, RangeSum body) {
+        if (to - from <= grain) {
+            return from < to ? body.apply(from, to) : 0;
+        }
+        return ForkJoinPool.commonPool().invoke(new SumTask(from, to, Math.max(1, grain), body));
+    }
+
+    /**
+     * Runs body over [from, to) in parallel and returns the sum of the partial results. The
+     * range is always split the same way for the same grain, so the result does not depend on
+     * thread scheduling.
+     */
+    static double sumDoubles(int from, int to, int grain, RangeDoubleSum body) {
+        if (to - from <= grain) {
+            return from < to ? body.apply(from, to) : 0;
+        }
+        return ForkJoinPool.commonPool().invoke(
+                new DoubleSumTask(from, to, Math.max(1, grain), body));
+    }
+
+    private static class ForAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final RangeAction body;
+
+        ForAction(int from, int to, int grain, RangeAction body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                body.apply(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ForAction(from, mid, grain, body), new ForAction(mid, to, grain, body));
+        }
+    }
+
+    private static class SumTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final RangeSum body;
+
+        SumTask(int from, int to, int grain, RangeSum body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= grain) {
+                return body.apply(from, to);
+            }
+            int mid = (from + to) >>> 1;
+            SumTask left = new SumTask(from, mid, grain, body);
+            left.fork();
+            long right = new SumTask(mid, to, grain, body).compute();
+            return left.join() + right;
+        }
+    }
+
+    private static class DoubleSumTask extends RecursiveTask<Double> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final RangeDoubleSum body;
+
+        DoubleSumTask(int from, int to, int grain, RangeDoubleSum body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from <= grain) {
+                return body.apply(from, to);
+            }
+            int mid = (from + to) >>> 1;
+            DoubleSumTask left = new DoubleSumTask(from, mid, grain, body);
+            left.fork();
+            double right = new DoubleSumTask(mid, to, grain, body).compute();
+            return left.join() + right;
+        }
+    }
+}
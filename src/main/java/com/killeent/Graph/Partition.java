@@ -0,0 +1,76 @@
+package com.killeent.Graph;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One part of a partitioned graph, as produced by {@link Partitioner#split}. The local graph
+ * holds the vertices owned by this part, every edge leaving them, and the ghost vertices owned
+ * by other parts that those edges lead to; the ghost table records which part to ask about
+ * them. In a directed part the ghost vertices have no outgoing edges. In an undirected part
+ * every edge is stored in both directions, so a ghost vertex keeps the cut edges back to the
+ * owned vertices it is adjacent to, and no others.
+ */
+public class Partition<V extends Comparable<V>, E extends Comparable<E>> {
+
+    private final int index;
+    private final SimpleLabeledGraph<V, E> graph;
+    private final Set<V> owned;
+    private final Map<V, Integer> ghosts;
+
+    Partition(int index, SimpleLabeledGraph<V, E> graph, Set<V> owned, Map<V, Integer> ghosts) {
+        this.index = index;
+        this.graph = graph;
+        this.owned = Collections.unmodifiableSet(owned);
+        this.ghosts = Collections.unmodifiableMap(ghosts);
+    }
+
+    /**
+     * @return The index of this part, in [0, k).
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return The local graph of this part. It is not copied; modifying it does not update
+     * the owned vertices or the ghost table.
+     */
+    public SimpleLabeledGraph<V, E> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return An unmodifiable view of the vertices owned by this part.
+     */
+    public Set<V> getOwned() {
+        return owned;
+    }
+
+    /**
+     * @return An unmodifiable map from each ghost vertex to the index of the part owning it.
+     */
+    public Map<V, Integer> getGhosts() {
+        return ghosts;
+    }
+
+    /**
+     * @param vertex A vertex of the local graph.
+     * @throws java.lang.IllegalArgumentException if vertex is null or not in the local graph.
+     * @return The index of the part owning vertex.
+     */
+    public int owner(V vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("null vertex");
+        }
+        if (owned.contains(vertex)) {
+            return index;
+        }
+        Integer owner = ghosts.get(vertex);
+        if (owner == null) {
+            throw new IllegalArgumentException("vertex not in this part");
+        }
+        return owner;
+    }
+}
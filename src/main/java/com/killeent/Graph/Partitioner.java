@@ -0,0 +1,635 @@
+package com.killeent.Graph;
+
+import java.util.*;
+
+/**
+ * Splits the vertices of a {@link CompactGraph} into k parts of about equal size while
+ * keeping the number of edges between parts (the edge cut) small, so that the parts can be
+ * processed by different workers with little communication. Edge direction is ignored.
+ *
+ * Two partitioners are offered. {@link #labelPropagation} starts from contiguous blocks of a
+ * breadth first order and repeatedly moves every vertex to the part most of its neighbours
+ * are in. {@link #multilevel} follows METIS (Karypis and Kumar, "A Fast and High Quality
+ * Multilevel Scheme for Partitioning Irregular Graphs", 1998): it contracts heavy-edge
+ * matchings until the graph is small, partitions the small graph by growing regions, and then
+ * projects the partition back level by level, refining it at every level. Both keep every
+ * part within (1 + imbalance) times the average part size.
+ *
+ * {@link #split} turns a partition into one subgraph per part, each with a table of the
+ * ghost vertices it has edges to and the parts that own them.
+ */
+public class Partitioner {
+
+    // Coarsening stops once the graph has at most this many vertices per part
+    private static final int COARSEST_VERTICES_PER_PART = 20;
+
+    // ... or at least this many vertices in total
+    private static final int COARSEST_VERTICES = 100;
+
+    // Coarsening also stops when a level removes fewer than this fraction of the vertices
+    private static final double MINIMUM_CONTRACTION = 0.1;
+
+    private static final int INITIAL_PARTITION_TRIALS = 4;
+    private static final int REFINEMENT_PASSES = 10;
+    private static final int LABEL_PROPAGATION_PASSES = 30;
+
+    private Partitioner() {
+    }
+
+    /**
+     * Partitions the graph by size-constrained label propagation.
+     *
+     * @param g The graph to partition.
+     * @param k The number of parts.
+     * @param imbalance How much larger than n / k a part may be, as a fraction; e.g. 0.03.
+     * @param seed The seed for the order vertices are visited in.
+     * @throws java.lang.IllegalArgumentException if g is null, k is not positive or imbalance
+     * is negative.
+     * @return The part of each vertex id, in [0, k).
+     */
+    public static int[] labelPropagation(CompactGraph<?, ?> g, int k, double imbalance,
+                                         long seed) {
+        checkArguments(g, k, imbalance);
+        WeightedGraph graph = WeightedGraph.symmetrize(g);
+        Random random = new Random(seed);
+        long maxWeight = maxPartWeight(graph.totalWeight, k, imbalance);
+
+        // contiguous blocks of a BFS order are already fairly well connected
+        int[] order = breadthFirstOrder(graph);
+        int[] parts = new int[graph.n];
+        for (int i = 0; i < order.length; i++) {
+            parts[order[i]] = (int) ((long) i * k / order.length);
+        }
+        refine(graph, parts, k, maxWeight, LABEL_PROPAGATION_PASSES, random);
+        return parts;
+    }
+
+    /**
+     * Partitions the graph with multilevel coarsening, region growing and refinement.
+     *
+     * @param g The graph to partition.
+     * @param k The number of parts.
+     * @param imbalance How much larger than n / k a part may be, as a fraction; e.g. 0.03.
+     * @param seed The seed for matchings, initial partitions and visiting orders.
+     * @throws java.lang.IllegalArgumentException if g is null, k is not positive or imbalance
+     * is negative.
+     * @return The part of each vertex id, in [0, k).
+     */
+    public static int[] multilevel(CompactGraph<?, ?> g, int k, double imbalance, long seed) {
+        checkArguments(g, k, imbalance);
+        Random random = new Random(seed);
+        WeightedGraph graph = WeightedGraph.symmetrize(g);
+        long maxWeight = maxPartWeight(graph.totalWeight, k, imbalance);
+
+        // coarsen: levels.get(i + 1) is the contraction of levels.get(i) by maps.get(i)
+        List<WeightedGraph> levels = new ArrayList<WeightedGraph>();
+        List<int[]> maps = new ArrayList<int[]>();
+        levels.add(graph);
+        int coarsest = Math.max(COARSEST_VERTICES, k * COARSEST_VERTICES_PER_PART);
+        int maxVertexWeight = (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                1.5 * graph.totalWeight / coarsest));
+        while (levels.get(levels.size() - 1).n > coarsest) {
+            WeightedGraph fine = levels.get(levels.size() - 1);
+            int[] map = new int[fine.n];
+            WeightedGraph coarse = fine.contract(map, maxVertexWeight, random);
+            if (coarse.n > fine.n * (1 - MINIMUM_CONTRACTION)) {
+                break;
+            }
+            levels.add(coarse);
+            maps.add(map);
+        }
+
+        // partition the coarsest graph, keeping the best of a few trials
+        WeightedGraph small = levels.get(levels.size() - 1);
+        int[] parts = null;
+        long bestCut = Long.MAX_VALUE;
+        for (int trial = 0; trial < INITIAL_PARTITION_TRIALS; trial++) {
+            int[] candidate = growRegions(small, k, random);
+            refine(small, candidate, k, maxWeight, REFINEMENT_PASSES, random);
+            long cut = small.cut(candidate);
+            if (parts == null || cut < bestCut) {
+                parts = candidate;
+                bestCut = cut;
+            }
+        }
+
+        // project back to the original graph, refining at every level
+        for (int level = levels.size() - 2; level >= 0; level--) {
+            int[] map = maps.get(level);
+            int[] finer = new int[map.length];
+            for (int v = 0; v < map.length; v++) {
+                finer[v] = parts[map[v]];
+            }
+            parts = finer;
+            refine(levels.get(level), parts, k, maxWeight, REFINEMENT_PASSES, random);
+        }
+        return parts;
+    }
+
+    /**
+     * @param g The partitioned graph.
+     * @param parts The part of each vertex id.
+     * @throws java.lang.IllegalArgumentException if g or parts is null, or parts does not have
+     * one entry per vertex.
+     * @return The number of edges whose endpoints are in different parts. An undirected edge
+     * is counted once.
+     */
+    public static long edgeCut(CompactGraph<?, ?> g, int[] parts) {
+        if (g == null || parts == null) {
+            throw new IllegalArgumentException("null arguments to edgeCut");
+        }
+        if (parts.length != g.size()) {
+            throw new IllegalArgumentException("parts must have one entry per vertex");
+        }
+        long cut = 0;
+        for (int v = 0; v < g.size(); v++) {
+            for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                if (parts[v] != parts[g.targets[e]]) {
+                    cut++;
+                }
+            }
+        }
+        return g.isDirected() ? cut : cut / 2;
+    }
+
+    /**
+     * @param parts The part of each vertex.
+     * @param k The number of parts.
+     * @throws java.lang.IllegalArgumentException if parts is null, k is not positive, or a part
+     * is not in [0, k).
+     * @return How much larger than the average part the largest part is, as a fraction.
+     */
+    public static double imbalance(int[] parts, int k) {
+        if (parts == null || k <= 0) {
+            throw new IllegalArgumentException("invalid arguments to imbalance");
+        }
+        if (parts.length == 0) {
+            return 0;
+        }
+        int[] sizes = new int[k];
+        for (int part : parts) {
+            if (part < 0 || part >= k) {
+                throw new IllegalArgumentException("part out of range: " + part);
+            }
+            sizes[part]++;
+        }
+        int largest = 0;
+        for (int size : sizes) {
+            largest = Math.max(largest, size);
+        }
+        return largest * (double) k / parts.length - 1;
+    }
+
+    /**
+     * Builds one subgraph per part. The subgraph of a part holds the vertices it owns, every
+     * edge leaving them, and the ghost vertices at the other end of edges that cross into
+     * other parts.
+     *
+     * @param g The partitioned graph.
+     * @param parts The part of each vertex id.
+     * @param k The number of parts.
+     * @throws java.lang.IllegalArgumentException if g or parts is null, k is not positive, or
+     * parts does not assign every vertex a part in [0, k).
+     * @return The parts, in order.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> List<Partition<V, E>> split(
+            CompactGraph<V, E> g, int[] parts, int k) {
+        if (g == null || parts == null || k <= 0) {
+            throw new IllegalArgumentException("invalid arguments to split");
+        }
+        if (parts.length != g.size()) {
+            throw new IllegalArgumentException("parts must have one entry per vertex");
+        }
+        List<SimpleLabeledGraph<V, E>> graphs = new ArrayList<SimpleLabeledGraph<V, E>>();
+        List<Set<V>> owned = new ArrayList<Set<V>>();
+        List<Map<V, Integer>> ghosts = new ArrayList<Map<V, Integer>>();
+        for (int p = 0; p < k; p++) {
+            graphs.add(g.isDirected() ? new DirectedHashGraph<V, E>()
+                    : new UndirectedHashGraph<V, E>());
+            owned.add(new HashSet<V>());
+            ghosts.add(new HashMap<V, Integer>());
+        }
+        for (int v = 0; v < g.size(); v++) {
+            if (parts[v] < 0 || parts[v] >= k) {
+                throw new IllegalArgumentException("part out of range: " + parts[v]);
+            }
+            graphs.get(parts[v]).addVertex(g.vertex(v));
+            owned.get(parts[v]).add(g.vertex(v));
+        }
+        for (int v = 0; v < g.size(); v++) {
+            SimpleLabeledGraph<V, E> local = graphs.get(parts[v]);
+            for (int i = 0; i < g.outDegree(v); i++) {
+                int w = g.target(v, i);
+                if (parts[w] != parts[v]) {
+                    local.addVertex(g.vertex(w));
+                    ghosts.get(parts[v]).put(g.vertex(w), parts[w]);
+                }
+                local.addEdge(g.vertex(v), g.vertex(w), g.value(v, i));
+            }
+        }
+
+        List<Partition<V, E>> result = new ArrayList<Partition<V, E>>();
+        for (int p = 0; p < k; p++) {
+            result.add(new Partition<V, E>(p, graphs.get(p), owned.get(p), ghosts.get(p)));
+        }
+        return result;
+    }
+
+    private static void checkArguments(CompactGraph<?, ?> g, int k, double imbalance) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        if (k <= 0) {
+            throw new IllegalArgumentException("the number of parts must be positive");
+        }
+        if (!(imbalance >= 0)) {
+            throw new IllegalArgumentException("imbalance cannot be negative");
+        }
+    }
+
+    private static long maxPartWeight(long totalWeight, int k, double imbalance) {
+        return (long) Math.ceil((1 + imbalance) * totalWeight / k);
+    }
+
+    /**
+     * @return The vertices in breadth first order, restarting from the lowest unvisited id.
+     */
+    private static int[] breadthFirstOrder(WeightedGraph g) {
+        int[] order = new int[g.n];
+        boolean[] visited = new boolean[g.n];
+        int tail = 0;
+        for (int root = 0; root < g.n; root++) {
+            if (visited[root]) {
+                continue;
+            }
+            visited[root] = true;
+            order[tail++] = root;
+            for (int head = tail - 1; head < tail; head++) {
+                int v = order[head];
+                for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                    int w = g.targets[e];
+                    if (!visited[w]) {
+                        visited[w] = true;
+                        order[tail++] = w;
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Grows k - 1 regions breadth first from random seeds until each holds about 1 / k of the
+     * total weight; everything left over forms the last part.
+     */
+    private static int[] growRegions(WeightedGraph g, int k, Random random) {
+        int[] parts = new int[g.n];
+        Arrays.fill(parts, -1);
+        long target = g.totalWeight / k;
+        int[] queue = new int[g.n];
+        int[] order = permutation(g.n, random);
+        int next = 0;
+        for (int p = 0; p < k - 1; p++) {
+            long weight = 0;
+            int head = 0;
+            int tail = 0;
+            while (weight < target) {
+                if (head == tail) {
+                    // the region ran out of frontier; continue from a new seed
+                    while (next < order.length && parts[order[next]] >= 0) {
+                        next++;
+                    }
+                    if (next == order.length) {
+                        break;
+                    }
+                    parts[order[next]] = p;
+                    queue[tail++] = order[next];
+                    weight += g.vertexWeights[order[next]];
+                }
+                int v = queue[head++];
+                for (int e = g.offsets[v]; e < g.offsets[v + 1] && weight < target; e++) {
+                    int w = g.targets[e];
+                    if (parts[w] < 0) {
+                        parts[w] = p;
+                        queue[tail++] = w;
+                        weight += g.vertexWeights[w];
+                    }
+                }
+            }
+        }
+        for (int v = 0; v < g.n; v++) {
+            if (parts[v] < 0) {
+                parts[v] = k - 1;
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Moves vertices out of overweight parts, then greedily moves boundary vertices to the
+     * part they have the heaviest edges to, as long as that does not overload the part. Moves
+     * that do not change the cut are only made if they even out the part weights.
+     */
+    private static void refine(WeightedGraph g, int[] parts, int k, long maxWeight, int passes,
+                               Random random) {
+        long[] partWeights = new long[k];
+        for (int v = 0; v < g.n; v++) {
+            partWeights[parts[v]] += g.vertexWeights[v];
+        }
+        long[] connections = new long[k];
+        IntList touched = new IntList();
+        balance(g, parts, partWeights, maxWeight, connections, touched, random);
+
+        for (int pass = 0; pass < passes; pass++) {
+            int moved = 0;
+            for (int v : permutation(g.n, random)) {
+                int own = parts[v];
+                int weight = g.vertexWeights[v];
+                connect(g, v, parts, connections, touched);
+                int best = own;
+                long bestGain = 0;
+                for (int i = 0; i < touched.size(); i++) {
+                    int p = touched.get(i);
+                    if (p == own || partWeights[p] + weight > maxWeight) {
+                        continue;
+                    }
+                    long gain = connections[p] - connections[own];
+                    if (gain > bestGain || (gain == bestGain
+                            && partWeights[p] + weight < partWeights[best])) {
+                        best = p;
+                        bestGain = gain;
+                    }
+                }
+                clear(connections, touched);
+                if (best != own) {
+                    parts[v] = best;
+                    partWeights[own] -= weight;
+                    partWeights[best] += weight;
+                    moved++;
+                }
+            }
+            if (moved == 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Moves vertices out of parts heavier than maxWeight, each to the part it is best
+     * connected to among those with room for it, or to the lightest part.
+     */
+    private static void balance(WeightedGraph g, int[] parts, long[] partWeights, long maxWeight,
+                                long[] connections, IntList touched, Random random) {
+        boolean moved = true;
+        while (moved && overweight(partWeights, maxWeight)) {
+            moved = false;
+            for (int v : permutation(g.n, random)) {
+                int own = parts[v];
+                int weight = g.vertexWeights[v];
+                if (partWeights[own] <= maxWeight) {
+                    continue;
+                }
+                connect(g, v, parts, connections, touched);
+                int best = -1;
+                for (int p = 0; p < partWeights.length; p++) {
+                    if (p == own || partWeights[p] + weight > maxWeight) {
+                        continue;
+                    }
+                    if (best < 0 || connections[p] > connections[best]
+                            || (connections[p] == connections[best]
+                            && partWeights[p] < partWeights[best])) {
+                        best = p;
+                    }
+                }
+                clear(connections, touched);
+                if (best >= 0) {
+                    parts[v] = best;
+                    partWeights[own] -= weight;
+                    partWeights[best] += weight;
+                    moved = true;
+                }
+            }
+        }
+    }
+
+    private static boolean overweight(long[] partWeights, long maxWeight) {
+        for (long weight : partWeights) {
+            if (weight > maxWeight) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sums the weights of the edges from v into each part; touched lists the parts with a
+     * non-zero entry, and always includes the part of v.
+     */
+    private static void connect(WeightedGraph g, int v, int[] parts, long[] connections,
+                                IntList touched) {
+        touched.add(parts[v]);
+        for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+            int p = parts[g.targets[e]];
+            if (connections[p] == 0 && p != parts[v]) {
+                touched.add(p);
+            }
+            connections[p] += g.weights[e];
+        }
+    }
+
+    private static void clear(long[] connections, IntList touched) {
+        for (int i = 0; i < touched.size(); i++) {
+            connections[touched.get(i)] = 0;
+        }
+        touched.clear();
+    }
+
+    private static int[] permutation(int n, Random random) {
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = result[i];
+            result[i] = result[j];
+            result[j] = temp;
+        }
+        return result;
+    }
+
+    /**
+     * An undirected graph with vertex and edge weights in CSR form, without self loops or
+     * parallel edges. Coarse vertices weigh as much as the vertices they contain, and coarse
+     * edges as much as the edges they replace.
+     */
+    private static class WeightedGraph {
+
+        final int n;
+        final int[] offsets;
+        final int[] targets;
+        final int[] weights;
+        final int[] vertexWeights;
+        final long totalWeight;
+
+        WeightedGraph(int[] offsets, int[] targets, int[] weights, int[] vertexWeights) {
+            this.n = vertexWeights.length;
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            this.vertexWeights = vertexWeights;
+            long total = 0;
+            for (int weight : vertexWeights) {
+                total += weight;
+            }
+            this.totalWeight = total;
+        }
+
+        /**
+         * Builds the unit-weight, undirected version of a graph; an edge in both directions
+         * weighs 2.
+         */
+        static WeightedGraph symmetrize(CompactGraph<?, ?> g) {
+            int n = g.size();
+            int[] inOffsets = g.inOffsets();
+            int[] inSources = g.inSources();
+            Merger merger = new Merger(n);
+            for (int v = 0; v < n; v++) {
+                for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                    merger.add(v, g.targets[e], 1);
+                }
+                if (g.isDirected()) {
+                    for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+                        merger.add(v, inSources[e], 1);
+                    }
+                }
+                merger.finish();
+            }
+            int[] vertexWeights = new int[n];
+            Arrays.fill(vertexWeights, 1);
+            return merger.build(vertexWeights);
+        }
+
+        /**
+         * Contracts a heavy-edge matching: vertices are visited in random order, and each
+         * unmatched vertex is matched with the unmatched neighbour it has the heaviest edge
+         * to, unless the pair would weigh more than maxVertexWeight.
+         *
+         * @param map Output array; the coarse vertex of every vertex.
+         */
+        WeightedGraph contract(int[] map, int maxVertexWeight, Random random) {
+            int[] match = new int[n];
+            Arrays.fill(match, -1);
+            for (int v : permutation(n, random)) {
+                if (match[v] >= 0) {
+                    continue;
+                }
+                int best = v;
+                int bestWeight = 0;
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    if (match[w] < 0 && w != v && weights[e] > bestWeight
+                            && vertexWeights[v] + vertexWeights[w] <= maxVertexWeight) {
+                        best = w;
+                        bestWeight = weights[e];
+                    }
+                }
+                match[v] = best;
+                match[best] = v;
+            }
+
+            int coarseSize = 0;
+            Arrays.fill(map, -1);
+            IntList representatives = new IntList(n / 2 + 1);
+            for (int v = 0; v < n; v++) {
+                if (map[v] < 0) {
+                    map[v] = coarseSize;
+                    map[match[v]] = coarseSize++;
+                    representatives.add(v);
+                }
+            }
+            Merger merger = new Merger(coarseSize);
+            int[] coarseWeights = new int[coarseSize];
+            for (int c = 0; c < coarseSize; c++) {
+                int v = representatives.get(c);
+                int u = match[v];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    merger.add(c, map[targets[e]], weights[e]);
+                }
+                coarseWeights[c] = vertexWeights[v];
+                if (u != v) {
+                    for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                        merger.add(c, map[targets[e]], weights[e]);
+                    }
+                    coarseWeights[c] += vertexWeights[u];
+                }
+                merger.finish();
+            }
+            return merger.build(coarseWeights);
+        }
+
+        /**
+         * @return The total weight of the edges between different parts.
+         */
+        long cut(int[] parts) {
+            long cut = 0;
+            for (int v = 0; v < n; v++) {
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    if (parts[v] != parts[targets[e]]) {
+                        cut += weights[e];
+                    }
+                }
+            }
+            return cut / 2;
+        }
+    }
+
+    /**
+     * Builds CSR adjacency one vertex at a time, summing the weights of repeated edges and
+     * dropping self loops.
+     */
+    private static class Merger {
+
+        private final int[] offsets;
+        private final IntList targets = new IntList();
+        private final IntList weights = new IntList();
+
+        // positions[w] is the index of the edge to w of the current vertex, or -1
+        private final int[] positions;
+        private int vertex;
+
+        Merger(int n) {
+            offsets = new int[n + 1];
+            positions = new int[n];
+            Arrays.fill(positions, -1);
+        }
+
+        void add(int v, int w, int weight) {
+            if (v == w) {
+                return;
+            }
+            if (positions[w] < 0) {
+                positions[w] = targets.size();
+                targets.add(w);
+                weights.add(weight);
+            } else {
+                weights.set(positions[w], weights.get(positions[w]) + weight);
+            }
+        }
+
+        /**
+         * Ends the edges of the current vertex.
+         */
+        void finish() {
+            for (int i = offsets[vertex]; i < targets.size(); i++) {
+                positions[targets.get(i)] = -1;
+            }
+            offsets[++vertex] = targets.size();
+        }
+
+        WeightedGraph build(int[] vertexWeights) {
+            return new WeightedGraph(offsets, targets.toArray(), weights.toArray(),
+                    vertexWeights);
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package com.killeent.Graph;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * An immutable index answering "can a reach b" queries on a {@link CompactGraph} without
+ * searching the whole graph.
+ *
+ * The graph is first condensed: every strongly connected component becomes one vertex of a
+ * DAG, numbered in topological order, so that a reaches b exactly when the component of a
+ * reaches the component of b. Small condensations (up to {@link #CLOSURE_THRESHOLD}
+ * components) are answered from a precomputed transitive closure with one bit per pair of
+ * components. Larger ones are labelled with GRAIL intervals (Yildirim, Chaoji and Zaki,
+ * "GRAIL: Scalable Reachability Index for Large Graphs", 2010): each of a few randomized
+ * depth first traversals gives every component the interval [lowest post-order number in
+ * its reach, its own post-order number], and a component can only reach components whose
+ * intervals are nested in its own. In addition, the sets of components reaching and reached
+ * from a few hub components (the ones with the highest in-degree times out-degree) are kept
+ * as bitsets, a partial 2-hop labelling: a query is positive if it passes through a hub, and
+ * negative if a hub reaches one endpoint but not the other consistently with a path. Most
+ * queries are settled by the topological order, the hubs or the interval containment tests,
+ * and positive queries within one DFS tree are recognised from their tree intervals, so a
+ * pruned search is only needed for the remaining ones. The traversals run in parallel.
+ *
+ * Queries are thread-safe. The index does not follow later changes to the graph; see
+ * {@link RebuildingReachabilityIndex} for an index that is rebuilt in the background.
+ */
+public class ReachabilityIndex<V extends Comparable<V>> {
+
+    /**
+     * Condensations with at most this many components store their transitive closure, which
+     * takes count * count / 8 bytes.
+     */
+    public static final int CLOSURE_THRESHOLD = 4096;
+
+    // The number of GRAIL traversals
+    private static final int LABELS = 3;
+
+    // The number of hub components whose reach is stored, for large graphs
+    private static final int HUBS = 16;
+
+    private final CompactGraph<V, ?> graph;
+    private final int[] components;
+    private final int count;
+
+    // the condensation, in CSR form
+    private final int[] offsets;
+    private final int[] targets;
+
+    // closure[c] has bit d set if component c reaches component d; null for large graphs
+    private final long[][] closure;
+
+    // lows[i * count + c] and posts[i * count + c] are the interval of c in traversal i;
+    // starts[c] is the first post-order number in the DFS subtree of c in traversal 0
+    private final int[] lows;
+    private final int[] posts;
+    private final int[] starts;
+
+    // bit c of reachedFrom[h] is set if hub h reaches component c, and bit c of reaching[h]
+    // if component c reaches hub h
+    private final long[][] reachedFrom;
+    private final long[][] reaching;
+
+    private final ThreadLocal<SearchState> search = new ThreadLocal<SearchState>() {
+        @Override
+        protected SearchState initialValue() {
+            return new SearchState(count);
+        }
+    };
+
+    /**
+     * Builds an index over the graph.
+     *
+     * @param g The graph to index.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     */
+    public ReachabilityIndex(CompactGraph<V, ?> g) {
+        this(g, 0);
+    }
+
+    /**
+     * Builds an index over the graph.
+     *
+     * @param g The graph to index.
+     * @param seed The seed for the order of the GRAIL traversals.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     */
+    public ReachabilityIndex(CompactGraph<V, ?> g, long seed) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        graph = g;
+        components = StronglyConnectedComponents.tarjan(g);
+        count = StronglyConnectedComponents.count(components);
+        int[][] dag = condense(g, components, count);
+        offsets = dag[0];
+        targets = dag[1];
+        if (count <= CLOSURE_THRESHOLD) {
+            closure = closure(offsets, targets, count);
+            lows = null;
+            posts = null;
+            starts = null;
+            reachedFrom = null;
+            reaching = null;
+        } else {
+            closure = null;
+            lows = new int[LABELS * count];
+            posts = new int[LABELS * count];
+            starts = new int[count];
+            label(seed);
+            int hubs = Math.min(HUBS, count);
+            reachedFrom = new long[hubs][];
+            reaching = new long[hubs][];
+            hubs();
+        }
+    }
+
+    /**
+     * @return The indexed graph.
+     */
+    public CompactGraph<V, ?> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return The number of strongly connected components of the graph.
+     */
+    public int componentCount() {
+        return count;
+    }
+
+    /**
+     * Returns whether there is a path from one vertex to another. A vertex always reaches
+     * itself.
+     *
+     * @param from The start of the path.
+     * @param to The end of the path.
+     * @throws java.lang.IllegalArgumentException if from or to is null or not in the graph.
+     * @return True if from reaches to, otherwise false.
+     */
+    public boolean reaches(V from, V to) {
+        return reachesComponent(components[graph.id(from)], components[graph.id(to)]);
+    }
+
+    /**
+     * Returns whether there is a path from one vertex id to another.
+     *
+     * @param from The id of the start of the path.
+     * @param to The id of the end of the path.
+     * @throws java.lang.IndexOutOfBoundsException if from or to is not a vertex id.
+     * @return True if from reaches to, otherwise false.
+     */
+    public boolean reachesId(int from, int to) {
+        return reachesComponent(components[from], components[to]);
+    }
+
+    private boolean reachesComponent(int from, int to) {
+        if (from == to) {
+            return true;
+        }
+        // components are numbered in topological order
+        if (from > to) {
+            return false;
+        }
+        if (closure != null) {
+            return bit(closure[from], to);
+        }
+        for (int h = 0; h < reaching.length; h++) {
+            boolean fromReachesHub = bit(reaching[h], from);
+            if (fromReachesHub && bit(reachedFrom[h], to)) {
+                return true;
+            }
+            // a hub that reaches from but not to, or reaches to but not from, rules out a path
+            if ((bit(reachedFrom[h], from) && !bit(reachedFrom[h], to))
+                    || (!fromReachesHub && bit(reaching[h], to))) {
+                return false;
+            }
+        }
+        if (!contains(from, to)) {
+            return false;
+        }
+        if (starts[from] <= posts[to] && posts[to] <= posts[from]) {
+            // to is below from in the first DFS tree
+            return true;
+        }
+        return search(from, to);
+    }
+
+    private static boolean bit(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return True if the intervals of from contain those of to in every traversal.
+     */
+    private boolean contains(int from, int to) {
+        for (int i = 0; i < LABELS; i++) {
+            int f = i * count + from;
+            int t = i * count + to;
+            if (lows[t] < lows[f] || posts[t] > posts[f]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Depth first search from from for to, only entering components that can still reach to
+     * according to their topological number and intervals.
+     */
+    private boolean search(int from, int to) {
+        SearchState state = search.get();
+        int stamp = state.next();
+        int[] visited = state.visited;
+        int[] stack = state.stack;
+        int top = 0;
+        stack[top++] = from;
+        visited[from] = stamp;
+        while (top > 0) {
+            int c = stack[--top];
+            for (int e = offsets[c]; e < offsets[c + 1]; e++) {
+                int d = targets[e];
+                if (d == to) {
+                    return true;
+                }
+                if (visited[d] != stamp && d < to && contains(d, to)) {
+                    visited[d] = stamp;
+                    stack[top++] = d;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the GRAIL labels: traversal i visits the roots and the successors of every
+     * component in an order shuffled by its own random generator, and assigns post-order
+     * numbers. Traversal 0 also records the start of every DFS subtree.
+     */
+    private void label(final long seed) {
+        final int[] inDegrees = new int[count];
+        for (int target : targets) {
+            inDegrees[target]++;
+        }
+        Parallel.forRange(0, LABELS, 1, new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    traverse(i, new Random(seed * 31 + i), inDegrees);
+                }
+            }
+        });
+    }
+
+    /**
+     * Picks the components with the most paths through them, estimated by the product of
+     * their in and out degrees in the condensation, as hubs, and stores what each of them
+     * reaches and is reached from. Both sets are found in one sweep in topological order.
+     */
+    private void hubs() {
+        int[] inDegrees = new int[count];
+        for (int target : targets) {
+            inDegrees[target]++;
+        }
+        final int[] hubs = new int[reaching.length];
+        long[] scores = new long[reaching.length];
+        Arrays.fill(hubs, -1);
+        for (int c = 0; c < count; c++) {
+            long score = (inDegrees[c] + 1L) * (offsets[c + 1] - offsets[c] + 1L);
+            // insert c into the hubs, which are sorted by decreasing score
+            int i = hubs.length;
+            while (i > 0 && (hubs[i - 1] < 0 || scores[i - 1] < score)) {
+                i--;
+            }
+            if (i < hubs.length) {
+                System.arraycopy(hubs, i, hubs, i + 1, hubs.length - i - 1);
+                System.arraycopy(scores, i, scores, i + 1, hubs.length - i - 1);
+                hubs[i] = c;
+                scores[i] = score;
+            }
+        }
+
+        final int words = (count + 63) >>> 6;
+        Parallel.forRange(0, hubs.length, 1, new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int h = from; h < to; h++) {
+                    int hub = hubs[h];
+                    long[] forward = new long[words];
+                    forward[hub >>> 6] |= 1L << hub;
+                    for (int c = hub; c < count; c++) {
+                        if (bit(forward, c)) {
+                            for (int e = offsets[c]; e < offsets[c + 1]; e++) {
+                                forward[targets[e] >>> 6] |= 1L << targets[e];
+                            }
+                        }
+                    }
+                    long[] backward = new long[words];
+                    backward[hub >>> 6] |= 1L << hub;
+                    for (int c = hub - 1; c >= 0; c--) {
+                        for (int e = offsets[c]; e < offsets[c + 1]; e++) {
+                            if (bit(backward, targets[e])) {
+                                backward[c >>> 6] |= 1L << c;
+                                break;
+                            }
+                        }
+                    }
+                    reachedFrom[h] = forward;
+                    reaching[h] = backward;
+                }
+            }
+        });
+    }
+
+    private void traverse(int label, Random random, int[] inDegrees) {
+        int base = label * count;
+        boolean[] visited = new boolean[count];
+        int[] order = new int[count];
+        for (int c = 0; c < count; c++) {
+            order[c] = c;
+        }
+        shuffle(order, 0, count, random);
+        // the successors of each component are visited in a random rotation of their list
+        int[] next = new int[count];
+        int[] remaining = new int[count];
+        int[] stack = new int[count];
+        int post = 0;
+        for (int root : order) {
+            if (inDegrees[root] != 0 || visited[root]) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = root;
+            visited[root] = true;
+            enter(root, base, post, label, next, remaining, random);
+            while (top > 0) {
+                int c = stack[top - 1];
+                if (remaining[c] > 0) {
+                    int degree = offsets[c + 1] - offsets[c];
+                    int d = targets[offsets[c] + next[c]];
+                    next[c] = next[c] + 1 == degree ? 0 : next[c] + 1;
+                    remaining[c]--;
+                    if (!visited[d]) {
+                        visited[d] = true;
+                        stack[top++] = d;
+                        enter(d, base, post, label, next, remaining, random);
+                    } else if (lows[base + d] < lows[base + c]) {
+                        lows[base + c] = lows[base + d];
+                    }
+                    continue;
+                }
+                top--;
+                posts[base + c] = post;
+                if (post < lows[base + c]) {
+                    lows[base + c] = post;
+                }
+                post++;
+                if (top > 0) {
+                    int parent = stack[top - 1];
+                    if (lows[base + c] < lows[base + parent]) {
+                        lows[base + parent] = lows[base + c];
+                    }
+                }
+            }
+        }
+    }
+
+    private void enter(int c, int base, int post, int label, int[] next, int[] remaining,
+                       Random random) {
+        int degree = offsets[c + 1] - offsets[c];
+        next[c] = degree == 0 ? 0 : random.nextInt(degree);
+        remaining[c] = degree;
+        lows[base + c] = Integer.MAX_VALUE;
+        if (label == 0) {
+            starts[c] = post;
+        }
+    }
+
+    private static void shuffle(int[] values, int from, int to, Random random) {
+        for (int i = to - 1; i > from; i--) {
+            int j = from + random.nextInt(i - from + 1);
+            int temp = values[i];
+            values[i] = values[j];
+            values[j] = temp;
+        }
+    }
+
+    /**
+     * @return The offsets and targets of the condensation in CSR form, without parallel
+     * edges; every edge goes from a lower to a higher component.
+     */
+    private static int[][] condense(CompactGraph<?, ?> g, int[] components, int count) {
+        int[] offsets = new int[count + 1];
+        for (int v = 0; v < g.size(); v++) {
+            for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                if (components[v] != components[g.targets[e]]) {
+                    offsets[components[v] + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < count; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        int[] targets = new int[offsets[count]];
+        int[] next = Arrays.copyOf(offsets, count);
+        for (int v = 0; v < g.size(); v++) {
+            for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                int d = components[g.targets[e]];
+                if (components[v] != d) {
+                    targets[next[components[v]]++] = d;
+                }
+            }
+        }
+
+        // sort and remove duplicates, compacting the lists
+        int[] compactOffsets = new int[count + 1];
+        int size = 0;
+        for (int c = 0; c < count; c++) {
+            Arrays.sort(targets, offsets[c], offsets[c + 1]);
+            for (int e = offsets[c]; e < offsets[c + 1]; e++) {
+                if (size == compactOffsets[c] || targets[size - 1] != targets[e]) {
+                    targets[size++] = targets[e];
+                }
+            }
+            compactOffsets[c + 1] = size;
+        }
+        return new int[][] {compactOffsets, Arrays.copyOf(targets, size)};
+    }
+
+    /**
+     * Computes the transitive closure of the condensation in reverse topological order, so
+     * the rows of all successors are complete before they are merged.
+     */
+    private static long[][] closure(int[] offsets, int[] targets, int count) {
+        int words = (count + 63) >>> 6;
+        long[][] closure = new long[count][words];
+        for (int c = count - 1; c >= 0; c--) {
+            long[] row = closure[c];
+            row[c >>> 6] |= 1L << c;
+            for (int e = offsets[c]; e < offsets[c + 1]; e++) {
+                long[] successor = closure[targets[e]];
+                // successors only reach components numbered above them
+                for (int w = targets[e] >>> 6; w < words; w++) {
+                    row[w] |= successor[w];
+                }
+            }
+        }
+        return closure;
+    }
+
+    /**
+     * Per-thread visited marks for the fallback search. A mark is valid if it equals the
+     * current stamp, so the marks never need clearing.
+     */
+    private static class SearchState {
+
+        final int[] visited;
+        final int[] stack;
+        private int stamp;
+
+        SearchState(int count) {
+            visited = new int[count];
+            stack = new int[count];
+        }
+
+        int next() {
+            if (++stamp == 0) {
+                Arrays.fill(visited, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
+    }
+}
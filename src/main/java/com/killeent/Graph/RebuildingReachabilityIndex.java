@@ -0,0 +1,121 @@
+package com.killeent.Graph;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A {@link ReachabilityIndex} over a graph that changes over time. Queries are answered from
+ * the most recently built index while a new one is built in the background, so they never
+ * wait for a rebuild; in exchange, they reflect the graph as it was when the last completed
+ * rebuild took its snapshot.
+ *
+ * The owner of the graph calls {@link #requestRebuild()} after changing it. Requests made
+ * while a rebuild is still waiting to start share that rebuild, so bursts of changes cause
+ * one rebuild rather than one per change. If the graph may be modified while a snapshot is
+ * taken, it must be safe to read concurrently, e.g. a {@link ConcurrentDirectedHashGraph}.
+ */
+public class RebuildingReachabilityIndex<V extends Comparable<V>, E extends Comparable<E>> {
+
+    private final SimpleLabeledGraph<V, E> graph;
+    private final Executor executor;
+
+    private volatile ReachabilityIndex<V> current;
+
+    // the sequence number of the last index published, and of the last rebuild started
+    private long published;
+    private long started;
+
+    // a rebuild that has been submitted to the executor but has not started yet
+    private FutureTask<ReachabilityIndex<V>> pending;
+
+    /**
+     * Creates the index, building the first version synchronously.
+     *
+     * @param graph The graph to index.
+     * @param executor Runs the background rebuilds.
+     * @throws java.lang.IllegalArgumentException if graph or executor is null.
+     */
+    public RebuildingReachabilityIndex(SimpleLabeledGraph<V, E> graph, Executor executor) {
+        if (graph == null || executor == null) {
+            throw new IllegalArgumentException("null arguments to reachability index");
+        }
+        this.graph = graph;
+        this.executor = executor;
+        rebuild();
+    }
+
+    /**
+     * Returns whether there is a path from one vertex to another in the current index.
+     *
+     * @param from The start of the path.
+     * @param to The end of the path.
+     * @throws java.lang.IllegalArgumentException if from or to is null or was not in the graph
+     * when the current index was built.
+     * @return True if from reaches to, otherwise false.
+     */
+    public boolean reaches(V from, V to) {
+        return current.reaches(from, to);
+    }
+
+    /**
+     * @return The index queries are currently answered from.
+     */
+    public ReachabilityIndex<V> getIndex() {
+        return current;
+    }
+
+    /**
+     * Builds a new index from the current graph in the calling thread, and publishes it
+     * unless a rebuild that started later has already published a newer one.
+     *
+     * @return The index that was built.
+     */
+    public ReachabilityIndex<V> rebuild() {
+        long sequence;
+        synchronized (this) {
+            sequence = ++started;
+        }
+        ReachabilityIndex<V> index =
+                new ReachabilityIndex<V>(new CompactGraph<V, E>(graph));
+        synchronized (this) {
+            if (sequence > published) {
+                published = sequence;
+                current = index;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Schedules a rebuild on the executor. If a scheduled rebuild has not started yet, no new
+     * one is scheduled, since it will see the latest graph anyway.
+     *
+     * @return A future for the index built by the scheduled rebuild.
+     */
+    public synchronized Future<ReachabilityIndex<V>> requestRebuild() {
+        if (pending != null) {
+            return pending;
+        }
+        FutureTask<ReachabilityIndex<V>> task = new FutureTask<ReachabilityIndex<V>>(
+                new Callable<ReachabilityIndex<V>>() {
+                    @Override
+                    public ReachabilityIndex<V> call() {
+                        synchronized (RebuildingReachabilityIndex.this) {
+                            // only one rebuild is ever pending, so it is this one
+                            pending = null;
+                        }
+                        return rebuild();
+                    }
+                });
+        pending = task;
+        try {
+            executor.execute(task);
+        } catch (RuntimeException e) {
+            pending = null;
+            throw e;
+        }
+        return task;
+    }
+}
@@ -0,0 +1,80 @@
+package com.killeent.Graph;
+
+import java.util.Arrays;
+
+/**
+ * The neighbours of every vertex of an undirected {@link CompactGraph} as sorted id arrays in
+ * CSR form, without self loops or repeated neighbours. Parallel edges with different values
+ * are stored once, so degrees count distinct neighbours. The lists are built in parallel.
+ */
+final class SortedAdjacency {
+
+    private static final int GRAIN = 1024;
+
+    final int n;
+    final int[] offsets;
+    final int[] targets;
+
+    SortedAdjacency(int[] offsets, int[] targets) {
+        this.n = offsets.length - 1;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * @param g An undirected graph.
+     * @param algorithm The name of the calling algorithm, for the error message.
+     * @throws java.lang.IllegalArgumentException if g is null or directed.
+     */
+    static SortedAdjacency of(CompactGraph<?, ?> g, String algorithm) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        if (g.isDirected()) {
+            throw new IllegalArgumentException(algorithm + " requires an undirected graph");
+        }
+        final int n = g.size();
+        final int[] sourceOffsets = g.offsets;
+        final int[] sorted = Arrays.copyOf(g.targets, g.targets.length);
+        final int[] degrees = new int[n + 1];
+        Parallel.forRange(0, n, Parallel.grain(n, GRAIN), new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int v = from; v < to; v++) {
+                    int start = sourceOffsets[v];
+                    int end = sourceOffsets[v + 1];
+                    Arrays.sort(sorted, start, end);
+                    // compact the distinct neighbours to the front of the range
+                    int degree = 0;
+                    for (int e = start; e < end; e++) {
+                        int w = sorted[e];
+                        if (w != v && (degree == 0 || sorted[start + degree - 1] != w)) {
+                            sorted[start + degree++] = w;
+                        }
+                    }
+                    degrees[v + 1] = degree;
+                }
+            }
+        });
+
+        final int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + degrees[v + 1];
+        }
+        final int[] targets = new int[offsets[n]];
+        Parallel.forRange(0, n, Parallel.grain(n, GRAIN), new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int v = from; v < to; v++) {
+                    System.arraycopy(sorted, sourceOffsets[v], targets, offsets[v],
+                            offsets[v + 1] - offsets[v]);
+                }
+            }
+        });
+        return new SortedAdjacency(offsets, targets);
+    }
+
+    int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+}
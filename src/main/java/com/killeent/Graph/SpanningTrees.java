@@ -0,0 +1,366 @@
+package com.killeent.Graph;
+
+import com.killeent.PriorityQueue.IndexedHeap;
+import com.killeent.UnionFind.ConcurrentUnionFind;
+import com.killeent.UnionFind.UnionFind;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Minimum spanning forest algorithms for an undirected {@link CompactGraph} whose edge values
+ * are numeric weights: Kruskal's, Prim's and Boruvka's algorithms.
+ *
+ * An undirected edge is stored twice in a CompactGraph; every algorithm refers to an edge by
+ * the id of the copy that goes from the smaller to the larger vertex id. Edges are ordered by
+ * weight and then by that id, which is a total order, so the minimum spanning forest is
+ * unique and all three algorithms return the same edges even when weights repeat.
+ */
+public class SpanningTrees {
+
+    private static final int GRAIN = 4096;
+
+    // Ranges at most this large are sorted with insertion sort in the edge sort
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private static final int NONE = -1;
+
+    private SpanningTrees() {
+    }
+
+    /**
+     * Finds the minimum spanning forest with Kruskal's algorithm: the edges are sorted by
+     * weight with a parallel merge sort, then added in order unless a
+     * {@link com.killeent.UnionFind.UnionFind} shows their endpoints are already connected.
+     *
+     * @param g The graph to span.
+     * @throws java.lang.IllegalArgumentException if g is null or directed.
+     * @return The ids of the edges in the forest, in increasing order.
+     */
+    public static int[] kruskal(CompactGraph<?, ? extends Number> g) {
+        checkGraph(g);
+        final long[] weights = weights(g);
+        int n = g.size();
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+
+        IntList candidates = new IntList(targets.length / 2);
+        int[] sources = new int[targets.length];
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if (v < targets[e]) {
+                    candidates.add(e);
+                    sources[e] = v;
+                }
+            }
+        }
+        int[] sorted = candidates.toArray();
+        int[] buffer = new int[sorted.length];
+        ForkJoinPool.commonPool().invoke(new SortTask(sorted, buffer, 0, sorted.length,
+                weights, Parallel.grain(sorted.length, GRAIN)));
+
+        UnionFind sets = new UnionFind(n);
+        IntList tree = new IntList(Math.max(1, n - 1));
+        for (int e : sorted) {
+            if (sets.union(sources[e], targets[e])) {
+                tree.add(e);
+                if (tree.size() == n - 1) {
+                    break;
+                }
+            }
+        }
+        return sortedArray(tree);
+    }
+
+    /**
+     * Finds the minimum spanning forest with Prim's algorithm, growing one tree at a time
+     * from the smallest unspanned vertex id. The cheapest edge into every vertex is kept in an
+     * {@link com.killeent.PriorityQueue.IndexedHeap}, so this takes O(m log n) time.
+     *
+     * @param g The graph to span.
+     * @throws java.lang.IllegalArgumentException if g is null or directed.
+     * @return The ids of the edges in the forest, in increasing order.
+     */
+    public static int[] prim(CompactGraph<?, ? extends Number> g) {
+        checkGraph(g);
+        long[] weights = weights(g);
+        int n = g.size();
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        int[] twins = g.twins();
+
+        IndexedHeap heap = new IndexedHeap(n);
+        boolean[] spanned = new boolean[n];
+        int[] cheapest = new int[n];
+        Arrays.fill(cheapest, NONE);
+        IntList tree = new IntList(Math.max(1, n - 1));
+        for (int root = 0; root < n; root++) {
+            if (spanned[root]) {
+                continue;
+            }
+            heap.update(root, 0);
+            while (!heap.isEmpty()) {
+                int v = heap.remove();
+                spanned[v] = true;
+                if (cheapest[v] != NONE) {
+                    tree.add(cheapest[v]);
+                }
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    int edge = v < w ? e : twins[e];
+                    if (!spanned[w] && (cheapest[w] == NONE
+                            || less(weights, edge, cheapest[w]))) {
+                        cheapest[w] = edge;
+                        heap.update(w, weights[edge], edge);
+                    }
+                }
+            }
+        }
+        return sortedArray(tree);
+    }
+
+    /**
+     * Finds the minimum spanning forest with Boruvka's algorithm. Every round, each component
+     * picks the cheapest edge leaving it and all the picked edges are added at once, which at
+     * least halves the number of components. Within a round the edges are scanned in parallel
+     * and the cheapest edge of each component is kept with a compare-and-set, and components
+     * are merged in parallel with a {@link com.killeent.UnionFind.ConcurrentUnionFind}.
+     *
+     * @param g The graph to span.
+     * @throws java.lang.IllegalArgumentException if g is null or directed.
+     * @return The ids of the edges in the forest, in increasing order.
+     */
+    public static int[] boruvka(CompactGraph<?, ? extends Number> g) {
+        checkGraph(g);
+        final long[] weights = weights(g);
+        final int n = g.size();
+        final int[] offsets = g.offsets;
+        final int[] targets = g.targets;
+        final ConcurrentUnionFind sets = new ConcurrentUnionFind(n);
+        final int[] components = new int[n];
+        final AtomicIntegerArray cheapest = new AtomicIntegerArray(n);
+        final boolean[] inTree = new boolean[targets.length];
+        int grain = Parallel.grain(n, GRAIN);
+
+        while (true) {
+            Parallel.forRange(0, n, grain, new Parallel.RangeAction() {
+                @Override
+                public void apply(int from, int to) {
+                    for (int v = from; v < to; v++) {
+                        components[v] = sets.find(v);
+                        cheapest.set(v, NONE);
+                    }
+                }
+            });
+
+            // offer every edge between two components to both of them
+            Parallel.forRange(0, n, grain, new Parallel.RangeAction() {
+                @Override
+                public void apply(int from, int to) {
+                    for (int v = from; v < to; v++) {
+                        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                            int w = targets[e];
+                            if (v < w && components[v] != components[w]) {
+                                offer(cheapest, weights, components[v], e);
+                                offer(cheapest, weights, components[w], e);
+                            }
+                        }
+                    }
+                }
+            });
+
+            // as edges are totally ordered, the picked edges form a forest; an edge picked by
+            // both of its components is only merged once
+            long merged = Parallel.sum(0, n, grain, new Parallel.RangeSum() {
+                @Override
+                public long apply(int from, int to) {
+                    long count = 0;
+                    for (int c = from; c < to; c++) {
+                        int e = cheapest.get(c);
+                        if (e != NONE && sets.union(source(offsets, e), targets[e])) {
+                            inTree[e] = true;
+                            count++;
+                        }
+                    }
+                    return count;
+                }
+            });
+            if (merged == 0) {
+                break;
+            }
+        }
+
+        IntList tree = new IntList(Math.max(1, n - 1));
+        for (int e = 0; e < inTree.length; e++) {
+            if (inTree[e]) {
+                tree.add(e);
+            }
+        }
+        return tree.toArray();
+    }
+
+    /**
+     * @return The total weight of the passed edges.
+     */
+    public static double weight(CompactGraph<?, ? extends Number> g, int[] edges) {
+        if (g == null || edges == null) {
+            throw new IllegalArgumentException("null arguments to weight");
+        }
+        double total = 0;
+        for (int e : edges) {
+            total += g.value(e).doubleValue();
+        }
+        return total;
+    }
+
+    private static void checkGraph(CompactGraph<?, ?> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("spanning trees need an undirected graph");
+        }
+    }
+
+    /**
+     * Maps every edge value to a long with the same order: integral values to themselves and
+     * floating point values to their bits, adjusted so negative values sort first.
+     */
+    private static long[] weights(final CompactGraph<?, ? extends Number> g) {
+        final long[] weights = new long[g.edgeCount()];
+        Parallel.forRange(0, weights.length, Parallel.grain(weights.length, GRAIN),
+                new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int e = from; e < to; e++) {
+                    Number value = g.value(e);
+                    if (value instanceof Double || value instanceof Float) {
+                        long bits = Double.doubleToLongBits(value.doubleValue());
+                        weights[e] = bits ^ ((bits >> 63) & Long.MAX_VALUE);
+                    } else {
+                        weights[e] = value.longValue();
+                    }
+                }
+            }
+        });
+        return weights;
+    }
+
+    /**
+     * @return True if edge a comes before edge b in the total order of edges.
+     */
+    private static boolean less(long[] weights, int a, int b) {
+        return weights[a] < weights[b] || (weights[a] == weights[b] && a < b);
+    }
+
+    /**
+     * Replaces the cheapest edge of the component with e if e comes first.
+     */
+    private static void offer(AtomicIntegerArray cheapest, long[] weights, int component, int e) {
+        while (true) {
+            int current = cheapest.get(component);
+            if (current != NONE && !less(weights, e, current)) {
+                return;
+            }
+            if (cheapest.compareAndSet(component, current, e)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return The vertex edge e leaves, found by binary search over the offsets.
+     */
+    private static int source(int[] offsets, int e) {
+        int low = 0;
+        int high = offsets.length - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= e) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static int[] sortedArray(IntList list) {
+        int[] result = list.toArray();
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Sorts edge ids into the total order of edges with a fork/join merge sort.
+     */
+    private static class SortTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] edges;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+        private final long[] weights;
+        private final int grain;
+
+        SortTask(int[] edges, int[] buffer, int from, int to, long[] weights, int grain) {
+            this.edges = edges;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.weights = weights;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                sort(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(edges, buffer, from, mid, weights, grain),
+                    new SortTask(edges, buffer, mid, to, weights, grain));
+            merge(from, mid, to);
+        }
+
+        private void sort(int low, int high) {
+            if (high - low <= INSERTION_SORT_THRESHOLD) {
+                for (int i = low + 1; i < high; i++) {
+                    int e = edges[i];
+                    int j = i - 1;
+                    while (j >= low && less(weights, e, edges[j])) {
+                        edges[j + 1] = edges[j];
+                        j--;
+                    }
+                    edges[j + 1] = e;
+                }
+                return;
+            }
+            int mid = (low + high) >>> 1;
+            sort(low, mid);
+            sort(mid, high);
+            merge(low, mid, high);
+        }
+
+        private void merge(int low, int mid, int high) {
+            if (!less(weights, edges[mid], edges[mid - 1])) {
+                return;
+            }
+            System.arraycopy(edges, low, buffer, low, high - low);
+            int i = low;
+            int j = mid;
+            for (int k = low; k < high; k++) {
+                if (j >= high || (i < mid && !less(weights, buffer[j], buffer[i]))) {
+                    edges[k] = buffer[i++];
+                } else {
+                    edges[k] = buffer[j++];
+                }
+            }
+        }
+    }
+}
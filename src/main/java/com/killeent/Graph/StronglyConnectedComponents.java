@@ -0,0 +1,511 @@
+package com.killeent.Graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Algorithms for decomposing a directed {@link CompactGraph} into strongly connected
+ * components (SCCs). A strongly connected component is a maximal set of vertices in which
+ * every vertex can reach every other vertex.
+ *
+ * All algorithms label every vertex id with a component number in [0, count), and are
+ * iterative so they handle arbitrarily long paths.
+ */
+public class StronglyConnectedComponents {
+
+    // Subproblems at most this large are solved with Tarjan's algorithm in forwardBackward
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    // Marks a vertex whose component has been found, in forwardBackward
+    private static final int DONE = -1;
+
+    private StronglyConnectedComponents() {
+    }
+
+    /**
+     * Labels the strongly connected components of the graph using an iterative version of
+     * Tarjan's algorithm. Components are numbered in topological order of the condensation,
+     * i.e. every edge between two components goes from a lower to a higher number.
+     *
+     * @param g The graph to decompose.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return The component of each vertex id.
+     */
+    public static int[] tarjan(CompactGraph<?, ?> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        int n = g.size();
+        int[] vertices = new int[n];
+        for (int v = 0; v < n; v++) {
+            vertices[v] = v;
+        }
+        int[] components = new int[n];
+        int count = tarjan(g, vertices, null, 0, components, new AtomicInteger(),
+                new TarjanState(n));
+
+        // Tarjan finds the components in reverse topological order
+        for (int v = 0; v < n; v++) {
+            components[v] = count - 1 - components[v];
+        }
+        return components;
+    }
+
+    /**
+     * Runs Tarjan's algorithm on the subgraph induced by the passed vertices. If color is not
+     * null, only vertices v with color[v] == c are part of the subgraph.
+     *
+     * @param components Output array; each component is labelled with the next value of
+     *                   counter.
+     * @param state Per-vertex state, which must be untouched for the passed vertices.
+     * @return The number of components found.
+     */
+    private static int tarjan(CompactGraph<?, ?> g, int[] vertices, int[] color, int c,
+                              int[] components, AtomicInteger counter, TarjanState state) {
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        int[] index = state.index;
+        int[] low = state.low;
+        int[] next = state.next;
+        boolean[] onStack = state.onStack;
+        int[] stack = new int[vertices.length];
+        int[] callStack = new int[vertices.length];
+        int top = 0;
+        int callTop = 0;
+        int discovered = 0;
+        int found = 0;
+
+        for (int root : vertices) {
+            if (index[root] != 0) {
+                continue;
+            }
+            index[root] = low[root] = ++discovered;
+            next[root] = offsets[root];
+            stack[top++] = root;
+            onStack[root] = true;
+            callStack[callTop++] = root;
+
+            while (callTop > 0) {
+                int v = callStack[callTop - 1];
+                if (next[v] < offsets[v + 1]) {
+                    int w = targets[next[v]++];
+                    if (color != null && color[w] != c) {
+                        continue;
+                    }
+                    if (index[w] == 0) {
+                        // tree edge; descend
+                        index[w] = low[w] = ++discovered;
+                        next[w] = offsets[w];
+                        stack[top++] = w;
+                        onStack[w] = true;
+                        callStack[callTop++] = w;
+                    } else if (onStack[w] && index[w] < low[v]) {
+                        low[v] = index[w];
+                    }
+                    continue;
+                }
+
+                // v is finished; if it is the root of a component pop the component
+                callTop--;
+                if (low[v] == index[v]) {
+                    int component = counter.getAndIncrement();
+                    int w;
+                    do {
+                        w = stack[--top];
+                        onStack[w] = false;
+                        components[w] = component;
+                    } while (w != v);
+                    found++;
+                }
+                if (callTop > 0) {
+                    int parent = callStack[callTop - 1];
+                    if (low[v] < low[parent]) {
+                        low[parent] = low[v];
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Per-vertex state of Tarjan's algorithm. Calls on disjoint vertex sets can share one
+     * instance, even concurrently, since each call only touches its own vertices.
+     */
+    private static class TarjanState {
+
+        // index[v] is the order in which v was discovered (0 if undiscovered), low[v] the
+        // lowest index reachable from the DFS subtree of v through at most one back edge
+        final int[] index;
+        final int[] low;
+        final int[] next;
+        final boolean[] onStack;
+
+        TarjanState(int n) {
+            index = new int[n];
+            low = new int[n];
+            next = new int[n];
+            onStack = new boolean[n];
+        }
+    }
+
+    /**
+     * Labels the strongly connected components of the graph using an iterative version of
+     * Kosaraju's algorithm: a DFS computes the finishing order of the vertices, and a second
+     * pass over the transposed graph in reverse finishing order peels off one component per
+     * search. Components are numbered in topological order of the condensation.
+     *
+     * @param g The graph to decompose.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return The component of each vertex id.
+     */
+    public static int[] kosaraju(CompactGraph<?, ?> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        int n = g.size();
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        int[] inOffsets = g.inOffsets();
+        int[] inSources = g.inSources();
+
+        // first pass: record vertices in order of finishing time
+        boolean[] visited = new boolean[n];
+        int[] next = new int[n];
+        int[] stack = new int[n];
+        int[] finished = new int[n];
+        int finishCount = 0;
+        for (int root = 0; root < n; root++) {
+            if (visited[root]) {
+                continue;
+            }
+            int top = 0;
+            visited[root] = true;
+            next[root] = offsets[root];
+            stack[top++] = root;
+            while (top > 0) {
+                int v = stack[top - 1];
+                if (next[v] < offsets[v + 1]) {
+                    int w = targets[next[v]++];
+                    if (!visited[w]) {
+                        visited[w] = true;
+                        next[w] = offsets[w];
+                        stack[top++] = w;
+                    }
+                } else {
+                    top--;
+                    finished[finishCount++] = v;
+                }
+            }
+        }
+
+        // second pass: every search of the transpose from an unlabelled vertex, in reverse
+        // finishing order, finds exactly one component
+        int[] components = new int[n];
+        Arrays.fill(components, -1);
+        int count = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            int root = finished[i];
+            if (components[root] != -1) {
+                continue;
+            }
+            int top = 0;
+            components[root] = count;
+            stack[top++] = root;
+            while (top > 0) {
+                int v = stack[--top];
+                for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+                    int w = inSources[e];
+                    if (components[w] == -1) {
+                        components[w] = count;
+                        stack[top++] = w;
+                    }
+                }
+            }
+            count++;
+        }
+        return components;
+    }
+
+    /**
+     * Labels the strongly connected components of the graph using the parallel
+     * forward-backward algorithm of Fleischer, Hendrickson and Pinar, with the trimming step
+     * of McLendon et al.
+     *
+     * Vertices with no incoming or no outgoing edges are first peeled off as trivial
+     * components. The rest of the graph is then split recursively: the vertices that are both
+     * reachable from and can reach a pivot form its component, and the remaining vertices fall
+     * into three independent subproblems (forward only, backward only, neither) that are
+     * solved in parallel. Small subproblems are finished with Tarjan's algorithm.
+     *
+     * Components are numbered in order of their smallest vertex id.
+     *
+     * @param g The graph to decompose.
+     * @throws java.lang.IllegalArgumentException if g is null.
+     * @return The component of each vertex id.
+     */
+    public static int[] forwardBackward(CompactGraph<?, ?> g) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        int n = g.size();
+        int[] components = new int[n];
+        int[] color = new int[n];
+        AtomicInteger counter = new AtomicInteger();
+        AtomicInteger colors = new AtomicInteger(1);
+
+        int[] remaining = trim(g, color, components, counter);
+        if (remaining.length > 0) {
+            ForkJoinPool.commonPool().invoke(new ForwardBackwardTask(g, remaining, 0, color,
+                    components, counter, colors, new TarjanState(n)));
+        }
+
+        // renumber the components by their smallest vertex so the result does not depend on
+        // thread scheduling
+        int[] renumber = new int[counter.get()];
+        Arrays.fill(renumber, -1);
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            if (renumber[components[v]] == -1) {
+                renumber[components[v]] = count++;
+            }
+            components[v] = renumber[components[v]];
+        }
+        return components;
+    }
+
+    /**
+     * Repeatedly removes vertices with no remaining incoming or no remaining outgoing edges,
+     * each of which is a component on its own.
+     *
+     * @return The vertices that were not removed; all of them have color 0.
+     */
+    private static int[] trim(CompactGraph<?, ?> g, int[] color, int[] components,
+                              AtomicInteger counter) {
+        int n = g.size();
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        int[] inOffsets = g.inOffsets();
+        int[] inSources = g.inSources();
+
+        int[] inDegree = new int[n];
+        int[] outDegree = new int[n];
+        IntList queue = new IntList();
+        for (int v = 0; v < n; v++) {
+            inDegree[v] = inOffsets[v + 1] - inOffsets[v];
+            outDegree[v] = offsets[v + 1] - offsets[v];
+            if (inDegree[v] == 0 || outDegree[v] == 0) {
+                color[v] = DONE;
+                queue.add(v);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int v = queue.removeLast();
+            components[v] = counter.getAndIncrement();
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = targets[e];
+                if (color[w] != DONE && --inDegree[w] == 0) {
+                    color[w] = DONE;
+                    queue.add(w);
+                }
+            }
+            for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+                int w = inSources[e];
+                if (color[w] != DONE && --outDegree[w] == 0) {
+                    color[w] = DONE;
+                    queue.add(w);
+                }
+            }
+        }
+
+        IntList remaining = new IntList();
+        for (int v = 0; v < n; v++) {
+            if (color[v] != DONE) {
+                remaining.add(v);
+            }
+        }
+        return remaining.toArray();
+    }
+
+    /**
+     * Finds the components of the subgraph induced by the vertices of one color. Every task
+     * only writes the colors of its own vertices, and colors are never reused, so concurrent
+     * tasks cannot confuse each other's vertices.
+     */
+    private static class ForwardBackwardTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CompactGraph<?, ?> g;
+        private final int[] vertices;
+        private final int c;
+        private final int[] color;
+        private final int[] components;
+        private final AtomicInteger counter;
+        private final AtomicInteger colors;
+        private final TarjanState state;
+
+        ForwardBackwardTask(CompactGraph<?, ?> g, int[] vertices, int c, int[] color,
+                            int[] components, AtomicInteger counter, AtomicInteger colors,
+                            TarjanState state) {
+            this.g = g;
+            this.vertices = vertices;
+            this.c = c;
+            this.color = color;
+            this.components = components;
+            this.counter = counter;
+            this.colors = colors;
+            this.state = state;
+        }
+
+        @Override
+        protected void compute() {
+            if (vertices.length <= SEQUENTIAL_THRESHOLD) {
+                tarjan(g, vertices, color, c, components, counter, state);
+                return;
+            }
+
+            // forward search from the pivot recolors everything it reaches
+            int pivot = vertices[0];
+            int forward = colors.getAndIncrement();
+            reachForward(pivot, forward);
+
+            // backward search from the pivot: forward vertices it reaches are in the pivot's
+            // component, untouched vertices it reaches are backward-only
+            int backward = colors.getAndIncrement();
+            int component = counter.getAndIncrement();
+            reachBackward(pivot, forward, backward, component);
+
+            IntList forwardOnly = new IntList();
+            IntList backwardOnly = new IntList();
+            IntList neither = new IntList();
+            for (int v : vertices) {
+                if (color[v] == forward) {
+                    forwardOnly.add(v);
+                } else if (color[v] == backward) {
+                    backwardOnly.add(v);
+                } else if (color[v] == c) {
+                    neither.add(v);
+                }
+            }
+            int rest = colors.getAndIncrement();
+            for (int i = 0; i < neither.size(); i++) {
+                color[neither.get(i)] = rest;
+            }
+            invokeAll(subtask(forwardOnly, forward), subtask(backwardOnly, backward),
+                    subtask(neither, rest));
+        }
+
+        private ForwardBackwardTask subtask(IntList list, int subColor) {
+            return new ForwardBackwardTask(g, list.toArray(), subColor, color, components,
+                    counter, colors, state);
+        }
+
+        /**
+         * Recolors every vertex of color c that is reachable from the pivot through vertices
+         * of color c to forward.
+         */
+        private void reachForward(int pivot, int forward) {
+            int[] offsets = g.offsets;
+            int[] targets = g.targets;
+            IntList stack = new IntList();
+            color[pivot] = forward;
+            stack.add(pivot);
+            while (!stack.isEmpty()) {
+                int v = stack.removeLast();
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    if (color[w] == c) {
+                        color[w] = forward;
+                        stack.add(w);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Searches backwards from the pivot through vertices of color c or forward, assigning
+         * forward vertices to the pivot's component and recoloring c vertices to backward.
+         */
+        private void reachBackward(int pivot, int forward, int backward, int component) {
+            int[] inOffsets = g.inOffsets();
+            int[] inSources = g.inSources();
+            IntList stack = new IntList();
+            color[pivot] = DONE;
+            components[pivot] = component;
+            stack.add(pivot);
+            while (!stack.isEmpty()) {
+                int v = stack.removeLast();
+                for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+                    int w = inSources[e];
+                    if (color[w] == forward) {
+                        color[w] = DONE;
+                        components[w] = component;
+                        stack.add(w);
+                    } else if (color[w] == c) {
+                        color[w] = backward;
+                        stack.add(w);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of components in a labelling produced by this class.
+     */
+    public static int count(int[] components) {
+        int max = -1;
+        for (int component : components) {
+            max = Math.max(max, component);
+        }
+        return max + 1;
+    }
+
+    /**
+     * Builds the condensation of the graph: a DAG with one vertex per component, and an edge
+     * between two components if any edge of the graph connects them. The value of each edge
+     * is the number of edges of the graph it represents.
+     *
+     * @param g The graph that was decomposed.
+     * @param components The component of each vertex id.
+     * @throws java.lang.IllegalArgumentException if either argument is null.
+     * @return A new graph whose vertices are the component numbers.
+     */
+    public static DirectedGraph<Integer, Integer> condensation(CompactGraph<?, ?> g,
+                                                               int[] components) {
+        if (g == null || components == null) {
+            throw new IllegalArgumentException("null arguments to condensation");
+        }
+        int count = count(components);
+        DirectedGraph<Integer, Integer> result = new DirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < count; i++) {
+            result.addVertex(i);
+        }
+
+        // sort the edges between components so parallel edges can be counted in one pass
+        long[] keys = new long[g.edgeCount()];
+        int size = 0;
+        for (int v = 0; v < g.size(); v++) {
+            for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                int from = components[v];
+                int to = components[g.targets[e]];
+                if (from != to) {
+                    keys[size++] = VertexIndex.edge(from, to);
+                }
+            }
+        }
+        Arrays.sort(keys, 0, size);
+        for (int i = 0; i < size; ) {
+            int j = i;
+            while (j < size && keys[j] == keys[i]) {
+                j++;
+            }
+            result.addEdge(VertexIndex.source(keys[i]), VertexIndex.destination(keys[i]), j - i);
+            i = j;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,44 @@
+package com.killeent.Graph;
+
+/**
+ * An immutable edge of a {@link TemporalGraph}: an {@link Edge} that exists at one point in
+ * time, such as a message, a call or a transaction.
+ */
+public class TemporalEdge<V extends Comparable<V>, E extends Comparable<E>> extends Edge<V, E> {
+
+    private final long time;
+
+    /**
+     * Creates a new temporal edge.
+     *
+     * @param source The source vertex of the edge.
+     * @param destination The destination vertex of the edge.
+     * @param value The value of the edge.
+     * @param time The timestamp of the edge.
+     * @throws java.lang.IllegalArgumentException if any of the objects are null.
+     */
+    public TemporalEdge(V source, V destination, E value, long time) {
+        super(source, destination, value);
+        this.time = time;
+    }
+
+    /**
+     * @return The timestamp of this edge.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof TemporalEdge)) {
+            return false;
+        }
+        return super.equals(o) && time == ((TemporalEdge<?, ?>) o).time;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + (int) (time ^ (time >>> 32));
+    }
+}
@@ -0,0 +1,418 @@
+package com.killeent.Graph;
+
+import java.util.*;
+
+/**
+ * A graph whose edges carry timestamps, such as a stream of messages or transactions. Unlike
+ * a {@link SimpleLabeledGraph}, a temporal graph may hold several edges between the same two
+ * vertices, at different (or equal) times. It may be directed or undirected; an undirected
+ * edge is stored in the adjacency of both its endpoints.
+ *
+ * The edges of every vertex are kept sorted by time in arrays, so the edges inside a time
+ * window are found by binary search in O(log d + k) time for a vertex of degree d with k
+ * edges in the window. Appending an edge no older than the vertex's newest is O(1) amortized;
+ * an edge that arrives late is moved back past the newer edges.
+ *
+ * Old edges are removed by {@link #expireBefore(long)}, which advances an expiry horizon: all
+ * edges older than the horizon are dropped, and no older edge may be added afterwards. Every
+ * live edge is also kept in a queue ordered by time, so expiring k edges takes O(k) time no
+ * matter how they are spread over the vertices; the space of expired edges is reclaimed the
+ * next time their vertex's arrays fill up.
+ *
+ * {@link #compact()} takes an immutable {@link CompactTemporalGraph} snapshot for the
+ * time-respecting path algorithms in {@link TemporalPaths}.
+ */
+public class TemporalGraph<V extends Comparable<V>, E extends Comparable<E>> {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final boolean directed;
+    private VertexIndex<V> index;
+
+    // the live edges of vertex v are at [heads[v], tails[v]) of its arrays, sorted by time;
+    // the arrays are allocated on the first edge
+    private int[][] targets;
+    private long[][] times;
+    private Object[][] values;
+    private int[] heads;
+    private int[] tails;
+
+    // every live edge, packed as in VertexIndex.edge, in a ring buffer sorted by time
+    private long[] queueEdges;
+    private long[] queueTimes;
+    private int first;
+    private int count;
+
+    private long horizon;
+
+    /**
+     * Creates an empty temporal graph.
+     *
+     * @param directed Whether the edges are directed.
+     */
+    public TemporalGraph(boolean directed) {
+        this.directed = directed;
+        clear();
+    }
+
+    /**
+     * Adds the specified vertex to the graph if it does not already exist.
+     *
+     * @param vertex The vertex to add.
+     * @throws java.lang.IllegalArgumentException if vertex is null.
+     */
+    public void addVertex(V vertex) {
+        int id = index.intern(vertex);
+        if (id == heads.length) {
+            int capacity = heads.length * 2;
+            targets = Arrays.copyOf(targets, capacity);
+            times = Arrays.copyOf(times, capacity);
+            values = Arrays.copyOf(values, capacity);
+            heads = Arrays.copyOf(heads, capacity);
+            tails = Arrays.copyOf(tails, capacity);
+        }
+    }
+
+    /**
+     * Checks to see if the specified vertex is in the graph.
+     *
+     * @param vertex The vertex to look for.
+     * @throws java.lang.IllegalArgumentException if vertex is null.
+     * @return True if the graph contains the specified vertex, otherwise false.
+     */
+    public boolean containsVertex(V vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("vertex cannot be null");
+        }
+        return index.contains(vertex);
+    }
+
+    /**
+     * @return The vertices of the graph, in the order they were added. The list is a copy.
+     */
+    public List<V> vertices() {
+        List<V> result = new ArrayList<V>(index.size());
+        for (int i = 0; i < index.size(); i++) {
+            result.add(index.vertex(i));
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of vertices in the graph.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * @return The number of edges that have not expired. An undirected edge is counted once.
+     */
+    public int edgeCount() {
+        return count;
+    }
+
+    /**
+     * @return True if the edges are directed, otherwise false.
+     */
+    public boolean isDirected() {
+        return directed;
+    }
+
+    /**
+     * @return The expiry horizon: every edge older than it has been removed, and no edge older
+     * than it can be added. Long.MIN_VALUE if nothing has been expired.
+     */
+    public long getHorizon() {
+        return horizon;
+    }
+
+    /**
+     * Adds an edge from vertex A to vertex B at the given time. Edges between the same
+     * vertices at other times, or with the same time and value, are kept as separate edges.
+     *
+     * @param vertexA The source vertex.
+     * @param vertexB The destination vertex.
+     * @param value The edge value.
+     * @param time The timestamp of the edge.
+     * @throws java.lang.IllegalArgumentException if vertexA, vertexB or value is null.
+     * @throws java.lang.IllegalArgumentException if vertexA or vertexB is not in the graph.
+     * @throws java.lang.IllegalArgumentException if vertexA equals vertexB, or time is before
+     * the expiry horizon.
+     */
+    public void addEdge(V vertexA, V vertexB, E value, long time) {
+        if (vertexA == null || vertexB == null || value == null) {
+            throw new IllegalArgumentException("arguments cannot be null");
+        }
+        int a = index.id(vertexA);
+        if (a < 0) {
+            throw new IllegalArgumentException("vertexA not in the graph");
+        }
+        int b = index.id(vertexB);
+        if (b < 0) {
+            throw new IllegalArgumentException("vertexB not in the graph");
+        }
+        if (a == b) {
+            throw new IllegalArgumentException("no self edges allowed");
+        }
+        if (time < horizon) {
+            throw new IllegalArgumentException("edge is older than the expiry horizon");
+        }
+        insert(a, b, value, time);
+        if (!directed) {
+            insert(b, a, value, time);
+        }
+        enqueue(VertexIndex.edge(a, b), time);
+    }
+
+    /**
+     * Returns the edges of the specified vertex (its outgoing edges, if the graph is
+     * directed) that have not expired.
+     *
+     * @param vertex The vertex to consider.
+     * @throws java.lang.IllegalArgumentException if vertex is null or not in the graph.
+     * @return A new list of the edges, sorted by time.
+     */
+    public List<TemporalEdge<V, E>> neighbors(V vertex) {
+        int v = id(vertex);
+        return edges(v, heads[v], tails[v]);
+    }
+
+    /**
+     * Returns the edges of the specified vertex (its outgoing edges, if the graph is
+     * directed) with a time in [from, to).
+     *
+     * @param vertex The vertex to consider.
+     * @param from The start of the window, inclusive.
+     * @param to The end of the window, exclusive.
+     * @throws java.lang.IllegalArgumentException if vertex is null or not in the graph.
+     * @return A new list of the edges, sorted by time; empty if from >= to.
+     */
+    public List<TemporalEdge<V, E>> neighbors(V vertex, long from, long to) {
+        int v = id(vertex);
+        if (from >= to) {
+            return new ArrayList<TemporalEdge<V, E>>();
+        }
+        return edges(v, lowerBound(v, from), lowerBound(v, to));
+    }
+
+    /**
+     * Counts the edges of the specified vertex with a time in [from, to), in O(log d) time.
+     *
+     * @param vertex The vertex to consider.
+     * @param from The start of the window, inclusive.
+     * @param to The end of the window, exclusive.
+     * @throws java.lang.IllegalArgumentException if vertex is null or not in the graph.
+     * @return The number of edges in the window; 0 if from >= to.
+     */
+    public int degree(V vertex, long from, long to) {
+        int v = id(vertex);
+        return from >= to ? 0 : lowerBound(v, to) - lowerBound(v, from);
+    }
+
+    /**
+     * Removes every edge with a time before the given one, and moves the expiry horizon up to
+     * it. Takes O(1) time per removed edge, amortized.
+     *
+     * @param time The new expiry horizon; a horizon below the current one is ignored.
+     * @return The number of edges removed; an undirected edge is counted once.
+     */
+    public int expireBefore(long time) {
+        int removed = 0;
+        int mask = queueEdges.length - 1;
+        while (count > 0 && queueTimes[first] < time) {
+            // the oldest live edge of the source is at least as old as this one, so removing
+            // it keeps the adjacency and the queue in step
+            long edge = queueEdges[first];
+            removeOldest(VertexIndex.source(edge));
+            if (!directed) {
+                removeOldest(VertexIndex.destination(edge));
+            }
+            first = (first + 1) & mask;
+            count--;
+            removed++;
+        }
+        horizon = Math.max(horizon, time);
+        return removed;
+    }
+
+    /**
+     * Takes an immutable snapshot of the graph, with the edges of every vertex sorted by time.
+     *
+     * @return The snapshot; later changes to this graph are not reflected in it.
+     */
+    @SuppressWarnings("unchecked")
+    public CompactTemporalGraph<V, E> compact() {
+        int n = index.size();
+        VertexIndex<V> snapshotIndex = new VertexIndex<V>(n);
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            snapshotIndex.intern(index.vertex(v));
+            offsets[v + 1] = offsets[v] + tails[v] - heads[v];
+        }
+        int m = offsets[n];
+        int[] snapshotTargets = new int[m];
+        long[] snapshotTimes = new long[m];
+        E[] snapshotValues = (E[]) new Comparable<?>[m];
+        for (int v = 0; v < n; v++) {
+            int degree = tails[v] - heads[v];
+            if (degree > 0) {
+                System.arraycopy(targets[v], heads[v], snapshotTargets, offsets[v], degree);
+                System.arraycopy(times[v], heads[v], snapshotTimes, offsets[v], degree);
+                System.arraycopy(values[v], heads[v], snapshotValues, offsets[v], degree);
+            }
+        }
+        return new CompactTemporalGraph<V, E>(snapshotIndex, directed, offsets, snapshotTargets,
+                snapshotValues, snapshotTimes);
+    }
+
+    /**
+     * Removes all vertices and edges from the graph, and resets the expiry horizon.
+     */
+    public void clear() {
+        index = new VertexIndex<V>();
+        targets = new int[16][];
+        times = new long[16][];
+        values = new Object[16][];
+        heads = new int[16];
+        tails = new int[16];
+        queueEdges = new long[16];
+        queueTimes = new long[16];
+        first = 0;
+        count = 0;
+        horizon = Long.MIN_VALUE;
+    }
+
+    /**
+     * Inserts an edge from v to w into the adjacency of v, after every edge of v that is no
+     * newer.
+     */
+    private void insert(int v, int w, E value, long time) {
+        ensureRoom(v);
+        int[] vertexTargets = targets[v];
+        long[] vertexTimes = times[v];
+        Object[] vertexValues = values[v];
+        int i = tails[v]++;
+        while (i > heads[v] && vertexTimes[i - 1] > time) {
+            vertexTargets[i] = vertexTargets[i - 1];
+            vertexTimes[i] = vertexTimes[i - 1];
+            vertexValues[i] = vertexValues[i - 1];
+            i--;
+        }
+        vertexTargets[i] = w;
+        vertexTimes[i] = time;
+        vertexValues[i] = value;
+    }
+
+    /**
+     * Makes room for one more edge at the tail of the arrays of v, by moving the live edges to
+     * the front if at most half of the arrays is live, and by doubling them otherwise.
+     */
+    private void ensureRoom(int v) {
+        if (targets[v] == null) {
+            targets[v] = new int[INITIAL_CAPACITY];
+            times[v] = new long[INITIAL_CAPACITY];
+            values[v] = new Object[INITIAL_CAPACITY];
+            return;
+        }
+        int capacity = targets[v].length;
+        if (tails[v] < capacity) {
+            return;
+        }
+        int live = tails[v] - heads[v];
+        if (live > capacity / 2) {
+            capacity *= 2;
+        }
+        int[] newTargets = new int[capacity];
+        long[] newTimes = new long[capacity];
+        Object[] newValues = new Object[capacity];
+        System.arraycopy(targets[v], heads[v], newTargets, 0, live);
+        System.arraycopy(times[v], heads[v], newTimes, 0, live);
+        System.arraycopy(values[v], heads[v], newValues, 0, live);
+        targets[v] = newTargets;
+        times[v] = newTimes;
+        values[v] = newValues;
+        heads[v] = 0;
+        tails[v] = live;
+    }
+
+    /**
+     * Adds an edge to the expiry queue, after every queued edge that is no newer.
+     */
+    private void enqueue(long edge, long time) {
+        if (count == queueEdges.length) {
+            long[] newEdges = new long[count * 2];
+            long[] newTimes = new long[count * 2];
+            // unwrap the ring buffer
+            int head = queueEdges.length - first;
+            System.arraycopy(queueEdges, first, newEdges, 0, head);
+            System.arraycopy(queueEdges, 0, newEdges, head, first);
+            System.arraycopy(queueTimes, first, newTimes, 0, head);
+            System.arraycopy(queueTimes, 0, newTimes, head, first);
+            queueEdges = newEdges;
+            queueTimes = newTimes;
+            first = 0;
+        }
+        int mask = queueEdges.length - 1;
+        int i = (first + count) & mask;
+        int remaining = count++;
+        while (remaining > 0 && queueTimes[(i - 1) & mask] > time) {
+            int previous = (i - 1) & mask;
+            queueEdges[i] = queueEdges[previous];
+            queueTimes[i] = queueTimes[previous];
+            i = previous;
+            remaining--;
+        }
+        queueEdges[i] = edge;
+        queueTimes[i] = time;
+    }
+
+    private int id(V vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("vertex cannot be null");
+        }
+        int id = index.id(vertex);
+        if (id < 0) {
+            throw new IllegalArgumentException("vertex not in graph");
+        }
+        return id;
+    }
+
+    private void removeOldest(int v) {
+        values[v][heads[v]] = null;
+        heads[v]++;
+        if (heads[v] == tails[v]) {
+            heads[v] = 0;
+            tails[v] = 0;
+        }
+    }
+
+    /**
+     * @return The position in the arrays of v of its first live edge with a time of at least
+     * the passed one, or tails[v] if there is none.
+     */
+    private int lowerBound(int v, long time) {
+        int low = heads[v];
+        int high = tails[v];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (times[v][middle] < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TemporalEdge<V, E>> edges(int v, int from, int to) {
+        List<TemporalEdge<V, E>> result = new ArrayList<TemporalEdge<V, E>>(to - from);
+        V source = index.vertex(v);
+        for (int i = from; i < to; i++) {
+            result.add(new TemporalEdge<V, E>(source, index.vertex(targets[v][i]),
+                    (E) values[v][i], times[v][i]));
+        }
+        return result;
+    }
+}
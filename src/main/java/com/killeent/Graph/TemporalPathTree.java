@@ -0,0 +1,135 @@
+package com.killeent.Graph;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * The result of a time-respecting search over a {@link CompactTemporalGraph} from one source,
+ * see {@link TemporalPaths}: for every vertex reached, the number of edges on and the arrival
+ * time of the chosen path, which can be read back edge by edge.
+ *
+ * The paths are stored as a tree of labels, each a vertex, the edge that reached it and the
+ * label it was reached from; a vertex may appear in several labels when a later path reached
+ * it earlier, so the tree is over labels rather than vertices.
+ */
+public class TemporalPathTree<V extends Comparable<V>, E extends Comparable<E>> {
+
+    private final CompactTemporalGraph<V, E> graph;
+    private final int source;
+    private final long start;
+    private final long[] arrivals;
+    private final int[] hops;
+
+    // the label of the chosen path of every vertex, or -1 if the vertex was not reached
+    private final int[] labels;
+    private final int[] labelVertices;
+    // the edge (position in the CSR arrays) and parent label of every label; -1 for the source
+    private final int[] labelEdges;
+    private final int[] labelParents;
+
+    TemporalPathTree(CompactTemporalGraph<V, E> graph, int source, long start, long[] arrivals,
+                     int[] hops, int[] labels, int[] labelVertices, int[] labelEdges,
+                     int[] labelParents) {
+        this.graph = graph;
+        this.source = source;
+        this.start = start;
+        this.arrivals = arrivals;
+        this.hops = hops;
+        this.labels = labels;
+        this.labelVertices = labelVertices;
+        this.labelEdges = labelEdges;
+        this.labelParents = labelParents;
+    }
+
+    /**
+     * @return The graph that was searched.
+     */
+    public CompactTemporalGraph<V, E> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return The start vertex of the search.
+     */
+    public V getSource() {
+        return graph.vertex(source);
+    }
+
+    /**
+     * @return The time the search started at the source.
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return The arrival time of the chosen path to each vertex id, the start time for the
+     * source, or Long.MAX_VALUE if the vertex was not reached. The array is not copied and
+     * should not be modified.
+     */
+    public long[] getArrivals() {
+        return arrivals;
+    }
+
+    /**
+     * @return The number of edges on the chosen path to each vertex id, or -1 if the vertex was
+     * not reached. The array is not copied and should not be modified.
+     */
+    public int[] getHops() {
+        return hops;
+    }
+
+    /**
+     * @param vertex The vertex to look up.
+     * @throws java.lang.IllegalArgumentException if vertex is null or not in the graph.
+     * @return True if there is a time-respecting path to the vertex, otherwise false.
+     */
+    public boolean isReachable(V vertex) {
+        return labels[graph.id(vertex)] >= 0;
+    }
+
+    /**
+     * @param vertex The vertex to look up.
+     * @throws java.lang.IllegalArgumentException if vertex is null or not in the graph.
+     * @return The arrival time of the chosen path to the vertex, or Long.MAX_VALUE if it was
+     * not reached.
+     */
+    public long arrival(V vertex) {
+        return arrivals[graph.id(vertex)];
+    }
+
+    /**
+     * @param vertex The vertex to look up.
+     * @throws java.lang.IllegalArgumentException if vertex is null or not in the graph.
+     * @return The number of edges on the chosen path to the vertex, or -1 if it was not
+     * reached.
+     */
+    public int hops(V vertex) {
+        return hops[graph.id(vertex)];
+    }
+
+    /**
+     * Returns the chosen path from the source to the specified vertex. The times of its edges
+     * never decrease.
+     *
+     * @param vertex The vertex to find the path to.
+     * @throws java.lang.IllegalArgumentException if vertex is null or not in the graph.
+     * @return The edges of the path, in order, or an empty list if vertex is the source or
+     * was not reached.
+     */
+    public List<TemporalEdge<V, E>> path(V vertex) {
+        LinkedList<TemporalEdge<V, E>> path = new LinkedList<TemporalEdge<V, E>>();
+        int label = labels[graph.id(vertex)];
+        if (label < 0) {
+            return path;
+        }
+        while (labelEdges[label] >= 0) {
+            int e = labelEdges[label];
+            int parent = labelParents[label];
+            path.addFirst(new TemporalEdge<V, E>(graph.vertex(labelVertices[parent]),
+                    graph.vertex(graph.targets[e]), graph.value(e), graph.times[e]));
+            label = parent;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,193 @@
+package com.killeent.Graph;
+
+import com.killeent.PriorityQueue.IndexedHeap;
+
+import java.util.Arrays;
+
+/**
+ * Time-respecting path algorithms over a {@link CompactTemporalGraph}. A time-respecting path
+ * (or journey) follows edges whose times never decrease, so information can flow along it:
+ * a message that reaches a vertex at time t can only be passed on by an edge at time t or
+ * later. Paths start at a source at a given start time, and only use edges with a time in
+ * the window [start, end).
+ *
+ * Both searches find the edges leaving a vertex after its arrival time by binary search over
+ * the time-sorted edges of the snapshot (Wu et al., "Path Problems in Temporal Graphs",
+ * 2014).
+ *
+ * <ul>
+ * <li>{@link #earliestArrival}: the earliest time each vertex can be reached, by Djikstra's
+ * algorithm over arrival times, in O(m + n log n) time.</li>
+ * <li>{@link #fewestHops}: the fewest edges on a time-respecting path to each vertex, by a
+ * breadth first search in levels. A vertex is expanded again at a later level if it is
+ * reached earlier than at every previous level, since it can then catch edges it missed
+ * before; the search takes O(m) time per level in the worst case. Among paths with the
+ * fewest edges, one arriving earliest is chosen.</li>
+ * </ul>
+ */
+public class TemporalPaths {
+
+    private TemporalPaths() {
+    }
+
+    /**
+     * Finds the earliest arrival time at every vertex from a source.
+     *
+     * @param g The graph to search; directed graphs are followed along outgoing edges.
+     * @param source The start vertex.
+     * @param start The time at the source; the first edge can have this time.
+     * @param end The end of the window; only edges before it are used.
+     * @throws java.lang.IllegalArgumentException if g is null, source is null or not in the
+     * graph, or end is before start.
+     * @return The earliest arrival paths.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> TemporalPathTree<V, E>
+            earliestArrival(CompactTemporalGraph<V, E> g, V source, long start, long end) {
+        int s = check(g, source, start, end);
+        int n = g.size();
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        long[] times = g.times;
+        long[] arrivals = new long[n];
+        int[] hops = new int[n];
+        int[] parents = new int[n];
+        int[] parentEdges = new int[n];
+        Arrays.fill(arrivals, Long.MAX_VALUE);
+        Arrays.fill(hops, -1);
+        Arrays.fill(parents, -1);
+        Arrays.fill(parentEdges, -1);
+        arrivals[s] = start;
+        hops[s] = 0;
+
+        IndexedHeap heap = new IndexedHeap(n);
+        heap.update(s, start);
+        while (!heap.isEmpty()) {
+            int u = heap.remove();
+            for (int e = g.lowerBound(offsets[u], offsets[u + 1], arrivals[u]);
+                 e < offsets[u + 1] && times[e] < end; e++) {
+                int w = targets[e];
+                long t = times[e];
+                if (t < arrivals[w]) {
+                    arrivals[w] = t;
+                    hops[w] = hops[u] + 1;
+                    parents[w] = u;
+                    parentEdges[w] = e;
+                    heap.update(w, t);
+                }
+            }
+        }
+
+        // the labels are the vertices themselves
+        int[] labels = new int[n];
+        int[] labelVertices = new int[n];
+        for (int v = 0; v < n; v++) {
+            labels[v] = hops[v] < 0 ? -1 : v;
+            labelVertices[v] = v;
+        }
+        return new TemporalPathTree<V, E>(g, s, start, arrivals, hops, labels, labelVertices,
+                parentEdges, parents);
+    }
+
+    /**
+     * Finds the fewest edges on a time-respecting path to every vertex from a source, by a
+     * time-respecting breadth first search.
+     *
+     * @param g The graph to search; directed graphs are followed along outgoing edges.
+     * @param source The start vertex.
+     * @param start The time at the source; the first edge can have this time.
+     * @param end The end of the window; only edges before it are used.
+     * @throws java.lang.IllegalArgumentException if g is null, source is null or not in the
+     * graph, or end is before start.
+     * @return The fewest-hop paths.
+     */
+    public static <V extends Comparable<V>, E extends Comparable<E>> TemporalPathTree<V, E>
+            fewestHops(CompactTemporalGraph<V, E> g, V source, long start, long end) {
+        int s = check(g, source, start, end);
+        int n = g.size();
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        long[] times = g.times;
+        // the earliest arrival at each vertex over all levels so far
+        long[] best = new long[n];
+        int[] hops = new int[n];
+        int[] labels = new int[n];
+        // the label of each vertex in the next level, if it has one
+        int[] pending = new int[n];
+        Arrays.fill(best, Long.MAX_VALUE);
+        Arrays.fill(hops, -1);
+        Arrays.fill(labels, -1);
+        Arrays.fill(pending, -1);
+
+        IntList labelVertices = new IntList();
+        IntList labelEdges = new IntList();
+        IntList labelParents = new IntList();
+        labelVertices.add(s);
+        labelEdges.add(-1);
+        labelParents.add(-1);
+        best[s] = start;
+        hops[s] = 0;
+        labels[s] = 0;
+
+        IntList frontier = new IntList();
+        IntList next = new IntList();
+        frontier.add(0);
+        for (int level = 1; !frontier.isEmpty(); level++) {
+            for (int i = 0; i < frontier.size(); i++) {
+                int label = frontier.get(i);
+                int u = labelVertices.get(label);
+                int edge = labelEdges.get(label);
+                long arrival = edge < 0 ? start : times[edge];
+                for (int e = g.lowerBound(offsets[u], offsets[u + 1], arrival);
+                     e < offsets[u + 1] && times[e] < end; e++) {
+                    int w = targets[e];
+                    if (times[e] >= best[w]) {
+                        continue;
+                    }
+                    best[w] = times[e];
+                    if (pending[w] >= 0) {
+                        // reached earlier in the same level
+                        labelEdges.set(pending[w], e);
+                        labelParents.set(pending[w], label);
+                        continue;
+                    }
+                    int created = labelVertices.size();
+                    labelVertices.add(w);
+                    labelEdges.add(e);
+                    labelParents.add(label);
+                    pending[w] = created;
+                    next.add(created);
+                    if (hops[w] < 0) {
+                        hops[w] = level;
+                        labels[w] = created;
+                    }
+                }
+            }
+            for (int i = 0; i < next.size(); i++) {
+                pending[labelVertices.get(next.get(i))] = -1;
+            }
+            IntList swap = frontier;
+            frontier = next;
+            next = swap;
+            next.clear();
+        }
+
+        long[] arrivals = new long[n];
+        for (int v = 0; v < n; v++) {
+            int edge = labels[v] < 0 ? -1 : labelEdges.get(labels[v]);
+            arrivals[v] = labels[v] < 0 ? Long.MAX_VALUE : edge < 0 ? start : times[edge];
+        }
+        return new TemporalPathTree<V, E>(g, s, start, arrivals, hops, labels,
+                labelVertices.toArray(), labelEdges.toArray(), labelParents.toArray());
+    }
+
+    private static <V extends Comparable<V>> int check(CompactTemporalGraph<V, ?> g, V source,
+                                                       long start, long end) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        if (end < start) {
+            throw new IllegalArgumentException("window ends before it starts");
+        }
+        return g.id(source);
+    }
+}
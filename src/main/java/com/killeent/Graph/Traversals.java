@@ -0,0 +1,462 @@
+package com.killeent.Graph;
+
+import com.killeent.PriorityQueue.IndexedHeap;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy traversals of a {@link CompactGraph}: breadth first, depth first (pre-order),
+ * topological (Kahn's algorithm) and Djikstra (by increasing distance) orders.
+ *
+ * Every order is available in three forms, all driven by the same step-at-a-time cursor:
+ *
+ *   a {@link GraphVisitor}, told about discover, finish and relax events by vertex id;
+ *   an {@link Iterator} of vertices, which does the work for a vertex when it is asked for;
+ *   a sequential {@link Stream} of vertices, so short-circuiting operations such as
+ *   findFirst, anyMatch or limit stop the traversal early.
+ *
+ * The topological order is the exception to the laziness: it is computed in full when it
+ * starts, so that a cycle is reported before any vertex is produced.
+ *
+ * A traversal allocates its int-indexed state arrays once when it starts, and nothing per
+ * vertex afterwards. The iterators and streams are not thread-safe.
+ */
+public class Traversals {
+
+    // A visitor that ignores every event, for the iterators
+    private static final GraphVisitor IGNORE = new GraphVisitor() {
+    };
+
+    private Traversals() {
+    }
+
+    /**
+     * Runs a breadth first search from start. Vertices are discovered in order of their
+     * distance in edges, and finished once their edges have been followed.
+     *
+     * @throws java.lang.IllegalArgumentException if an argument is null, or start is not in g.
+     * @return True if the search ran to completion, false if the visitor ended it.
+     */
+    public static <V extends Comparable<V>> boolean breadthFirst(CompactGraph<V, ?> g, V start,
+                                                                GraphVisitor visitor) {
+        return run(new BreadthFirstCursor(g, id(g, start), checkVisitor(visitor)));
+    }
+
+    /**
+     * Runs a depth first search from start. Vertices are discovered in pre-order, with their
+     * depth in the search tree as the distance, and finished in post-order.
+     *
+     * @throws java.lang.IllegalArgumentException if an argument is null, or start is not in g.
+     * @return True if the search ran to completion, false if the visitor ended it.
+     */
+    public static <V extends Comparable<V>> boolean depthFirst(CompactGraph<V, ?> g, V start,
+                                                              GraphVisitor visitor) {
+        return run(new DepthFirstCursor(g, id(g, start), checkVisitor(visitor)));
+    }
+
+    /**
+     * Visits every vertex of a DAG in topological order. Each vertex is discovered and then
+     * finished before the next one, with no parent and distance -1.
+     *
+     * @throws java.lang.IllegalArgumentException if an argument is null, g is undirected, or
+     * g contains a cycle; a cycle is detected before any vertex is visited.
+     * @return True if every vertex was visited, false if the visitor ended the traversal.
+     */
+    public static boolean topological(CompactGraph<?, ?> g, GraphVisitor visitor) {
+        return run(new TopologicalCursor(g, checkVisitor(visitor)));
+    }
+
+    /**
+     * Runs Djikstra's algorithm from start. Vertices are discovered when first reached, edges
+     * are relaxed whenever they shorten the distance to their target, and vertices are
+     * finished in order of increasing distance.
+     *
+     * @throws java.lang.IllegalArgumentException if an argument is null, start is not in g,
+     * or an edge weight is negative.
+     * @return True if the search ran to completion, false if the visitor ended it.
+     */
+    public static <V extends Comparable<V>> boolean djikstra(CompactGraph<V, Integer> g,
+                                                            V start, GraphVisitor visitor) {
+        return run(new DjikstraCursor(g, id(g, start), checkVisitor(visitor)));
+    }
+
+    /**
+     * @throws java.lang.IllegalArgumentException if an argument is null, or start is not in g.
+     * @return The vertices reachable from start in breadth first order.
+     */
+    public static <V extends Comparable<V>> Iterator<V> breadthFirstIterator(
+            CompactGraph<V, ?> g, V start) {
+        return new CursorIterator<V>(g, new BreadthFirstCursor(g, id(g, start), IGNORE));
+    }
+
+    /**
+     * @throws java.lang.IllegalArgumentException if an argument is null, or start is not in g.
+     * @return The vertices reachable from start in depth first pre-order.
+     */
+    public static <V extends Comparable<V>> Iterator<V> depthFirstIterator(
+            CompactGraph<V, ?> g, V start) {
+        return new CursorIterator<V>(g, new DepthFirstCursor(g, id(g, start), IGNORE));
+    }
+
+    /**
+     * @throws java.lang.IllegalArgumentException if g is null, undirected, or contains a
+     * cycle.
+     * @return The vertices of g in topological order.
+     */
+    public static <V extends Comparable<V>> Iterator<V> topologicalIterator(
+            CompactGraph<V, ?> g) {
+        return new CursorIterator<V>(g, new TopologicalCursor(g, IGNORE));
+    }
+
+    /**
+     * @throws java.lang.IllegalArgumentException if an argument is null, start is not in g,
+     * or an edge weight is negative.
+     * @return The vertices reachable from start in order of increasing distance.
+     */
+    public static <V extends Comparable<V>> Iterator<V> djikstraIterator(
+            CompactGraph<V, Integer> g, V start) {
+        return new CursorIterator<V>(g, new DjikstraCursor(g, id(g, start), IGNORE));
+    }
+
+    /**
+     * @see #breadthFirstIterator
+     */
+    public static <V extends Comparable<V>> Stream<V> breadthFirstStream(CompactGraph<V, ?> g,
+                                                                        V start) {
+        return stream(breadthFirstIterator(g, start));
+    }
+
+    /**
+     * @see #depthFirstIterator
+     */
+    public static <V extends Comparable<V>> Stream<V> depthFirstStream(CompactGraph<V, ?> g,
+                                                                      V start) {
+        return stream(depthFirstIterator(g, start));
+    }
+
+    /**
+     * @see #topologicalIterator
+     */
+    public static <V extends Comparable<V>> Stream<V> topologicalStream(CompactGraph<V, ?> g) {
+        return stream(topologicalIterator(g));
+    }
+
+    /**
+     * @see #djikstraIterator
+     */
+    public static <V extends Comparable<V>> Stream<V> djikstraStream(CompactGraph<V, Integer> g,
+                                                                    V start) {
+        return stream(djikstraIterator(g, start));
+    }
+
+    private static <V> Stream<V> stream(Iterator<V> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    private static <V extends Comparable<V>> int id(CompactGraph<V, ?> g, V start) {
+        if (g == null) {
+            throw new IllegalArgumentException("null graph");
+        }
+        return g.id(start);
+    }
+
+    private static GraphVisitor checkVisitor(GraphVisitor visitor) {
+        if (visitor == null) {
+            throw new IllegalArgumentException("null visitor");
+        }
+        return visitor;
+    }
+
+    private static boolean run(Cursor cursor) {
+        while (cursor.advance() >= 0) {
+        }
+        return !cursor.stopped;
+    }
+
+    /**
+     * A traversal that produces one vertex per step.
+     */
+    private abstract static class Cursor {
+
+        final GraphVisitor visitor;
+        final int[] offsets;
+        final int[] targets;
+
+        // set once the visitor has ended the traversal
+        boolean stopped;
+
+        Cursor(CompactGraph<?, ?> g, GraphVisitor visitor) {
+            this.visitor = visitor;
+            this.offsets = g.offsets;
+            this.targets = g.targets;
+        }
+
+        /**
+         * Reports the discovery of a vertex to the visitor, and stops if it asks to.
+         */
+        void discover(int vertex, int parent, long distance) {
+            if (!visitor.discover(vertex, parent, distance)) {
+                stopped = true;
+            }
+        }
+
+        /**
+         * @return The next vertex in the order, or -1 if there is none or the traversal has
+         * been stopped.
+         */
+        abstract int advance();
+    }
+
+    private static final class BreadthFirstCursor extends Cursor {
+
+        private final int[] queue;
+        private final int[] distances;
+        private int head;
+        private int tail;
+
+        BreadthFirstCursor(CompactGraph<?, ?> g, int source, GraphVisitor visitor) {
+            super(g, visitor);
+            queue = new int[g.size()];
+            distances = new int[g.size()];
+            Arrays.fill(distances, -1);
+            distances[source] = 0;
+            queue[tail++] = source;
+            discover(source, -1, 0);
+        }
+
+        @Override
+        int advance() {
+            if (stopped || head == tail) {
+                return -1;
+            }
+            int vertex = queue[head++];
+            for (int e = offsets[vertex]; e < offsets[vertex + 1] && !stopped; e++) {
+                int target = targets[e];
+                if (distances[target] < 0) {
+                    distances[target] = distances[vertex] + 1;
+                    queue[tail++] = target;
+                    visitor.relax(e, vertex, target, distances[target]);
+                    discover(target, vertex, distances[target]);
+                }
+            }
+            if (!stopped) {
+                visitor.finish(vertex);
+            }
+            return vertex;
+        }
+    }
+
+    private static final class DepthFirstCursor extends Cursor {
+
+        private final int[] stack;
+        private final int[] next;
+        private final boolean[] visited;
+        private int top;
+
+        // the start vertex, until it has been returned
+        private int first;
+
+        DepthFirstCursor(CompactGraph<?, ?> g, int source, GraphVisitor visitor) {
+            super(g, visitor);
+            stack = new int[g.size()];
+            next = new int[g.size()];
+            visited = new boolean[g.size()];
+            visited[source] = true;
+            next[source] = offsets[source];
+            stack[top++] = source;
+            first = source;
+            discover(source, -1, 0);
+        }
+
+        @Override
+        int advance() {
+            if (stopped) {
+                return -1;
+            }
+            if (first >= 0) {
+                int result = first;
+                first = -1;
+                return result;
+            }
+            while (top > 0) {
+                int vertex = stack[top - 1];
+                if (next[vertex] < offsets[vertex + 1]) {
+                    int e = next[vertex]++;
+                    int target = targets[e];
+                    if (!visited[target]) {
+                        visited[target] = true;
+                        next[target] = offsets[target];
+                        stack[top++] = target;
+                        visitor.relax(e, vertex, target, top - 1);
+                        discover(target, vertex, top - 1);
+                        return stopped ? -1 : target;
+                    }
+                } else {
+                    top--;
+                    visitor.finish(vertex);
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Runs Kahn's algorithm to completion when created, so that a cycle is reported before
+     * the first vertex rather than partway through the order; the order is then replayed one
+     * vertex per step.
+     */
+    private static final class TopologicalCursor extends Cursor {
+
+        private final int[] order;
+        private int head;
+
+        TopologicalCursor(CompactGraph<?, ?> g, GraphVisitor visitor) {
+            super(checkDirected(g), visitor);
+            int n = g.size();
+            int[] inDegrees = new int[n];
+            for (int target : targets) {
+                inDegrees[target]++;
+            }
+            order = new int[n];
+            int tail = 0;
+            for (int v = 0; v < n; v++) {
+                if (inDegrees[v] == 0) {
+                    order[tail++] = v;
+                }
+            }
+            for (int i = 0; i < tail; i++) {
+                int vertex = order[i];
+                for (int e = offsets[vertex]; e < offsets[vertex + 1]; e++) {
+                    if (--inDegrees[targets[e]] == 0) {
+                        order[tail++] = targets[e];
+                    }
+                }
+            }
+            if (tail < n) {
+                throw new IllegalArgumentException("graph contains a cycle");
+            }
+        }
+
+        private static CompactGraph<?, ?> checkDirected(CompactGraph<?, ?> g) {
+            if (g == null) {
+                throw new IllegalArgumentException("null graph");
+            }
+            if (!g.isDirected()) {
+                throw new IllegalArgumentException("topological order of an undirected graph");
+            }
+            return g;
+        }
+
+        @Override
+        int advance() {
+            if (stopped || head == order.length) {
+                return -1;
+            }
+            int vertex = order[head++];
+            discover(vertex, -1, -1);
+            if (stopped) {
+                return -1;
+            }
+            visitor.finish(vertex);
+            return vertex;
+        }
+    }
+
+    private static final class DjikstraCursor extends Cursor {
+
+        private final long[] weights;
+        private final long[] distances;
+        private final boolean[] settled;
+        private final IndexedHeap heap;
+
+        DjikstraCursor(CompactGraph<?, Integer> g, int source, GraphVisitor visitor) {
+            super(g, visitor);
+            weights = g.weights("edge weight", 0);
+            int n = g.size();
+            distances = new long[n];
+            Arrays.fill(distances, Long.MAX_VALUE);
+            settled = new boolean[n];
+            heap = new IndexedHeap(n);
+            distances[source] = 0;
+            heap.update(source, 0);
+            discover(source, -1, 0);
+        }
+
+        @Override
+        int advance() {
+            if (stopped || heap.isEmpty()) {
+                return -1;
+            }
+            int vertex = heap.remove();
+            settled[vertex] = true;
+            for (int e = offsets[vertex]; e < offsets[vertex + 1] && !stopped; e++) {
+                int target = targets[e];
+                if (settled[target]) {
+                    continue;
+                }
+                long distance = distances[vertex] + weights[e];
+                if (distance < distances[target]) {
+                    boolean first = distances[target] == Long.MAX_VALUE;
+                    distances[target] = distance;
+                    heap.update(target, distance);
+                    visitor.relax(e, vertex, target, distance);
+                    if (first) {
+                        discover(target, vertex, distance);
+                    }
+                }
+            }
+            if (!stopped) {
+                visitor.finish(vertex);
+            }
+            return vertex;
+        }
+    }
+
+    /**
+     * Turns the ids produced by a cursor into vertices, looking one step ahead.
+     */
+    private static final class CursorIterator<V extends Comparable<V>> implements Iterator<V> {
+
+        private final CompactGraph<V, ?> graph;
+        private final Cursor cursor;
+
+        // the next id to return, or -1 if it has not been computed yet, or -2 at the end
+        private int next = -1;
+
+        CursorIterator(CompactGraph<V, ?> graph, Cursor cursor) {
+            this.graph = graph;
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == -1) {
+                int vertex = cursor.advance();
+                next = vertex < 0 ? -2 : vertex;
+            }
+            return next >= 0;
+        }
+
+        @Override
+        public V next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            V result = graph.vertex(next);
+            next = -1;
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("traversals are read-only");
+        }
+    }
+}
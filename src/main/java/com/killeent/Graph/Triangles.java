@@ -0,0 +1,204 @@
+package com.killeent.Graph;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the triangles of an undirected {@link CompactGraph} in parallel, and derives the
+ * clustering coefficients from them. Self loops and parallel edges are ignored.
+ *
+ * Every edge is oriented from the endpoint of lower degree to the endpoint of higher degree
+ * (ties broken by id), and a triangle is found once, from its lowest vertex u, by intersecting
+ * the sorted forward lists of u and of each forward neighbour of u. Orienting by degree keeps
+ * every forward list shorter than sqrt(2m), so counting takes O(m^1.5) time even on graphs
+ * with hubs (Schank and Wagner, "Finding, Counting and Listing all Triangles in Large
+ * Graphs", 2005). The vertices are split into ranges that are counted in parallel.
+ */
+public class Triangles {
+
+    private static final int GRAIN = 256;
+
+    private Triangles() {
+    }
+
+    /**
+     * @param g The graph to count the triangles of.
+     * @throws java.lang.IllegalArgumentException if g is null or directed.
+     * @return The number of triangles in the graph.
+     */
+    public static long count(CompactGraph<?, ?> g) {
+        final SortedAdjacency forward = orient(SortedAdjacency.of(g, "triangle counting"));
+        return Parallel.sum(0, forward.n, Parallel.grain(forward.n, GRAIN),
+                new Parallel.RangeSum() {
+                    @Override
+                    public long apply(int from, int to) {
+                        long triangles = 0;
+                        for (int u = from; u < to; u++) {
+                            for (int e = forward.offsets[u]; e < forward.offsets[u + 1]; e++) {
+                                triangles += intersect(forward, u, forward.targets[e], null);
+                            }
+                        }
+                        return triangles;
+                    }
+                });
+    }
+
+    /**
+     * @param g The graph to count the triangles of.
+     * @throws java.lang.IllegalArgumentException if g is null or directed.
+     * @return The number of triangles each vertex id is part of.
+     */
+    public static long[] perVertex(CompactGraph<?, ?> g) {
+        return perVertex(orient(SortedAdjacency.of(g, "triangle counting")));
+    }
+
+    /**
+     * Computes the local clustering coefficient of every vertex: the fraction of pairs of its
+     * neighbours that are themselves neighbours.
+     *
+     * @param g The graph to compute the coefficients of.
+     * @throws java.lang.IllegalArgumentException if g is null or directed.
+     * @return The clustering coefficient of each vertex id, in [0, 1]; 0 for vertices with
+     * fewer than two neighbours.
+     */
+    public static double[] clustering(CompactGraph<?, ?> g) {
+        SortedAdjacency adjacency = SortedAdjacency.of(g, "clustering");
+        long[] triangles = perVertex(orient(adjacency));
+        double[] result = new double[adjacency.n];
+        for (int v = 0; v < adjacency.n; v++) {
+            long pairs = pairs(adjacency.degree(v));
+            result[v] = pairs == 0 ? 0 : triangles[v] / (double) pairs;
+        }
+        return result;
+    }
+
+    /**
+     * Computes the global clustering coefficient (transitivity) of the graph: three times the
+     * number of triangles over the number of paths of length two.
+     *
+     * @param g The graph to compute the coefficient of.
+     * @throws java.lang.IllegalArgumentException if g is null or directed.
+     * @return The transitivity of the graph, in [0, 1]; 0 if it has no paths of length two.
+     */
+    public static double transitivity(CompactGraph<?, ?> g) {
+        SortedAdjacency adjacency = SortedAdjacency.of(g, "clustering");
+        long[] triangles = perVertex(orient(adjacency));
+        long closed = 0;
+        long paths = 0;
+        for (int v = 0; v < adjacency.n; v++) {
+            closed += triangles[v];
+            paths += pairs(adjacency.degree(v));
+        }
+        return paths == 0 ? 0 : closed / (double) paths;
+    }
+
+    private static long pairs(long degree) {
+        return degree * (degree - 1) / 2;
+    }
+
+    private static long[] perVertex(final SortedAdjacency forward) {
+        final AtomicLongArray counts = new AtomicLongArray(forward.n);
+        Parallel.forRange(0, forward.n, Parallel.grain(forward.n, GRAIN),
+                new Parallel.RangeAction() {
+                    @Override
+                    public void apply(int from, int to) {
+                        for (int u = from; u < to; u++) {
+                            long own = 0;
+                            for (int e = forward.offsets[u]; e < forward.offsets[u + 1]; e++) {
+                                int v = forward.targets[e];
+                                long found = intersect(forward, u, v, counts);
+                                if (found > 0) {
+                                    own += found;
+                                    counts.addAndGet(v, found);
+                                }
+                            }
+                            if (own > 0) {
+                                counts.addAndGet(u, own);
+                            }
+                        }
+                    }
+                });
+        long[] result = new long[forward.n];
+        for (int v = 0; v < forward.n; v++) {
+            result[v] = counts.get(v);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the common forward neighbours of u and v, adding one to the count of each of them
+     * if counts is not null.
+     */
+    private static long intersect(SortedAdjacency forward, int u, int v, AtomicLongArray counts) {
+        int i = forward.offsets[u];
+        int iEnd = forward.offsets[u + 1];
+        int j = forward.offsets[v];
+        int jEnd = forward.offsets[v + 1];
+        long found = 0;
+        while (i < iEnd && j < jEnd) {
+            int a = forward.targets[i];
+            int b = forward.targets[j];
+            if (a < b) {
+                i++;
+            } else if (a > b) {
+                j++;
+            } else {
+                found++;
+                if (counts != null) {
+                    counts.incrementAndGet(a);
+                }
+                i++;
+                j++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Keeps only the edges from each vertex to the neighbours that rank above it by (degree,
+     * id). The forward lists stay sorted by id.
+     */
+    private static SortedAdjacency orient(final SortedAdjacency adjacency) {
+        final int n = adjacency.n;
+        final int[] degrees = new int[n + 1];
+        Parallel.forRange(0, n, Parallel.grain(n, GRAIN * 4), new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int v = from; v < to; v++) {
+                    int degree = 0;
+                    for (int e = adjacency.offsets[v]; e < adjacency.offsets[v + 1]; e++) {
+                        if (above(adjacency, v, adjacency.targets[e])) {
+                            degree++;
+                        }
+                    }
+                    degrees[v + 1] = degree;
+                }
+            }
+        });
+        final int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + degrees[v + 1];
+        }
+        final int[] targets = new int[offsets[n]];
+        Parallel.forRange(0, n, Parallel.grain(n, GRAIN * 4), new Parallel.RangeAction() {
+            @Override
+            public void apply(int from, int to) {
+                for (int v = from; v < to; v++) {
+                    int position = offsets[v];
+                    for (int e = adjacency.offsets[v]; e < adjacency.offsets[v + 1]; e++) {
+                        int w = adjacency.targets[e];
+                        if (above(adjacency, v, w)) {
+                            targets[position++] = w;
+                        }
+                    }
+                }
+            }
+        });
+        return new SortedAdjacency(offsets, targets);
+    }
+
+    private static boolean above(SortedAdjacency adjacency, int v, int w) {
+        int dv = adjacency.degree(v);
+        int dw = adjacency.degree(w);
+        return dw > dv || (dw == dv && w > v);
+    }
+}
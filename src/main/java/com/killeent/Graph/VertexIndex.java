@@ -0,0 +1,127 @@
+package com.killeent.Graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns vertices: every distinct vertex is assigned a dense integer id in [0, size()), in
+ * the order the vertices are first interned, and can be mapped back from its id in constant
+ * time. Algorithms hash each vertex once when they enter the index and then work on int
+ * arrays indexed by id, mapping back to vertices only when they return.
+ *
+ * An edge between two interned vertices can be stored as a single long, see
+ * {@link #edge(int, int)}.
+ */
+public class VertexIndex<V extends Comparable<V>> {
+
+    private final Map<V, Integer> ids;
+    private V[] vertices;
+    private int size;
+
+    public VertexIndex() {
+        this(16);
+    }
+
+    /**
+     * Creates an index sized to hold the passed number of vertices without resizing.
+     *
+     * @param expectedSize The expected number of vertices.
+     * @throws java.lang.IllegalArgumentException if expectedSize is negative.
+     */
+    @SuppressWarnings("unchecked")
+    public VertexIndex(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("negative size");
+        }
+        ids = new HashMap<V, Integer>(expectedSize * 2);
+        vertices = (V[]) new Comparable<?>[Math.max(expectedSize, 1)];
+    }
+
+    /**
+     * Returns the id of the vertex, assigning it the next free id if it has not been interned.
+     *
+     * @param vertex The vertex to intern.
+     * @throws java.lang.IllegalArgumentException if vertex is null.
+     * @return The id of the vertex.
+     */
+    public int intern(V vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("vertex cannot be null");
+        }
+        Integer id = ids.get(vertex);
+        if (id != null) {
+            return id;
+        }
+        if (size == vertices.length) {
+            vertices = Arrays.copyOf(vertices, size * 2);
+        }
+        vertices[size] = vertex;
+        ids.put(vertex, size);
+        return size++;
+    }
+
+    /**
+     * @param vertex The vertex to look up.
+     * @return The id of the vertex, or -1 if it is null or has not been interned.
+     */
+    public int id(V vertex) {
+        if (vertex == null) {
+            return -1;
+        }
+        Integer id = ids.get(vertex);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @return True if the vertex has been interned, otherwise false.
+     */
+    public boolean contains(V vertex) {
+        return id(vertex) >= 0;
+    }
+
+    /**
+     * @param id The id to look up.
+     * @throws java.lang.IndexOutOfBoundsException if no vertex has the passed id.
+     * @return The vertex with the passed id.
+     */
+    public V vertex(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("id: " + id);
+        }
+        return vertices[id];
+    }
+
+    /**
+     * @return The number of interned vertices.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Packs an edge between two vertex ids into a long. Packed edges sort by source, then by
+     * destination.
+     *
+     * @param source The id of the source vertex; must not be negative.
+     * @param destination The id of the destination vertex; must not be negative.
+     * @return The packed edge.
+     */
+    public static long edge(int source, int destination) {
+        return ((long) source << 32) | destination;
+    }
+
+    /**
+     * @return The source id of a packed edge.
+     */
+    public static int source(long edge) {
+        return (int) (edge >>> 32);
+    }
+
+    /**
+     * @return The destination id of a packed edge.
+     */
+    public static int destination(long edge) {
+        return (int) edge;
+    }
+}
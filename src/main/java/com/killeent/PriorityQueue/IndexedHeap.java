@@ -0,0 +1,197 @@
+package com.killeent.PriorityQueue;
+
+import java.util.NoSuchElementException;
+
+/**
+ * An array-based min-heap of the integers [0, capacity), each with a long key and a long
+ * tie-breaker. Elements are removed in increasing order of key, and then of tie-breaker.
+ *
+ * The heap tracks the position of every element, so the key of an element already in the heap
+ * can be changed in O(log n) time. This is the decrease-key operation needed by Djikstra's and
+ * Prim's algorithms, which a {@link Heap} can only approximate by removing and re-adding.
+ */
+public class IndexedHeap {
+
+    private final int[] heap;
+    private final int[] positions;
+    private final long[] keys;
+    private final long[] ties;
+    private int count;
+
+    /**
+     * Creates an empty heap that can hold the integers [0, capacity).
+     *
+     * @param capacity One more than the largest element of the heap.
+     * @throws java.lang.IllegalArgumentException if capacity is negative.
+     */
+    public IndexedHeap(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("negative capacity");
+        }
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new long[capacity];
+        ties = new long[capacity];
+        for (int i = 0; i < capacity; i++) {
+            positions[i] = -1;
+        }
+    }
+
+    /**
+     * Adds the element to the heap, or changes its key if it is already in the heap.
+     *
+     * @param element The element to add.
+     * @param key The key of the element.
+     * @throws java.lang.IndexOutOfBoundsException if element is not in [0, capacity).
+     */
+    public void update(int element, long key) {
+        update(element, key, 0);
+    }
+
+    /**
+     * Adds the element to the heap, or changes its key if it is already in the heap.
+     *
+     * @param element The element to add.
+     * @param key The key of the element.
+     * @param tie Orders elements with equal keys.
+     * @throws java.lang.IndexOutOfBoundsException if element is not in [0, capacity).
+     */
+    public void update(int element, long key, long tie) {
+        checkElement(element);
+        int position = positions[element];
+        keys[element] = key;
+        ties[element] = tie;
+        if (position < 0) {
+            heap[count] = element;
+            positions[element] = count;
+            bubbleUp(count++);
+        } else {
+            bubbleUp(position);
+            bubbleDown(positions[element]);
+        }
+    }
+
+    /**
+     * @throws java.lang.IndexOutOfBoundsException if element is not in [0, capacity).
+     * @return True if the element is in the heap, otherwise false.
+     */
+    public boolean contains(int element) {
+        checkElement(element);
+        return positions[element] >= 0;
+    }
+
+    /**
+     * @throws java.lang.IndexOutOfBoundsException if element is not in [0, capacity).
+     * @return The key the element was last added or updated with.
+     */
+    public long key(int element) {
+        checkElement(element);
+        return keys[element];
+    }
+
+    /**
+     * @throws java.util.NoSuchElementException if the heap is empty.
+     * @return The element with the smallest key, without removing it.
+     */
+    public int peek() {
+        if (count == 0) {
+            throw new NoSuchElementException("empty heap");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Removes and returns the element with the smallest key.
+     *
+     * @throws java.util.NoSuchElementException if the heap is empty.
+     * @return The removed element.
+     */
+    public int remove() {
+        int result = peek();
+        positions[result] = -1;
+        count--;
+        if (count > 0) {
+            heap[0] = heap[count];
+            positions[heap[0]] = 0;
+            bubbleDown(0);
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of elements in the heap.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return True if the heap is empty, otherwise false.
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Removes all elements from the heap.
+     */
+    public void clear() {
+        for (int i = 0; i < count; i++) {
+            positions[heap[i]] = -1;
+        }
+        count = 0;
+    }
+
+    private void checkElement(int element) {
+        if (element < 0 || element >= positions.length) {
+            throw new IndexOutOfBoundsException("element: " + element);
+        }
+    }
+
+    /**
+     * @return True if the element at heap index a must be above the element at heap index b.
+     */
+    private boolean less(int a, int b) {
+        int x = heap[a];
+        int y = heap[b];
+        return keys[x] < keys[y] || (keys[x] == keys[y] && ties[x] < ties[y]);
+    }
+
+    private void swap(int a, int b) {
+        int temp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = temp;
+        positions[heap[a]] = a;
+        positions[heap[b]] = b;
+    }
+
+    private void bubbleUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!less(index, parent)) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void bubbleDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = index * 2 + 1;
+            int right = left + 1;
+            if (left < count && less(left, smallest)) {
+                smallest = left;
+            }
+            if (right < count && less(right, smallest)) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                break;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+}
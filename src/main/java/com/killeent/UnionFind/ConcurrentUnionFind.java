@@ -0,0 +1,162 @@
+package com.killeent.UnionFind;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free disjoint-set forest over the integers [0, size()) that many threads can update
+ * and query at once, following Anderson and Woll, "Wait-free Parallel Algorithms for the
+ * Union-Find Problem" (STOC 1991).
+ *
+ * The parent and rank of every element are packed into one slot of an
+ * {@link java.util.concurrent.atomic.AtomicLongArray}, so a root can be linked under another
+ * root with a single compare-and-set that also checks the rank it was linked by has not
+ * changed. Roots are always linked under a root with a larger (rank, element) pair; since
+ * ranks only grow, and only while an element is a root, no two threads can link two roots
+ * under each other, and the forest never contains a cycle. Finds compress paths by halving,
+ * which is safe to race: a failed compare-and-set just leaves a longer path.
+ */
+public class ConcurrentUnionFind {
+
+    private static final long PARENT_MASK = 0xFFFFFFFFL;
+
+    private final AtomicLongArray entries;
+    private final AtomicInteger sets;
+
+    /**
+     * Creates n singleton sets {0}, {1}, ..., {n - 1}.
+     *
+     * @param n The number of elements.
+     * @throws java.lang.IllegalArgumentException if n is negative.
+     */
+    public ConcurrentUnionFind(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("negative size");
+        }
+        entries = new AtomicLongArray(n);
+        for (int i = 0; i < n; i++) {
+            entries.set(i, i);
+        }
+        sets = new AtomicInteger(n);
+    }
+
+    /**
+     * Returns the current representative of the set containing x. Concurrent unions may change
+     * the representative as soon as this returns; use {@link #sameSet} to compare elements.
+     *
+     * @throws java.lang.IndexOutOfBoundsException if x is not in [0, size()).
+     */
+    public int find(int x) {
+        checkElement(x);
+        while (true) {
+            long entry = entries.get(x);
+            int parent = parent(entry);
+            if (parent == x) {
+                return x;
+            }
+            int grandparent = parent(entries.get(parent));
+            if (grandparent != parent) {
+                // path halving: skip over the parent
+                entries.compareAndSet(x, entry, pack(rank(entry), grandparent));
+            }
+            x = parent;
+        }
+    }
+
+    /**
+     * Merges the sets containing a and b.
+     *
+     * @throws java.lang.IndexOutOfBoundsException if a or b is not in [0, size()).
+     * @return True if this call merged two different sets, otherwise false.
+     */
+    public boolean union(int a, int b) {
+        while (true) {
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA == rootB) {
+                return false;
+            }
+            long entryA = entries.get(rootA);
+            long entryB = entries.get(rootB);
+            if (parent(entryA) != rootA || parent(entryB) != rootB) {
+                // one of them stopped being a root; start over
+                continue;
+            }
+
+            // link the smaller (rank, element) pair under the larger one
+            int rankA = rank(entryA);
+            int rankB = rank(entryB);
+            if (rankA > rankB || (rankA == rankB && rootA > rootB)) {
+                int root = rootA;
+                rootA = rootB;
+                rootB = root;
+                long entry = entryA;
+                entryA = entryB;
+                entryB = entry;
+                rankA = rankB;
+                rankB = rank(entryB);
+            }
+            if (entries.compareAndSet(rootA, entryA, pack(rankA, rootB))) {
+                if (rankA == rankB) {
+                    // best effort: if rootB changed in the meantime, its rank is left alone
+                    entries.compareAndSet(rootB, entryB, pack(rankB + 1, rootB));
+                }
+                sets.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a and b are in the same set. The answer is exact at some point during
+     * the call, even while other threads perform unions.
+     *
+     * @throws java.lang.IndexOutOfBoundsException if a or b is not in [0, size()).
+     * @return True if a and b are in the same set, otherwise false.
+     */
+    public boolean sameSet(int a, int b) {
+        while (true) {
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA == rootB) {
+                return true;
+            }
+            // rootA may have been linked under rootB after it was found
+            if (parent(entries.get(rootA)) == rootA) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return The number of elements.
+     */
+    public int size() {
+        return entries.length();
+    }
+
+    /**
+     * @return The number of disjoint sets, once all concurrent unions have returned.
+     */
+    public int sets() {
+        return sets.get();
+    }
+
+    private void checkElement(int x) {
+        if (x < 0 || x >= entries.length()) {
+            throw new IndexOutOfBoundsException("element: " + x);
+        }
+    }
+
+    private static long pack(int rank, int parent) {
+        return ((long) rank << 32) | parent;
+    }
+
+    private static int parent(long entry) {
+        return (int) (entry & PARENT_MASK);
+    }
+
+    private static int rank(long entry) {
+        return (int) (entry >>> 32);
+    }
+}
@@ -0,0 +1,126 @@
+package com.killeent.UnionFind;
+
+import java.util.Arrays;
+
+/**
+ * A disjoint-set forest over the integers [0, size()), with union by rank and path
+ * compression, so any sequence of m operations takes O(m alpha(n)) time. Elements can be added
+ * one at a time, which makes the structure suitable for tracking connectivity while a graph
+ * grows.
+ *
+ * This class is not thread-safe; see {@link ConcurrentUnionFind}.
+ */
+public class UnionFind {
+
+    private int[] parents;
+    private byte[] ranks;
+    private int size;
+    private int sets;
+
+    /**
+     * Creates n singleton sets {0}, {1}, ..., {n - 1}.
+     *
+     * @param n The number of elements.
+     * @throws java.lang.IllegalArgumentException if n is negative.
+     */
+    public UnionFind(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("negative size");
+        }
+        parents = new int[Math.max(n, 16)];
+        ranks = new byte[parents.length];
+        for (int i = 0; i < n; i++) {
+            parents[i] = i;
+        }
+        size = n;
+        sets = n;
+    }
+
+    /**
+     * Adds a new singleton set.
+     *
+     * @return The new element, which is the previous value of size().
+     */
+    public int add() {
+        if (size == parents.length) {
+            parents = Arrays.copyOf(parents, size * 2);
+            ranks = Arrays.copyOf(ranks, size * 2);
+        }
+        parents[size] = size;
+        sets++;
+        return size++;
+    }
+
+    /**
+     * Returns the representative of the set containing x. Two elements are in the same set iff
+     * they have the same representative, until the next union.
+     *
+     * @throws java.lang.IndexOutOfBoundsException if x is not in [0, size()).
+     */
+    public int find(int x) {
+        checkElement(x);
+        int root = x;
+        while (parents[root] != root) {
+            root = parents[root];
+        }
+        // point every element on the path directly at the root
+        while (parents[x] != root) {
+            int next = parents[x];
+            parents[x] = root;
+            x = next;
+        }
+        return root;
+    }
+
+    /**
+     * Merges the sets containing a and b.
+     *
+     * @throws java.lang.IndexOutOfBoundsException if a or b is not in [0, size()).
+     * @return True if a and b were in different sets, otherwise false.
+     */
+    public boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+        if (ranks[rootA] < ranks[rootB]) {
+            parents[rootA] = rootB;
+        } else if (ranks[rootA] > ranks[rootB]) {
+            parents[rootB] = rootA;
+        } else {
+            parents[rootB] = rootA;
+            ranks[rootA]++;
+        }
+        sets--;
+        return true;
+    }
+
+    /**
+     * @throws java.lang.IndexOutOfBoundsException if a or b is not in [0, size()).
+     * @return True if a and b are in the same set, otherwise false.
+     */
+    public boolean sameSet(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    /**
+     * @return The number of elements.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of disjoint sets.
+     */
+    public int sets() {
+        return sets;
+    }
+
+    private void checkElement(int x) {
+        if (x < 0 || x >= size) {
+            throw new IndexOutOfBoundsException("element: " + x);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.killeent;
+
+import com.killeent.Graph.BiconnectedComponents;
+import com.killeent.Graph.CompactGraph;
+import com.killeent.Graph.DirectedHashGraph;
+import com.killeent.Graph.Edge;
+import com.killeent.Graph.Graphs;
+import com.killeent.Graph.UndirectedGraph;
+import com.killeent.Graph.UndirectedHashGraph;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Tests for the {@link com.killeent.Graph.BiconnectedComponents}.
+ */
+public class BiconnectedComponentsTest {
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBiconnectedNullGraph() {
+        new BiconnectedComponents<Integer, Integer>((UndirectedGraph<Integer, Integer>) null);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a directed graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBiconnectedDirectedGraph() {
+        new BiconnectedComponents<Integer, Integer>(new CompactGraph<Integer, Integer>(
+                new DirectedHashGraph<Integer, Integer>()));
+    }
+
+    /**
+     * Tests a bowtie (two triangles sharing vertex 2) with a pendant edge (4, 5):
+     *
+     *    0       3
+     *    | \   / |
+     *    |  (2)  |
+     *    | /   \ |
+     *    1       4 - 5
+     */
+    @Test
+    public void testBiconnectedBowtie() {
+        UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < 6; i++) {
+            g.addVertex(i);
+        }
+        g.addEdge(0, 1, 0);
+        g.addEdge(1, 2, 0);
+        g.addEdge(2, 0, 0);
+        g.addEdge(2, 3, 0);
+        g.addEdge(3, 4, 0);
+        g.addEdge(4, 2, 0);
+        g.addEdge(4, 5, 0);
+        BiconnectedComponents<Integer, Integer> result =
+                new BiconnectedComponents<Integer, Integer>(g);
+        CompactGraph<Integer, Integer> compact = result.getGraph();
+
+        Assert.assertEquals(new HashSet<Integer>(Arrays.asList(2, 4)),
+                vertices(compact, result.getArticulationVertices()));
+        Assert.assertEquals(3, result.getBlockCount());
+        Assert.assertEquals(2, result.getBridges().length);
+        Assert.assertEquals(new HashSet<Integer>(Arrays.asList(4, 5)), new HashSet<Integer>(
+                Arrays.asList(compact.vertex(result.getBridges()[0]),
+                        compact.vertex(result.getBridges()[1]))));
+
+        // both directions of an edge are in the same block; the triangles are different blocks
+        int[] blocks = result.getEdgeBlocks();
+        Assert.assertEquals(blocks[edge(compact, 0, 1)], blocks[edge(compact, 1, 0)]);
+        Assert.assertEquals(blocks[edge(compact, 0, 1)], blocks[edge(compact, 2, 0)]);
+        Assert.assertTrue(blocks[edge(compact, 0, 1)] != blocks[edge(compact, 3, 4)]);
+
+        // block-cut tree: 3 blocks + 2 cut vertices, connected as a path of 5 nodes
+        int[] treeOffsets = result.getTreeOffsets();
+        Assert.assertEquals(6, treeOffsets.length);
+        Assert.assertEquals(8, result.getTreeTargets().length);
+        int cut = result.getCutNodes()[compact.id(2)];
+        Assert.assertEquals(2, treeOffsets[cut + 1] - treeOffsets[cut]);
+        Assert.assertEquals(2, result.getCutVertices()[cut - result.getBlockCount()]);
+        Assert.assertEquals(-1, result.getCutNodes()[compact.id(0)]);
+    }
+
+    /**
+     * Tests that parallel edges between two vertices form one block that is not a bridge.
+     */
+    @Test
+    public void testBiconnectedParallelEdges() {
+        UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        g.addVertex(0);
+        g.addVertex(1);
+        g.addVertex(2);
+        g.addEdge(0, 1, 1);
+        g.addEdge(0, 1, 2);
+        g.addEdge(1, 2, 1);
+        BiconnectedComponents<Integer, Integer> result =
+                new BiconnectedComponents<Integer, Integer>(g);
+        Assert.assertEquals(2, result.getBlockCount());
+        Assert.assertEquals(2, result.getBridges().length);
+        Assert.assertEquals(new HashSet<Integer>(Arrays.asList(1)),
+                vertices(result.getGraph(), result.getArticulationVertices()));
+    }
+
+    /**
+     * Tests the articulation vertices against {@link Graphs#articulationVertices} and the
+     * bridges against removing every edge in turn, on random connected graphs.
+     */
+    @Test
+    public void testBiconnectedRandomGraphs() {
+        Random random = new Random(30);
+        for (int trial = 0; trial < 20; trial++) {
+            int n = 40;
+            UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+            for (int i = 0; i < n; i++) {
+                g.addVertex(i);
+            }
+            for (int i = 1; i < n; i++) {
+                g.addEdge(random.nextInt(i), i, 0);
+            }
+            for (int i = 0; i < 15; i++) {
+                int a = random.nextInt(n);
+                int b = random.nextInt(n);
+                if (a != b) {
+                    g.addEdge(a, b, 0);
+                }
+            }
+            BiconnectedComponents<Integer, Integer> result =
+                    new BiconnectedComponents<Integer, Integer>(g);
+            CompactGraph<Integer, Integer> compact = result.getGraph();
+            Assert.assertEquals(Graphs.articulationVertices(g, 0),
+                    vertices(compact, result.getArticulationVertices()));
+
+            Set<List<Integer>> bridges = new HashSet<List<Integer>>();
+            for (int i = 0; i < result.getBridges().length; i += 2) {
+                int a = compact.vertex(result.getBridges()[i]);
+                int b = compact.vertex(result.getBridges()[i + 1]);
+                bridges.add(Arrays.asList(Math.min(a, b), Math.max(a, b)));
+            }
+            for (int a = 0; a < n; a++) {
+                for (Edge<Integer, Integer> edge : new ArrayList<Edge<Integer, Integer>>(
+                        g.neighbors(a))) {
+                    int b = edge.getDestination();
+                    if (a > b) {
+                        continue;
+                    }
+                    g.removeEdge(a, b, 0);
+                    boolean bridge = !Graphs.shortestPath(g, a, b,
+                            new ArrayList<Edge<Integer, Integer>>());
+                    g.addEdge(a, b, 0);
+                    Assert.assertEquals(bridge, bridges.contains(Arrays.asList(a, b)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests a million-vertex path: every edge is a bridge and its own block.
+     */
+    @Test
+    public void testBiconnectedMillionVertexChain() {
+        int n = 1000000;
+        UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < n; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 1; i < n; i++) {
+            g.addEdge(i - 1, i, 0);
+        }
+        BiconnectedComponents<Integer, Integer> result =
+                new BiconnectedComponents<Integer, Integer>(g);
+        Assert.assertEquals(n - 1, result.getBlockCount());
+        Assert.assertEquals(2 * (n - 1), result.getBridges().length);
+        Assert.assertEquals(n - 2, result.getCutVertices().length);
+    }
+
+    private static Set<Integer> vertices(CompactGraph<Integer, Integer> g, boolean[] flags) {
+        Set<Integer> result = new HashSet<Integer>();
+        for (int v = 0; v < flags.length; v++) {
+            if (flags[v]) {
+                result.add(g.vertex(v));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The edge id of the edge from a to b.
+     */
+    private static int edge(CompactGraph<Integer, Integer> g, int a, int b) {
+        int u = g.id(a);
+        int offset = 0;
+        for (int v = 0; v < u; v++) {
+            offset += g.outDegree(v);
+        }
+        for (int i = 0; i < g.outDegree(u); i++) {
+            if (g.vertex(g.target(u, i)) == b) {
+                return offset + i;
+            }
+        }
+        throw new IllegalArgumentException("no such edge");
+    }
+}
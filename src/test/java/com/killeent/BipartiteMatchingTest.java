@@ -0,0 +1,229 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Tests for {@link com.killeent.Graph.BipartiteMatching}.
+ */
+public class BipartiteMatchingTest {
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGraph() {
+        BipartiteMatching.hopcroftKarp(null, null);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when the graph has an odd cycle.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotBipartite() {
+        UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        for (int v = 0; v < 3; v++) {
+            g.addVertex(v);
+        }
+        g.addEdge(0, 1, 0);
+        g.addEdge(1, 2, 0);
+        g.addEdge(2, 0, 0);
+        Graphs.maximumMatching(g);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when the matrix has more rows than
+     * columns.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTallMatrix() {
+        BipartiteMatching.assignment(new long[3][2], null);
+    }
+
+    /**
+     * Tests a path 0 - 1 - 2 - 3, whose only maximum matching is {0, 1}, {2, 3}.
+     */
+    @Test
+    public void testPath() {
+        UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        for (int v = 0; v < 4; v++) {
+            g.addVertex(v);
+        }
+        g.addEdge(0, 1, 0);
+        g.addEdge(1, 2, 0);
+        g.addEdge(2, 3, 0);
+        Map<Integer, Integer> mates = Graphs.maximumMatching(g);
+        Assert.assertEquals(4, mates.size());
+        Assert.assertEquals(1, (int) mates.get(0));
+        Assert.assertEquals(0, (int) mates.get(1));
+        Assert.assertEquals(3, (int) mates.get(2));
+        Assert.assertEquals(2, (int) mates.get(3));
+    }
+
+    /**
+     * Tests both graph solvers against brute force on random bipartite graphs, cold and warm
+     * started from the matching of a graph with some edges changed.
+     */
+    @Test
+    public void testRandomGraphs() {
+        for (int seed = 0; seed < 40; seed++) {
+            Random random = new Random(seed);
+            int lefts = 1 + random.nextInt(6);
+            int rights = 1 + random.nextInt(6);
+            // the cost of the edge from left vertex a to right vertex lefts + b, or null
+            Integer[][] edges = new Integer[lefts][rights];
+            for (int a = 0; a < lefts; a++) {
+                for (int b = 0; b < rights; b++) {
+                    if (random.nextInt(3) == 0) {
+                        edges[a][b] = random.nextInt(21) - 10;
+                    }
+                }
+            }
+            List<Integer> left = new ArrayList<Integer>();
+            for (int v = 0; v < lefts; v++) {
+                left.add(v);
+            }
+
+            CompactGraph<Integer, Integer> compact = graph(edges);
+            Matching<Integer, Integer> cardinality =
+                    BipartiteMatching.hopcroftKarp(compact, null);
+            Matching<Integer, Integer> cost = BipartiteMatching.minimumCost(compact, left, null);
+            int best = bruteForce(edges, 0, 0, null);
+            check(edges, cardinality, best);
+            check(edges, cost, best);
+            Assert.assertEquals(bruteForce(edges, 0, 0, cost), cost.getCost());
+
+            // change some edges and start from the previous matchings
+            for (int i = 0; i < 3; i++) {
+                int a = random.nextInt(lefts);
+                int b = random.nextInt(rights);
+                edges[a][b] = edges[a][b] != null ? null : random.nextInt(21) - 10;
+            }
+            compact = graph(edges);
+            best = bruteForce(edges, 0, 0, null);
+            cardinality = BipartiteMatching.hopcroftKarp(compact, cardinality);
+            cost = BipartiteMatching.minimumCost(compact, left, cost);
+            check(edges, cardinality, best);
+            check(edges, cost, best);
+            Assert.assertEquals(bruteForce(edges, 0, 0, cost), cost.getCost());
+        }
+    }
+
+    /**
+     * Tests the dense solver against brute force on random matrices, cold and warm started
+     * from the assignment of a matrix with some entries changed.
+     */
+    @Test
+    public void testRandomMatrices() {
+        for (int seed = 0; seed < 40; seed++) {
+            Random random = new Random(seed);
+            int rows = random.nextInt(6);
+            int columns = rows + random.nextInt(3);
+            long[][] costs = new long[rows][columns];
+            for (long[] row : costs) {
+                for (int j = 0; j < columns; j++) {
+                    row[j] = random.nextInt(41) - 20;
+                }
+            }
+            Assignment assignment = BipartiteMatching.assignment(costs, null);
+            checkAssignment(costs, assignment);
+
+            for (int i = 0; i < 3 && rows > 0; i++) {
+                costs[random.nextInt(rows)][random.nextInt(columns)] = random.nextInt(41) - 20;
+            }
+            checkAssignment(costs, BipartiteMatching.assignment(costs, assignment));
+        }
+    }
+
+    private static CompactGraph<Integer, Integer> graph(Integer[][] edges) {
+        int lefts = edges.length;
+        int rights = edges[0].length;
+        UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        for (int v = 0; v < lefts + rights; v++) {
+            g.addVertex(v);
+        }
+        for (int a = 0; a < lefts; a++) {
+            for (int b = 0; b < rights; b++) {
+                if (edges[a][b] != null) {
+                    g.addEdge(a, lefts + b, edges[a][b]);
+                }
+            }
+        }
+        return new CompactGraph<Integer, Integer>(g);
+    }
+
+    /**
+     * Checks that matching is a matching of the edges with the given number of pairs.
+     */
+    private static void check(Integer[][] edges, Matching<Integer, Integer> matching,
+                              int pairs) {
+        Assert.assertEquals(pairs, matching.size());
+        int lefts = edges.length;
+        for (int a = 0; a < lefts; a++) {
+            Integer mate = matching.mate(a);
+            if (mate != null) {
+                Assert.assertNotNull(edges[a][mate - lefts]);
+                Assert.assertEquals(a, (int) matching.mate(mate));
+            }
+        }
+    }
+
+    /**
+     * @return If covered is null, the size of a maximum matching of the left vertices from
+     * left on; otherwise the smallest cost of a matching of them that matches the same left
+     * vertices as covered, or Integer.MAX_VALUE if there is none. used holds the right
+     * vertices already matched.
+     */
+    private static int bruteForce(Integer[][] edges, int left, int used,
+                                  Matching<Integer, Integer> covered) {
+        if (left == edges.length) {
+            return 0;
+        }
+        if (covered != null && covered.mate(left) == null) {
+            return bruteForce(edges, left + 1, used, covered);
+        }
+        int best = covered == null ? bruteForce(edges, left + 1, used, null) : Integer.MAX_VALUE;
+        for (int right = 0; right < edges[left].length; right++) {
+            if ((used & (1 << right)) != 0 || edges[left][right] == null) {
+                continue;
+            }
+            int rest = bruteForce(edges, left + 1, used | (1 << right), covered);
+            if (covered == null) {
+                best = Math.max(best, rest + 1);
+            } else if (rest != Integer.MAX_VALUE) {
+                best = Math.min(best, rest + edges[left][right]);
+            }
+        }
+        return best;
+    }
+
+    private static void checkAssignment(long[][] costs, Assignment assignment) {
+        int[] columns = assignment.getColumns();
+        Set<Integer> used = new HashSet<Integer>();
+        long total = 0;
+        for (int i = 0; i < columns.length; i++) {
+            Assert.assertTrue(used.add(columns[i]));
+            total += costs[i][columns[i]];
+        }
+        Assert.assertEquals(total, assignment.getCost());
+        Assert.assertEquals(cheapest(costs, 0, new boolean[assignment.columnCount()]), total);
+    }
+
+    private static long cheapest(long[][] costs, int row, boolean[] used) {
+        if (row == costs.length) {
+            return 0;
+        }
+        long best = Long.MAX_VALUE;
+        for (int j = 0; j < used.length; j++) {
+            if (!used[j]) {
+                used[j] = true;
+                best = Math.min(best, costs[row][j] + cheapest(costs, row + 1, used));
+                used[j] = false;
+            }
+        }
+        return best;
+    }
+}
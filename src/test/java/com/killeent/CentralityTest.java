@@ -0,0 +1,263 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Tests for {@link com.killeent.Graph.Centrality}.
+ */
+public class CentralityTest {
+
+    private static final double DELTA = 1e-9;
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBetweennessNullGraph() {
+        Centrality.betweenness(null);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when an edge length is not positive.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testWeightedBetweennessZeroLength() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        g.addVertex(1);
+        g.addVertex(2);
+        g.addEdge(1, 2, 0);
+        Centrality.weightedBetweenness(new CompactGraph<Integer, Integer>(g));
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when epsilon is not in (0, 1).
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testSampleSizeInvalidEpsilon() {
+        Centrality.sampleSize(10, 0, 0.1);
+    }
+
+    /**
+     * Tests betweenness on a path, where vertex i lies on every path between a vertex before
+     * it and a vertex after it.
+     */
+    @Test
+    public void testBetweennessPath() {
+        for (boolean directed : new boolean[] {true, false}) {
+            SimpleLabeledGraph<Integer, Integer> g = directed
+                    ? new DirectedHashGraph<Integer, Integer>()
+                    : new UndirectedHashGraph<Integer, Integer>();
+            for (int i = 0; i < 5; i++) {
+                g.addVertex(i);
+            }
+            for (int i = 0; i < 4; i++) {
+                g.addEdge(i, i + 1, 1);
+            }
+            CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+            double[] betweenness = Centrality.betweenness(compact);
+            for (int i = 0; i < 5; i++) {
+                Assert.assertEquals((double) i * (4 - i), betweenness[compact.id(i)], DELTA);
+            }
+        }
+    }
+
+    /**
+     * Tests that shortest paths are split evenly between two middle vertices of a square.
+     */
+    @Test
+    public void testBetweennessSquare() {
+        UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < 4; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 0; i < 4; i++) {
+            g.addEdge(i, (i + 1) % 4, 1);
+        }
+        double[] betweenness = Centrality.betweenness(new CompactGraph<Integer, Integer>(g));
+        for (double value : betweenness) {
+            Assert.assertEquals(0.5, value, DELTA);
+        }
+    }
+
+    /**
+     * Tests exact betweenness and closeness, with and without edge lengths, against a brute
+     * force count over all pairs on random graphs.
+     */
+    @Test
+    public void testCentralityMatchesReference() {
+        for (int seed = 0; seed < 4; seed++) {
+            SimpleLabeledGraph<Integer, Integer> g = seed % 2 == 0
+                    ? new DirectedHashGraph<Integer, Integer>()
+                    : new UndirectedHashGraph<Integer, Integer>();
+            Random random = new Random(seed);
+            for (int i = 0; i < 40; i++) {
+                g.addVertex(i);
+            }
+            for (int i = 0; i < 90; i++) {
+                int a = random.nextInt(40);
+                int b = random.nextInt(40);
+                if (a != b) {
+                    g.addEdge(a, b, random.nextInt(3) + 1);
+                }
+            }
+            CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+            for (boolean weighted : new boolean[] {false, true}) {
+                long[][] distances = new long[40][40];
+                double[][] paths = new double[40][40];
+                allPairs(compact, weighted, distances, paths);
+                double[] betweenness = weighted ? Centrality.weightedBetweenness(compact)
+                        : Centrality.betweenness(compact);
+                double[] closeness = weighted ? Centrality.weightedCloseness(compact)
+                        : Centrality.closeness(compact);
+                for (int v = 0; v < 40; v++) {
+                    double expected = 0;
+                    long total = 0;
+                    int reached = 0;
+                    for (int s = 0; s < 40; s++) {
+                        if (s != v && distances[v][s] < Long.MAX_VALUE) {
+                            total += distances[v][s];
+                            reached++;
+                        }
+                        for (int t = 0; t < 40; t++) {
+                            if (s != v && t != v && s != t && distances[s][t] < Long.MAX_VALUE
+                                    && distances[s][v] < Long.MAX_VALUE
+                                    && distances[v][t] < Long.MAX_VALUE
+                                    && distances[s][v] + distances[v][t] == distances[s][t]) {
+                                expected += paths[s][v] * paths[v][t] / paths[s][t];
+                            }
+                        }
+                    }
+                    if (!compact.isDirected()) {
+                        expected /= 2;
+                    }
+                    Assert.assertEquals(expected, betweenness[v], 1e-6);
+                    double expectedCloseness = total == 0 ? 0
+                            : ((double) reached / total) * ((double) reached / 39);
+                    Assert.assertEquals(expectedCloseness, closeness[v], DELTA);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that the sampled estimates are within the error bound of the exact values.
+     */
+    @Test
+    public void testApproximateBetweennessWithinBound() {
+        UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 3000, 9000, 10, 11);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        double epsilon = 0.05;
+        Assert.assertTrue(Centrality.sampleSize(3000, epsilon, 0.1) < 3000);
+        double[] exact = Centrality.betweenness(compact);
+        double[] estimate = Centrality.approximateBetweenness(compact, epsilon, 0.1, 12);
+        double bound = epsilon * 3000 * 2998;
+        double sumExact = 0;
+        double sumEstimate = 0;
+        for (int v = 0; v < compact.size(); v++) {
+            Assert.assertTrue(Math.abs(exact[v] - estimate[v]) <= bound);
+            sumExact += exact[v];
+            sumEstimate += estimate[v];
+        }
+        Assert.assertEquals(1.0, sumEstimate / sumExact, 0.1);
+    }
+
+    /**
+     * Tests that a sample at least as large as the graph gives exact values.
+     */
+    @Test
+    public void testApproximateBetweennessSmallGraph() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 50, 150, 10, 13);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        double[] exact = Centrality.betweenness(compact);
+        double[] estimate = Centrality.approximateBetweenness(compact, 0.1, 0.1, 14);
+        for (int v = 0; v < compact.size(); v++) {
+            Assert.assertEquals(exact[v], estimate[v], DELTA);
+        }
+    }
+
+    /**
+     * Tests closeness on a star and on a vertex that reaches nothing.
+     */
+    @Test
+    public void testClosenessStar() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < 6; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 1; i < 5; i++) {
+            g.addEdge(0, i, 1);
+            g.addEdge(i, 0, 1);
+        }
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        double[] closeness = Centrality.closeness(compact);
+        // the center reaches 4 of 5 other vertices at distance 1
+        Assert.assertEquals(0.8, closeness[compact.id(0)], DELTA);
+        // a leaf reaches 4 vertices at a total distance of 1 + 2 + 2 + 2
+        Assert.assertEquals((4.0 / 7) * (4.0 / 5), closeness[compact.id(1)], DELTA);
+        Assert.assertEquals(0.0, closeness[compact.id(5)], DELTA);
+    }
+
+    /**
+     * Floyd-Warshall, also counting the number of shortest paths between every pair.
+     */
+    private static void allPairs(CompactGraph<Integer, Integer> g, boolean weighted,
+                                 long[][] distances, double[][] paths) {
+        int n = g.size();
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(distances[i], Long.MAX_VALUE);
+            distances[i][i] = 0;
+            paths[i][i] = 1;
+            for (int j = 0; j < g.outDegree(i); j++) {
+                int t = g.target(i, j);
+                distances[i][t] = Math.min(distances[i][t], weighted ? g.value(i, j) : 1);
+            }
+        }
+        // plain Floyd-Warshall cannot count paths, so count them afterwards by distance order
+        for (int k = 0; k < n; k++) {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    if (distances[i][k] < Long.MAX_VALUE && distances[k][j] < Long.MAX_VALUE
+                            && distances[i][k] + distances[k][j] < distances[i][j]) {
+                        distances[i][j] = distances[i][k] + distances[k][j];
+                    }
+                }
+            }
+        }
+        for (int s = 0; s < n; s++) {
+            final long[] row = distances[s];
+            Integer[] byDistance = new Integer[n];
+            for (int v = 0; v < n; v++) {
+                byDistance[v] = v;
+            }
+            Arrays.sort(byDistance, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer a, Integer b) {
+                    return Long.compare(row[a], row[b]);
+                }
+            });
+            for (int v = 0; v < n; v++) {
+                paths[s][v] = v == s ? 1 : 0;
+            }
+            for (Integer v : byDistance) {
+                if (row[v] == Long.MAX_VALUE) {
+                    break;
+                }
+                for (int j = 0; j < g.outDegree(v); j++) {
+                    int w = g.target(v, j);
+                    long length = weighted ? g.value(v, j) : 1;
+                    if (row[v] + length == row[w]) {
+                        paths[s][w] += paths[s][v];
+                    }
+                }
+            }
+        }
+    }
+}
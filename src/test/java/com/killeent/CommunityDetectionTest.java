@@ -0,0 +1,203 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Tests for {@link com.killeent.Graph.CommunityDetection}.
+ */
+public class CommunityDetectionTest {
+
+    private static final double DELTA = 1e-9;
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testLouvainNullGraph() {
+        CommunityDetection.louvain(null, 1, 0);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a directed graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testLeidenDirectedGraph() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        g.addVertex(1);
+        CommunityDetection.leiden(new CompactGraph<Integer, Integer>(g), 1, 0);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when an edge weight is negative.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeWeight() {
+        UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        g.addVertex(1);
+        g.addVertex(2);
+        g.addEdge(1, 2, -1);
+        CommunityDetection.louvain(new CompactGraph<Integer, Integer>(g), 1, 0);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when the resolution is not
+     * positive.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroResolution() {
+        CommunityDetection.leiden(ringOfCliques(3, 3), 0, 0);
+    }
+
+    /**
+     * Tests that a ring of cliques is split into the cliques, and the aggregate graph is the
+     * ring.
+     */
+    @Test
+    public void testRingOfCliques() {
+        CompactGraph<Integer, Integer> g = ringOfCliques(8, 6);
+        for (boolean leiden : new boolean[] {false, true}) {
+            CommunityStructure<Integer, Integer> result = leiden
+                    ? CommunityDetection.leiden(g, 1, 5) : CommunityDetection.louvain(g, 1, 5);
+            Assert.assertEquals(8, result.count());
+            for (int clique = 0; clique < 8; clique++) {
+                int community = result.community(clique * 6);
+                Set<Integer> expected = new HashSet<Integer>();
+                for (int i = 0; i < 6; i++) {
+                    expected.add(clique * 6 + i);
+                }
+                Assert.assertEquals(expected, result.members(community));
+                Assert.assertEquals(15.0, result.internalWeight(community), DELTA);
+            }
+            Assert.assertEquals(CommunityDetection.modularity(g, result.getCommunities(), 1),
+                    result.getModularity(), DELTA);
+
+            UndirectedGraph<Integer, Double> aggregate = result.getAggregateGraph();
+            Assert.assertEquals(8, aggregate.vertices().size());
+            for (int c = 0; c < 8; c++) {
+                Assert.assertEquals(2, aggregate.neighbors(c).size());
+                for (Edge<Integer, Double> edge : aggregate.neighbors(c)) {
+                    Assert.assertEquals(1.0, edge.getValue(), DELTA);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests the modularity of trivial divisions: a single community has modularity 0, and
+     * singletons have negative modularity.
+     */
+    @Test
+    public void testModularity() {
+        CompactGraph<Integer, Integer> g = ringOfCliques(4, 4);
+        int[] communities = new int[g.size()];
+        Assert.assertEquals(0.0, CommunityDetection.modularity(g, communities, 1), DELTA);
+        for (int v = 0; v < communities.length; v++) {
+            communities[v] = v;
+        }
+        Assert.assertTrue(CommunityDetection.modularity(g, communities, 1) < 0);
+    }
+
+    /**
+     * Tests that groups planted in a random graph are recovered, with the same result for the
+     * same seed.
+     */
+    @Test
+    public void testPlantedPartition() {
+        int groups = 4;
+        int size = 50;
+        Random random = new Random(3);
+        UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        for (int v = 0; v < groups * size; v++) {
+            g.addVertex(v);
+        }
+        for (int v = 0; v < groups * size; v++) {
+            for (int w = v + 1; w < groups * size; w++) {
+                double p = v / size == w / size ? 0.3 : 0.01;
+                if (random.nextDouble() < p) {
+                    g.addEdge(v, w, 1 + random.nextInt(3));
+                }
+            }
+        }
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        for (boolean leiden : new boolean[] {false, true}) {
+            CommunityStructure<Integer, Integer> result = leiden
+                    ? CommunityDetection.leiden(compact, 1, 9)
+                    : CommunityDetection.louvain(compact, 1, 9);
+            Assert.assertEquals(groups, result.count());
+            for (int v = 0; v < groups * size; v++) {
+                Assert.assertEquals(result.community((v / size) * size), result.community(v));
+            }
+            Assert.assertTrue(result.getModularity() > 0.5);
+
+            CommunityStructure<Integer, Integer> again = leiden
+                    ? CommunityDetection.leiden(compact, 1, 9)
+                    : CommunityDetection.louvain(compact, 1, 9);
+            Assert.assertTrue(Arrays.equals(result.getCommunities(), again.getCommunities()));
+        }
+    }
+
+    /**
+     * Tests that the communities found by Leiden on sparse random graphs are connected and
+     * have positive modularity.
+     */
+    @Test
+    public void testLeidenCommunitiesConnected() {
+        for (int seed = 0; seed < 5; seed++) {
+            UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+            TestUtil.populateRandomGraph(g, 2000, 3000, 5, seed);
+            CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+            CommunityStructure<Integer, Integer> result =
+                    CommunityDetection.leiden(compact, 1, seed);
+            Assert.assertTrue(result.getModularity() > 0);
+
+            int[] communities = result.getCommunities();
+            boolean[] visited = new boolean[compact.size()];
+            boolean[] seen = new boolean[result.count()];
+            for (int v = 0; v < compact.size(); v++) {
+                if (visited[v]) {
+                    continue;
+                }
+                // every community must be reached from exactly one of its members
+                Assert.assertFalse(seen[communities[v]]);
+                seen[communities[v]] = true;
+                Deque<Integer> stack = new ArrayDeque<Integer>();
+                stack.push(v);
+                visited[v] = true;
+                while (!stack.isEmpty()) {
+                    int u = stack.pop();
+                    for (int i = 0; i < compact.outDegree(u); i++) {
+                        int w = compact.target(u, i);
+                        if (!visited[w] && communities[w] == communities[v]) {
+                            visited[w] = true;
+                            stack.push(w);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return count cliques of the given size, each joined to the next by a single edge.
+     */
+    private static CompactGraph<Integer, Integer> ringOfCliques(int count, int size) {
+        UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        for (int v = 0; v < count * size; v++) {
+            g.addVertex(v);
+        }
+        for (int clique = 0; clique < count; clique++) {
+            int first = clique * size;
+            for (int i = 0; i < size; i++) {
+                for (int j = i + 1; j < size; j++) {
+                    g.addEdge(first + i, first + j, 1);
+                }
+            }
+            g.addEdge(first + size - 1, ((clique + 1) % count) * size, 1);
+        }
+        return new CompactGraph<Integer, Integer>(g);
+    }
+}
@@ -0,0 +1,110 @@
+package com.killeent;
+
+import com.killeent.Graph.CompactGraph;
+import com.killeent.Graph.DirectedHashGraph;
+import com.killeent.Graph.SimpleLabeledGraph;
+import com.killeent.Graph.UndirectedHashGraph;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests for the {@link com.killeent.Graph.CompactGraph}.
+ */
+public class CompactGraphTest {
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompactGraphNullGraph() {
+        new CompactGraph<Integer, Integer>(null);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when looking up a vertex not in
+     * the graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompactGraphMissingVertex() {
+        new CompactGraph<Integer, Integer>(new DirectedHashGraph<Integer, Integer>()).id(1);
+    }
+
+    /**
+     * Tests that the ids and vertices of the snapshot are inverses of each other.
+     */
+    @Test
+    public void testCompactGraphIds() {
+        SimpleLabeledGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 50, 100, 10, 1);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        Assert.assertEquals(50, compact.size());
+        for (int i = 0; i < compact.size(); i++) {
+            Assert.assertEquals(i, compact.id(compact.vertex(i)));
+        }
+        Assert.assertTrue(compact.containsVertex(0));
+        Assert.assertFalse(compact.containsVertex(50));
+        Assert.assertFalse(compact.containsVertex(null));
+    }
+
+    /**
+     * Tests that the outgoing and incoming edges of a directed graph match the original.
+     */
+    @Test
+    public void testCompactGraphDirectedEdges() {
+        SimpleLabeledGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 50, 200, 10, 2);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        Assert.assertTrue(compact.isDirected());
+
+        int edges = 0;
+        int[] inDegrees = new int[compact.size()];
+        for (int u = 0; u < compact.size(); u++) {
+            Assert.assertEquals(g.neighbors(compact.vertex(u)).size(), compact.outDegree(u));
+            for (int i = 0; i < compact.outDegree(u); i++) {
+                int v = compact.target(u, i);
+                Assert.assertTrue(g.containsEdge(compact.vertex(u), compact.vertex(v),
+                        compact.value(u, i)));
+                inDegrees[v]++;
+                edges++;
+            }
+        }
+        Assert.assertEquals(edges, compact.edgeCount());
+
+        for (int v = 0; v < compact.size(); v++) {
+            Assert.assertEquals(inDegrees[v], compact.inDegree(v));
+            Set<Integer> sources = new HashSet<Integer>();
+            for (int i = 0; i < compact.inDegree(v); i++) {
+                sources.add(compact.source(v, i));
+            }
+            for (int u : sources) {
+                boolean found = false;
+                for (int i = 0; i < compact.outDegree(u); i++) {
+                    found |= compact.target(u, i) == v;
+                }
+                Assert.assertTrue(found);
+            }
+        }
+    }
+
+    /**
+     * Tests that the incoming edges of an undirected graph are its outgoing edges.
+     */
+    @Test
+    public void testCompactGraphUndirectedEdges() {
+        SimpleLabeledGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        g.addVertex(1);
+        g.addVertex(2);
+        g.addVertex(3);
+        g.addEdge(1, 2, 5);
+        g.addEdge(2, 3, 6);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        Assert.assertFalse(compact.isDirected());
+        Assert.assertEquals(4, compact.edgeCount());
+        int two = compact.id(2);
+        Assert.assertEquals(2, compact.outDegree(two));
+        Assert.assertEquals(2, compact.inDegree(two));
+    }
+}
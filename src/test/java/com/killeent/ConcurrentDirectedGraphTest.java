@@ -0,0 +1,157 @@
+package com.killeent;
+
+import com.killeent.Graph.CompactGraph;
+import com.killeent.Graph.ConcurrentDirectedHashGraph;
+import com.killeent.Graph.Edge;
+import com.killeent.Graph.SimpleLabeledGraph;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests for the {@link com.killeent.Graph.ConcurrentDirectedHashGraph}.
+ */
+public class ConcurrentDirectedGraphTest extends BaseSimpleLabeledGraphTest {
+
+    @Override
+    protected SimpleLabeledGraph<Integer, Integer> createInstance() {
+        return new ConcurrentDirectedHashGraph<Integer, Integer>();
+    }
+
+    /**
+     * Tests that a neighbors snapshot is not affected by later edge insertions.
+     */
+    @Test
+    public void testConcurrentDirectedGraphNeighborsSnapshot() {
+        instance.addVertex(1);
+        instance.addVertex(2);
+        instance.addVertex(3);
+        instance.addEdge(1, 2, 0);
+        Collection<Edge<Integer, Integer>> snapshot = instance.neighbors(1);
+        instance.addEdge(1, 3, 0);
+        Assert.assertEquals(1, snapshot.size());
+        Assert.assertEquals(2, instance.neighbors(1).size());
+        instance.clear();
+    }
+
+    /**
+     * Adds and removes many edges of one hub vertex, which spans many blocks of its edge
+     * list, checking the list against a reference set and that earlier neighbors snapshots
+     * never change.
+     */
+    @Test
+    public void testConcurrentDirectedGraphHub() {
+        int n = 3000;
+        for (int i = 0; i < n; i++) {
+            instance.addVertex(i);
+        }
+        Random random = new Random(1);
+        Set<Edge<Integer, Integer>> expected = new HashSet<Edge<Integer, Integer>>();
+        List<Collection<Edge<Integer, Integer>>> snapshots =
+                new ArrayList<Collection<Edge<Integer, Integer>>>();
+        List<Set<Edge<Integer, Integer>>> contents = new ArrayList<Set<Edge<Integer, Integer>>>();
+        for (int step = 0; step < 20000; step++) {
+            int target = 1 + random.nextInt(n - 1);
+            int value = random.nextInt(2);
+            if (random.nextInt(3) > 0) {
+                instance.addEdge(0, target, value);
+                expected.add(new Edge<Integer, Integer>(0, target, value));
+            } else {
+                Assert.assertEquals(expected.remove(new Edge<Integer, Integer>(0, target, value)),
+                        instance.removeEdge(0, target, value));
+            }
+            if (step % 1000 == 0) {
+                snapshots.add(instance.neighbors(0));
+                contents.add(new HashSet<Edge<Integer, Integer>>(expected));
+            }
+        }
+        Collection<Edge<Integer, Integer>> neighbors = instance.neighbors(0);
+        Assert.assertEquals(expected.size(), neighbors.size());
+        Assert.assertEquals(expected, new HashSet<Edge<Integer, Integer>>(neighbors));
+        for (int i = 0; i < snapshots.size(); i++) {
+            Assert.assertEquals(contents.get(i).size(), snapshots.get(i).size());
+            Assert.assertEquals(contents.get(i),
+                    new HashSet<Edge<Integer, Integer>>(snapshots.get(i)));
+        }
+        instance.clear();
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when adding a self edge.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConcurrentDirectedGraphSelfEdge() {
+        instance.addVertex(1000);
+        instance.addEdge(1000, new Integer(1000), 0);
+    }
+
+    /**
+     * Has many threads add overlapping edges while others read neighbors and take compact
+     * snapshots, then checks that every edge was added exactly once.
+     */
+    @Test
+    public void testConcurrentDirectedGraphStress() throws InterruptedException {
+        final int n = 200;
+        final int writers = 8;
+        for (int i = 0; i < n; i++) {
+            instance.addVertex(i);
+        }
+
+        final AtomicBoolean failed = new AtomicBoolean();
+        final AtomicBoolean done = new AtomicBoolean();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < writers; t++) {
+            final int offset = t;
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    // every writer adds every edge (i, i + k), starting at a different point
+                    for (int j = 0; j < n * 10; j++) {
+                        int i = (j + offset * 37) % n;
+                        int k = 1 + (j / n);
+                        instance.addEdge(i, (i + k) % n, 0);
+                    }
+                }
+            }));
+        }
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!done.get()) {
+                    for (int i = 0; i < n; i++) {
+                        int count = 0;
+                        for (Edge<Integer, Integer> edge : instance.neighbors(i)) {
+                            count += edge.getSource() == i ? 1 : 0;
+                        }
+                        if (count > 10) {
+                            failed.set(true);
+                        }
+                    }
+                    new CompactGraph<Integer, Integer>(instance);
+                }
+            }
+        });
+        reader.start();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        done.set(true);
+        reader.join();
+
+        Assert.assertFalse(failed.get());
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals(10, instance.neighbors(i).size());
+        }
+        instance.clear();
+    }
+}
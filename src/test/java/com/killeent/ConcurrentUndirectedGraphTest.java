@@ -0,0 +1,155 @@
+package com.killeent;
+
+import com.killeent.Graph.BiconnectedComponents;
+import com.killeent.Graph.CompactGraph;
+import com.killeent.Graph.ConcurrentUndirectedHashGraph;
+import com.killeent.Graph.SimpleLabeledGraph;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests for the {@link com.killeent.Graph.ConcurrentUndirectedHashGraph}.
+ */
+public class ConcurrentUndirectedGraphTest extends BaseSimpleLabeledGraphTest {
+
+    @Override
+    protected SimpleLabeledGraph<Integer, Integer> createInstance() {
+        return new ConcurrentUndirectedHashGraph<Integer, Integer>();
+    }
+
+    /**
+     * Tests that an edge is visible from both endpoints, and removed from both.
+     */
+    @Test
+    public void testConcurrentUndirectedGraphBothDirections() {
+        instance.addVertex(1);
+        instance.addVertex(2);
+        instance.addEdge(1, 2, 5);
+        Assert.assertTrue(instance.containsEdge(2, 1, 5));
+        Assert.assertTrue(instance.removeEdge(2, 1, 5));
+        Assert.assertFalse(instance.containsEdge(1, 2, 5));
+        Assert.assertTrue(instance.neighbors(1).isEmpty());
+        instance.clear();
+    }
+
+    /**
+     * Has many threads add and remove random edges in both orientations, then checks that
+     * every edge is present in both directions or neither, i.e. that the paired updates
+     * neither deadlocked nor interleaved.
+     */
+    @Test
+    public void testConcurrentUndirectedGraphStress() throws InterruptedException {
+        final int n = 50;
+        for (int i = 0; i < n; i++) {
+            instance.addVertex(i);
+        }
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            final Random random = new Random(t);
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 20000; j++) {
+                        int a = random.nextInt(n);
+                        int b = random.nextInt(n);
+                        if (a == b) {
+                            continue;
+                        }
+                        if (random.nextBoolean()) {
+                            instance.addEdge(a, b, 0);
+                        } else {
+                            instance.removeEdge(a, b, 0);
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int a = 0; a < n; a++) {
+            for (int b = 0; b < n; b++) {
+                if (a != b) {
+                    Assert.assertEquals(instance.containsEdge(a, b, 0),
+                            instance.containsEdge(b, a, 0));
+                }
+            }
+            Assert.assertTrue(instance.neighbors(a).size() < n);
+        }
+        instance.clear();
+    }
+
+    /**
+     * Takes snapshots while other threads add and remove edges, checking that every
+     * snapshot holds each edge in both directions or neither, so that algorithms pairing the
+     * two directions of an edge can run on it.
+     */
+    @Test
+    public void testConcurrentUndirectedGraphSnapshot() throws InterruptedException {
+        final int n = 100;
+        for (int i = 0; i < n; i++) {
+            instance.addVertex(i);
+        }
+        final AtomicBoolean done = new AtomicBoolean();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 2; t++) {
+            final Random random = new Random(t);
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    while (!done.get()) {
+                        int a = random.nextInt(n);
+                        int b = random.nextInt(n);
+                        if (a == b) {
+                            continue;
+                        }
+                        if (random.nextInt(3) > 0) {
+                            instance.addEdge(a, b, random.nextInt(3));
+                        } else {
+                            instance.removeEdge(a, b, random.nextInt(3));
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        try {
+            for (int round = 0; round < 300; round++) {
+                CompactGraph<Integer, Integer> g =
+                        ((ConcurrentUndirectedHashGraph<Integer, Integer>) instance).snapshot();
+                Set<String> edges = new HashSet<String>();
+                for (int v = 0; v < g.size(); v++) {
+                    for (int i = 0; i < g.outDegree(v); i++) {
+                        edges.add(g.vertex(v) + ">" + g.vertex(g.target(v, i)) + ":"
+                                + g.value(v, i));
+                    }
+                }
+                for (int v = 0; v < g.size(); v++) {
+                    for (int i = 0; i < g.outDegree(v); i++) {
+                        Assert.assertTrue(edges.contains(g.vertex(g.target(v, i)) + ">"
+                                + g.vertex(v) + ":" + g.value(v, i)));
+                    }
+                }
+                new BiconnectedComponents<Integer, Integer>(g);
+            }
+        } finally {
+            done.set(true);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            instance.clear();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link com.killeent.Graph.DistanceOracle} and
+ * {@link com.killeent.Graph.Graphs#aStarPath}.
+ */
+public class DistanceOracleTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGraph() {
+        DistanceOracle.unweighted(null, 4);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when asking for no landmarks.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoLandmarks() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        g.addVertex(1);
+        DistanceOracle.unweighted(new CompactGraph<Integer, Integer>(g), 0);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when an edge weight is negative.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeWeight() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        g.addVertex(1);
+        g.addVertex(2);
+        g.addEdge(1, 2, -1);
+        Graphs.distanceOracle(g, 1);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when running A* with an oracle
+     * over hop counts.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testAStarUnweightedOracle() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        g.addVertex(1);
+        DistanceOracle<Integer, Integer> oracle =
+                DistanceOracle.unweighted(new CompactGraph<Integer, Integer>(g), 1);
+        Graphs.aStarPath(oracle, 1, 1, new ArrayList<Edge<Integer, Integer>>());
+    }
+
+    /**
+     * Tests that the bounds hold on random directed and undirected graphs, weighted and not,
+     * and are exact from the landmarks.
+     */
+    @Test
+    public void testBounds() {
+        for (int shape = 0; shape < 4; shape++) {
+            boolean directed = shape % 2 == 0;
+            boolean weighted = shape / 2 == 0;
+            SimpleLabeledGraph<Integer, Integer> g = directed
+                    ? new DirectedHashGraph<Integer, Integer>()
+                    : new UndirectedHashGraph<Integer, Integer>();
+            TestUtil.populateRandomGraph(g, 300, 700, 10, shape);
+            CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+            DistanceOracle<Integer, Integer> oracle = weighted
+                    ? DistanceOracle.weighted(compact, 8)
+                    : DistanceOracle.unweighted(compact, 8);
+            Assert.assertEquals(8, oracle.landmarkCount());
+            Assert.assertEquals(weighted, oracle.isWeighted());
+
+            for (int source = 0; source < compact.size(); source += 7) {
+                long[] exact = distances(compact, source, weighted);
+                for (int target = 0; target < compact.size(); target++) {
+                    long lower = oracle.lowerBoundId(source, target);
+                    long upper = oracle.upperBoundId(source, target);
+                    Assert.assertTrue(lower <= exact[target]);
+                    Assert.assertTrue(upper >= exact[target]);
+                }
+            }
+            for (int l = 0; l < oracle.landmarkCount(); l++) {
+                int landmark = compact.id(oracle.landmark(l));
+                long[] exact = distances(compact, landmark, weighted);
+                for (int target = 0; target < compact.size(); target++) {
+                    Assert.assertEquals(exact[target], oracle.upperBoundId(landmark, target));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that A* finds paths as short as Dijkstra's algorithm does.
+     */
+    @Test
+    public void testAStar() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 500, 1500, 20, 11);
+        DistanceOracle<Integer, Integer> oracle = Graphs.distanceOracle(g, 6);
+        for (int i = 0; i < 50; i++) {
+            int start = (i * 37) % 500;
+            int end = (i * 101 + 3) % 500;
+            List<Edge<Integer, Integer>> expected = new ArrayList<Edge<Integer, Integer>>();
+            List<Edge<Integer, Integer>> actual = new ArrayList<Edge<Integer, Integer>>();
+            boolean found = Graphs.djikstrasPath(g, start, end, expected);
+            Assert.assertEquals(found, Graphs.aStarPath(oracle, start, end, actual));
+            Assert.assertEquals(weight(expected), weight(actual));
+            if (found && start != end) {
+                Assert.assertEquals(start, (int) actual.get(0).getSource());
+                Assert.assertEquals(end, (int) actual.get(actual.size() - 1).getDestination());
+            }
+        }
+    }
+
+    /**
+     * Tests that an oracle opened from a file, over a different snapshot of the same graph,
+     * answers like the one that was written.
+     */
+    @Test
+    public void testWriteAndOpen() throws IOException {
+        for (boolean directed : new boolean[] {true, false}) {
+            SimpleLabeledGraph<Integer, Integer> g = directed
+                    ? new DirectedHashGraph<Integer, Integer>()
+                    : new UndirectedHashGraph<Integer, Integer>();
+            TestUtil.populateRandomGraph(g, 200, 500, 5, 2);
+            DistanceOracle<Integer, Integer> oracle = Graphs.distanceOracle(g, 5);
+            File file = folder.newFile();
+            oracle.write(file);
+
+            // a snapshot with the vertices in the reverse order
+            SimpleLabeledGraph<Integer, Integer> copy = directed
+                    ? new DirectedHashGraph<Integer, Integer>()
+                    : new UndirectedHashGraph<Integer, Integer>();
+            for (int v = 199; v >= 0; v--) {
+                copy.addVertex(v);
+            }
+            for (int v = 0; v < 200; v++) {
+                for (Edge<Integer, Integer> edge : g.neighbors(v)) {
+                    if (directed || v < edge.getDestination()) {
+                        copy.addEdge(v, edge.getDestination(), edge.getValue());
+                    }
+                }
+            }
+            DistanceOracle<Integer, Integer> opened =
+                    DistanceOracle.open(file, new CompactGraph<Integer, Integer>(copy));
+            Assert.assertTrue(opened.isWeighted());
+            for (int l = 0; l < 5; l++) {
+                Assert.assertEquals(oracle.landmark(l), opened.landmark(l));
+            }
+            for (int a = 0; a < 200; a += 3) {
+                for (int b = 0; b < 200; b++) {
+                    Assert.assertEquals(oracle.lowerBound(a, b), opened.lowerBound(a, b));
+                    Assert.assertEquals(oracle.upperBound(a, b), opened.upperBound(a, b));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when opening an oracle file over a
+     * graph of a different size.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testOpenDifferentGraph() throws IOException {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 20, 40, 5, 1);
+        File file = folder.newFile();
+        Graphs.distanceOracle(g, 2).write(file);
+        g.addVertex(20);
+        DistanceOracle.open(file, new CompactGraph<Integer, Integer>(g));
+    }
+
+    /**
+     * @return The exact distances from the source, by a quadratic Dijkstra's algorithm.
+     */
+    private static long[] distances(CompactGraph<Integer, Integer> g, int source,
+                                    boolean weighted) {
+        int n = g.size();
+        long[] result = new long[n];
+        Arrays.fill(result, DistanceOracle.INFINITE);
+        boolean[] done = new boolean[n];
+        result[source] = 0;
+        for (int round = 0; round < n; round++) {
+            int best = -1;
+            for (int v = 0; v < n; v++) {
+                if (!done[v] && result[v] != DistanceOracle.INFINITE
+                        && (best < 0 || result[v] < result[best])) {
+                    best = v;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            done[best] = true;
+            for (int i = 0; i < g.outDegree(best); i++) {
+                long weight = weighted ? g.value(best, i) : 1;
+                int target = g.target(best, i);
+                result[target] = Math.min(result[target], result[best] + weight);
+            }
+        }
+        return result;
+    }
+
+    private static long weight(List<Edge<Integer, Integer>> path) {
+        long total = 0;
+        for (Edge<Integer, Integer> edge : path) {
+            total += edge.getValue();
+        }
+        return total;
+    }
+}
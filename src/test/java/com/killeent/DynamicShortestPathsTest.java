@@ -0,0 +1,194 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Tests for the {@link com.killeent.Graph.DynamicShortestPaths}.
+ */
+public class DynamicShortestPathsTest {
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when the source is null.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullSource() {
+        new DynamicShortestPaths<Integer>(null);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when an edge weight is not
+     * positive.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroWeight() {
+        DynamicShortestPaths<Integer> g = new DynamicShortestPaths<Integer>(0);
+        g.addVertex(1);
+        g.addEdge(0, 1, 0);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when asking for the distance of a
+     * vertex that is not in the graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testDistanceMissingVertex() {
+        new DynamicShortestPaths<Integer>(0).distance(1);
+    }
+
+    /**
+     * Tests that distances and paths follow inserted shortcuts and fall back to detours when
+     * edges are removed or reweighted.
+     */
+    @Test
+    public void testUpdates() {
+        DynamicShortestPaths<Integer> g = new DynamicShortestPaths<Integer>(0);
+        for (int i = 1; i < 5; i++) {
+            g.addVertex(i);
+        }
+        g.addEdge(0, 1, 5);
+        g.addEdge(1, 2, 5);
+        g.addEdge(2, 3, 5);
+        Assert.assertEquals(0, g.distance(0));
+        Assert.assertEquals(15, g.distance(3));
+        Assert.assertEquals(-1, g.distance(4));
+
+        g.addEdge(0, 2, 3);
+        Assert.assertEquals(8, g.distance(3));
+        List<Edge<Integer, Integer>> path = new ArrayList<Edge<Integer, Integer>>();
+        Assert.assertTrue(g.path(3, path));
+        TestUtil.assertListEquals(Arrays.asList(new Edge<Integer, Integer>(0, 2, 3),
+                new Edge<Integer, Integer>(2, 3, 5)), path);
+
+        // reweight the shortcut: remove it and add it back heavier
+        g.removeEdge(0, 2, 3);
+        g.addEdge(0, 2, 20);
+        Assert.assertEquals(10, g.distance(2));
+        Assert.assertEquals(15, g.distance(3));
+
+        g.removeEdge(1, 2, 5);
+        Assert.assertEquals(20, g.distance(2));
+        g.removeEdge(0, 2, 20);
+        Assert.assertEquals(-1, g.distance(3));
+        path.clear();
+        Assert.assertFalse(g.path(3, path));
+        Assert.assertTrue(path.isEmpty());
+
+        g.clear();
+        Assert.assertEquals(Collections.singleton(0), g.vertices());
+        Assert.assertEquals(0, g.distance(0));
+    }
+
+    /**
+     * Tests that removing one of two equally short paths keeps the distance and moves the
+     * tree onto the other path.
+     */
+    @Test
+    public void testRemoveTiedEdge() {
+        DynamicShortestPaths<Integer> g = new DynamicShortestPaths<Integer>(0);
+        for (int i = 1; i < 5; i++) {
+            g.addVertex(i);
+        }
+        g.addEdge(0, 1, 1);
+        g.addEdge(0, 2, 1);
+        g.addEdge(1, 3, 1);
+        g.addEdge(2, 3, 1);
+        g.addEdge(3, 4, 1);
+        List<Edge<Integer, Integer>> path = new ArrayList<Edge<Integer, Integer>>();
+        g.path(4, path);
+        int via = path.get(0).getDestination();
+        g.removeEdge(0, via, 1);
+        Assert.assertEquals(3, g.distance(4));
+        path.clear();
+        g.path(4, path);
+        Assert.assertEquals(3 - via, (int) path.get(0).getDestination());
+    }
+
+    /**
+     * Tests that the tree matches a fresh run of Djikstra's algorithm after every update of a
+     * long random sequence of insertions, removals and reweightings.
+     */
+    @Test
+    public void testRandomUpdates() {
+        for (long seed = 0; seed < 5; seed++) {
+            Random random = new Random(seed);
+            int n = 60;
+            DirectedGraph<Integer, Integer> initial = new DirectedHashGraph<Integer, Integer>();
+            for (int i = 0; i < n; i++) {
+                initial.addVertex(i);
+            }
+            List<Edge<Integer, Integer>> edges = new ArrayList<Edge<Integer, Integer>>();
+            for (int i = 0; i < 150; i++) {
+                int a = random.nextInt(n);
+                int b = random.nextInt(n);
+                int w = random.nextInt(5) + 1;
+                if (a != b && !initial.containsEdge(a, b, w)) {
+                    initial.addEdge(a, b, w);
+                    edges.add(new Edge<Integer, Integer>(a, b, w));
+                }
+            }
+            DynamicShortestPaths<Integer> g = new DynamicShortestPaths<Integer>(initial, 0);
+            assertShortestPaths(g, n);
+
+            for (int update = 0; update < 300; update++) {
+                int choice = random.nextInt(3);
+                if (choice == 0 || edges.isEmpty()) {
+                    int a = random.nextInt(n);
+                    int b = random.nextInt(n);
+                    int w = random.nextInt(5) + 1;
+                    if (a != b && !g.containsEdge(a, b, w)) {
+                        g.addEdge(a, b, w);
+                        edges.add(new Edge<Integer, Integer>(a, b, w));
+                    }
+                } else {
+                    Edge<Integer, Integer> edge = edges.remove(random.nextInt(edges.size()));
+                    Assert.assertTrue(g.removeEdge(edge.getSource(), edge.getDestination(),
+                            edge.getValue()));
+                    int w = random.nextInt(5) + 1;
+                    if (choice == 2 && !g.containsEdge(edge.getSource(), edge.getDestination(), w)) {
+                        g.addEdge(edge.getSource(), edge.getDestination(), w);
+                        edges.add(new Edge<Integer, Integer>(edge.getSource(),
+                                edge.getDestination(), w));
+                    }
+                }
+                assertShortestPaths(g, n);
+            }
+        }
+    }
+
+    /**
+     * Asserts that every distance matches Djikstra's algorithm, and that every tree path is
+     * made of graph edges and is as long as the distance.
+     */
+    private static void assertShortestPaths(DynamicShortestPaths<Integer> g, int n) {
+        for (int v = 0; v < n; v++) {
+            List<Edge<Integer, Integer>> expected = new ArrayList<Edge<Integer, Integer>>();
+            boolean reachable = Graphs.djikstrasPath(g, 0, v, expected);
+            List<Edge<Integer, Integer>> actual = new ArrayList<Edge<Integer, Integer>>();
+            Assert.assertEquals(reachable, g.path(v, actual));
+            Assert.assertEquals(reachable ? cost(expected) : -1, g.distance(v));
+            if (reachable) {
+                Assert.assertEquals(cost(expected), cost(actual));
+                int previous = 0;
+                for (Edge<Integer, Integer> edge : actual) {
+                    Assert.assertEquals(previous, (int) edge.getSource());
+                    Assert.assertTrue(g.containsEdge(edge.getSource(), edge.getDestination(),
+                            edge.getValue()));
+                    previous = edge.getDestination();
+                }
+                Assert.assertEquals(v, previous);
+            }
+        }
+    }
+
+    private static long cost(List<Edge<Integer, Integer>> path) {
+        long cost = 0;
+        for (Edge<Integer, Integer> edge : path) {
+            cost += edge.getValue();
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,211 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Tests for {@link com.killeent.Graph.EdgeListLoader}.
+ */
+public class EdgeListLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null file.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullFile() {
+        new EdgeListLoader(null, EdgeListLoader.Format.TEXT, true, false);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when a line has no destination.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedLine() throws IOException {
+        File file = text("1 2\n3\n");
+        new EdgeListLoader(file, EdgeListLoader.Format.TEXT, true, false).loadCompact();
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when a line of an unweighted file
+     * has a third field.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testExtraField() throws IOException {
+        File file = text("1 2\n1 2 3\n");
+        new EdgeListLoader(file, EdgeListLoader.Format.TEXT, true, false).loadCompact();
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when a line of a weighted file has
+     * a field after its weight.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testExtraWeightedField() throws IOException {
+        File file = text("1 2 3 4\n");
+        new EdgeListLoader(file, EdgeListLoader.Format.TEXT, true, true).loadCompact();
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when a binary file ends inside a
+     * record.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedBinary() throws IOException {
+        File file = folder.newFile();
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[17]);
+        out.close();
+        new EdgeListLoader(file, EdgeListLoader.Format.BINARY, true, false).loadCompact();
+    }
+
+    /**
+     * Tests a small weighted text file with comments, blank lines, mixed separators, CRLF
+     * line ends, negative ids, a self loop and a repeated edge.
+     */
+    @Test
+    public void testSmallText() throws IOException {
+        File file = text("# a comment\n% another\n5 7 3\r\n\n  -2,5\t10\n5 7 3\n7 7 1\n"
+                + "7 -2 4\n5 -2");
+        EdgeListLoader loader = new EdgeListLoader(file, EdgeListLoader.Format.TEXT, true, true);
+        Assert.assertEquals(EdgeListLoader.Phase.WAITING, loader.getPhase());
+        CompactGraph<Long, Integer> g = loader.loadCompact();
+        Assert.assertEquals(EdgeListLoader.Phase.DONE, loader.getPhase());
+        Assert.assertEquals(file.length(), loader.getBytesParsed());
+        Assert.assertEquals(file.length(), loader.getTotalBytes());
+        Assert.assertEquals(6, loader.getEdgesParsed());
+        Assert.assertEquals(1.0, loader.getProgress());
+
+        Assert.assertEquals(3, g.size());
+        Assert.assertTrue(g.isDirected());
+        // ids follow the order of the vertices
+        Assert.assertEquals(-2L, (long) g.vertex(0));
+        Assert.assertEquals(5L, (long) g.vertex(1));
+        Assert.assertEquals(7L, (long) g.vertex(2));
+        Assert.assertEquals(edges("-2>5:10", "5>-2:1", "5>7:3", "7>-2:4"), edges(g));
+
+        SimpleLabeledGraph<Long, Integer> hash = loader.loadHashGraph();
+        Assert.assertTrue(hash instanceof DirectedHashGraph);
+        Assert.assertEquals(edges(g), edges(new CompactGraph<Long, Integer>(hash)));
+    }
+
+    /**
+     * Tests that an undirected load stores every edge in both directions, once.
+     */
+    @Test
+    public void testUndirected() throws IOException {
+        File file = text("1 2\n2 1\n2 3\n");
+        EdgeListLoader loader =
+                new EdgeListLoader(file, EdgeListLoader.Format.TEXT, false, false);
+        CompactGraph<Long, Integer> g = loader.loadCompact();
+        Assert.assertFalse(g.isDirected());
+        Assert.assertEquals(edges("1>2:1", "2>1:1", "2>3:1", "3>2:1"), edges(g));
+        SimpleLabeledGraph<Long, Integer> hash = loader.loadHashGraph();
+        Assert.assertTrue(hash instanceof UndirectedHashGraph);
+        Assert.assertEquals(edges(g), edges(new CompactGraph<Long, Integer>(hash)));
+    }
+
+    /**
+     * Tests a text file whose last line has no line end and crosses the 16 MB boundary
+     * between two chunks.
+     */
+    @Test
+    public void testUnterminatedLastLineAcrossChunks() throws IOException {
+        int chunk = 1 << 24;
+        File file = folder.newFile();
+        Writer out = new BufferedWriter(new FileWriter(file));
+        int lines = (chunk - 8) / 4;
+        for (int i = 0; i < lines; i++) {
+            out.write("1 2\n");
+        }
+        out.write("30 40000000");
+        out.close();
+        Assert.assertTrue(file.length() > chunk);
+
+        EdgeListLoader loader = new EdgeListLoader(file, EdgeListLoader.Format.TEXT, true, false);
+        CompactGraph<Long, Integer> g = loader.loadCompact();
+        Assert.assertEquals(lines + 1, loader.getEdgesParsed());
+        Assert.assertEquals(edges("1>2:1", "30>40000000:1"), edges(g));
+    }
+
+    /**
+     * Tests a file of about 30 MB, which is parsed in several chunks, in both formats.
+     */
+    @Test
+    public void testLargeFile() throws IOException {
+        int lines = 1500000;
+        File textFile = folder.newFile();
+        File binaryFile = folder.newFile();
+        Writer text = new BufferedWriter(new FileWriter(textFile));
+        DataOutputStream binary = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(binaryFile)));
+        for (int i = 0; i < lines; i++) {
+            long source = 1000000000L + i;
+            long destination = 1000000000L + (i * 7919L) % lines;
+            int weight = i % 1000;
+            text.write(source + " " + destination + " " + weight + "\n");
+            binary.writeLong(source);
+            binary.writeLong(destination);
+            binary.writeInt(weight);
+        }
+        text.close();
+        binary.close();
+
+        EdgeListLoader.Format[] formats = {EdgeListLoader.Format.TEXT,
+                EdgeListLoader.Format.BINARY};
+        File[] files = {textFile, binaryFile};
+        for (int f = 0; f < 2; f++) {
+            EdgeListLoader loader = new EdgeListLoader(files[f], formats[f], true, true);
+            CompactGraph<Long, Integer> g = loader.loadCompact();
+            Assert.assertEquals(files[f].length(), loader.getBytesParsed());
+            Assert.assertEquals(lines, loader.getEdgesParsed());
+            Assert.assertEquals(lines, g.size());
+            // every vertex that does not map to itself has exactly one out edge
+            int edges = 0;
+            for (int i = 0; i < lines; i++) {
+                int id = g.id(1000000000L + i);
+                if ((i * 7919L) % lines == i) {
+                    Assert.assertEquals(0, g.outDegree(id));
+                    continue;
+                }
+                edges++;
+                Assert.assertEquals(1, g.outDegree(id));
+                Assert.assertEquals(1000000000L + (i * 7919L) % lines,
+                        (long) g.vertex(g.target(id, 0)));
+                Assert.assertEquals(i % 1000, (int) g.value(id, 0));
+            }
+            Assert.assertEquals(edges, g.edgeCount());
+        }
+    }
+
+    private File text(String contents) throws IOException {
+        File file = folder.newFile();
+        Writer out = new FileWriter(file);
+        out.write(contents);
+        out.close();
+        return file;
+    }
+
+    private static Set<String> edges(String... edges) {
+        return new HashSet<String>(Arrays.asList(edges));
+    }
+
+    private static Set<String> edges(CompactGraph<Long, Integer> g) {
+        Set<String> result = new HashSet<String>();
+        for (int v = 0; v < g.size(); v++) {
+            for (int i = 0; i < g.outDegree(v); i++) {
+                Assert.assertTrue(result.add(g.vertex(v) + ">" + g.vertex(g.target(v, i)) + ":"
+                        + g.value(v, i)));
+            }
+        }
+        return result;
+    }
+}
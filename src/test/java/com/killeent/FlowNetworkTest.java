@@ -0,0 +1,227 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Tests for {@link com.killeent.Graph.FlowNetwork}.
+ */
+public class FlowNetworkTest {
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGraph() {
+        new FlowNetwork<Integer>(null);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when a capacity is negative.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeCapacity() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        g.addVertex(1);
+        g.addVertex(2);
+        g.addEdge(1, 2, -3);
+        new FlowNetwork<Integer>(g);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when the source is the sink.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testSourceIsSink() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        g.addVertex(1);
+        new FlowNetwork<Integer>(g).dinic(1, 1);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalStateException} when asking for a cut before computing
+     * a flow.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testMinCutBeforeFlow() {
+        new FlowNetwork<Integer>(new DirectedHashGraph<Integer, Integer>()).minCut();
+    }
+
+    /**
+     * Tests the classic CLRS network, whose maximum flow is 23.
+     */
+    @Test
+    public void testTextbookNetwork() {
+        DirectedGraph<String, Integer> g = new DirectedHashGraph<String, Integer>();
+        for (String vertex : new String[] {"s", "v1", "v2", "v3", "v4", "t"}) {
+            g.addVertex(vertex);
+        }
+        g.addEdge("s", "v1", 16);
+        g.addEdge("s", "v2", 13);
+        g.addEdge("v2", "v1", 4);
+        g.addEdge("v1", "v3", 12);
+        g.addEdge("v3", "v2", 9);
+        g.addEdge("v2", "v4", 14);
+        g.addEdge("v4", "v3", 7);
+        g.addEdge("v3", "t", 20);
+        g.addEdge("v4", "t", 4);
+
+        FlowNetwork<String> network = new FlowNetwork<String>(g);
+        Assert.assertEquals(23, network.dinic("s", "t"));
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("s", "v1", "v2", "v4")),
+                network.minCut());
+        Assert.assertEquals(12, network.flow("v1", "v3"));
+        Assert.assertEquals(23, new FlowNetwork<String>(g).pushRelabel("s", "t"));
+        Assert.assertEquals(23, Graphs.maxFlow(g, "s", "t"));
+
+        // raising v4 -> t moves the bottleneck to the cut ({s, v1}, rest), of capacity 25
+        network.setCapacity("v4", "t", 7);
+        Assert.assertEquals(7, network.capacity("v4", "t"));
+        Assert.assertEquals(25, network.pushRelabel("s", "t"));
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("s", "v1")), network.minCut());
+
+        // lowering an edge below its flow repairs the flow before the next query
+        network.setCapacity("v1", "v3", 5);
+        Assert.assertEquals(18, network.dinic("s", "t"));
+    }
+
+    /**
+     * Tests that parallel edges are merged and that a sink out of reach gets no flow.
+     */
+    @Test
+    public void testParallelEdgesAndUnreachableSink() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < 4; i++) {
+            g.addVertex(i);
+        }
+        g.addEdge(0, 1, 3);
+        g.addEdge(0, 1, 4);
+        g.addEdge(1, 2, 10);
+        FlowNetwork<Integer> network = new FlowNetwork<Integer>(g);
+        Assert.assertEquals(7, network.capacity(0, 1));
+        Assert.assertEquals(7, network.dinic(0, 2));
+        Assert.assertEquals(0, network.pushRelabel(0, 3));
+        Assert.assertEquals(new HashSet<Integer>(Arrays.asList(0, 1, 2)), network.minCut());
+    }
+
+    /**
+     * Tests both algorithms against Edmonds-Karp on random networks, checks that the minimum
+     * cut has the capacity of the flow, and that warm-started queries after capacity changes
+     * match a network built from scratch.
+     */
+    @Test
+    public void testRandomNetworks() {
+        for (long seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            int n = 30;
+            long[][] capacity = new long[n][n];
+            DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+            for (int i = 0; i < n; i++) {
+                g.addVertex(i);
+            }
+            for (int i = 0; i < 120; i++) {
+                int a = random.nextInt(n);
+                int b = random.nextInt(n);
+                int c = random.nextInt(20);
+                if (a != b && !g.containsEdge(a, b, c)) {
+                    g.addEdge(a, b, c);
+                    capacity[a][b] += c;
+                }
+            }
+
+            FlowNetwork<Integer> dinic = new FlowNetwork<Integer>(g);
+            FlowNetwork<Integer> pushRelabel = new FlowNetwork<Integer>(g);
+            for (int query = 0; query < 10; query++) {
+                int s = random.nextInt(n);
+                int t = random.nextInt(n);
+                if (s == t) {
+                    continue;
+                }
+                long expected = edmondsKarp(capacity, s, t);
+                Assert.assertEquals(expected, dinic.dinic(s, t));
+                Assert.assertEquals(expected, pushRelabel.pushRelabel(s, t));
+                Assert.assertEquals(expected, cutCapacity(capacity, dinic.minCut()));
+                Assert.assertEquals(expected, cutCapacity(capacity, pushRelabel.minCut()));
+
+                // change a few capacities, both up and down, then query the same pair again
+                for (int change = 0; change < 5; change++) {
+                    int a = random.nextInt(n);
+                    int b = random.nextInt(n);
+                    if (hasEdge(g, a, b)) {
+                        capacity[a][b] = random.nextInt(25);
+                        dinic.setCapacity(a, b, capacity[a][b]);
+                        pushRelabel.setCapacity(a, b, capacity[a][b]);
+                    }
+                }
+                expected = edmondsKarp(capacity, s, t);
+                Assert.assertEquals(expected, dinic.dinic(s, t));
+                Assert.assertEquals(expected, pushRelabel.pushRelabel(s, t));
+                Assert.assertEquals(expected, cutCapacity(capacity, dinic.minCut()));
+            }
+        }
+    }
+
+    private static boolean hasEdge(DirectedGraph<Integer, Integer> g, int a, int b) {
+        for (Edge<Integer, Integer> edge : g.neighbors(a)) {
+            if (edge.getDestination() == b) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long cutCapacity(long[][] capacity, Set<Integer> sourceSide) {
+        long total = 0;
+        for (int a : sourceSide) {
+            for (int b = 0; b < capacity.length; b++) {
+                if (!sourceSide.contains(b)) {
+                    total += capacity[a][b];
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return The maximum flow from s to t in a capacity matrix, by Edmonds-Karp.
+     */
+    private static long edmondsKarp(long[][] capacity, int s, int t) {
+        int n = capacity.length;
+        long[][] residual = new long[n][];
+        for (int i = 0; i < n; i++) {
+            residual[i] = capacity[i].clone();
+        }
+        long flow = 0;
+        while (true) {
+            int[] parents = new int[n];
+            Arrays.fill(parents, -1);
+            parents[s] = s;
+            Deque<Integer> queue = new ArrayDeque<Integer>();
+            queue.add(s);
+            while (!queue.isEmpty() && parents[t] < 0) {
+                int v = queue.remove();
+                for (int w = 0; w < n; w++) {
+                    if (parents[w] < 0 && residual[v][w] > 0) {
+                        parents[w] = v;
+                        queue.add(w);
+                    }
+                }
+            }
+            if (parents[t] < 0) {
+                return flow;
+            }
+            long bottleneck = Long.MAX_VALUE;
+            for (int v = t; v != s; v = parents[v]) {
+                bottleneck = Math.min(bottleneck, residual[parents[v]][v]);
+            }
+            for (int v = t; v != s; v = parents[v]) {
+                residual[parents[v]][v] -= bottleneck;
+                residual[v][parents[v]] += bottleneck;
+            }
+            flow += bottleneck;
+        }
+    }
+}
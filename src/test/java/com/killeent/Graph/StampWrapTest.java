@@ -0,0 +1,47 @@
+package com.killeent.Graph;
+
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that the searches which mark vertices with an int stamp still work when the stamp
+ * wraps around. These tests live in the graph package to set the stamps directly.
+ */
+public class StampWrapTest {
+
+    /**
+     * Tests that an edge closing a cycle is rejected by the search whose stamp wraps to 0,
+     * when every vertex still has the initial mark 0.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncrementalTopologicalOrderWrap() {
+        IncrementalTopologicalOrder<Integer, Integer> g =
+                new IncrementalTopologicalOrder<Integer, Integer>();
+        for (int v = 0; v < 3; v++) {
+            g.addVertex(v);
+        }
+        g.addEdge(0, 1, 0);
+        g.addEdge(1, 2, 0);
+        g.setStamp(-1);
+        g.addEdge(2, 0, 0);
+    }
+
+    /**
+     * Tests that removing a tree edge finds the vertices below it in the repair whose stamp
+     * wraps to 0: s -1-> a -1-> b and s -5-> b, then s -> a is removed.
+     */
+    @Test
+    public void testDynamicShortestPathsWrap() {
+        DynamicShortestPaths<String> g = new DynamicShortestPaths<String>("s");
+        g.addVertex("a");
+        g.addVertex("b");
+        g.addEdge("s", "a", 1);
+        g.addEdge("a", "b", 1);
+        g.addEdge("s", "b", 5);
+        Assert.assertEquals(2, g.distance("b"));
+        g.setStamp(-1);
+        g.removeEdge("s", "a", 1);
+        Assert.assertEquals(-1, g.distance("a"));
+        Assert.assertEquals(5, g.distance("b"));
+    }
+}
@@ -0,0 +1,1043 @@
+package com.killeent;
+
+import com.killeent.Graph.Assignment;
+import com.killeent.Graph.BipartiteMatching;
+import com.killeent.Graph.Centrality;
+import com.killeent.Graph.CommunityDetection;
+import com.killeent.Graph.CommunityStructure;
+import com.killeent.Graph.CompactGraph;
+import com.killeent.Graph.CompactTemporalGraph;
+import com.killeent.Graph.ConcurrentDirectedHashGraph;
+import com.killeent.Graph.ConnectedComponents;
+import com.killeent.Graph.CoreDecomposition;
+import com.killeent.Graph.DirectedHashGraph;
+import com.killeent.Graph.DistanceOracle;
+import com.killeent.Graph.DynamicShortestPaths;
+import com.killeent.Graph.Edge;
+import com.killeent.Graph.EdgeListLoader;
+import com.killeent.Graph.FlowNetwork;
+import com.killeent.Graph.GraphCodec;
+import com.killeent.Graph.GraphSampling;
+import com.killeent.Graph.Graphs;
+import com.killeent.Graph.IncrementalConnectedComponents;
+import com.killeent.Graph.KShortestPaths;
+import com.killeent.Graph.LinkAnalysis;
+import com.killeent.Graph.MappedDirectedGraph;
+import com.killeent.Graph.MappedGraph;
+import com.killeent.Graph.Matching;
+import com.killeent.Graph.NeighborhoodFunction;
+import com.killeent.Graph.ReachabilityIndex;
+import com.killeent.Graph.SimpleLabeledGraph;
+import com.killeent.Graph.SpanningTrees;
+import com.killeent.Graph.TemporalEdge;
+import com.killeent.Graph.TemporalGraph;
+import com.killeent.Graph.TemporalPaths;
+import com.killeent.Graph.Triangles;
+import com.killeent.Graph.UndirectedHashGraph;
+import com.killeent.UnionFind.UnionFind;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micro-benchmarks for the graph package. These are not run as part of the unit tests; after
+ * `mvn test-compile`, run them with
+ *
+ *   java -cp target/classes:target/test-classes com.killeent.GraphBenchmark [name ...]
+ *
+ * where each name selects one benchmark (all of them are run if none is given).
+ */
+public class GraphBenchmark {
+
+    private static final String[] BENCHMARKS = {"concurrent", "mapped", "pagerank", "centrality",
+            "components", "spanning", "flow", "dynamic", "triangles",
+            "communities", "reachability", "oracle", "kpaths", "matching",
+            "loader", "sampling", "temporal"};
+
+    public static void main(String[] args) throws Exception {
+        List<String> selected = Arrays.asList(args.length == 0 ? BENCHMARKS : args);
+        if (selected.contains("concurrent")) {
+            concurrentGraph();
+        }
+        if (selected.contains("mapped")) {
+            mappedGraph();
+        }
+        if (selected.contains("pagerank")) {
+            pageRank();
+        }
+        if (selected.contains("centrality")) {
+            centrality();
+        }
+        if (selected.contains("components")) {
+            components();
+        }
+        if (selected.contains("spanning")) {
+            spanningTrees();
+        }
+        if (selected.contains("flow")) {
+            maxFlow();
+        }
+        if (selected.contains("dynamic")) {
+            dynamicShortestPaths();
+        }
+        if (selected.contains("triangles")) {
+            triangles();
+        }
+        if (selected.contains("communities")) {
+            communities();
+        }
+        if (selected.contains("reachability")) {
+            reachability();
+        }
+        if (selected.contains("oracle")) {
+            distanceOracle();
+        }
+        if (selected.contains("kpaths")) {
+            kShortestPaths();
+        }
+        if (selected.contains("matching")) {
+            matching();
+        }
+        if (selected.contains("loader")) {
+            edgeListLoader();
+        }
+        if (selected.contains("sampling")) {
+            sampling();
+        }
+        if (selected.contains("temporal")) {
+            temporal();
+        }
+    }
+
+    /**
+     * Measures the throughput of a mixed workload - 80% neighbors() scans, 20% addEdge() - on
+     * a ConcurrentDirectedHashGraph and on a DirectedHashGraph behind one global lock, as the
+     * number of threads grows from 1 to 64.
+     */
+    private static void concurrentGraph() throws InterruptedException {
+        final int n = 100000;
+        System.out.println("concurrent: mixed 80% neighbors / 20% addEdge, " + n + " vertices");
+        System.out.println("threads\tconcurrent ops/s\tglobal lock ops/s");
+        for (int threads = 1; threads <= 64; threads *= 2) {
+            ConcurrentDirectedHashGraph<Integer, Integer> concurrent =
+                    new ConcurrentDirectedHashGraph<Integer, Integer>();
+            DirectedHashGraph<Integer, Integer> locked = new DirectedHashGraph<Integer, Integer>();
+            TestUtil.populateRandomGraph(concurrent, n, 4 * n, 100, threads);
+            TestUtil.populateRandomGraph(locked, n, 4 * n, 100, threads);
+            long a = mixedWorkload(concurrent, n, threads, false);
+            long b = mixedWorkload(locked, n, threads, true);
+            System.out.println(threads + "\t" + a + "\t" + b);
+        }
+    }
+
+    /**
+     * Compares the time to rebuild a DirectedHashGraph edge by edge with the time to open the
+     * same graph from a graph file, and to read every edge of the mapped graph.
+     */
+    private static void mappedGraph() throws IOException {
+        final int n = 1000000;
+        System.out.println("mapped: " + n + " vertices, " + 4 * n + " edges");
+        long start = System.nanoTime();
+        DirectedHashGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, n, 4 * n, 100, 1);
+        System.out.println("build hash graph\t" + millis(start) + " ms");
+
+        File file = File.createTempFile("graph", ".bin");
+        file.deleteOnExit();
+        start = System.nanoTime();
+        MappedGraph.write(g, file, GraphCodec.INTEGER, GraphCodec.INTEGER);
+        System.out.println("write graph file\t" + millis(start) + " ms");
+
+        start = System.nanoTime();
+        MappedDirectedGraph<Integer, Integer> mapped =
+                MappedGraph.openDirected(file, GraphCodec.INTEGER, GraphCodec.INTEGER);
+        System.out.println("open graph file\t" + millis(start) + " ms");
+
+        start = System.nanoTime();
+        long checksum = 0;
+        for (Integer vertex : mapped.vertices()) {
+            for (Edge<Integer, Integer> edge : mapped.neighbors(vertex)) {
+                checksum += edge.getValue();
+            }
+        }
+        System.out.println("scan mapped edges\t" + millis(start) + " ms (checksum " + checksum
+                + ")");
+
+        start = System.nanoTime();
+        new CompactGraph<Integer, Integer>(mapped);
+        System.out.println("compact snapshot\t" + millis(start) + " ms");
+    }
+
+    /**
+     * Times PageRank, a warm-started PageRank after adding edges, personalized PageRank by
+     * push and HITS on a random graph with 1M vertices and 5M edges.
+     */
+    private static void pageRank() {
+        final int n = 1000000;
+        DirectedHashGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, n, 5 * n, 100, 1);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        System.out.println("pagerank: " + compact.size() + " vertices, " + compact.edgeCount()
+                + " edges, " + Runtime.getRuntime().availableProcessors() + " processors");
+
+        long start = System.nanoTime();
+        double[] ranks = LinkAnalysis.pageRank(compact, 0.85, 1e-8, 100, null);
+        System.out.println("pagerank (cold)\t" + millis(start) + " ms");
+
+        Random random = new Random(2);
+        for (int i = 0; i < 1000; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a != b) {
+                g.addEdge(a, b, 1);
+            }
+        }
+        CompactGraph<Integer, Integer> changed = new CompactGraph<Integer, Integer>(g);
+        double[] initial = new double[n];
+        for (int v = 0; v < n; v++) {
+            initial[changed.id(compact.vertex(v))] = ranks[v];
+        }
+        start = System.nanoTime();
+        LinkAnalysis.pageRank(changed, 0.85, 1e-8, 100, initial);
+        System.out.println("pagerank (warm, +1000 edges)\t" + millis(start) + " ms");
+
+        start = System.nanoTime();
+        LinkAnalysis.approximatePersonalizedPageRank(changed, 0, 0.85, 1e-7);
+        System.out.println("personalized pagerank (push)\t" + millis(start) + " ms");
+
+        start = System.nanoTime();
+        LinkAnalysis.HubsAndAuthorities hits = LinkAnalysis.hits(changed, 1e-8, 100, null);
+        System.out.println("hits (" + hits.getIterations() + " iterations)\t" + millis(start)
+                + " ms");
+    }
+
+    /**
+     * Times exact and sampled betweenness centrality, and closeness centrality, on a random
+     * undirected graph with 10000 vertices and 50000 edges.
+     */
+    private static void centrality() {
+        UndirectedHashGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 10000, 50000, 100, 1);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        System.out.println("centrality: " + compact.size() + " vertices, "
+                + compact.edgeCount() / 2 + " edges");
+
+        long start = System.nanoTime();
+        double[] exact = Centrality.betweenness(compact);
+        System.out.println("betweenness (exact)\t" + millis(start) + " ms");
+
+        for (double epsilon : new double[] {0.05, 0.02}) {
+            start = System.nanoTime();
+            double[] estimate = Centrality.approximateBetweenness(compact, epsilon, 0.1, 1);
+            long elapsed = millis(start);
+            double error = 0;
+            for (int v = 0; v < exact.length; v++) {
+                error = Math.max(error, Math.abs(exact[v] - estimate[v]));
+            }
+            System.out.println("betweenness (epsilon " + epsilon + ", "
+                    + Centrality.sampleSize(compact.size(), epsilon, 0.1) + " samples)\t"
+                    + elapsed + " ms\tmax error / n(n-2) = "
+                    + error / compact.size() / (compact.size() - 2));
+        }
+
+        start = System.nanoTime();
+        Centrality.closeness(compact);
+        System.out.println("closeness\t" + millis(start) + " ms");
+    }
+
+    /**
+     * Times connected components on a random undirected graph with 500000 vertices and
+     * 1000000 edges: the parallel lock-free labelling, a sequential union-find over the same
+     * snapshot, and streaming every edge into an IncrementalConnectedComponents.
+     */
+    private static void components() {
+        UndirectedHashGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 500000, 1000000, 100, 1);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        System.out.println("components: " + compact.size() + " vertices, "
+                + compact.edgeCount() / 2 + " edges");
+
+        long start = System.nanoTime();
+        int[] labels = ConnectedComponents.label(compact);
+        System.out.println("parallel union-find (" + ConnectedComponents.count(labels)
+                + " components)\t" + millis(start) + " ms");
+
+        start = System.nanoTime();
+        UnionFind sets = new UnionFind(compact.size());
+        for (int v = 0; v < compact.size(); v++) {
+            for (int i = 0; i < compact.outDegree(v); i++) {
+                sets.union(v, compact.target(v, i));
+            }
+        }
+        System.out.println("sequential union-find (" + sets.sets() + " components)\t"
+                + millis(start) + " ms");
+
+        start = System.nanoTime();
+        IncrementalConnectedComponents<Integer, Integer> incremental =
+                new IncrementalConnectedComponents<Integer, Integer>();
+        for (int v = 0; v < compact.size(); v++) {
+            incremental.addVertex(compact.vertex(v));
+        }
+        for (int v = 0; v < compact.size(); v++) {
+            for (int i = 0; i < compact.outDegree(v); i++) {
+                incremental.addEdge(compact.vertex(v), compact.vertex(compact.target(v, i)),
+                        compact.value(v, i));
+            }
+        }
+        System.out.println("incremental (" + incremental.componentCount() + " components)\t"
+                + millis(start) + " ms");
+    }
+
+    /**
+     * Times Kruskal, Prim and Boruvka on a sparse random graph (200000 vertices, average
+     * degree 8) and a dense one (2000 vertices, average degree 1000).
+     */
+    private static void spanningTrees() {
+        int[][] shapes = {{200000, 800000}, {2000, 1000000}};
+        for (int[] shape : shapes) {
+            UndirectedHashGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+            TestUtil.populateRandomGraph(g, shape[0], shape[1], 1000000, 1);
+            CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+            System.out.println("spanning: " + compact.size() + " vertices, "
+                    + compact.edgeCount() / 2 + " edges");
+            // build the twins outside the timings, as Prim is the only algorithm that uses them
+            SpanningTrees.prim(compact);
+
+            long start = System.nanoTime();
+            int[] tree = SpanningTrees.kruskal(compact);
+            System.out.println("kruskal (weight " + (long) SpanningTrees.weight(compact, tree)
+                    + ")\t" + millis(start) + " ms");
+            start = System.nanoTime();
+            tree = SpanningTrees.prim(compact);
+            System.out.println("prim (weight " + (long) SpanningTrees.weight(compact, tree)
+                    + ")\t" + millis(start) + " ms");
+            start = System.nanoTime();
+            tree = SpanningTrees.boruvka(compact);
+            System.out.println("boruvka (weight " + (long) SpanningTrees.weight(compact, tree)
+                    + ")\t" + millis(start) + " ms");
+        }
+    }
+
+    /**
+     * Times Dinic and push-relabel on a random network with 200000 vertices and 2000000 edges,
+     * then a warm-started query after halving the capacity of every edge out of the source.
+     */
+    private static void maxFlow() {
+        DirectedHashGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 200000, 2000000, 1000, 1);
+        System.out.println("flow: " + g.vertices().size() + " vertices, 2000000 edges");
+
+        long start = System.nanoTime();
+        FlowNetwork<Integer> network = new FlowNetwork<Integer>(g);
+        System.out.println("build\t" + millis(start) + " ms");
+
+        start = System.nanoTime();
+        long flow = network.dinic(0, 1);
+        System.out.println("dinic (flow " + flow + ")\t" + millis(start) + " ms");
+
+        start = System.nanoTime();
+        flow = new FlowNetwork<Integer>(g).pushRelabel(0, 1);
+        System.out.println("push-relabel (flow " + flow + ")\t" + millis(start) + " ms");
+
+        start = System.nanoTime();
+        for (Edge<Integer, Integer> edge : g.neighbors(0)) {
+            network.setCapacity(0, edge.getDestination(), edge.getValue() / 2);
+        }
+        flow = network.dinic(0, 1);
+        System.out.println("dinic, warm start after " + g.neighbors(0).size()
+                + " changes (flow " + flow + ")\t" + millis(start) + " ms");
+    }
+
+    /**
+     * Times triangle counting, clustering coefficients and core decomposition of a random
+     * graph with 200000 vertices and average degree 20.
+     */
+    private static void triangles() {
+        UndirectedHashGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 200000, 2000000, 1, 1);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        System.out.println("triangles: " + compact.size() + " vertices, "
+                + compact.edgeCount() / 2 + " edges, " + Runtime.getRuntime().availableProcessors()
+                + " cores");
+
+        long start = System.nanoTime();
+        long count = Triangles.count(compact);
+        System.out.println("count (" + count + " triangles)\t" + millis(start) + " ms");
+
+        start = System.nanoTime();
+        Triangles.clustering(compact);
+        System.out.println("local clustering\t" + millis(start) + " ms");
+
+        start = System.nanoTime();
+        int[] cores = CoreDecomposition.coreNumbers(compact);
+        System.out.println("core numbers (degeneracy " + CoreDecomposition.degeneracy(cores)
+                + ")\t" + millis(start) + " ms");
+    }
+
+    /**
+     * Times Louvain and Leiden on a graph of 1000 planted groups of 200 vertices, with average
+     * degree 16 and 80% of the edges inside groups.
+     */
+    private static void communities() {
+        int n = 200000;
+        int group = 200;
+        UndirectedHashGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        for (int v = 0; v < n; v++) {
+            g.addVertex(v);
+        }
+        Random random = new Random(1);
+        for (int i = 0; i < 8 * n; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextDouble() < 0.8 ? a - a % group + random.nextInt(group)
+                    : random.nextInt(n);
+            if (a != b) {
+                g.addEdge(a, b, 1);
+            }
+        }
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        System.out.println("communities: " + compact.size() + " vertices, "
+                + compact.edgeCount() / 2 + " edges");
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            CommunityStructure<Integer, Integer> louvain =
+                    CommunityDetection.louvain(compact, 1, 1);
+            System.out.printf("louvain (%d communities, modularity %.4f)\t%d ms%n",
+                    louvain.count(), louvain.getModularity(), millis(start));
+            start = System.nanoTime();
+            CommunityStructure<Integer, Integer> leiden =
+                    CommunityDetection.leiden(compact, 1, 1);
+            System.out.printf("leiden (%d communities, modularity %.4f)\t%d ms%n",
+                    leiden.count(), leiden.getModularity(), millis(start));
+        }
+    }
+
+    /**
+     * Times building a reachability index over a sparse random directed graph (1000000
+     * vertices, average out-degree 1.2, so most vertices are their own component), then
+     * random queries against the index and against a search per query.
+     */
+    private static void reachability() {
+        DirectedHashGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 1000000, 1200000, 1, 1);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        long start = System.nanoTime();
+        ReachabilityIndex<Integer> index = new ReachabilityIndex<Integer>(compact);
+        System.out.println("reachability: " + compact.size() + " vertices, "
+                + index.componentCount() + " components, index built in " + millis(start)
+                + " ms");
+
+        Random random = new Random(1);
+        int queries = 1000000;
+        int[] pairs = new int[2 * queries];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = random.nextInt(compact.size());
+        }
+        for (int round = 0; round < 3; round++) {
+            start = System.nanoTime();
+            int reachable = 0;
+            for (int i = 0; i < queries; i++) {
+                if (index.reachesId(pairs[2 * i], pairs[2 * i + 1])) {
+                    reachable++;
+                }
+            }
+            System.out.printf("index: %d queries, %d reachable\t%.0f ns/query%n", queries,
+                    reachable, (System.nanoTime() - start) / (double) queries);
+        }
+
+        start = System.nanoTime();
+        int searches = 20;
+        for (int i = 0; i < searches; i++) {
+            Graphs.shortestPath(g, pairs[2 * i], pairs[2 * i + 1],
+                    new ArrayList<Edge<Integer, Integer>>());
+        }
+        System.out.printf("shortestPath search\t%.0f ns/query%n",
+                (System.nanoTime() - start) / (double) searches);
+    }
+
+    /**
+     * Measures building a 16-landmark distance oracle on a random undirected graph with one
+     * million vertices and four million edges with weights in [1, 100], writing and mapping
+     * it, and the cost of a query against a Dijkstra search and an A* search using it.
+     */
+    private static void distanceOracle() throws IOException {
+        UndirectedHashGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        Random random = new Random(1);
+        int n = 1000000;
+        for (int i = 0; i < n; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 0; i < 4 * n; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a != b) {
+                g.addEdge(a, b, random.nextInt(100) + 1);
+            }
+        }
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        long start = System.nanoTime();
+        DistanceOracle<Integer, Integer> oracle = DistanceOracle.weighted(compact, 16);
+        System.out.println("oracle: " + n + " vertices, 16 landmarks, built in "
+                + millis(start) + " ms");
+
+        File file = File.createTempFile("oracle", ".bin");
+        file.deleteOnExit();
+        start = System.nanoTime();
+        oracle.write(file);
+        System.out.println("written in " + millis(start) + " ms");
+        start = System.nanoTime();
+        DistanceOracle<Integer, Integer> mapped = DistanceOracle.open(file, compact);
+        System.out.println("mapped in " + millis(start) + " ms");
+
+        int queries = 1000000;
+        int[] pairs = new int[2 * queries];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = random.nextInt(n);
+        }
+        for (DistanceOracle<Integer, Integer> o : Arrays.asList(oracle, mapped, oracle)) {
+            start = System.nanoTime();
+            int bounded = 0;
+            for (int i = 0; i < queries; i++) {
+                if (o.upperBoundId(pairs[2 * i], pairs[2 * i + 1]) != DistanceOracle.INFINITE) {
+                    bounded++;
+                }
+            }
+            System.out.printf("%s: %d of %d pairs bounded\t%.0f ns/query%n",
+                    o == mapped ? "mapped" : "heap", bounded, queries,
+                    (System.nanoTime() - start) / (double) queries);
+        }
+
+        int searches = 20;
+        long exact = 0;
+        long estimated = 0;
+        long dijkstra = 0;
+        long aStar = 0;
+        for (int i = 0; i < searches; i++) {
+            List<Edge<Integer, Integer>> path = new ArrayList<Edge<Integer, Integer>>();
+            start = System.nanoTime();
+            Graphs.djikstrasPath(g, pairs[2 * i], pairs[2 * i + 1], path);
+            dijkstra += System.nanoTime() - start;
+            for (Edge<Integer, Integer> edge : path) {
+                exact += edge.getValue();
+            }
+            estimated += oracle.upperBound(pairs[2 * i], pairs[2 * i + 1]);
+            start = System.nanoTime();
+            Graphs.aStarPath(oracle, pairs[2 * i], pairs[2 * i + 1],
+                    new ArrayList<Edge<Integer, Integer>>());
+            aStar += System.nanoTime() - start;
+        }
+        System.out.printf("upper bound / exact distance: %.3f%n", estimated / (double) exact);
+        System.out.printf("djikstrasPath\t%.0f ns/query%n", dijkstra / (double) searches);
+        System.out.printf("aStarPath\t%.0f ns/query%n", aStar / (double) searches);
+    }
+
+    /**
+     * Times Yen's and Eppstein's k shortest paths for k = 5 .. 50 between random pairs of
+     * vertices of a road-like graph: a 300 x 300 grid with weights in [1, 100], where
+     * alternative routes are long and overlap heavily.
+     */
+    private static void kShortestPaths() {
+        int side = 300;
+        Random random = new Random(1);
+        UndirectedHashGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < side * side; i++) {
+            g.addVertex(i);
+        }
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                int v = row * side + column;
+                if (column + 1 < side) {
+                    g.addEdge(v, v + 1, random.nextInt(100) + 1);
+                }
+                if (row + 1 < side) {
+                    g.addEdge(v, v + side, random.nextInt(100) + 1);
+                }
+            }
+        }
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        System.out.println("k shortest paths: " + side + " x " + side + " grid");
+        int pairs = 5;
+        int[] ends = new int[2 * pairs];
+        for (int i = 0; i < ends.length; i++) {
+            ends[i] = random.nextInt(side * side);
+        }
+        for (int k : new int[] {5, 10, 20, 50}) {
+            long yen = 0;
+            long eppstein = 0;
+            for (int i = 0; i < pairs; i++) {
+                long start = System.nanoTime();
+                KShortestPaths.yen(compact, ends[2 * i], ends[2 * i + 1], k);
+                yen += System.nanoTime() - start;
+                start = System.nanoTime();
+                KShortestPaths.eppstein(compact, ends[2 * i], ends[2 * i + 1], k);
+                eppstein += System.nanoTime() - start;
+            }
+            System.out.printf("k = %d\tyen %d ms\teppstein %d ms%n", k,
+                    yen / pairs / 1000000, eppstein / pairs / 1000000);
+        }
+    }
+
+    /**
+     * Times Hopcroft-Karp and the sparse Hungarian solver on a random bipartite graph with
+     * 100000 vertices and 250000 edges with costs in [1, 100], from scratch and warm-started
+     * after 100 random edges are replaced, then the dense solver on a 2000 x 2000 matrix, from
+     * scratch and after 10 random entries change.
+     */
+    private static void matching() {
+        int half = 50000;
+        int degree = 5;
+        Random random = new Random(1);
+        UndirectedHashGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        List<Integer> left = new ArrayList<Integer>();
+        for (int i = 0; i < 2 * half; i++) {
+            g.addVertex(i);
+            if (i < half) {
+                left.add(i);
+            }
+        }
+        int[] ends = new int[half * degree];
+        for (int i = 0; i < ends.length; i++) {
+            ends[i] = half + random.nextInt(half);
+            if (!g.containsEdge(i / degree, ends[i], i % 100 + 1)) {
+                g.addEdge(i / degree, ends[i], i % 100 + 1);
+            }
+        }
+        System.out.println("matching: " + 2 * half + " vertices, " + ends.length + " edges");
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        long start = System.nanoTime();
+        Matching<Integer, Integer> cardinality = BipartiteMatching.hopcroftKarp(compact, null);
+        long hopcroftKarp = System.nanoTime() - start;
+        start = System.nanoTime();
+        Matching<Integer, Integer> cost = BipartiteMatching.minimumCost(compact, left, null);
+        long hungarian = System.nanoTime() - start;
+
+        for (int j = 0; j < 100; j++) {
+            int i = random.nextInt(ends.length);
+            g.removeEdge(i / degree, ends[i], i % 100 + 1);
+            ends[i] = half + random.nextInt(half);
+            if (!g.containsEdge(i / degree, ends[i], i % 100 + 1)) {
+                g.addEdge(i / degree, ends[i], i % 100 + 1);
+            }
+        }
+        compact = new CompactGraph<Integer, Integer>(g);
+        start = System.nanoTime();
+        int size = BipartiteMatching.hopcroftKarp(compact, cardinality).size();
+        long hopcroftKarpWarm = System.nanoTime() - start;
+        start = System.nanoTime();
+        long total = BipartiteMatching.minimumCost(compact, left, cost).getCost();
+        long hungarianWarm = System.nanoTime() - start;
+        System.out.printf("hopcroftKarp\t%d pairs\tcold %d ms\twarm %d ms%n", size,
+                hopcroftKarp / 1000000, hopcroftKarpWarm / 1000000);
+        System.out.printf("minimumCost\tcost %d\tcold %d ms\twarm %d ms%n", total,
+                hungarian / 1000000, hungarianWarm / 1000000);
+
+        int n = 2000;
+        long[][] costs = new long[n][n];
+        for (long[] row : costs) {
+            for (int j = 0; j < n; j++) {
+                row[j] = random.nextInt(1000000);
+            }
+        }
+        start = System.nanoTime();
+        Assignment assignment = BipartiteMatching.assignment(costs, null);
+        long dense = System.nanoTime() - start;
+        for (int j = 0; j < 10; j++) {
+            costs[random.nextInt(n)][random.nextInt(n)] = random.nextInt(1000000);
+        }
+        start = System.nanoTime();
+        assignment = BipartiteMatching.assignment(costs, assignment);
+        long denseWarm = System.nanoTime() - start;
+        System.out.printf("assignment\tcost %d\tcold %d ms\twarm %d ms%n",
+                assignment.getCost(), dense / 1000000, denseWarm / 1000000);
+    }
+
+    /**
+     * Times loading a text edge list with 5000000 random weighted edges between 1000000
+     * vertices: line by line with a BufferedReader into a DirectedHashGraph, and with the
+     * EdgeListLoader into a CompactGraph and into a DirectedHashGraph, sampling the loader's
+     * progress from another thread.
+     */
+    private static void edgeListLoader() throws IOException, InterruptedException {
+        int n = 1000000;
+        int m = 5000000;
+        Random random = new Random(1);
+        File file = File.createTempFile("edges", ".txt");
+        file.deleteOnExit();
+        Writer out = new BufferedWriter(new FileWriter(file));
+        for (int i = 0; i < m; i++) {
+            out.write((random.nextInt(n) + 100000000L) + " " + (random.nextInt(n) + 100000000L)
+                    + " " + (random.nextInt(100) + 1) + "\n");
+        }
+        out.close();
+        System.out.println("edge list: " + m + " edges, " + file.length() / 1000000 + " MB");
+
+        long start = System.nanoTime();
+        DirectedHashGraph<Long, Integer> baseline = new DirectedHashGraph<Long, Integer>();
+        BufferedReader in = new BufferedReader(new FileReader(file));
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+            String[] parts = line.split(" ");
+            Long source = Long.valueOf(parts[0]);
+            Long destination = Long.valueOf(parts[1]);
+            if (!baseline.containsVertex(source)) {
+                baseline.addVertex(source);
+            }
+            if (!baseline.containsVertex(destination)) {
+                baseline.addVertex(destination);
+            }
+            if (!source.equals(destination)) {
+                baseline.addEdge(source, destination, Integer.valueOf(parts[2]));
+            }
+        }
+        in.close();
+        System.out.printf("BufferedReader -> DirectedHashGraph\t%d ms%n",
+                (System.nanoTime() - start) / 1000000);
+        baseline = null;
+
+        final EdgeListLoader loader =
+                new EdgeListLoader(file, EdgeListLoader.Format.TEXT, true, true);
+        final AtomicBoolean done = new AtomicBoolean();
+        Thread monitor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!done.get()) {
+                    System.out.printf("  %s %.0f%% %.0f MB/s%n", loader.getPhase(),
+                            loader.getProgress() * 100, loader.getThroughput() / 1e6);
+                    try {
+                        Thread.sleep(250);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        });
+        monitor.start();
+        CompactGraph<Long, Integer> compact = loader.loadCompact();
+        done.set(true);
+        monitor.join();
+        System.out.printf("EdgeListLoader -> CompactGraph\t%d ms\t%d vertices%n",
+                loader.getElapsedNanos() / 1000000, compact.size());
+        compact = null;
+        loader.loadHashGraph();
+        System.out.printf("EdgeListLoader -> DirectedHashGraph\t%d ms%n",
+                loader.getElapsedNanos() / 1000000);
+    }
+
+    /**
+     * Times HyperANF against an exact breadth first search from every vertex on an undirected
+     * graph with a skewed degree distribution (20000 vertices, average degree 10), then
+     * compares the degree distribution of 10% samples to that of the graph by their
+     * Kolmogorov-Smirnov distance, and times HyperANF alone on a graph of 500000 vertices.
+     */
+    private static void sampling() {
+        CompactGraph<Integer, Integer> small = skewedGraph(20000, 5, 1);
+        System.out.println("sampling: " + small.size() + " vertices, "
+                + small.edgeCount() / 2 + " edges");
+        long start = System.nanoTime();
+        NeighborhoodFunction exact = NeighborhoodFunction.exact(small);
+        System.out.printf("exact (average distance %.3f, effective diameter %.3f)\t%d ms%n",
+                exact.averageDistance(), exact.effectiveDiameter(), millis(start));
+        for (int b = 6; b <= 12; b += 2) {
+            start = System.nanoTime();
+            NeighborhoodFunction estimate = NeighborhoodFunction.hyperAnf(small, b, 1000, 1);
+            System.out.printf("hyperanf, 2^%d registers (average distance %.3f, effective "
+                    + "diameter %.3f)\t%d ms%n", b, estimate.averageDistance(),
+                    estimate.effectiveDiameter(), millis(start));
+        }
+
+        int k = small.size() / 10;
+        start = System.nanoTime();
+        SimpleLabeledGraph<Integer, Integer> walk = GraphSampling.randomWalk(small, k, 1);
+        System.out.printf("random walk (KS distance %.3f)\t%d ms%n",
+                degreeDistance(small, walk), millis(start));
+        start = System.nanoTime();
+        SimpleLabeledGraph<Integer, Integer> fire = GraphSampling.forestFire(small, k, 0.7, 1);
+        System.out.printf("forest fire (KS distance %.3f)\t%d ms%n",
+                degreeDistance(small, fire), millis(start));
+        start = System.nanoTime();
+        SimpleLabeledGraph<Integer, Integer> edges =
+                GraphSampling.edgeReservoir(small, small.edgeCount() / 40, 1);
+        System.out.printf("edge reservoir (%d vertices, KS distance %.3f)\t%d ms%n",
+                edges.vertices().size(), degreeDistance(small, edges), millis(start));
+
+        CompactGraph<Integer, Integer> large = skewedGraph(500000, 5, 2);
+        System.out.println("sampling: " + large.size() + " vertices, "
+                + large.edgeCount() / 2 + " edges");
+        start = System.nanoTime();
+        NeighborhoodFunction estimate = NeighborhoodFunction.hyperAnf(large, 6, 1000, 1);
+        System.out.printf("hyperanf, 2^6 registers (average distance %.3f, effective "
+                + "diameter %.3f)\t%d ms%n", estimate.averageDistance(),
+                estimate.effectiveDiameter(), millis(start));
+    }
+
+    /**
+     * @return An undirected graph of n vertices and about n * perVertex edges, whose endpoints
+     * are drawn with a bias towards low ids, so that degrees follow a heavy tail.
+     */
+    private static CompactGraph<Integer, Integer> skewedGraph(int n, int perVertex, long seed) {
+        UndirectedHashGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        for (int v = 0; v < n; v++) {
+            g.addVertex(v);
+        }
+        Random random = new Random(seed);
+        for (int i = 0; i < perVertex * n; i++) {
+            int a = (int) (n * Math.pow(random.nextDouble(), 2));
+            int b = random.nextInt(n);
+            if (a != b) {
+                g.addEdge(a, b, 1);
+            }
+        }
+        return new CompactGraph<Integer, Integer>(g);
+    }
+
+    /**
+     * @return The Kolmogorov-Smirnov distance between the distributions of the degrees of g
+     * and of a sample of it, each scaled by its mean, since an induced sample keeps the shape
+     * of the distribution but not its scale.
+     */
+    private static double degreeDistance(CompactGraph<Integer, Integer> g,
+                                         SimpleLabeledGraph<Integer, Integer> sample) {
+        double[] full = scaledDegrees(g);
+        double[] sampled = scaledDegrees(new CompactGraph<Integer, Integer>(sample));
+        double distance = 0;
+        int i = 0;
+        int j = 0;
+        while (i < full.length && j < sampled.length) {
+            double x = Math.min(full[i], sampled[j]);
+            while (i < full.length && full[i] <= x) {
+                i++;
+            }
+            while (j < sampled.length && sampled[j] <= x) {
+                j++;
+            }
+            distance = Math.max(distance,
+                    Math.abs(i / (double) full.length - j / (double) sampled.length));
+        }
+        return distance;
+    }
+
+    private static double[] scaledDegrees(CompactGraph<Integer, Integer> g) {
+        double[] degrees = new double[g.size()];
+        double mean = g.edgeCount() / (double) g.size();
+        for (int v = 0; v < g.size(); v++) {
+            degrees[v] = g.outDegree(v) / mean;
+        }
+        Arrays.sort(degrees);
+        return degrees;
+    }
+
+    /**
+     * Streams 4000000 timestamped edges, slightly out of order, over 200000 vertices into a
+     * TemporalGraph that keeps a sliding window of the last 1000000 time units, then compares
+     * counting the edges of a vertex in a time window by binary search to filtering all its
+     * edges, and times the time-respecting searches on a snapshot against a static BFS.
+     */
+    private static void temporal() {
+        int n = 200000;
+        int m = 4000000;
+        int window = 1000000;
+        TemporalGraph<Integer, Integer> g = new TemporalGraph<Integer, Integer>(true);
+        for (int v = 0; v < n; v++) {
+            g.addVertex(v);
+        }
+        Random random = new Random(1);
+        long start = System.nanoTime();
+        long expired = 0;
+        for (int i = 0; i < m; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a != b) {
+                g.addEdge(a, b, i, Math.max(g.getHorizon(), i - random.nextInt(100)));
+            }
+            if (i % 1000 == 0) {
+                expired += g.expireBefore(i - window);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println("temporal: " + n + " vertices, " + m + " edges streamed, "
+                + expired + " expired, " + g.edgeCount() + " live");
+        System.out.printf("stream with sliding window (%.0f ns per edge)\t%d ms%n",
+                elapsed / (double) m, elapsed / 1000000);
+
+        int queries = 200000;
+        random = new Random(2);
+        start = System.nanoTime();
+        long found = 0;
+        for (int i = 0; i < queries; i++) {
+            long from = m - window + random.nextInt(window - 10000);
+            found += g.degree(random.nextInt(n), from, from + 10000);
+        }
+        System.out.println("window counts by binary search (" + found + " edges)\t"
+                + millis(start) + " ms");
+        random = new Random(2);
+        start = System.nanoTime();
+        found = 0;
+        for (int i = 0; i < queries; i++) {
+            long from = m - window + random.nextInt(window - 10000);
+            for (TemporalEdge<Integer, Integer> edge : g.neighbors(random.nextInt(n))) {
+                if (edge.getTime() >= from && edge.getTime() < from + 10000) {
+                    found++;
+                }
+            }
+        }
+        System.out.println("window counts by filtering (" + found + " edges)\t"
+                + millis(start) + " ms");
+
+        start = System.nanoTime();
+        CompactTemporalGraph<Integer, Integer> compact = g.compact();
+        System.out.println("snapshot\t" + millis(start) + " ms");
+        int sources = 20;
+        start = System.nanoTime();
+        for (int s = 0; s < sources; s++) {
+            Graphs.parallelBreadthFirstSearch(compact, s * 1000);
+        }
+        System.out.println("static bfs x " + sources + "\t" + millis(start) + " ms");
+        int[] counts = new int[2];
+        start = System.nanoTime();
+        for (int s = 0; s < sources; s++) {
+            long[] arrivals = TemporalPaths.earliestArrival(compact, s * 1000, m - window,
+                    Long.MAX_VALUE).getArrivals();
+            for (long arrival : arrivals) {
+                counts[0] += arrival == Long.MAX_VALUE ? 0 : 1;
+            }
+        }
+        System.out.println("earliest arrival x " + sources + " (" + counts[0] / sources
+                + " reached on average)\t" + millis(start) + " ms");
+        start = System.nanoTime();
+        for (int s = 0; s < sources; s++) {
+            int[] hops = TemporalPaths.fewestHops(compact, s * 1000, m - window,
+                    Long.MAX_VALUE).getHops();
+            for (int hop : hops) {
+                counts[1] += hop < 0 ? 0 : 1;
+            }
+        }
+        System.out.println("time-respecting bfs x " + sources + " (" + counts[1] / sources
+                + " reached on average)\t" + millis(start) + " ms");
+    }
+
+    /**
+     * Compares the average cost of repairing a shortest path tree after reweighting one random
+     * edge against recomputing it from scratch, on a random graph with 100000 vertices and
+     * 500000 edges with weights in [1, 100].
+     */
+    private static void dynamicShortestPaths() {
+        int n = 100000;
+        Random random = new Random(1);
+        DirectedHashGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < n; i++) {
+            g.addVertex(i);
+        }
+        List<Edge<Integer, Integer>> edges = new ArrayList<Edge<Integer, Integer>>();
+        for (int i = 0; i < 500000; i++) {
+            Edge<Integer, Integer> edge = new Edge<Integer, Integer>(random.nextInt(n),
+                    random.nextInt(n), random.nextInt(100) + 1);
+            if (!edge.getSource().equals(edge.getDestination())) {
+                g.addEdge(edge.getSource(), edge.getDestination(), edge.getValue());
+                edges.add(edge);
+            }
+        }
+        DynamicShortestPaths<Integer> paths = new DynamicShortestPaths<Integer>(g, 0);
+        System.out.println("dynamic: " + n + " vertices, " + edges.size() + " edges");
+
+        int updates = 10000;
+        long start = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+            int k = random.nextInt(edges.size());
+            Edge<Integer, Integer> edge = edges.get(k);
+            Edge<Integer, Integer> reweighted = new Edge<Integer, Integer>(edge.getSource(),
+                    edge.getDestination(), random.nextInt(100) + 1);
+            if (paths.containsEdge(reweighted.getSource(), reweighted.getDestination(),
+                    reweighted.getValue())) {
+                continue;
+            }
+            paths.removeEdge(edge.getSource(), edge.getDestination(), edge.getValue());
+            paths.addEdge(reweighted.getSource(), reweighted.getDestination(),
+                    reweighted.getValue());
+            edges.set(k, reweighted);
+        }
+        double incremental = (System.nanoTime() - start) / 1000.0 / updates;
+        System.out.println("incremental repair\t" + String.format("%.1f", incremental)
+                + " us/update");
+
+        int runs = 20;
+        start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            paths.recompute();
+        }
+        double full = (System.nanoTime() - start) / 1000.0 / runs;
+        System.out.println("full recomputation\t" + String.format("%.1f", full)
+                + " us/update");
+    }
+
+    private static long millis(long start) {
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    /**
+     * Runs the mixed workload for one second.
+     *
+     * @return The number of operations per second.
+     */
+    private static long mixedWorkload(final SimpleLabeledGraph<Integer, Integer> g, final int n,
+                                      int threads, final boolean globalLock)
+            throws InterruptedException {
+        final AtomicBoolean stop = new AtomicBoolean();
+        final AtomicLong operations = new AtomicLong();
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            final Random random = new Random(t);
+            workers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long count = 0;
+                    long checksum = 0;
+                    while (!stop.get()) {
+                        int a = random.nextInt(n);
+                        if (random.nextInt(5) == 0) {
+                            int b = random.nextInt(n);
+                            if (a != b) {
+                                if (globalLock) {
+                                    synchronized (g) {
+                                        g.addEdge(a, b, random.nextInt(100));
+                                    }
+                                } else {
+                                    g.addEdge(a, b, random.nextInt(100));
+                                }
+                            }
+                        } else if (globalLock) {
+                            synchronized (g) {
+                                for (Edge<Integer, Integer> edge : g.neighbors(a)) {
+                                    checksum += edge.getValue();
+                                }
+                            }
+                        } else {
+                            for (Edge<Integer, Integer> edge : g.neighbors(a)) {
+                                checksum += edge.getValue();
+                            }
+                        }
+                        count++;
+                    }
+                    operations.addAndGet(count + (checksum == 42 ? 1 : 0));
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        Thread.sleep(1000);
+        stop.set(true);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return operations.get();
+    }
+}
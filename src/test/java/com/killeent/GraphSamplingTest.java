@@ -0,0 +1,140 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests for {@link com.killeent.Graph.GraphSampling}.
+ */
+public class GraphSamplingTest {
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGraph() {
+        GraphSampling.randomWalk(null, 1, 1);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when asking for more vertices than
+     * the graph has.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testSampleTooLarge() {
+        GraphSampling.forestFire(randomGraph(10, 20, true, 1), 11, 0.7, 1);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when the fire always spreads.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBurnOne() {
+        GraphSampling.forestFire(randomGraph(10, 20, true, 1), 5, 1, 1);
+    }
+
+    /**
+     * Tests that the vertex samplers return the requested number of vertices, with every
+     * edge between them, and the same sample for the same seed.
+     */
+    @Test
+    public void testVertexSamplers() {
+        for (int seed = 0; seed < 10; seed++) {
+            CompactGraph<Integer, Integer> g = randomGraph(200, 600, seed % 2 == 0, seed);
+            int k = 10 + seed * 15;
+            SimpleLabeledGraph<Integer, Integer> walk = GraphSampling.randomWalk(g, k, seed);
+            Assert.assertEquals(k, walk.vertices().size());
+            checkInduced(g, walk);
+            Assert.assertEquals(walk.vertices(),
+                    GraphSampling.randomWalk(g, k, seed).vertices());
+
+            SimpleLabeledGraph<Integer, Integer> fire =
+                    GraphSampling.forestFire(g, k, 0.7, seed);
+            Assert.assertEquals(k, fire.vertices().size());
+            checkInduced(g, fire);
+        }
+    }
+
+    /**
+     * Tests that a walk over a graph of isolated vertices restarts at once from every start,
+     * rather than flying back to a vertex with nowhere to go.
+     */
+    @Test(timeout = 10000)
+    public void testRandomWalkIsolatedVertices() {
+        CompactGraph<Integer, Integer> g = randomGraph(20000, 0, true, 1);
+        SimpleLabeledGraph<Integer, Integer> walk = GraphSampling.randomWalk(g, 20000, 1);
+        Assert.assertEquals(20000, walk.vertices().size());
+    }
+
+    /**
+     * Tests that the edge sampler keeps the endpoints of the sampled edges and every edge
+     * between them, and the whole graph if asked for all its edges.
+     */
+    @Test
+    public void testEdgeReservoir() {
+        for (int seed = 0; seed < 10; seed++) {
+            boolean directed = seed % 2 == 0;
+            CompactGraph<Integer, Integer> g = randomGraph(200, 600, directed, seed);
+            int edges = directed ? g.edgeCount() : g.edgeCount() / 2;
+            SimpleLabeledGraph<Integer, Integer> sample =
+                    GraphSampling.edgeReservoir(g, 50, seed);
+            Assert.assertTrue(sample.vertices().size() <= 100);
+            Assert.assertTrue(sample.vertices().size() >= 10);
+            checkInduced(g, sample);
+
+            SimpleLabeledGraph<Integer, Integer> all =
+                    GraphSampling.edgeReservoir(g, edges + 5, seed);
+            int covered = 0;
+            for (int v = 0; v < g.size(); v++) {
+                if (g.outDegree(v) > 0 || g.inDegree(v) > 0) {
+                    covered++;
+                }
+            }
+            Assert.assertEquals(covered, all.vertices().size());
+            Assert.assertEquals(g.edgeCount(), new CompactGraph<Integer, Integer>(all)
+                    .edgeCount());
+        }
+    }
+
+    /**
+     * Checks that sample holds exactly the edges of g between its vertices.
+     */
+    private static void checkInduced(CompactGraph<Integer, Integer> g,
+                                     SimpleLabeledGraph<Integer, Integer> sample) {
+        Assert.assertEquals(g.isDirected(), !(sample instanceof UndirectedGraph));
+        int edges = 0;
+        for (Integer v : sample.vertices()) {
+            int id = g.id(v);
+            for (int i = 0; i < g.outDegree(id); i++) {
+                Integer target = g.vertex(g.target(id, i));
+                if (sample.containsVertex(target)) {
+                    Assert.assertTrue(sample.containsEdge(v, target, g.value(id, i)));
+                    edges++;
+                }
+            }
+        }
+        Assert.assertEquals(edges, new CompactGraph<Integer, Integer>(sample).edgeCount());
+    }
+
+    private static CompactGraph<Integer, Integer> randomGraph(int n, int m, boolean directed,
+                                                              long seed) {
+        Random random = new Random(seed);
+        SimpleLabeledGraph<Integer, Integer> g = directed
+                ? new DirectedHashGraph<Integer, Integer>()
+                : new UndirectedHashGraph<Integer, Integer>();
+        for (int v = 0; v < n; v++) {
+            g.addVertex(v);
+        }
+        for (int i = 0; i < m; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a != b) {
+                g.addEdge(a, b, i);
+            }
+        }
+        return new CompactGraph<Integer, Integer>(g);
+    }
+}
@@ -671,6 +671,123 @@ public class GraphsTest {
         Assert.assertTrue(llInstance.contains(new Edge<Integer, Integer>(1, 3, 2)));
     }
 
+    /**
+     * Tests for {@link com.killeent.Graph.Graphs#parallelBreadthFirstSearch}.
+     */
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} if passing in a null
+     * graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelBFSNullGraph() {
+        Graphs.parallelBreadthFirstSearch((SimpleLabeledGraph<Integer, Integer>) null, 1);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} if passing in a start
+     * vertex not in the graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelBFSMissingStart() {
+        graph.addVertex(2);
+        Graphs.parallelBreadthFirstSearch(graph, 1);
+    }
+
+    /**
+     * Tests a search from a single vertex.
+     */
+    @Test
+    public void testParallelBFSSingleVertex() {
+        graph.addVertex(1);
+        BreadthFirstTree<Integer, Integer> tree = Graphs.parallelBreadthFirstSearch(graph, 1);
+        Assert.assertEquals(0, tree.distance(1));
+        Assert.assertEquals(-1, tree.getParents()[0]);
+        TestUtil.assertListEquals(Arrays.asList(1), tree.path(1));
+        graph.clear();
+    }
+
+    /**
+     * Tests that unreachable vertices have distance -1 and an empty path.
+     */
+    @Test
+    public void testParallelBFSUnreachable() {
+        graph.addVertex(1);
+        graph.addVertex(2);
+        graph.addVertex(3);
+        graph.addEdge(2, 1, 0);
+        graph.addEdge(1, 3, 0);
+        BreadthFirstTree<Integer, Integer> tree = Graphs.parallelBreadthFirstSearch(graph, 1);
+        Assert.assertEquals(-1, tree.distance(2));
+        Assert.assertTrue(tree.path(2).isEmpty());
+        Assert.assertEquals(1, tree.distance(3));
+        TestUtil.assertListEquals(Arrays.asList(1, 3), tree.path(3));
+        graph.clear();
+    }
+
+    /**
+     * Tests a dense graph where the search switches to bottom-up steps: a hub connected
+     * to every vertex, with a ring around the rim.
+     */
+    @Test
+    public void testParallelBFSHub() {
+        int n = 5000;
+        for (int i = 0; i <= n; i++) {
+            undirected.addVertex(i);
+        }
+        for (int i = 1; i <= n; i++) {
+            undirected.addEdge(0, i, 0);
+            undirected.addEdge(i, i % n + 1, 0);
+        }
+        BreadthFirstTree<Integer, Integer> tree = Graphs.parallelBreadthFirstSearch(undirected, 1);
+        Assert.assertEquals(0, tree.distance(1));
+        Assert.assertEquals(1, tree.distance(0));
+        Assert.assertEquals(1, tree.distance(2));
+        Assert.assertEquals(1, tree.distance(n));
+        Assert.assertEquals(2, tree.distance(n / 2));
+        undirected.clear();
+    }
+
+    /**
+     * Tests that the distances match {@link com.killeent.Graph.Graphs#shortestPath} on random
+     * directed and undirected graphs, and that every parent is one level closer to the source.
+     */
+    @Test
+    public void testParallelBFSMatchesShortestPath() {
+        TestUtil.populateRandomGraph(directed, 300, 900, 10, 26);
+        TestUtil.populateRandomGraph(undirected, 300, 400, 10, 27);
+        for (SimpleLabeledGraph<Integer, Integer> g : Arrays.asList(directed, undirected)) {
+            BreadthFirstTree<Integer, Integer> tree = Graphs.parallelBreadthFirstSearch(g, 0);
+            CompactGraph<Integer, Integer> compact = tree.getGraph();
+            for (int v = 0; v < 300; v++) {
+                llInstance.clear();
+                boolean connected = Graphs.shortestPath(g, 0, v, llInstance);
+                Assert.assertEquals(connected ? llInstance.size() : -1, tree.distance(v));
+                int parent = tree.getParents()[compact.id(v)];
+                if (connected && v != 0) {
+                    Assert.assertEquals(tree.distance(v) - 1, tree.getDistances()[parent]);
+                    Assert.assertTrue(g.containsEdge(compact.vertex(parent), v,
+                            findEdgeValue(g, compact.vertex(parent), v)));
+                }
+            }
+        }
+        directed.clear();
+        undirected.clear();
+        llInstance.clear();
+    }
+
+    /**
+     * Returns the value of an edge from a to b, or null if there is no such edge.
+     */
+    private static Integer findEdgeValue(SimpleLabeledGraph<Integer, Integer> g, int a, int b) {
+        for (Edge<Integer, Integer> edge : g.neighbors(a)) {
+            if (edge.getDestination() == b) {
+                return edge.getValue();
+            }
+        }
+        return null;
+    }
+
     /**
      * Tests for {@link com.killeent.Graph.Graphs#containsCycle}.
      */
@@ -756,6 +873,21 @@ public class GraphsTest {
         undirected.clear();
     }
 
+    /**
+     * Tests cycle detection on a million-vertex path, which would overflow the stack
+     * of a recursive DFS, both without and with an edge closing the path into a cycle.
+     */
+    @Test
+    public void testContainsCycleMillionVertexChain() {
+        int n = 1000000;
+        buildChain(undirected, n);
+        Assert.assertFalse(Graphs.containsCycle(undirected, 0));
+        Assert.assertFalse(Graphs.containsCycle(undirected, n / 2));
+        undirected.addEdge(0, n - 1, 0);
+        Assert.assertTrue(Graphs.containsCycle(undirected, n / 2));
+        undirected.clear();
+    }
+
     /**
      * Tests for {@link com.killeent.Graph.Graphs#articulationVertices}.
      */
@@ -898,6 +1030,26 @@ public class GraphsTest {
         undirected.clear();
     }
 
+    /**
+     * Tests that every interior vertex of a million-vertex path is an articulation vertex.
+     */
+    @Test
+    public void testArticulationVerticesMillionVertexChain() {
+        int n = 1000000;
+        buildChain(undirected, n);
+        Set<Integer> result = Graphs.articulationVertices(undirected, 0);
+        Assert.assertEquals(n - 2, result.size());
+        Assert.assertFalse(result.contains(0));
+        Assert.assertFalse(result.contains(n - 1));
+        Assert.assertTrue(result.contains(1));
+        Assert.assertTrue(result.contains(n - 2));
+
+        // closing the path into a cycle removes all articulation vertices
+        undirected.addEdge(0, n - 1, 0);
+        Assert.assertTrue(Graphs.articulationVertices(undirected, n / 2).isEmpty());
+        undirected.clear();
+    }
+
     /**
      * Tests for {@link com.killeent.Graph.Graphs#topologicalSort}.
      */
@@ -1000,6 +1152,358 @@ public class GraphsTest {
         directed.clear();
     }
 
+    /**
+     * Tests topologically sorting a million-vertex path.
+     */
+    @Test
+    public void testTopologicalSortMillionVertexChain() {
+        int n = 1000000;
+        buildChain(directed, n);
+        List<Integer> sorted = Graphs.topologicalSort(directed);
+        Assert.assertEquals(n, sorted.size());
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals(i, (int) sorted.get(i));
+        }
+        directed.clear();
+    }
+
+    /**
+     * Builds the path 0 - 1 - ... - (n - 1) in the passed graph.
+     */
+    private static void buildChain(SimpleLabeledGraph<Integer, Integer> g, int n) {
+        for (int i = 0; i < n; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 1; i < n; i++) {
+            g.addEdge(i - 1, i, 0);
+        }
+    }
+
+    /**
+     * Tests for {@link com.killeent.Graph.Graphs#topologicalLevels}.
+     */
+
+    /**
+     * Tests for an {@link java.lang.IllegalArgumentException} when passing in a
+     * null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTopologicalLevelsNullGraph() {
+        Graphs.topologicalLevels((DirectedGraph<Integer, Integer>) null);
+    }
+
+    /**
+     * Tests for an {@link java.lang.IllegalArgumentException} when passing in a graph
+     * with a cycle.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTopologicalLevelsCycle() {
+        directed.addVertex(1);
+        directed.addVertex(2);
+        directed.addVertex(3);
+        directed.addEdge(1, 2, 0);
+        directed.addEdge(2, 3, 0);
+        directed.addEdge(3, 2, 0);
+        Graphs.topologicalLevels(directed);
+    }
+
+    /**
+     * Tests splitting the DAG from {@link #testTopologicalSortComplexGraph} into levels.
+     */
+    @Test
+    public void testTopologicalLevelsComplexGraph() {
+        for (int v : new int[] {7, 5, 3, 11, 8, 2, 9, 10}) {
+            directed.addVertex(v);
+        }
+        directed.addEdge(7, 8, 0);
+        directed.addEdge(7, 11, 0);
+        directed.addEdge(5, 11, 0);
+        directed.addEdge(3, 8, 0);
+        directed.addEdge(3, 10, 0);
+        directed.addEdge(11, 2, 0);
+        directed.addEdge(11, 9, 0);
+        directed.addEdge(11, 10, 0);
+        directed.addEdge(8, 9, 0);
+
+        List<List<Integer>> levels = Graphs.topologicalLevels(directed);
+        Assert.assertEquals(3, levels.size());
+        Assert.assertEquals(new HashSet<Integer>(Arrays.asList(7, 5, 3)),
+                new HashSet<Integer>(levels.get(0)));
+        Assert.assertEquals(new HashSet<Integer>(Arrays.asList(11, 8)),
+                new HashSet<Integer>(levels.get(1)));
+        Assert.assertEquals(new HashSet<Integer>(Arrays.asList(2, 9, 10)),
+                new HashSet<Integer>(levels.get(2)));
+        directed.clear();
+    }
+
+    /**
+     * Tests that on a large random DAG every edge goes from a lower level to a higher one,
+     * and every vertex past level 0 has a predecessor on the level directly before it.
+     */
+    @Test
+    public void testTopologicalLevelsRandomDAG() {
+        Random random = new Random(28);
+        int n = 20000;
+        for (int i = 0; i < n; i++) {
+            directed.addVertex(i);
+        }
+        for (int i = 0; i < 4 * n; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a < b) {
+                directed.addEdge(a, b, 0);
+            }
+        }
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(directed);
+        int[] levels = Graphs.topologicalLevels(compact);
+        boolean[] supported = new boolean[n];
+        for (int u = 0; u < n; u++) {
+            for (int i = 0; i < compact.outDegree(u); i++) {
+                int v = compact.target(u, i);
+                Assert.assertTrue(levels[u] < levels[v]);
+                supported[v] |= levels[u] == levels[v] - 1;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            Assert.assertTrue(levels[v] == 0 || supported[v]);
+        }
+        directed.clear();
+    }
+
+    /**
+     * Tests for {@link com.killeent.Graph.Graphs#stronglyConnectedComponents} and
+     * {@link com.killeent.Graph.Graphs#condensation}.
+     */
+
+    /**
+     * Tests for an {@link java.lang.IllegalArgumentException} when passing in a
+     * null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testStronglyConnectedComponentsNullGraph() {
+        Graphs.<Integer, Integer>stronglyConnectedComponents(null);
+    }
+
+    /**
+     * Tests for an {@link java.lang.IllegalArgumentException} when passing in a
+     * null output map.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCondensationNullComponents() {
+        Graphs.condensation(directed, null);
+    }
+
+    /**
+     * Tests finding the components of two cycles joined by an edge, and that the
+     * condensation can be topologically sorted.
+     */
+    @Test
+    public void testStronglyConnectedComponentsAndCondensation() {
+        for (int i = 0; i < 5; i++) {
+            directed.addVertex(i);
+        }
+        directed.addEdge(3, 4, 0);
+        directed.addEdge(4, 3, 0);
+        directed.addEdge(4, 0, 0);
+        directed.addEdge(0, 1, 0);
+        directed.addEdge(1, 2, 0);
+        directed.addEdge(2, 0, 0);
+
+        List<Set<Integer>> components = Graphs.stronglyConnectedComponents(directed);
+        Assert.assertEquals(2, components.size());
+        Assert.assertEquals(new HashSet<Integer>(Arrays.asList(3, 4)), components.get(0));
+        Assert.assertEquals(new HashSet<Integer>(Arrays.asList(0, 1, 2)), components.get(1));
+
+        Map<Integer, Integer> labels = new HashMap<Integer, Integer>();
+        DirectedGraph<Integer, Integer> dag = Graphs.condensation(directed, labels);
+        Assert.assertEquals(5, labels.size());
+        Assert.assertEquals(labels.get(0), labels.get(2));
+        Assert.assertTrue(dag.containsEdge(labels.get(3), labels.get(0), 1));
+        TestUtil.assertListEquals(Arrays.asList(labels.get(3), labels.get(0)),
+                Graphs.topologicalSort(dag));
+        directed.clear();
+    }
+
+    /**
+     * Tests for {@link com.killeent.Graph.Graphs#connectedComponents}.
+     */
+
+    /**
+     * Tests for an {@link java.lang.IllegalArgumentException} when passing in a
+     * null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConnectedComponentsNullGraph() {
+        Graphs.<Integer, Integer>connectedComponents(null);
+    }
+
+    /**
+     * Tests finding the components of a path, a triangle and an isolated vertex.
+     */
+    @Test
+    public void testConnectedComponents() {
+        for (int i = 0; i < 7; i++) {
+            undirected.addVertex(i);
+        }
+        undirected.addEdge(0, 4, 0);
+        undirected.addEdge(4, 2, 0);
+        undirected.addEdge(1, 3, 0);
+        undirected.addEdge(3, 6, 0);
+        undirected.addEdge(6, 1, 0);
+
+        List<Set<Integer>> components = Graphs.connectedComponents(undirected);
+        Assert.assertEquals(3, components.size());
+        Set<Set<Integer>> expected = new HashSet<Set<Integer>>();
+        expected.add(new HashSet<Integer>(Arrays.asList(0, 2, 4)));
+        expected.add(new HashSet<Integer>(Arrays.asList(1, 3, 6)));
+        expected.add(new HashSet<Integer>(Arrays.asList(5)));
+        Assert.assertEquals(expected, new HashSet<Set<Integer>>(components));
+        undirected.clear();
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a
+     * null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testSpanningTreeNullGraph() {
+        Graphs.<Integer, Integer>primSpanningTree(null);
+    }
+
+    /**
+     * Tests that all three spanning tree algorithms return the same tree, containing every
+     * vertex, for a square with one diagonal.
+     */
+    @Test
+    public void testSpanningTrees() {
+        for (int i = 0; i < 4; i++) {
+            undirected.addVertex(i);
+        }
+        undirected.addEdge(0, 1, 1);
+        undirected.addEdge(1, 2, 3);
+        undirected.addEdge(2, 3, 1);
+        undirected.addEdge(3, 0, 4);
+        undirected.addEdge(0, 2, 2);
+
+        List<UndirectedGraph<Integer, Integer>> trees =
+                new ArrayList<UndirectedGraph<Integer, Integer>>();
+        trees.add(Graphs.kruskalSpanningTree(undirected));
+        trees.add(Graphs.primSpanningTree(undirected));
+        trees.add(Graphs.boruvkaSpanningTree(undirected));
+        for (UndirectedGraph<Integer, Integer> tree : trees) {
+            Assert.assertEquals(undirected.vertices(), tree.vertices());
+            Assert.assertTrue(tree.containsEdge(1, 0, 1));
+            Assert.assertTrue(tree.containsEdge(0, 2, 2));
+            Assert.assertTrue(tree.containsEdge(2, 3, 1));
+            Assert.assertFalse(tree.containsEdge(1, 2, 3));
+            Assert.assertFalse(tree.containsEdge(3, 0, 4));
+        }
+        undirected.clear();
+    }
+
+    /**
+     * Tests that the parallel labelling of a large random graph agrees with a breadth first
+     * search from every vertex.
+     */
+    @Test
+    public void testConnectedComponentsRandom() {
+        TestUtil.populateRandomGraph(undirected, 20000, 9000, 10, 6);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(undirected);
+        int[] labels = ConnectedComponents.label(compact);
+
+        int[] expected = new int[compact.size()];
+        Arrays.fill(expected, -1);
+        int count = 0;
+        for (int v = 0; v < compact.size(); v++) {
+            if (expected[v] >= 0) {
+                continue;
+            }
+            Deque<Integer> queue = new ArrayDeque<Integer>();
+            expected[v] = count;
+            queue.add(v);
+            while (!queue.isEmpty()) {
+                int u = queue.remove();
+                for (int i = 0; i < compact.outDegree(u); i++) {
+                    int w = compact.target(u, i);
+                    if (expected[w] < 0) {
+                        expected[w] = count;
+                        queue.add(w);
+                    }
+                }
+            }
+            count++;
+        }
+        Assert.assertEquals(count, ConnectedComponents.count(labels));
+        Assert.assertTrue(Arrays.equals(expected, labels));
+        undirected.clear();
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when counting the triangles of a
+     * null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTriangleCountNullGraph() {
+        Graphs.triangleCount(null);
+    }
+
+    /**
+     * Tests triangle counts, clustering coefficients and core numbers of a triangle with a
+     * pendant vertex.
+     */
+    @Test
+    public void testTrianglesAndCores() {
+        for (int i = 0; i < 4; i++) {
+            undirected.addVertex(i);
+        }
+        undirected.addEdge(0, 1, 1);
+        undirected.addEdge(1, 2, 1);
+        undirected.addEdge(2, 0, 1);
+        undirected.addEdge(2, 3, 1);
+        Assert.assertEquals(1, Graphs.triangleCount(undirected));
+
+        Map<Integer, Double> clustering = Graphs.clusteringCoefficients(undirected);
+        Assert.assertEquals(1.0, clustering.get(0), 1e-9);
+        Assert.assertEquals(1.0 / 3, clustering.get(2), 1e-9);
+        Assert.assertEquals(0.0, clustering.get(3), 1e-9);
+
+        Map<Integer, Integer> cores = Graphs.coreNumbers(undirected);
+        Assert.assertEquals(2, (int) cores.get(1));
+        Assert.assertEquals(1, (int) cores.get(3));
+        undirected.clear();
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when finding the communities of a
+     * null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCommunitiesNullGraph() {
+        Graphs.communities(null, 0);
+    }
+
+    /**
+     * Tests that two triangles joined by a single edge form two communities.
+     */
+    @Test
+    public void testCommunities() {
+        for (int i = 0; i < 6; i++) {
+            undirected.addVertex(i);
+        }
+        undirected.addEdge(0, 1, 1);
+        undirected.addEdge(1, 2, 1);
+        undirected.addEdge(2, 0, 1);
+        undirected.addEdge(3, 4, 1);
+        undirected.addEdge(4, 5, 1);
+        undirected.addEdge(5, 3, 1);
+        undirected.addEdge(2, 3, 1);
+        List<Set<Integer>> communities = Graphs.communities(undirected, 0);
+        Assert.assertEquals(2, communities.size());
+        Assert.assertEquals(new HashSet<Integer>(Arrays.asList(0, 1, 2)), communities.get(0));
+        Assert.assertEquals(new HashSet<Integer>(Arrays.asList(3, 4, 5)), communities.get(1));
+        undirected.clear();
+    }
+
     /**
      * Tests for {@link com.killeent.Graph.Graphs#allPairsShortestPaths}.
      */
@@ -1137,4 +1641,89 @@ public class GraphsTest {
         apspGraph.clear();
     }
 
+    /**
+     * Tests for {@link com.killeent.Graph.Graphs#pageRank}.
+     */
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testPageRankNullGraph() {
+        Graphs.<Integer, Integer>pageRank(null, 0.85, 1e-9, 100);
+    }
+
+    /**
+     * Tests that the vertex every other vertex links to has the highest rank, and that the
+     * ranks are keyed by vertex.
+     */
+    @Test
+    public void testPageRankStar() {
+        DirectedGraph<Character, Integer> star = new DirectedHashGraph<Character, Integer>();
+        for (char c = 'a'; c <= 'e'; c++) {
+            star.addVertex(c);
+        }
+        for (char c = 'b'; c <= 'e'; c++) {
+            star.addEdge(c, 'a', 1);
+        }
+        Map<Character, Double> ranks = Graphs.pageRank(star, 0.85, 1e-12, 100);
+        Assert.assertEquals(5, ranks.size());
+        double sum = 0;
+        for (char c = 'b'; c <= 'e'; c++) {
+            Assert.assertTrue(ranks.get('a') > ranks.get(c));
+            Assert.assertEquals(ranks.get('b'), ranks.get(c), 1e-12);
+            sum += ranks.get(c);
+        }
+        Assert.assertEquals(1.0, sum + ranks.get('a'), 1e-9);
+    }
+
+    /**
+     * Tests for {@link com.killeent.Graph.Graphs#betweennessCentrality} and
+     * {@link com.killeent.Graph.Graphs#closenessCentrality}.
+     */
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBetweennessCentralityNullGraph() {
+        Graphs.<Integer, Integer>betweennessCentrality(null);
+    }
+
+    /**
+     * Tests centrality on a graph where a bridge vertex joins two triangles, with and without
+     * edge lengths.
+     */
+    @Test
+    public void testCentralityBridge() {
+        UndirectedGraph<Character, Integer> g = new UndirectedHashGraph<Character, Integer>();
+        for (char c = 'a'; c <= 'g'; c++) {
+            g.addVertex(c);
+        }
+        g.addEdge('a', 'b', 1);
+        g.addEdge('b', 'c', 1);
+        g.addEdge('c', 'a', 1);
+        g.addEdge('c', 'd', 1);
+        g.addEdge('d', 'e', 1);
+        g.addEdge('e', 'f', 1);
+        g.addEdge('f', 'g', 1);
+        g.addEdge('g', 'e', 1);
+
+        // d separates {a, b, c} from {e, f, g}; c separates {a, b} from {d, e, f, g}
+        Map<Character, Double> betweenness = Graphs.betweennessCentrality(g);
+        Assert.assertEquals(9.0, betweenness.get('d'), 1e-9);
+        Assert.assertEquals(8.0, betweenness.get('c'), 1e-9);
+        Assert.assertEquals(0.0, betweenness.get('a'), 1e-9);
+        Assert.assertEquals(betweenness, Graphs.weightedBetweennessCentrality(g));
+
+        Map<Character, Double> closeness = Graphs.closenessCentrality(g);
+        Assert.assertEquals(6.0 / 10, closeness.get('d'), 1e-9);
+        Assert.assertTrue(closeness.get('d') > closeness.get('c'));
+        Assert.assertEquals(closeness, Graphs.weightedClosenessCentrality(g));
+
+        Map<Character, Double> estimate =
+                Graphs.approximateBetweennessCentrality(g, 0.5, 0.5, 1);
+        Assert.assertEquals(7, estimate.size());
+    }
+
 }
@@ -0,0 +1,104 @@
+package com.killeent;
+
+import com.killeent.Graph.Graphs;
+import com.killeent.Graph.IncrementalConnectedComponents;
+import com.killeent.Graph.SimpleLabeledGraph;
+import com.killeent.Graph.UndirectedHashGraph;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Tests for the {@link com.killeent.Graph.IncrementalConnectedComponents}.
+ */
+public class IncrementalConnectedComponentsTest extends BaseSimpleLabeledGraphTest {
+
+    @Override
+    protected SimpleLabeledGraph<Integer, Integer> createInstance() {
+        return new IncrementalConnectedComponents<Integer, Integer>();
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when querying a vertex that is not
+     * in the graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConnectedMissingVertex() {
+        IncrementalConnectedComponents<Integer, Integer> g =
+                new IncrementalConnectedComponents<Integer, Integer>();
+        g.addVertex(1);
+        g.connected(1, 2);
+    }
+
+    /**
+     * Tests that components merge as edges are added, and split again when a bridge is
+     * removed.
+     */
+    @Test
+    public void testComponentsAddAndRemove() {
+        IncrementalConnectedComponents<Integer, Integer> g =
+                new IncrementalConnectedComponents<Integer, Integer>();
+        for (int i = 0; i < 6; i++) {
+            g.addVertex(i);
+        }
+        Assert.assertEquals(6, g.componentCount());
+        g.addEdge(0, 1, 0);
+        g.addEdge(1, 2, 0);
+        g.addEdge(3, 4, 0);
+        Assert.assertEquals(3, g.componentCount());
+        Assert.assertTrue(g.connected(0, 2));
+        Assert.assertFalse(g.connected(2, 3));
+
+        g.addEdge(2, 3, 7);
+        Assert.assertEquals(2, g.componentCount());
+        Assert.assertEquals(new HashSet<Integer>(Arrays.asList(0, 1, 2, 3, 4)), g.component(4));
+
+        g.removeEdge(2, 3, 7);
+        g.addEdge(5, 4, 0);
+        Assert.assertEquals(2, g.componentCount());
+        Assert.assertFalse(g.connected(0, 4));
+        Assert.assertTrue(g.connected(3, 5));
+        Assert.assertEquals(new HashSet<Integer>(Arrays.asList(3, 4, 5)), g.component(5));
+
+        g.clear();
+        g.addVertex(9);
+        Assert.assertEquals(1, g.componentCount());
+    }
+
+    /**
+     * Tests that the components of a random graph built one edge at a time match
+     * {@link com.killeent.Graph.Graphs#connectedComponents} at every step.
+     */
+    @Test
+    public void testComponentsMatchGraphs() {
+        UndirectedHashGraph<Integer, Integer> reference = new UndirectedHashGraph<Integer, Integer>();
+        IncrementalConnectedComponents<Integer, Integer> g =
+                new IncrementalConnectedComponents<Integer, Integer>();
+        for (int i = 0; i < 60; i++) {
+            reference.addVertex(i);
+            g.addVertex(i);
+        }
+        Random random = new Random(2);
+        for (int i = 0; i < 80; i++) {
+            int a = random.nextInt(60);
+            int b = random.nextInt(60);
+            if (a == b) {
+                continue;
+            }
+            reference.addEdge(a, b, 0);
+            g.addEdge(a, b, 0);
+            if (i % 10 == 0) {
+                reference.removeEdge(a, b, 0);
+                g.removeEdge(a, b, 0);
+            }
+            List<Set<Integer>> components = Graphs.connectedComponents(reference);
+            Assert.assertEquals(components.size(), g.componentCount());
+            for (Set<Integer> component : components) {
+                Assert.assertEquals(component, g.component(component.iterator().next()));
+            }
+        }
+        Assert.assertEquals(Graphs.connectedComponents(reference).size(),
+                new IncrementalConnectedComponents<Integer, Integer>(reference).componentCount());
+    }
+}
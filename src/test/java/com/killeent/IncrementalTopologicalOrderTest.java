@@ -0,0 +1,143 @@
+package com.killeent;
+
+import com.killeent.Graph.DirectedHashGraph;
+import com.killeent.Graph.Edge;
+import com.killeent.Graph.IncrementalTopologicalOrder;
+import com.killeent.Graph.SimpleLabeledGraph;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for the {@link com.killeent.Graph.IncrementalTopologicalOrder}.
+ */
+public class IncrementalTopologicalOrderTest extends BaseSimpleLabeledGraphTest {
+
+    @Override
+    protected SimpleLabeledGraph<Integer, Integer> createInstance() {
+        return new IncrementalTopologicalOrder<Integer, Integer>();
+    }
+
+    /**
+     * Asserts that every edge of the graph goes forwards in its order.
+     */
+    private static void assertValidOrder(IncrementalTopologicalOrder<Integer, Integer> g) {
+        List<Integer> order = g.order();
+        Assert.assertEquals(g.vertices().size(), order.size());
+        for (int i = 0; i < order.size(); i++) {
+            Assert.assertEquals(i, g.position(order.get(i)));
+        }
+        for (int vertex : g.vertices()) {
+            for (Edge<Integer, Integer> edge : g.neighbors(vertex)) {
+                Assert.assertTrue(g.position(edge.getSource()) < g.position(edge.getDestination()));
+            }
+        }
+    }
+
+    /**
+     * Tests that inserting an edge against the current order moves the affected vertices.
+     */
+    @Test
+    public void testIncrementalTopologicalOrderReorder() {
+        IncrementalTopologicalOrder<Integer, Integer> g =
+                new IncrementalTopologicalOrder<Integer, Integer>();
+        for (int i = 0; i < 5; i++) {
+            g.addVertex(i);
+        }
+        g.addEdge(3, 4, 0);
+        g.addEdge(0, 1, 0);
+        g.addEdge(4, 0, 0);
+        assertValidOrder(g);
+        g.addEdge(1, 2, 0);
+        assertValidOrder(g);
+        Assert.assertTrue(g.position(3) < g.position(2));
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when an edge closes a cycle, and
+     * that the rejected edge is not added.
+     */
+    @Test
+    public void testIncrementalTopologicalOrderRejectsCycle() {
+        IncrementalTopologicalOrder<Integer, Integer> g =
+                new IncrementalTopologicalOrder<Integer, Integer>();
+        g.addVertex(1);
+        g.addVertex(2);
+        g.addVertex(3);
+        g.addEdge(1, 2, 0);
+        g.addEdge(2, 3, 0);
+        try {
+            g.addEdge(3, 1, 0);
+            Assert.fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        Assert.assertFalse(g.containsEdge(3, 1, 0));
+        assertValidOrder(g);
+
+        // once the path is broken, the edge can be added
+        Assert.assertTrue(g.removeEdge(2, 3, 0));
+        g.addEdge(3, 1, 0);
+        assertValidOrder(g);
+    }
+
+    /**
+     * Tests that the order stays valid while random forward edges are inserted in random
+     * order, and that backward edges are rejected.
+     */
+    @Test
+    public void testIncrementalTopologicalOrderRandomInsertions() {
+        IncrementalTopologicalOrder<Integer, Integer> g =
+                new IncrementalTopologicalOrder<Integer, Integer>();
+        Random random = new Random(28);
+        int n = 200;
+
+        // vertices are added in a random order, edges only go from smaller to larger labels
+        List<Integer> labels = new java.util.ArrayList<Integer>();
+        for (int i = 0; i < n; i++) {
+            labels.add(i);
+        }
+        java.util.Collections.shuffle(labels, random);
+        for (int label : labels) {
+            g.addVertex(label);
+        }
+        for (int i = 0; i < 1000; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a < b) {
+                g.addEdge(a, b, 0);
+            }
+            if (i % 50 == 0) {
+                assertValidOrder(g);
+            }
+        }
+        assertValidOrder(g);
+    }
+
+    /**
+     * Tests copying an existing DAG.
+     */
+    @Test
+    public void testIncrementalTopologicalOrderCopy() {
+        DirectedHashGraph<Integer, Integer> dag = new DirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < 100; i++) {
+            dag.addVertex(i);
+        }
+        Random random = new Random(1);
+        for (int i = 0; i < 300; i++) {
+            int a = random.nextInt(100);
+            int b = random.nextInt(100);
+            if (a > b) {
+                dag.addEdge(a, b, i);
+            }
+        }
+        IncrementalTopologicalOrder<Integer, Integer> g =
+                new IncrementalTopologicalOrder<Integer, Integer>(dag);
+        for (int vertex : dag.vertices()) {
+            Assert.assertEquals(dag.neighbors(vertex).size(), g.neighbors(vertex).size());
+        }
+        assertValidOrder(g);
+    }
+}
@@ -0,0 +1,84 @@
+package com.killeent;
+
+import com.killeent.PriorityQueue.IndexedHeap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Tests for the {@link com.killeent.PriorityQueue.IndexedHeap}.
+ */
+public class IndexedHeapTest {
+
+    // tests that removing from an empty heap throws
+    @Test(expected = NoSuchElementException.class)
+    public void testEmptyHeapRemove() {
+        new IndexedHeap(4).remove();
+    }
+
+    // tests that elements outside the capacity are rejected
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testUpdateOutOfRange() {
+        new IndexedHeap(4).update(4, 0);
+    }
+
+    // tests that elements come out in key order, then tie-breaker order
+    @Test
+    public void testRemoveOrder() {
+        IndexedHeap heap = new IndexedHeap(5);
+        heap.update(0, 5);
+        heap.update(1, 3, 2);
+        heap.update(2, 3, 1);
+        heap.update(3, 9);
+        heap.update(4, 1);
+        Assert.assertEquals(5, heap.size());
+        Assert.assertTrue(heap.contains(3));
+        int[] expected = {4, 2, 1, 0, 3};
+        for (int element : expected) {
+            Assert.assertEquals(element, heap.remove());
+        }
+        Assert.assertTrue(heap.isEmpty());
+        Assert.assertFalse(heap.contains(3));
+    }
+
+    // tests that updating keys in both directions keeps the heap ordered
+    @Test
+    public void testUpdateKeys() {
+        Random random = new Random(1);
+        int n = 1000;
+        IndexedHeap heap = new IndexedHeap(n);
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = random.nextInt(10000);
+            heap.update(i, keys[i]);
+        }
+        for (int i = 0; i < 5000; i++) {
+            int element = random.nextInt(n);
+            keys[element] = random.nextInt(10000);
+            heap.update(element, keys[element]);
+        }
+        long[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < n; i++) {
+            int element = heap.remove();
+            Assert.assertEquals(sorted[i], keys[element]);
+            Assert.assertEquals(keys[element], heap.key(element));
+        }
+    }
+
+    // tests that a cleared heap can be reused
+    @Test
+    public void testClear() {
+        IndexedHeap heap = new IndexedHeap(3);
+        heap.update(0, 1);
+        heap.update(1, 2);
+        heap.clear();
+        Assert.assertTrue(heap.isEmpty());
+        Assert.assertFalse(heap.contains(0));
+        heap.update(2, 0);
+        Assert.assertEquals(2, heap.peek());
+    }
+}
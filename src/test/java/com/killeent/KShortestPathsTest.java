@@ -0,0 +1,196 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Tests for {@link com.killeent.Graph.KShortestPaths}.
+ */
+public class KShortestPathsTest {
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGraph() {
+        KShortestPaths.yen(null, 1, 2, 3);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when k is not positive.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroK() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        g.addVertex(1);
+        KShortestPaths.eppstein(new CompactGraph<Integer, Integer>(g), 1, 1, 0);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when an edge weight is negative.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeWeight() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        g.addVertex(1);
+        g.addVertex(2);
+        g.addEdge(1, 2, -1);
+        Graphs.kShortestPaths(g, 1, 2, 2);
+    }
+
+    /**
+     * Tests the paths of a small graph with three routes from 0 to 3 and a cycle 1 -> 4 -> 1.
+     */
+    @Test
+    public void testSmallGraph() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        for (int v = 0; v < 6; v++) {
+            g.addVertex(v);
+        }
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 3, 1);
+        g.addEdge(0, 2, 2);
+        g.addEdge(2, 3, 2);
+        g.addEdge(0, 3, 5);
+        g.addEdge(1, 4, 1);
+        g.addEdge(4, 1, 1);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+
+        List<List<Edge<Integer, Integer>>> yen = KShortestPaths.yen(compact, 0, 3, 10);
+        Assert.assertEquals(3, yen.size());
+        Assert.assertEquals(Arrays.asList(2L, 4L, 5L), weights(yen));
+
+        List<List<Edge<Integer, Integer>>> eppstein = KShortestPaths.eppstein(compact, 0, 3, 4);
+        Assert.assertEquals(Arrays.asList(2L, 4L, 4L, 5L), weights(eppstein));
+        for (List<Edge<Integer, Integer>> path : eppstein) {
+            checkPath(path, 0, 3, false);
+        }
+
+        Assert.assertTrue(KShortestPaths.yen(compact, 3, 0, 2).isEmpty());
+        Assert.assertEquals(1, KShortestPaths.yen(compact, 5, 5, 2).size());
+        Assert.assertTrue(KShortestPaths.yen(compact, 5, 5, 2).get(0).isEmpty());
+    }
+
+    /**
+     * Tests both algorithms against brute force enumeration on random graphs.
+     */
+    @Test
+    public void testRandomGraphs() {
+        for (int seed = 0; seed < 6; seed++) {
+            SimpleLabeledGraph<Integer, Integer> g = seed % 2 == 0
+                    ? new DirectedHashGraph<Integer, Integer>()
+                    : new UndirectedHashGraph<Integer, Integer>();
+            // positive weights, so there are finitely many walks of every weight
+            Random random = new Random(seed);
+            for (int v = 0; v < 12; v++) {
+                g.addVertex(v);
+            }
+            for (int i = 0; i < 30; i++) {
+                int a = random.nextInt(12);
+                int b = random.nextInt(12);
+                if (a != b) {
+                    g.addEdge(a, b, 1 + random.nextInt(9));
+                }
+            }
+            CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+            int start = seed;
+            int end = 11 - seed;
+
+            List<Long> simple = new ArrayList<Long>();
+            simplePaths(compact, compact.id(start), compact.id(end),
+                    new boolean[compact.size()], 0, simple);
+            Collections.sort(simple);
+            List<List<Edge<Integer, Integer>>> yen = KShortestPaths.yen(compact, start, end, 15);
+            Assert.assertEquals(simple.subList(0, Math.min(15, simple.size())), weights(yen));
+            Set<List<Edge<Integer, Integer>>> distinct =
+                    new HashSet<List<Edge<Integer, Integer>>>();
+            for (List<Edge<Integer, Integer>> path : yen) {
+                checkPath(path, start, end, true);
+                Assert.assertTrue(distinct.add(path));
+            }
+
+            List<List<Edge<Integer, Integer>>> eppstein =
+                    KShortestPaths.eppstein(compact, start, end, 15);
+            Assert.assertEquals(walks(compact, compact.id(start), compact.id(end), 15),
+                    weights(eppstein));
+            for (List<Edge<Integer, Integer>> path : eppstein) {
+                checkPath(path, start, end, false);
+            }
+        }
+    }
+
+    private static void checkPath(List<Edge<Integer, Integer>> path, int start, int end,
+                                  boolean loopless) {
+        Set<Integer> visited = new HashSet<Integer>();
+        visited.add(start);
+        int at = start;
+        for (Edge<Integer, Integer> edge : path) {
+            Assert.assertEquals(at, (int) edge.getSource());
+            at = edge.getDestination();
+            if (loopless) {
+                Assert.assertTrue(visited.add(at));
+            }
+        }
+        Assert.assertEquals(end, at);
+    }
+
+    private static List<Long> weights(List<List<Edge<Integer, Integer>>> paths) {
+        List<Long> result = new ArrayList<Long>();
+        for (List<Edge<Integer, Integer>> path : paths) {
+            long weight = 0;
+            for (Edge<Integer, Integer> edge : path) {
+                weight += edge.getValue();
+            }
+            result.add(weight);
+        }
+        return result;
+    }
+
+    /**
+     * Adds the weight of every simple path from v to end to weights.
+     */
+    private static void simplePaths(CompactGraph<Integer, Integer> g, int v, int end,
+                                    boolean[] visited, long weight, List<Long> weights) {
+        if (v == end) {
+            weights.add(weight);
+            return;
+        }
+        visited[v] = true;
+        for (int i = 0; i < g.outDegree(v); i++) {
+            if (!visited[g.target(v, i)]) {
+                simplePaths(g, g.target(v, i), end, visited, weight + g.value(v, i), weights);
+            }
+        }
+        visited[v] = false;
+    }
+
+    /**
+     * @return The weights of the k lightest walks from start to end, found by counting the
+     * walks of every weight w from start to every vertex: a walk of weight w to v is a walk of
+     * weight w - c to some u followed by an edge u -> v of weight c.
+     */
+    private static List<Long> walks(CompactGraph<Integer, Integer> g, int start, int end,
+                                    int k) {
+        int maxWeight = 1000;
+        long[][] counts = new long[maxWeight + 1][g.size()];
+        counts[0][start] = 1;
+        List<Long> result = new ArrayList<Long>();
+        for (int w = 0; w <= maxWeight && result.size() < k; w++) {
+            for (int u = 0; u < g.size(); u++) {
+                for (int i = 0; i < g.outDegree(u) && w > 0; i++) {
+                    int c = g.value(u, i);
+                    if (c <= w) {
+                        counts[w][g.target(u, i)] += counts[w - c][u];
+                    }
+                }
+            }
+            for (long j = 0; j < counts[w][end] && result.size() < k; j++) {
+                result.add((long) w);
+            }
+        }
+        return result;
+    }
+}
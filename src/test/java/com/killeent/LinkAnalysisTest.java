@@ -0,0 +1,257 @@
+package com.killeent;
+
+import com.killeent.Graph.CompactGraph;
+import com.killeent.Graph.DirectedGraph;
+import com.killeent.Graph.DirectedHashGraph;
+import com.killeent.Graph.LinkAnalysis;
+import com.killeent.Graph.UndirectedHashGraph;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Tests for {@link com.killeent.Graph.LinkAnalysis}.
+ */
+public class LinkAnalysisTest {
+
+    private static final double DELTA = 1e-9;
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testPageRankNullGraph() {
+        LinkAnalysis.pageRank(null, 0.85, 1e-9, 100, null);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a damping factor
+     * of 1, for which PageRank is not defined.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testPageRankInvalidDamping() {
+        LinkAnalysis.pageRank(compact(new DirectedHashGraph<Integer, Integer>()), 1.0, 1e-9,
+                100, null);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when the teleport vector has the
+     * wrong length.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testPersonalizedPageRankWrongLength() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        g.addVertex(1);
+        LinkAnalysis.personalizedPageRank(compact(g), new double[2], 0.85, 1e-9, 100, null);
+    }
+
+    /**
+     * Tests that every vertex of a directed cycle has the same rank.
+     */
+    @Test
+    public void testPageRankCycle() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < 5; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 0; i < 5; i++) {
+            g.addEdge(i, (i + 1) % 5, 1);
+        }
+        double[] ranks = LinkAnalysis.pageRank(compact(g), 0.85, 1e-12, 100, null);
+        for (double rank : ranks) {
+            Assert.assertEquals(0.2, rank, DELTA);
+        }
+    }
+
+    /**
+     * Tests PageRank against a straightforward sequential power iteration on a random graph
+     * with vertices that have no outgoing edges.
+     */
+    @Test
+    public void testPageRankMatchesReference() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 20000, 50000, 10, 5);
+        CompactGraph<Integer, Integer> compact = compact(g);
+        double[] ranks = LinkAnalysis.pageRank(compact, 0.85, 1e-12, 200, null);
+        double[] expected = referencePageRank(compact, 0.85, 200);
+        double sum = 0;
+        for (int v = 0; v < compact.size(); v++) {
+            Assert.assertEquals(expected[v], ranks[v], DELTA);
+            sum += ranks[v];
+        }
+        Assert.assertEquals(1.0, sum, DELTA);
+    }
+
+    /**
+     * Tests that PageRank gives the same result on every run.
+     */
+    @Test
+    public void testPageRankDeterministic() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 50000, 200000, 10, 6);
+        CompactGraph<Integer, Integer> compact = compact(g);
+        double[] first = LinkAnalysis.pageRank(compact, 0.85, 1e-10, 50, null);
+        double[] second = LinkAnalysis.pageRank(compact, 0.85, 1e-10, 50, null);
+        for (int v = 0; v < compact.size(); v++) {
+            Assert.assertEquals(first[v], second[v]);
+        }
+    }
+
+    /**
+     * Tests that a single iteration from a converged warm start stays converged, and that a
+     * warm start after a small change converges to the same ranks as a cold start.
+     */
+    @Test
+    public void testPageRankWarmStart() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 2000, 10000, 10, 7);
+        double[] converged = LinkAnalysis.pageRank(compact(g), 0.85, 1e-13, 500, null);
+        double[] warm = LinkAnalysis.pageRank(compact(g), 0.85, 1e-13, 1, converged);
+        for (int v = 0; v < converged.length; v++) {
+            Assert.assertEquals(converged[v], warm[v], 1e-12);
+        }
+
+        g.addEdge(0, 1999, 1);
+        CompactGraph<Integer, Integer> changed = compact(g);
+        double[] cold = LinkAnalysis.pageRank(changed, 0.85, 1e-13, 500, null);
+        warm = LinkAnalysis.pageRank(changed, 0.85, 1e-13, 500, converged);
+        for (int v = 0; v < cold.length; v++) {
+            Assert.assertEquals(cold[v], warm[v], 1e-11);
+        }
+    }
+
+    /**
+     * Tests that personalized PageRank with all teleport weight on one vertex of a path gives
+     * the geometric distribution down the path.
+     */
+    @Test
+    public void testPersonalizedPageRankPath() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        g.addVertex(0);
+        g.addVertex(1);
+        g.addVertex(2);
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 0, 1);
+        CompactGraph<Integer, Integer> compact = compact(g);
+        double[] teleport = new double[3];
+        teleport[compact.id(0)] = 5;
+        double[] ranks = LinkAnalysis.personalizedPageRank(compact, teleport, 0.5, 1e-14, 200,
+                null);
+        // r0 = 0.5 + 0.5 r2, r1 = 0.5 r0, r2 = 0.5 r1
+        Assert.assertEquals(4.0 / 7, ranks[compact.id(0)], DELTA);
+        Assert.assertEquals(2.0 / 7, ranks[compact.id(1)], DELTA);
+        Assert.assertEquals(1.0 / 7, ranks[compact.id(2)], DELTA);
+    }
+
+    /**
+     * Tests that the push approximation never overestimates personalized PageRank, and that
+     * its error shrinks with epsilon.
+     */
+    @Test
+    public void testApproximatePersonalizedPageRank() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 5000, 25000, 10, 8);
+        CompactGraph<Integer, Integer> compact = compact(g);
+        int source = compact.id(0);
+        double[] teleport = new double[compact.size()];
+        teleport[source] = 1;
+        double[] exact = LinkAnalysis.personalizedPageRank(compact, teleport, 0.85, 1e-13, 1000,
+                null);
+        double previousError = Double.MAX_VALUE;
+        for (double epsilon = 1e-4; epsilon >= 1e-8; epsilon /= 100) {
+            double[] approximate = LinkAnalysis.approximatePersonalizedPageRank(compact, source,
+                    0.85, epsilon);
+            double error = 0;
+            for (int v = 0; v < compact.size(); v++) {
+                Assert.assertTrue(approximate[v] <= exact[v] + 1e-12);
+                error += exact[v] - approximate[v];
+            }
+            Assert.assertTrue(error < previousError);
+            previousError = error;
+        }
+        Assert.assertTrue(previousError < 1e-3);
+    }
+
+    /**
+     * Tests hubs and authorities on a graph where two hubs point to the same two authorities.
+     */
+    @Test
+    public void testHits() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < 5; i++) {
+            g.addVertex(i);
+        }
+        g.addEdge(0, 2, 1);
+        g.addEdge(0, 3, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(1, 3, 1);
+        g.addEdge(4, 3, 1);
+        CompactGraph<Integer, Integer> compact = compact(g);
+        LinkAnalysis.HubsAndAuthorities scores = LinkAnalysis.hits(compact, 1e-12, 1000, null);
+        double[] hubs = scores.getHubs();
+        double[] authorities = scores.getAuthorities();
+        Assert.assertTrue(authorities[compact.id(3)] > authorities[compact.id(2)]);
+        Assert.assertEquals(0.0, authorities[compact.id(0)], DELTA);
+        Assert.assertEquals(hubs[compact.id(0)], hubs[compact.id(1)], DELTA);
+        Assert.assertTrue(hubs[compact.id(0)] > hubs[compact.id(4)]);
+        Assert.assertEquals(0.0, hubs[compact.id(3)], DELTA);
+        double hubSum = 0;
+        double authoritySum = 0;
+        for (int v = 0; v < 5; v++) {
+            hubSum += hubs[v];
+            authoritySum += authorities[v];
+        }
+        Assert.assertEquals(1.0, hubSum, DELTA);
+        Assert.assertEquals(1.0, authoritySum, DELTA);
+
+        // warm starting from the result converges immediately
+        Assert.assertEquals(1, LinkAnalysis.hits(compact, 1e-9, 1000, hubs).getIterations());
+    }
+
+    /**
+     * Tests that in an undirected graph every vertex is as good a hub as it is an authority.
+     */
+    @Test
+    public void testHitsUndirected() {
+        UndirectedHashGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 100, 300, 10, 9);
+        LinkAnalysis.HubsAndAuthorities scores = LinkAnalysis.hits(
+                new CompactGraph<Integer, Integer>(g), 1e-12, 1000, null);
+        for (int v = 0; v < 100; v++) {
+            Assert.assertEquals(scores.getHubs()[v], scores.getAuthorities()[v], 1e-6);
+        }
+    }
+
+    private static CompactGraph<Integer, Integer> compact(DirectedGraph<Integer, Integer> g) {
+        return new CompactGraph<Integer, Integer>(g);
+    }
+
+    /**
+     * Sequential power iteration that pushes rank along the outgoing edges.
+     */
+    private static double[] referencePageRank(CompactGraph<Integer, Integer> g, double damping,
+                                              int iterations) {
+        int n = g.size();
+        double[] rank = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            double[] next = new double[n];
+            double dangling = 0;
+            for (int u = 0; u < n; u++) {
+                if (g.outDegree(u) == 0) {
+                    dangling += rank[u];
+                }
+                for (int i = 0; i < g.outDegree(u); i++) {
+                    next[g.target(u, i)] += damping * rank[u] / g.outDegree(u);
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                next[v] += (1 - damping + damping * dangling) / n;
+            }
+            rank = next;
+        }
+        return rank;
+    }
+}
@@ -0,0 +1,279 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.*;
+
+/**
+ * Tests for the {@link com.killeent.Graph.MappedGraph} graph file format.
+ */
+public class MappedGraphTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when writing a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testWriteNullGraph() throws IOException {
+        MappedGraph.write(null, folder.newFile(), GraphCodec.INTEGER, GraphCodec.INTEGER);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when opening a file that is not a
+     * graph file.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testOpenNotAGraphFile() throws IOException {
+        File file = folder.newFile();
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[200]);
+        out.close();
+        MappedGraph.open(file, GraphCodec.INTEGER, GraphCodec.INTEGER);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when opening a file of a directed
+     * graph as an undirected graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testOpenWrongDirection() throws IOException {
+        File file = folder.newFile();
+        MappedGraph.write(new DirectedHashGraph<Integer, Integer>(), file, GraphCodec.INTEGER,
+                GraphCodec.INTEGER);
+        MappedGraph.openUndirected(file, GraphCodec.INTEGER, GraphCodec.INTEGER);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when opening a graph file that was
+     * cut short.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testOpenTruncated() throws IOException {
+        File file = writeRandomGraph();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(raf.length() - 1);
+        raf.close();
+        MappedGraph.open(file, GraphCodec.INTEGER, GraphCodec.INTEGER);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when the edge count in the header
+     * does not match the edge sections.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testOpenWrongEdgeCount() throws IOException {
+        File file = writeRandomGraph();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.seek(16);
+        int m = raf.readInt();
+        raf.seek(16);
+        raf.writeInt(m + 1);
+        raf.close();
+        MappedGraph.open(file, GraphCodec.INTEGER, GraphCodec.INTEGER);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when the last CSR offset does not
+     * match the edge count.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testOpenCorruptOffsets() throws IOException {
+        File file = writeRandomGraph();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.seek(20 + 2 * 16);
+        long start = raf.readLong();
+        long length = raf.readLong();
+        raf.seek(start + length - 4);
+        raf.writeInt(Integer.MAX_VALUE);
+        raf.close();
+        MappedGraph.open(file, GraphCodec.INTEGER, GraphCodec.INTEGER);
+    }
+
+    /**
+     * Tests for {@link java.lang.UnsupportedOperationException} when modifying a mapped graph.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testMappedGraphReadOnly() throws IOException {
+        File file = folder.newFile();
+        MappedGraph.write(new DirectedHashGraph<Integer, Integer>(), file, GraphCodec.INTEGER,
+                GraphCodec.INTEGER);
+        MappedGraph.open(file, GraphCodec.INTEGER, GraphCodec.INTEGER).addVertex(1);
+    }
+
+    /**
+     * Tests writing and opening an empty graph.
+     */
+    @Test
+    public void testMappedGraphEmpty() throws IOException {
+        File file = folder.newFile();
+        MappedGraph.write(new UndirectedHashGraph<Integer, Integer>(), file, GraphCodec.INTEGER,
+                GraphCodec.INTEGER);
+        MappedUndirectedGraph<Integer, Integer> g =
+                MappedGraph.openUndirected(file, GraphCodec.INTEGER, GraphCodec.INTEGER);
+        Assert.assertEquals(0, g.size());
+        Assert.assertTrue(g.vertices().isEmpty());
+        Assert.assertFalse(g.containsVertex(1));
+    }
+
+    /**
+     * Tests that a random directed graph has the same vertices and edges after a round trip.
+     */
+    @Test
+    public void testMappedGraphDirectedRoundTrip() throws IOException {
+        SimpleLabeledGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 500, 3000, 100, 1);
+        File file = folder.newFile();
+        MappedGraph.write(g, file, GraphCodec.INTEGER, GraphCodec.INTEGER);
+        MappedDirectedGraph<Integer, Integer> mapped =
+                MappedGraph.openDirected(file, GraphCodec.INTEGER, GraphCodec.INTEGER);
+        assertSameGraph(g, mapped);
+        Assert.assertEquals(edgeCount(g), mapped.edgeCount());
+        Assert.assertFalse(mapped.containsVertex(500));
+    }
+
+    /**
+     * Tests that an undirected graph with string vertices and double values has the same
+     * vertices and edges after a round trip.
+     */
+    @Test
+    public void testMappedGraphUndirectedRoundTrip() throws IOException {
+        SimpleLabeledGraph<String, Double> g = new UndirectedHashGraph<String, Double>();
+        String[] names = {"seattle", "tacoma", "spokane", "bellingham", "olympia", "yakima"};
+        for (String name : names) {
+            g.addVertex(name);
+        }
+        g.addEdge("seattle", "tacoma", 34.5);
+        g.addEdge("seattle", "bellingham", 89.0);
+        g.addEdge("tacoma", "olympia", 31.25);
+        g.addEdge("spokane", "yakima", 193.0);
+        g.addEdge("seattle", "spokane", 279.0);
+        File file = folder.newFile();
+        MappedGraph.write(g, file, GraphCodec.STRING, GraphCodec.DOUBLE);
+        MappedGraph<String, Double> mapped =
+                MappedGraph.open(file, GraphCodec.STRING, GraphCodec.DOUBLE);
+        Assert.assertTrue(mapped instanceof UndirectedGraph);
+        assertSameGraph(g, mapped);
+        Assert.assertTrue(mapped.containsEdge("olympia", "tacoma", 31.25));
+        Assert.assertFalse(mapped.containsEdge("olympia", "tacoma", 31.0));
+        Assert.assertFalse(mapped.containsEdge("olympia", "portland", 31.25));
+    }
+
+    /**
+     * Tests that the algorithms in Graphs give the same results on a mapped graph as on the
+     * graph it was written from.
+     */
+    @Test
+    public void testMappedGraphAlgorithms() throws IOException {
+        DirectedGraph<Long, Integer> g = new DirectedHashGraph<Long, Integer>();
+        for (long i = 0; i < 10; i++) {
+            g.addVertex(i * 1000000000000L);
+        }
+        Random random = new Random(3);
+        for (int i = 0; i < 30; i++) {
+            long a = random.nextInt(10) * 1000000000000L;
+            long b = random.nextInt(10) * 1000000000000L;
+            if (a < b) {
+                g.addEdge(a, b, random.nextInt(10) + 1);
+            }
+        }
+        File file = folder.newFile();
+        MappedGraph.write(g, file, GraphCodec.LONG, GraphCodec.INTEGER);
+        MappedDirectedGraph<Long, Integer> mapped =
+                MappedGraph.openDirected(file, GraphCodec.LONG, GraphCodec.INTEGER);
+
+        List<Long> order = Graphs.topologicalSort(mapped);
+        for (Long vertex : order) {
+            for (Edge<Long, Integer> edge : g.neighbors(vertex)) {
+                Assert.assertTrue(order.indexOf(vertex) < order.indexOf(edge.getDestination()));
+            }
+        }
+        List<List<Long>> expectedLevels = Graphs.topologicalLevels(g);
+        List<List<Long>> actualLevels = Graphs.topologicalLevels(mapped);
+        Assert.assertEquals(expectedLevels.size(), actualLevels.size());
+        for (int i = 0; i < expectedLevels.size(); i++) {
+            Assert.assertEquals(new HashSet<Long>(expectedLevels.get(i)),
+                    new HashSet<Long>(actualLevels.get(i)));
+        }
+        for (long end = 0; end < 10; end++) {
+            List<Edge<Long, Integer>> expected = new ArrayList<Edge<Long, Integer>>();
+            List<Edge<Long, Integer>> actual = new ArrayList<Edge<Long, Integer>>();
+            Assert.assertEquals(
+                    Graphs.djikstrasPath(g, 0L, end * 1000000000000L, expected),
+                    Graphs.djikstrasPath(mapped, 0L, end * 1000000000000L, actual));
+            Assert.assertEquals(pathCost(expected), pathCost(actual));
+            Assert.assertEquals(
+                    Graphs.parallelBreadthFirstSearch(g, 0L).distance(end * 1000000000000L),
+                    Graphs.parallelBreadthFirstSearch(mapped, 0L).distance(end * 1000000000000L));
+        }
+    }
+
+    /**
+     * Tests that a compact snapshot of a mapped graph matches the file.
+     */
+    @Test
+    public void testMappedGraphCompactSnapshot() throws IOException {
+        SimpleLabeledGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 200, 1000, 10, 4);
+        File file = folder.newFile();
+        MappedGraph.write(g, file, GraphCodec.INTEGER, GraphCodec.INTEGER);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(
+                MappedGraph.open(file, GraphCodec.INTEGER, GraphCodec.INTEGER));
+        Assert.assertTrue(compact.isDirected());
+        Assert.assertEquals(200, compact.size());
+        Assert.assertEquals(edgeCount(g), compact.edgeCount());
+        for (int i = 0; i < compact.size(); i++) {
+            Set<Edge<Integer, Integer>> edges = new HashSet<Edge<Integer, Integer>>();
+            for (int j = 0; j < compact.outDegree(i); j++) {
+                edges.add(new Edge<Integer, Integer>(compact.vertex(i),
+                        compact.vertex(compact.target(i, j)), compact.value(i, j)));
+            }
+            Assert.assertEquals(new HashSet<Edge<Integer, Integer>>(
+                    g.neighbors(compact.vertex(i))), edges);
+        }
+    }
+
+    private File writeRandomGraph() throws IOException {
+        SimpleLabeledGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 50, 200, 10, 7);
+        File file = folder.newFile();
+        MappedGraph.write(g, file, GraphCodec.INTEGER, GraphCodec.INTEGER);
+        return file;
+    }
+
+    private static <V extends Comparable<V>, E extends Comparable<E>> void assertSameGraph(
+            SimpleLabeledGraph<V, E> expected, SimpleLabeledGraph<V, E> actual) {
+        Assert.assertEquals(expected.vertices(), new HashSet<V>(actual.vertices()));
+        for (V vertex : expected.vertices()) {
+            Assert.assertTrue(actual.containsVertex(vertex));
+            Assert.assertEquals(new HashSet<Edge<V, E>>(expected.neighbors(vertex)),
+                    new HashSet<Edge<V, E>>(actual.neighbors(vertex)));
+        }
+    }
+
+    private static <V extends Comparable<V>, E extends Comparable<E>> int edgeCount(
+            SimpleLabeledGraph<V, E> g) {
+        int count = 0;
+        for (V vertex : g.vertices()) {
+            count += g.neighbors(vertex).size();
+        }
+        return count;
+    }
+
+    private static int pathCost(List<Edge<Long, Integer>> path) {
+        int cost = 0;
+        for (Edge<Long, Integer> edge : path) {
+            cost += edge.getValue();
+        }
+        return cost;
+    }
+}
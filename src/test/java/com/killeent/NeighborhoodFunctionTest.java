@@ -0,0 +1,106 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests for {@link com.killeent.Graph.NeighborhoodFunction}.
+ */
+public class NeighborhoodFunctionTest {
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGraph() {
+        NeighborhoodFunction.hyperAnf(null, 6, 10, 1);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when asking for too few registers.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooFewRegisters() {
+        NeighborhoodFunction.hyperAnf(path(3), 3, 10, 1);
+    }
+
+    /**
+     * Tests the exact function of an undirected path 0 - 1 - 2 - 3.
+     */
+    @Test
+    public void testExactPath() {
+        NeighborhoodFunction f = NeighborhoodFunction.exact(path(4));
+        Assert.assertEquals(3, f.maxDistance());
+        Assert.assertEquals(4.0, f.value(0));
+        Assert.assertEquals(10.0, f.value(1));
+        Assert.assertEquals(14.0, f.value(2));
+        Assert.assertEquals(16.0, f.value(3));
+        Assert.assertEquals(16.0, f.value(7));
+        Assert.assertEquals(4.0, f.pairsAt(2));
+        Assert.assertEquals(12.0, f.reachablePairs());
+        Assert.assertEquals(20 / 12.0, f.averageDistance(), 1e-9);
+        // 90% of 12 pairs is 10.8: 10 pairs lie within distance 2, 12 within 3
+        Assert.assertEquals(2.4, f.effectiveDiameter(), 1e-9);
+        Assert.assertEquals(1.0, f.effectiveDiameter(0.5), 1e-9);
+    }
+
+    /**
+     * Tests that HyperANF on a path of two vertices, which it cannot get wrong by much, stops
+     * at the cut-off distance.
+     */
+    @Test
+    public void testCutOff() {
+        NeighborhoodFunction f = NeighborhoodFunction.hyperAnf(path(100), 8, 5, 1);
+        Assert.assertEquals(5, f.maxDistance());
+        Assert.assertEquals(0, NeighborhoodFunction.hyperAnf(path(100), 8, 0, 1).maxDistance());
+    }
+
+    /**
+     * Tests HyperANF against the exact function of random graphs, directed and undirected.
+     * Most vertices of these graphs end up with the same counter, so the relative error of
+     * N(t) for large t is that of a single counter, 1.6% with 2^12 registers.
+     */
+    @Test
+    public void testRandomGraphs() {
+        for (int seed = 0; seed < 4; seed++) {
+            Random random = new Random(seed);
+            SimpleLabeledGraph<Integer, Integer> g = seed % 2 == 0
+                    ? new DirectedHashGraph<Integer, Integer>()
+                    : new UndirectedHashGraph<Integer, Integer>();
+            int n = 3000;
+            for (int v = 0; v < n; v++) {
+                g.addVertex(v);
+            }
+            for (int i = 0; i < 2 * n; i++) {
+                int a = random.nextInt(n);
+                int b = random.nextInt(n);
+                if (a != b) {
+                    g.addEdge(a, b, 0);
+                }
+            }
+            CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+            NeighborhoodFunction exact = NeighborhoodFunction.exact(compact);
+            NeighborhoodFunction estimate =
+                    NeighborhoodFunction.hyperAnf(compact, 12, 1000, seed);
+            for (int t = 0; t <= exact.maxDistance(); t++) {
+                Assert.assertEquals(exact.value(t), estimate.value(t), 0.05 * exact.value(t));
+            }
+            Assert.assertEquals(exact.averageDistance(), estimate.averageDistance(), 0.2);
+            Assert.assertEquals(exact.effectiveDiameter(), estimate.effectiveDiameter(), 0.3);
+        }
+    }
+
+    private static CompactGraph<Integer, Integer> path(int n) {
+        UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        for (int v = 0; v < n; v++) {
+            g.addVertex(v);
+            if (v > 0) {
+                g.addEdge(v - 1, v, 0);
+            }
+        }
+        return new CompactGraph<Integer, Integer>(g);
+    }
+}
@@ -0,0 +1,329 @@
+package com.killeent;
+
+import com.killeent.Graph.BreadthFirstTree;
+import com.killeent.Graph.CompactGraph;
+import com.killeent.Graph.DirectedHashGraph;
+import com.killeent.Graph.Edge;
+import com.killeent.Graph.Graphs;
+import com.killeent.Graph.Partition;
+import com.killeent.Graph.Partitioner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A breadth first search over a partitioned graph, run by one worker per part. Each worker
+ * only knows its own part: the vertices it owns, their edges, and the ghost table saying which
+ * part owns each vertex at the other end of a cut edge. The search proceeds in rounds, one per
+ * BFS level; a worker settles the vertices reached in the previous round and expands them,
+ * and every edge into a ghost vertex becomes a message that the coordinator routes to the
+ * owning worker for the next round.
+ *
+ * Workers talk to the coordinator over a pair of streams. In the unit tests these are pipes
+ * between threads; run as a program, after `mvn test-compile`,
+ *
+ *   java -cp target/classes:target/test-classes com.killeent.PartitionedBreadthFirstSearch
+ *       [vertices] [edges] [parts]
+ *
+ * starts one child JVM per part, connected over its standard input and output, and checks the
+ * result against {@link Graphs#parallelBreadthFirstSearch}.
+ *
+ * Protocol (all values are ints):
+ *   setup:  owned count, owned vertices; edge count, (source, target) pairs; ghost count,
+ *           (ghost, owner) pairs
+ *   round:  count, vertices reached from other parts; replied to with the number of vertices
+ *           settled this round, then the message count and (vertex, owner) pairs
+ *   finish: -1; replied to with the count of reached vertices and (vertex, distance) pairs
+ */
+public class PartitionedBreadthFirstSearch {
+
+    private static final String WORKER = "worker";
+
+    private final List<DataInputStream> inputs;
+    private final List<DataOutputStream> outputs;
+    private int rounds;
+    private long messages;
+
+    /**
+     * @param inputs The streams to read replies from, one per worker.
+     * @param outputs The streams to send requests to, one per worker.
+     */
+    public PartitionedBreadthFirstSearch(List<DataInputStream> inputs,
+                                         List<DataOutputStream> outputs) {
+        if (inputs == null || outputs == null || inputs.size() != outputs.size()) {
+            throw new IllegalArgumentException("need one input and output per worker");
+        }
+        this.inputs = inputs;
+        this.outputs = outputs;
+    }
+
+    /**
+     * Sends every worker its part, then searches from source.
+     *
+     * @param parts The parts; part i is sent to worker i.
+     * @param source The vertex to start from.
+     * @return The distance from source to every reachable vertex.
+     */
+    public Map<Integer, Integer> search(List<? extends Partition<Integer, ?>> parts,
+                                        int source) throws IOException {
+        if (parts.size() != outputs.size()) {
+            throw new IllegalArgumentException("need one worker per part");
+        }
+        int sourceOwner = -1;
+        for (Partition<Integer, ?> part : parts) {
+            setup(part, outputs.get(part.getIndex()));
+            if (part.getOwned().contains(source)) {
+                sourceOwner = part.getIndex();
+            }
+        }
+        if (sourceOwner < 0) {
+            throw new IllegalArgumentException("source not in any part");
+        }
+
+        List<List<Integer>> incoming = new ArrayList<List<Integer>>();
+        for (int i = 0; i < parts.size(); i++) {
+            incoming.add(new ArrayList<Integer>());
+        }
+        incoming.get(sourceOwner).add(source);
+        rounds = 0;
+        messages = 0;
+        while (true) {
+            for (int i = 0; i < outputs.size(); i++) {
+                writeAll(outputs.get(i), incoming.get(i));
+                incoming.get(i).clear();
+                outputs.get(i).flush();
+            }
+            long settled = 0;
+            for (DataInputStream input : inputs) {
+                settled += input.readInt();
+                int count = input.readInt();
+                for (int j = 0; j < count; j++) {
+                    int vertex = input.readInt();
+                    incoming.get(input.readInt()).add(vertex);
+                }
+                messages += count;
+            }
+            if (settled == 0) {
+                break;
+            }
+            rounds++;
+        }
+
+        Map<Integer, Integer> distances = new HashMap<Integer, Integer>();
+        for (int i = 0; i < outputs.size(); i++) {
+            outputs.get(i).writeInt(-1);
+            outputs.get(i).flush();
+        }
+        for (DataInputStream input : inputs) {
+            int count = input.readInt();
+            for (int j = 0; j < count; j++) {
+                int vertex = input.readInt();
+                distances.put(vertex, input.readInt());
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * @return The number of BFS levels in the last search.
+     */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * @return The number of vertices sent between workers in the last search.
+     */
+    public long getMessages() {
+        return messages;
+    }
+
+    private static void setup(Partition<Integer, ?> part, DataOutputStream out)
+            throws IOException {
+        writeAll(out, part.getOwned());
+        List<Integer> edges = new ArrayList<Integer>();
+        for (Integer v : part.getOwned()) {
+            for (Edge<Integer, ?> edge : part.getGraph().neighbors(v)) {
+                edges.add(v);
+                edges.add(edge.getDestination());
+            }
+        }
+        out.writeInt(edges.size() / 2);
+        for (int vertex : edges) {
+            out.writeInt(vertex);
+        }
+        out.writeInt(part.getGhosts().size());
+        for (Map.Entry<Integer, Integer> ghost : part.getGhosts().entrySet()) {
+            out.writeInt(ghost.getKey());
+            out.writeInt(ghost.getValue());
+        }
+    }
+
+    private static void writeAll(DataOutputStream out, Iterable<Integer> vertices)
+            throws IOException {
+        List<Integer> list = new ArrayList<Integer>();
+        for (Integer v : vertices) {
+            list.add(v);
+        }
+        out.writeInt(list.size());
+        for (int v : list) {
+            out.writeInt(v);
+        }
+    }
+
+    /**
+     * Serves one part of the search until the coordinator finishes it.
+     *
+     * @param in The stream to read requests from.
+     * @param out The stream to write replies to.
+     */
+    public static void worker(DataInputStream in, DataOutputStream out) throws IOException {
+        Set<Integer> owned = new HashSet<Integer>();
+        for (int i = in.readInt(); i > 0; i--) {
+            owned.add(in.readInt());
+        }
+        Map<Integer, List<Integer>> edges = new HashMap<Integer, List<Integer>>();
+        for (int i = in.readInt(); i > 0; i--) {
+            int v = in.readInt();
+            int w = in.readInt();
+            if (!edges.containsKey(v)) {
+                edges.put(v, new ArrayList<Integer>());
+            }
+            edges.get(v).add(w);
+        }
+        Map<Integer, Integer> ghosts = new HashMap<Integer, Integer>();
+        for (int i = in.readInt(); i > 0; i--) {
+            int ghost = in.readInt();
+            ghosts.put(ghost, in.readInt());
+        }
+
+        Map<Integer, Integer> distances = new HashMap<Integer, Integer>();
+        List<Integer> reached = new ArrayList<Integer>();
+        for (int level = 0; ; level++) {
+            int count = in.readInt();
+            if (count < 0) {
+                break;
+            }
+            for (int i = 0; i < count; i++) {
+                reached.add(in.readInt());
+            }
+            List<Integer> frontier = new ArrayList<Integer>();
+            for (int v : reached) {
+                if (!distances.containsKey(v)) {
+                    distances.put(v, level);
+                    frontier.add(v);
+                }
+            }
+            reached.clear();
+
+            Set<Integer> sent = new HashSet<Integer>();
+            List<Integer> replies = new ArrayList<Integer>();
+            for (int v : frontier) {
+                List<Integer> neighbors = edges.get(v);
+                if (neighbors == null) {
+                    continue;
+                }
+                for (int w : neighbors) {
+                    if (owned.contains(w)) {
+                        if (!distances.containsKey(w)) {
+                            reached.add(w);
+                        }
+                    } else if (sent.add(w)) {
+                        replies.add(w);
+                        replies.add(ghosts.get(w));
+                    }
+                }
+            }
+            out.writeInt(frontier.size());
+            out.writeInt(replies.size() / 2);
+            for (int value : replies) {
+                out.writeInt(value);
+            }
+            out.flush();
+        }
+
+        out.writeInt(distances.size());
+        for (Map.Entry<Integer, Integer> distance : distances.entrySet()) {
+            out.writeInt(distance.getKey());
+            out.writeInt(distance.getValue());
+        }
+        out.flush();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals(WORKER)) {
+            worker(new DataInputStream(new BufferedInputStream(System.in)),
+                    new DataOutputStream(new BufferedOutputStream(System.out)));
+            return;
+        }
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int m = args.length > 1 ? Integer.parseInt(args[1]) : 5 * n;
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        DirectedHashGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, n, m, 1, 42);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        long start = System.nanoTime();
+        int[] assignment = Partitioner.multilevel(compact, k, 0.03, 0);
+        System.out.printf("partitioned %d vertices, %d edges into %d parts in %d ms%n",
+                n, compact.edgeCount(), k, (System.nanoTime() - start) / 1000000);
+        System.out.printf("edge cut %d (%.1f%%), imbalance %.3f%n",
+                Partitioner.edgeCut(compact, assignment),
+                100.0 * Partitioner.edgeCut(compact, assignment) / compact.edgeCount(),
+                Partitioner.imbalance(assignment, k));
+        List<Partition<Integer, Integer>> parts = Partitioner.split(compact, assignment, k);
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator
+                + "java";
+        List<Process> workers = new ArrayList<Process>();
+        List<DataInputStream> inputs = new ArrayList<DataInputStream>();
+        List<DataOutputStream> outputs = new ArrayList<DataOutputStream>();
+        for (int i = 0; i < k; i++) {
+            ProcessBuilder builder = new ProcessBuilder(java, "-cp",
+                    System.getProperty("java.class.path"),
+                    PartitionedBreadthFirstSearch.class.getName(), WORKER);
+            builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            Process process = builder.start();
+            workers.add(process);
+            inputs.add(new DataInputStream(new BufferedInputStream(process.getInputStream())));
+            outputs.add(new DataOutputStream(
+                    new BufferedOutputStream(process.getOutputStream())));
+        }
+
+        try {
+            PartitionedBreadthFirstSearch search =
+                    new PartitionedBreadthFirstSearch(inputs, outputs);
+            start = System.nanoTime();
+            Map<Integer, Integer> distances = search.search(parts, 0);
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%d workers: %d levels, %d vertices reached, %d ghost messages, "
+                    + "%d ms including setup%n", k, search.getRounds(), distances.size(),
+                    search.getMessages(), elapsed / 1000000);
+
+            BreadthFirstTree<Integer, Integer> expected =
+                    Graphs.parallelBreadthFirstSearch(compact, 0);
+            for (int v = 0; v < n; v++) {
+                Integer distance = distances.get(v);
+                if (expected.distance(v) != (distance == null ? -1 : distance)) {
+                    throw new IllegalStateException("wrong distance for vertex " + v);
+                }
+            }
+            System.out.println("distances match the single process search");
+        } finally {
+            for (Process worker : workers) {
+                worker.getOutputStream().close();
+                worker.waitFor();
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.*;
+
+/**
+ * Tests for {@link com.killeent.Graph.Partitioner}, {@link com.killeent.Graph.Partition} and
+ * {@link com.killeent.PartitionedBreadthFirstSearch}.
+ */
+public class PartitionerTest {
+
+    private static final double IMBALANCE = 0.03;
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultilevelNullGraph() {
+        Partitioner.multilevel(null, 2, IMBALANCE, 0);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when asking for no parts.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testLabelPropagationNoParts() {
+        Partitioner.labelPropagation(grid(2), 0, IMBALANCE, 0);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when splitting with a part out of
+     * range.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testSplitPartOutOfRange() {
+        Partitioner.split(grid(2), new int[] {0, 1, 2, 0}, 2);
+    }
+
+    /**
+     * Tests that two cliques joined by a single edge are split along that edge.
+     */
+    @Test
+    public void testTwoCliques() {
+        UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < 20; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 0; i < 10; i++) {
+            for (int j = i + 1; j < 10; j++) {
+                g.addEdge(i, j, 1);
+                g.addEdge(i + 10, j + 10, 1);
+            }
+        }
+        g.addEdge(3, 14, 1);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+
+        for (int[] parts : Arrays.asList(Partitioner.multilevel(compact, 2, 0, 1),
+                Partitioner.labelPropagation(compact, 2, 0, 1))) {
+            Assert.assertEquals(1, Partitioner.edgeCut(compact, parts));
+            Assert.assertEquals(0.0, Partitioner.imbalance(parts, 2));
+        }
+    }
+
+    /**
+     * Tests that a grid is cut into balanced parts with a cut close to the optimal one of
+     * straight lines.
+     */
+    @Test
+    public void testGrid() {
+        CompactGraph<Integer, Integer> g = grid(40);
+        int[] parts = Partitioner.multilevel(g, 4, IMBALANCE, 0);
+        Assert.assertTrue(Partitioner.imbalance(parts, 4) <= IMBALANCE);
+        Assert.assertTrue(Partitioner.edgeCut(g, parts) <= 160);
+    }
+
+    /**
+     * Tests that both partitioners are balanced and cut far fewer edges of a random directed
+     * graph than a random assignment.
+     */
+    @Test
+    public void testRandomGraph() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 2000, 5000, 1, 7);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        int k = 8;
+
+        Random random = new Random(7);
+        int[] randomParts = new int[compact.size()];
+        for (int v = 0; v < randomParts.length; v++) {
+            randomParts[v] = random.nextInt(k);
+        }
+        long randomCut = Partitioner.edgeCut(compact, randomParts);
+
+        for (int[] parts : Arrays.asList(Partitioner.multilevel(compact, k, IMBALANCE, 3),
+                Partitioner.labelPropagation(compact, k, IMBALANCE, 3))) {
+            Assert.assertEquals(compact.size(), parts.length);
+            Assert.assertTrue(Partitioner.imbalance(parts, k) <= IMBALANCE);
+            Assert.assertTrue(Partitioner.edgeCut(compact, parts) < randomCut * 3 / 4);
+        }
+    }
+
+    /**
+     * Tests the owned vertices, local edges and ghost tables of split parts.
+     */
+    @Test
+    public void testSplit() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < 4; i++) {
+            g.addVertex(i);
+        }
+        g.addEdge(0, 1, 5);
+        g.addEdge(1, 2, 6);
+        g.addEdge(2, 3, 7);
+        g.addEdge(3, 0, 8);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        int[] parts = new int[4];
+        parts[compact.id(2)] = 1;
+        parts[compact.id(3)] = 1;
+
+        List<Partition<Integer, Integer>> split = Partitioner.split(compact, parts, 3);
+        Assert.assertEquals(3, split.size());
+        Partition<Integer, Integer> first = split.get(0);
+        Assert.assertEquals(0, first.getIndex());
+        Assert.assertEquals(new HashSet<Integer>(Arrays.asList(0, 1)), first.getOwned());
+        Assert.assertEquals(Collections.singletonMap(2, 1), first.getGhosts());
+        Assert.assertEquals(1, first.owner(2));
+        Assert.assertEquals(0, first.owner(1));
+        Assert.assertEquals(3, first.getGraph().vertices().size());
+        Assert.assertTrue(first.getGraph().containsEdge(1, 2, 6));
+        Assert.assertFalse(first.getGraph().containsEdge(3, 0, 8));
+        Assert.assertEquals(Collections.singletonMap(0, 0), split.get(1).getGhosts());
+        Assert.assertTrue(split.get(2).getOwned().isEmpty());
+        Assert.assertTrue(split.get(2).getGraph().vertices().isEmpty());
+    }
+
+    /**
+     * Tests that the ghost vertices of an undirected part keep only their cut edges.
+     */
+    @Test
+    public void testSplitUndirected() {
+        UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < 4; i++) {
+            g.addVertex(i);
+        }
+        g.addEdge(0, 1, 5);
+        g.addEdge(1, 2, 6);
+        g.addEdge(2, 3, 7);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        int[] parts = new int[4];
+        parts[compact.id(2)] = 1;
+        parts[compact.id(3)] = 1;
+
+        Partition<Integer, Integer> first = Partitioner.split(compact, parts, 2).get(0);
+        Assert.assertEquals(Collections.singletonMap(2, 1), first.getGhosts());
+        Assert.assertEquals(Collections.singletonList(new Edge<Integer, Integer>(2, 1, 6)),
+                new ArrayList<Edge<Integer, Integer>>(first.getGraph().neighbors(2)));
+    }
+
+    /**
+     * Tests that a part reports vertices it does not know about.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testOwnerUnknownVertex() {
+        Partitioner.split(grid(2), new int[4], 1).get(0).owner(7);
+    }
+
+    /**
+     * Tests the partitioned breadth first search against a single threaded one, with workers
+     * on threads connected by pipes.
+     */
+    @Test
+    public void testPartitionedBreadthFirstSearch() throws Exception {
+        for (boolean directed : new boolean[] {true, false}) {
+            SimpleLabeledGraph<Integer, Integer> g = directed
+                    ? new DirectedHashGraph<Integer, Integer>()
+                    : new UndirectedHashGraph<Integer, Integer>();
+            TestUtil.populateRandomGraph(g, 500, 1000, 1, 11);
+            List<Partition<Integer, Integer>> parts = Graphs.partition(g, 4);
+
+            List<DataInputStream> inputs = new ArrayList<DataInputStream>();
+            List<DataOutputStream> outputs = new ArrayList<DataOutputStream>();
+            List<Thread> workers = new ArrayList<Thread>();
+            for (int i = 0; i < parts.size(); i++) {
+                PipedInputStream requests = new PipedInputStream(1 << 16);
+                PipedInputStream replies = new PipedInputStream(1 << 16);
+                outputs.add(new DataOutputStream(new PipedOutputStream(requests)));
+                final DataOutputStream workerOut =
+                        new DataOutputStream(new PipedOutputStream(replies));
+                final DataInputStream workerIn = new DataInputStream(requests);
+                inputs.add(new DataInputStream(replies));
+                Thread worker = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            PartitionedBreadthFirstSearch.worker(workerIn, workerOut);
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                });
+                worker.start();
+                workers.add(worker);
+            }
+
+            PartitionedBreadthFirstSearch search =
+                    new PartitionedBreadthFirstSearch(inputs, outputs);
+            Map<Integer, Integer> distances = search.search(parts, 0);
+            for (Thread worker : workers) {
+                worker.join();
+            }
+
+            BreadthFirstTree<Integer, Integer> expected =
+                    Graphs.parallelBreadthFirstSearch(g, 0);
+            for (int v = 0; v < 500; v++) {
+                Integer distance = distances.get(v);
+                Assert.assertEquals(expected.distance(v), distance == null ? -1 : distance);
+            }
+            Assert.assertTrue(search.getMessages() > 0);
+        }
+    }
+
+    private static CompactGraph<Integer, Integer> grid(int side) {
+        UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < side * side; i++) {
+            g.addVertex(i);
+        }
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                if (c + 1 < side) {
+                    g.addEdge(r * side + c, r * side + c + 1, 1);
+                }
+                if (r + 1 < side) {
+                    g.addEdge(r * side + c, (r + 1) * side + c, 1);
+                }
+            }
+        }
+        return new CompactGraph<Integer, Integer>(g);
+    }
+}
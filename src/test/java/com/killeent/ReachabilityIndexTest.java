@@ -0,0 +1,126 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * Tests for {@link com.killeent.Graph.ReachabilityIndex} and
+ * {@link com.killeent.Graph.RebuildingReachabilityIndex}.
+ */
+public class ReachabilityIndexTest {
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGraph() {
+        new ReachabilityIndex<Integer>(null);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when querying a vertex that is not
+     * in the graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingVertex() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        g.addVertex(1);
+        new ReachabilityIndex<Integer>(new CompactGraph<Integer, Integer>(g)).reaches(1, 2);
+    }
+
+    /**
+     * Tests queries on a small graph with a cycle {1, 2, 3} that leads to 4, and a vertex 0
+     * leading into the cycle.
+     */
+    @Test
+    public void testSmallGraph() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < 6; i++) {
+            g.addVertex(i);
+        }
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 3, 1);
+        g.addEdge(3, 1, 1);
+        g.addEdge(3, 4, 1);
+        ReachabilityIndex<Integer> index = Graphs.reachabilityIndex(g);
+        Assert.assertEquals(4, index.componentCount());
+        Assert.assertTrue(index.reaches(0, 4));
+        Assert.assertTrue(index.reaches(3, 2));
+        Assert.assertTrue(index.reaches(5, 5));
+        Assert.assertFalse(index.reaches(4, 1));
+        Assert.assertFalse(index.reaches(1, 0));
+        Assert.assertFalse(index.reaches(0, 5));
+    }
+
+    /**
+     * Tests a graph small enough for the transitive closure and one large enough for interval
+     * labels against breadth first searches.
+     */
+    @Test
+    public void testRandomGraphs() {
+        int[][] shapes = {{300, 600}, {20000, 24000}};
+        for (int[] shape : shapes) {
+            DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+            TestUtil.populateRandomGraph(g, shape[0], shape[1], 1, shape[0]);
+            CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+            ReachabilityIndex<Integer> index = new ReachabilityIndex<Integer>(compact, 7);
+            Assert.assertEquals(shape[0] > ReachabilityIndex.CLOSURE_THRESHOLD,
+                    index.componentCount() > ReachabilityIndex.CLOSURE_THRESHOLD);
+
+            for (int source = 0; source < compact.size(); source += compact.size() / 60) {
+                int[] distances = Graphs.parallelBreadthFirstSearch(compact,
+                        compact.vertex(source)).getDistances();
+                for (int target = 0; target < compact.size(); target++) {
+                    Assert.assertEquals(distances[target] >= 0, index.reachesId(source, target));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that queries see changes to the graph only after a rebuild, and that requests
+     * made before a rebuild starts share it.
+     */
+    @Test
+    public void testRebuilding() throws Exception {
+        final List<Runnable> queue = new ArrayList<Runnable>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queue.add(command);
+            }
+        };
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        g.addVertex(1);
+        g.addVertex(2);
+        g.addVertex(3);
+        g.addEdge(1, 2, 1);
+        RebuildingReachabilityIndex<Integer, Integer> index =
+                new RebuildingReachabilityIndex<Integer, Integer>(g, executor);
+        Assert.assertTrue(index.reaches(1, 2));
+        Assert.assertFalse(index.reaches(1, 3));
+
+        g.addEdge(2, 3, 1);
+        Future<ReachabilityIndex<Integer>> first = index.requestRebuild();
+        g.addVertex(4);
+        g.addEdge(3, 4, 1);
+        Assert.assertSame(first, index.requestRebuild());
+        Assert.assertEquals(1, queue.size());
+        Assert.assertFalse(index.reaches(1, 3));
+
+        queue.remove(0).run();
+        Assert.assertSame(first.get(), index.getIndex());
+        Assert.assertTrue(index.reaches(1, 4));
+
+        // a new request is scheduled once the previous one has started
+        Assert.assertNotSame(first, index.requestRebuild());
+        Assert.assertEquals(1, queue.size());
+    }
+}
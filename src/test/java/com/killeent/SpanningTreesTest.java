@@ -0,0 +1,137 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests for {@link com.killeent.Graph.SpanningTrees}.
+ */
+public class SpanningTreesTest {
+
+    private static final double DELTA = 1e-9;
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testKruskalNullGraph() {
+        SpanningTrees.kruskal(null);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a directed graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBoruvkaDirectedGraph() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        g.addVertex(1);
+        SpanningTrees.boruvka(new CompactGraph<Integer, Integer>(g));
+    }
+
+    /**
+     * Tests the spanning tree of a small graph where the heaviest edge of a cycle must be left
+     * out, and that equal weights are broken the same way by every algorithm.
+     */
+    @Test
+    public void testSmallGraph() {
+        UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < 5; i++) {
+            g.addVertex(i);
+        }
+        g.addEdge(0, 1, 4);
+        g.addEdge(1, 2, 2);
+        g.addEdge(0, 2, 5);
+        g.addEdge(2, 3, 2);
+        g.addEdge(1, 3, 2);
+        g.addEdge(3, 4, -1);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+
+        int[] kruskal = SpanningTrees.kruskal(compact);
+        Assert.assertEquals(4, kruskal.length);
+        Assert.assertEquals(7.0, SpanningTrees.weight(compact, kruskal), DELTA);
+        Assert.assertTrue(Arrays.equals(kruskal, SpanningTrees.prim(compact)));
+        Assert.assertTrue(Arrays.equals(kruskal, SpanningTrees.boruvka(compact)));
+    }
+
+    /**
+     * Tests that all three algorithms find the same forest as a naive O(n^2) Prim on random
+     * graphs with several components, with integer and with floating point weights.
+     */
+    @Test
+    public void testRandomGraphs() {
+        for (long seed = 0; seed < 5; seed++) {
+            Random random = new Random(seed);
+            int n = 300;
+            UndirectedGraph<Integer, Integer> integral = new UndirectedHashGraph<Integer, Integer>();
+            UndirectedGraph<Integer, Double> real = new UndirectedHashGraph<Integer, Double>();
+            for (int i = 0; i < n; i++) {
+                integral.addVertex(i);
+                real.addVertex(i);
+            }
+            for (int i = 0; i < 600; i++) {
+                // the last 10 vertices are left isolated
+                int a = random.nextInt(n - 10);
+                int b = random.nextInt(n - 10);
+                if (a != b) {
+                    integral.addEdge(a, b, random.nextInt(20) - 5);
+                    real.addEdge(a, b, random.nextGaussian());
+                }
+            }
+            assertMinimumForest(new CompactGraph<Integer, Integer>(integral));
+            assertMinimumForest(new CompactGraph<Integer, Double>(real));
+        }
+    }
+
+    private static <E extends Number & Comparable<E>> void assertMinimumForest(
+            CompactGraph<Integer, E> g) {
+        int[] kruskal = SpanningTrees.kruskal(g);
+        Assert.assertTrue(Arrays.equals(kruskal, SpanningTrees.prim(g)));
+        Assert.assertTrue(Arrays.equals(kruskal, SpanningTrees.boruvka(g)));
+        Assert.assertEquals(naiveForestWeight(g), SpanningTrees.weight(g, kruskal), 1e-6);
+
+        int components = ConnectedComponents.count(ConnectedComponents.label(g));
+        Assert.assertEquals(g.size() - components, kruskal.length);
+    }
+
+    /**
+     * @return The weight of a minimum spanning forest, from Prim's algorithm on a matrix of
+     * the cheapest edge between every pair of vertices.
+     */
+    private static double naiveForestWeight(CompactGraph<Integer, ? extends Number> g) {
+        int n = g.size();
+        double[][] cost = new double[n][n];
+        for (double[] row : cost) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+        for (int v = 0; v < n; v++) {
+            for (int i = 0; i < g.outDegree(v); i++) {
+                int w = g.target(v, i);
+                cost[v][w] = Math.min(cost[v][w], g.value(v, i).doubleValue());
+            }
+        }
+        boolean[] spanned = new boolean[n];
+        double[] best = new double[n];
+        Arrays.fill(best, Double.POSITIVE_INFINITY);
+        double total = 0;
+        for (int round = 0; round < n; round++) {
+            int next = -1;
+            for (int v = 0; v < n; v++) {
+                if (!spanned[v] && (next < 0 || best[v] < best[next])) {
+                    next = v;
+                }
+            }
+            if (best[next] != Double.POSITIVE_INFINITY) {
+                total += best[next];
+            }
+            spanned[next] = true;
+            for (int w = 0; w < n; w++) {
+                best[w] = Math.min(best[w], cost[next][w]);
+            }
+        }
+        return total;
+    }
+}
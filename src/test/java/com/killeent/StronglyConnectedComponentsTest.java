@@ -0,0 +1,172 @@
+package com.killeent;
+
+import com.killeent.Graph.CompactGraph;
+import com.killeent.Graph.DirectedGraph;
+import com.killeent.Graph.DirectedHashGraph;
+import com.killeent.Graph.StronglyConnectedComponents;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for the {@link com.killeent.Graph.StronglyConnectedComponents}.
+ */
+public class StronglyConnectedComponentsTest {
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTarjanNullGraph() {
+        StronglyConnectedComponents.tarjan(null);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testKosarajuNullGraph() {
+        StronglyConnectedComponents.kosaraju(null);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testForwardBackwardNullGraph() {
+        StronglyConnectedComponents.forwardBackward(null);
+    }
+
+    /**
+     * Tests a small graph with two cycles joined by an edge and a trailing vertex:
+     * (0 -> 1 -> 2 -> 0) -> (3 -> 4 -> 3) -> 5.
+     */
+    @Test
+    public void testSCCSmallGraph() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < 6; i++) {
+            g.addVertex(i);
+        }
+        g.addEdge(0, 1, 0);
+        g.addEdge(1, 2, 0);
+        g.addEdge(2, 0, 0);
+        g.addEdge(2, 3, 0);
+        g.addEdge(3, 4, 0);
+        g.addEdge(4, 3, 0);
+        g.addEdge(4, 5, 0);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+
+        for (int[] components : allAlgorithms(compact)) {
+            Assert.assertEquals(3, StronglyConnectedComponents.count(components));
+            int first = components[compact.id(0)];
+            Assert.assertEquals(first, components[compact.id(1)]);
+            Assert.assertEquals(first, components[compact.id(2)]);
+            Assert.assertEquals(components[compact.id(3)], components[compact.id(4)]);
+            Assert.assertTrue(first != components[compact.id(3)]);
+            Assert.assertTrue(components[compact.id(5)] != components[compact.id(3)]);
+        }
+    }
+
+    /**
+     * Tests that all algorithms find the same components on random graphs large enough for
+     * the forward-backward algorithm to split its work, and that Tarjan's and Kosaraju's
+     * numberings are topological.
+     */
+    @Test
+    public void testSCCAlgorithmsAgree() {
+        for (int seed = 0; seed < 3; seed++) {
+            DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+            TestUtil.populateRandomGraph(g, 20000, 40000, 10, seed);
+            CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+            List<int[]> results = allAlgorithms(compact);
+            int[] expected = canonical(results.get(0));
+            for (int[] components : results) {
+                Assert.assertTrue(Arrays.equals(expected, canonical(components)));
+            }
+            assertTopological(compact, results.get(0));
+            assertTopological(compact, results.get(1));
+        }
+    }
+
+    /**
+     * Tests a million-vertex cycle, which would overflow the stack of a recursive search.
+     */
+    @Test
+    public void testSCCMillionVertexCycle() {
+        int n = 1000000;
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < n; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 0; i < n; i++) {
+            g.addEdge(i, (i + 1) % n, 0);
+        }
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        for (int[] components : allAlgorithms(compact)) {
+            Assert.assertEquals(1, StronglyConnectedComponents.count(components));
+        }
+    }
+
+    /**
+     * Tests building the condensation of a graph.
+     */
+    @Test
+    public void testCondensation() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < 4; i++) {
+            g.addVertex(i);
+        }
+        g.addEdge(0, 1, 0);
+        g.addEdge(1, 0, 0);
+        g.addEdge(0, 2, 0);
+        g.addEdge(1, 2, 0);
+        g.addEdge(2, 3, 0);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+        int[] components = StronglyConnectedComponents.tarjan(compact);
+        DirectedGraph<Integer, Integer> dag = StronglyConnectedComponents.condensation(compact,
+                components);
+        Assert.assertEquals(3, dag.vertices().size());
+        int a = components[compact.id(0)];
+        int b = components[compact.id(2)];
+        int c = components[compact.id(3)];
+        Assert.assertTrue(dag.containsEdge(a, b, 2));
+        Assert.assertTrue(dag.containsEdge(b, c, 1));
+        Assert.assertEquals(1, dag.neighbors(a).size());
+    }
+
+    private static List<int[]> allAlgorithms(CompactGraph<Integer, Integer> g) {
+        return Arrays.asList(StronglyConnectedComponents.tarjan(g),
+                StronglyConnectedComponents.kosaraju(g),
+                StronglyConnectedComponents.forwardBackward(g));
+    }
+
+    /**
+     * Renumbers components in order of their first vertex, so equal partitions compare equal.
+     */
+    private static int[] canonical(int[] components) {
+        int[] renumber = new int[components.length];
+        Arrays.fill(renumber, -1);
+        int[] result = new int[components.length];
+        int count = 0;
+        for (int v = 0; v < components.length; v++) {
+            if (renumber[components[v]] == -1) {
+                renumber[components[v]] = count++;
+            }
+            result[v] = renumber[components[v]];
+        }
+        return result;
+    }
+
+    /**
+     * Asserts no edge goes from a component to a lower numbered one.
+     */
+    private static void assertTopological(CompactGraph<Integer, Integer> g, int[] components) {
+        for (int u = 0; u < g.size(); u++) {
+            for (int i = 0; i < g.outDegree(u); i++) {
+                Assert.assertTrue(components[u] <= components[g.target(u, i)]);
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Tests for {@link com.killeent.Graph.TemporalGraph}.
+ */
+public class TemporalGraphTest {
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when adding an edge to a vertex
+     * that is not in the graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingVertex() {
+        TemporalGraph<Integer, Integer> g = new TemporalGraph<Integer, Integer>(true);
+        g.addVertex(1);
+        g.addEdge(1, 2, 0, 5);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when adding a self edge.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testSelfEdge() {
+        TemporalGraph<Integer, Integer> g = new TemporalGraph<Integer, Integer>(true);
+        g.addVertex(1);
+        g.addEdge(1, 1, 0, 5);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when adding an edge older than the
+     * expiry horizon.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testEdgeBeforeHorizon() {
+        TemporalGraph<Integer, Integer> g = new TemporalGraph<Integer, Integer>(true);
+        g.addVertex(1);
+        g.addVertex(2);
+        g.expireBefore(10);
+        g.addEdge(1, 2, 0, 9);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when asking for the neighbors of a
+     * vertex that is not in the graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNeighborsMissingVertex() {
+        new TemporalGraph<Integer, Integer>(true).neighbors(1, 0, 10);
+    }
+
+    /**
+     * Tests windowed queries on a small directed graph with repeated and late edges.
+     */
+    @Test
+    public void testWindows() {
+        TemporalGraph<String, Integer> g = new TemporalGraph<String, Integer>(true);
+        g.addVertex("a");
+        g.addVertex("b");
+        g.addVertex("c");
+        g.addEdge("a", "b", 1, 10);
+        g.addEdge("a", "c", 2, 30);
+        g.addEdge("a", "b", 3, 20);
+        g.addEdge("a", "b", 4, 20);
+        g.addEdge("b", "a", 5, 5);
+        Assert.assertEquals(5, g.edgeCount());
+        Assert.assertEquals(Arrays.asList(
+                new TemporalEdge<String, Integer>("a", "b", 1, 10),
+                new TemporalEdge<String, Integer>("a", "b", 3, 20),
+                new TemporalEdge<String, Integer>("a", "b", 4, 20),
+                new TemporalEdge<String, Integer>("a", "c", 2, 30)), g.neighbors("a"));
+        Assert.assertEquals(Arrays.asList(
+                new TemporalEdge<String, Integer>("a", "b", 3, 20),
+                new TemporalEdge<String, Integer>("a", "b", 4, 20)), g.neighbors("a", 11, 30));
+        Assert.assertEquals(3, g.degree("a", 20, 31));
+        Assert.assertEquals(0, g.degree("a", 31, 20));
+        Assert.assertTrue(g.neighbors("c").isEmpty());
+        Assert.assertTrue(g.neighbors("a", 21, 30).isEmpty());
+    }
+
+    /**
+     * Tests that an undirected edge shows up at both endpoints, and expires from both.
+     */
+    @Test
+    public void testUndirected() {
+        TemporalGraph<Integer, Integer> g = new TemporalGraph<Integer, Integer>(false);
+        for (int v = 0; v < 3; v++) {
+            g.addVertex(v);
+        }
+        g.addEdge(0, 1, 7, 100);
+        g.addEdge(2, 1, 8, 50);
+        Assert.assertEquals(2, g.edgeCount());
+        Assert.assertEquals(Arrays.asList(new TemporalEdge<Integer, Integer>(1, 2, 8, 50),
+                new TemporalEdge<Integer, Integer>(1, 0, 7, 100)), g.neighbors(1));
+        Assert.assertEquals(1, g.expireBefore(60));
+        Assert.assertEquals(1, g.edgeCount());
+        Assert.assertTrue(g.neighbors(2).isEmpty());
+        Assert.assertEquals(Arrays.asList(new TemporalEdge<Integer, Integer>(1, 0, 7, 100)),
+                g.neighbors(1));
+    }
+
+    /**
+     * Tests a sliding window over a long stream of slightly out of order edges against a
+     * list of the edges that should be live.
+     */
+    @Test
+    public void testSlidingWindow() {
+        for (int seed = 0; seed < 4; seed++) {
+            boolean directed = seed % 2 == 0;
+            Random random = new Random(seed);
+            int n = 50;
+            TemporalGraph<Integer, Integer> g = new TemporalGraph<Integer, Integer>(directed);
+            for (int v = 0; v < n; v++) {
+                g.addVertex(v);
+            }
+            List<TemporalEdge<Integer, Integer>> live =
+                    new ArrayList<TemporalEdge<Integer, Integer>>();
+            int window = 500;
+            for (int step = 0; step < 20000; step++) {
+                long time = step + random.nextInt(40) - 20;
+                if (time >= g.getHorizon()) {
+                    int a = random.nextInt(n);
+                    int b = random.nextInt(n);
+                    if (a != b) {
+                        g.addEdge(a, b, step, time);
+                        live.add(new TemporalEdge<Integer, Integer>(a, b, step, time));
+                    }
+                }
+                if (step % 97 == 0) {
+                    long horizon = step - window;
+                    int expected = 0;
+                    Iterator<TemporalEdge<Integer, Integer>> it = live.iterator();
+                    while (it.hasNext()) {
+                        if (it.next().getTime() < horizon) {
+                            it.remove();
+                            expected++;
+                        }
+                    }
+                    Assert.assertEquals(expected, g.expireBefore(horizon));
+                    Assert.assertEquals(live.size(), g.edgeCount());
+                    check(g, live, directed, step - 300, step - 100);
+                }
+            }
+            check(g, live, directed, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Tests that a snapshot holds the live edges of every vertex sorted by time, and is not
+     * changed by later edges.
+     */
+    @Test
+    public void testCompact() {
+        TemporalGraph<Integer, Integer> g = new TemporalGraph<Integer, Integer>(false);
+        Random random = new Random(1);
+        for (int v = 0; v < 30; v++) {
+            g.addVertex(v);
+        }
+        for (int i = 0; i < 500; i++) {
+            int a = random.nextInt(30);
+            int b = random.nextInt(30);
+            if (a != b) {
+                g.addEdge(a, b, i, random.nextInt(1000));
+            }
+        }
+        g.expireBefore(200);
+        CompactTemporalGraph<Integer, Integer> compact = g.compact();
+        g.addVertex(30);
+        g.addEdge(0, 30, 0, 999);
+        Assert.assertEquals(30, compact.size());
+        Assert.assertFalse(compact.isDirected());
+        int edges = 0;
+        for (int v = 0; v < compact.size(); v++) {
+            Integer vertex = compact.vertex(v);
+            List<TemporalEdge<Integer, Integer>> expected = g.neighbors(vertex);
+            if (vertex == 0) {
+                expected.remove(expected.size() - 1);
+            }
+            Assert.assertEquals(expected.size(), compact.outDegree(v));
+            for (int i = 0; i < compact.outDegree(v); i++) {
+                TemporalEdge<Integer, Integer> edge = expected.get(i);
+                Assert.assertEquals(edge.getDestination(), compact.vertex(compact.target(v, i)));
+                Assert.assertEquals(edge.getValue(), compact.value(v, i));
+                Assert.assertEquals(edge.getTime(), compact.time(v, i));
+            }
+            Assert.assertEquals(g.degree(vertex, 500, 1000) - (vertex == 0 ? 1 : 0),
+                    compact.outDegree(v) - compact.firstAtOrAfter(v, 500));
+            edges += compact.outDegree(v);
+        }
+        Assert.assertEquals(2 * (g.edgeCount() - 1), edges);
+    }
+
+    /**
+     * Checks every windowed neighbor list of g against the live edges.
+     */
+    private static void check(TemporalGraph<Integer, Integer> g,
+                              List<TemporalEdge<Integer, Integer>> live, boolean directed,
+                              long from, long to) {
+        Map<Integer, List<TemporalEdge<Integer, Integer>>> expected =
+                new HashMap<Integer, List<TemporalEdge<Integer, Integer>>>();
+        for (Integer v : g.vertices()) {
+            expected.put(v, new ArrayList<TemporalEdge<Integer, Integer>>());
+        }
+        for (TemporalEdge<Integer, Integer> edge : live) {
+            if (edge.getTime() >= from && edge.getTime() < to) {
+                expected.get(edge.getSource()).add(edge);
+                if (!directed) {
+                    expected.get(edge.getDestination()).add(new TemporalEdge<Integer, Integer>(
+                            edge.getDestination(), edge.getSource(), edge.getValue(),
+                            edge.getTime()));
+                }
+            }
+        }
+        for (Integer v : g.vertices()) {
+            List<TemporalEdge<Integer, Integer>> actual = g.neighbors(v, from, to);
+            for (int i = 1; i < actual.size(); i++) {
+                Assert.assertTrue(actual.get(i - 1).getTime() <= actual.get(i).getTime());
+            }
+            Assert.assertEquals(new HashSet<TemporalEdge<Integer, Integer>>(expected.get(v)),
+                    new HashSet<TemporalEdge<Integer, Integer>>(actual));
+            Assert.assertEquals(expected.get(v).size(), actual.size());
+        }
+    }
+}
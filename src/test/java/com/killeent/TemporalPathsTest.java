@@ -0,0 +1,193 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Tests for {@link com.killeent.Graph.TemporalPaths}.
+ */
+public class TemporalPathsTest {
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGraph() {
+        TemporalPaths.earliestArrival(null, 1, 0, 10);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when the source is not in the
+     * graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingSource() {
+        TemporalPaths.fewestHops(chain().compact(), "z", 0, 10);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when the window ends before it
+     * starts.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBackwardsWindow() {
+        TemporalPaths.earliestArrival(chain().compact(), "a", 10, 0);
+    }
+
+    /**
+     * Tests a graph where the earliest path and the fewest-hop path differ:
+     * a -1-> b -2-> c -3-> d, and a -5-> d directly, and where time order forbids
+     * d -0-> e.
+     */
+    @Test
+    public void testChain() {
+        CompactTemporalGraph<String, Integer> g = chain().compact();
+        TemporalPathTree<String, Integer> earliest = TemporalPaths.earliestArrival(g, "a", 0, 10);
+        Assert.assertEquals(3, earliest.arrival("d"));
+        Assert.assertEquals(3, earliest.hops("d"));
+        Assert.assertEquals(Arrays.asList("a>b@1", "b>c@2", "c>d@3"), names(earliest.path("d")));
+        Assert.assertFalse(earliest.isReachable("e"));
+        Assert.assertEquals(Long.MAX_VALUE, earliest.arrival("e"));
+        Assert.assertEquals(-1, earliest.hops("e"));
+        Assert.assertEquals(0, earliest.arrival("a"));
+        Assert.assertTrue(earliest.path("a").isEmpty());
+
+        TemporalPathTree<String, Integer> fewest = TemporalPaths.fewestHops(g, "a", 0, 10);
+        Assert.assertEquals(5, fewest.arrival("d"));
+        Assert.assertEquals(1, fewest.hops("d"));
+        Assert.assertEquals(Arrays.asList("a>d@5"), names(fewest.path("d")));
+        Assert.assertFalse(fewest.isReachable("e"));
+
+        // the window cuts off the direct edge, and then the chain
+        Assert.assertEquals(3, TemporalPaths.fewestHops(g, "a", 0, 5).hops("d"));
+        Assert.assertFalse(TemporalPaths.earliestArrival(g, "a", 0, 3).isReachable("d"));
+        Assert.assertFalse(TemporalPaths.earliestArrival(g, "a", 2, 10).isReachable("c"));
+    }
+
+    /**
+     * Tests both searches against brute force relaxation over random graphs, with many
+     * edges sharing a time so that paths can take several edges at the same time.
+     */
+    @Test
+    public void testRandomGraphs() {
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            boolean directed = seed % 2 == 0;
+            int n = 10 + random.nextInt(60);
+            TemporalGraph<Integer, Integer> temporal =
+                    new TemporalGraph<Integer, Integer>(directed);
+            for (int v = 0; v < n; v++) {
+                temporal.addVertex(v);
+            }
+            for (int i = 0; i < 3 * n; i++) {
+                int a = random.nextInt(n);
+                int b = random.nextInt(n);
+                if (a != b) {
+                    temporal.addEdge(a, b, i, random.nextInt(40));
+                }
+            }
+            CompactTemporalGraph<Integer, Integer> g = temporal.compact();
+            for (int source = 0; source < n; source += 7) {
+                long start = random.nextInt(10);
+                long end = start + 10 + random.nextInt(30);
+                long[][] reference = bruteForce(g, source, start, end);
+                long[] earliest = reference[reference.length - 1];
+
+                TemporalPathTree<Integer, Integer> byTime =
+                        TemporalPaths.earliestArrival(g, source, start, end);
+                TemporalPathTree<Integer, Integer> byHops =
+                        TemporalPaths.fewestHops(g, source, start, end);
+                for (int v = 0; v < n; v++) {
+                    Integer vertex = g.vertex(v);
+                    Assert.assertEquals(earliest[v], byTime.arrival(vertex));
+                    int hops = -1;
+                    for (int k = 0; k < reference.length && hops < 0; k++) {
+                        if (reference[k][v] != Long.MAX_VALUE) {
+                            hops = k;
+                        }
+                    }
+                    Assert.assertEquals(hops, byHops.hops(vertex));
+                    if (hops < 0) {
+                        Assert.assertFalse(byTime.isReachable(vertex));
+                        Assert.assertFalse(byHops.isReachable(vertex));
+                        continue;
+                    }
+                    // the earliest among the fewest-hop paths
+                    Assert.assertEquals(reference[hops][v], byHops.arrival(vertex));
+                    checkPath(g, byTime, source, vertex, start, end);
+                    checkPath(g, byHops, source, vertex, start, end);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the path to vertex is time-respecting, lies in the window, and matches the
+     * reported hops and arrival.
+     */
+    private static void checkPath(CompactTemporalGraph<Integer, Integer> g,
+                                  TemporalPathTree<Integer, Integer> tree, int source,
+                                  Integer vertex, long start, long end) {
+        List<TemporalEdge<Integer, Integer>> path = tree.path(vertex);
+        Assert.assertEquals(tree.hops(vertex), path.size());
+        Integer at = g.vertex(source);
+        long time = start;
+        for (TemporalEdge<Integer, Integer> edge : path) {
+            Assert.assertEquals(at, edge.getSource());
+            Assert.assertTrue(edge.getTime() >= time && edge.getTime() < end);
+            at = edge.getDestination();
+            time = edge.getTime();
+        }
+        Assert.assertEquals(vertex, at);
+        Assert.assertEquals(tree.arrival(vertex), time);
+    }
+
+    /**
+     * @return For k = 0 .. n - 1, the earliest arrival at every vertex id over paths of at
+     * most k edges, or Long.MAX_VALUE.
+     */
+    private static long[][] bruteForce(CompactTemporalGraph<Integer, Integer> g, int source,
+                                       long start, long end) {
+        int n = g.size();
+        long[][] result = new long[n][n];
+        Arrays.fill(result[0], Long.MAX_VALUE);
+        result[0][g.id(source)] = start;
+        for (int k = 1; k < n; k++) {
+            result[k] = Arrays.copyOf(result[k - 1], n);
+            for (int u = 0; u < n; u++) {
+                for (int i = 0; i < g.outDegree(u); i++) {
+                    long t = g.time(u, i);
+                    int w = g.target(u, i);
+                    if (result[k - 1][u] <= t && t < end && t < result[k][w]) {
+                        result[k][w] = t;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static TemporalGraph<String, Integer> chain() {
+        TemporalGraph<String, Integer> g = new TemporalGraph<String, Integer>(true);
+        for (String v : new String[]{"a", "b", "c", "d", "e"}) {
+            g.addVertex(v);
+        }
+        g.addEdge("a", "b", 0, 1);
+        g.addEdge("b", "c", 0, 2);
+        g.addEdge("c", "d", 0, 3);
+        g.addEdge("a", "d", 0, 5);
+        g.addEdge("d", "e", 0, 0);
+        return g;
+    }
+
+    private static List<String> names(List<TemporalEdge<String, Integer>> path) {
+        List<String> result = new ArrayList<String>();
+        for (TemporalEdge<String, Integer> edge : path) {
+            result.add(edge.getSource() + ">" + edge.getDestination() + "@" + edge.getTime());
+        }
+        return result;
+    }
+}
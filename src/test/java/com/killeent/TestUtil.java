@@ -1,5 +1,6 @@
 package com.killeent;
 
+import com.killeent.Graph.SimpleLabeledGraph;
 import junit.framework.Assert;
 
 import java.util.*;
@@ -56,4 +57,23 @@ public class TestUtil {
         }
     }
 
+    /**
+     * Adds vertices 0 .. vertices - 1 and (about) the specified number of random edges with
+     * values in [0, maxValue) to the graph. Self edges and duplicates are skipped.
+     */
+    public static void populateRandomGraph(SimpleLabeledGraph<Integer, Integer> g, int vertices,
+                                           int edges, int maxValue, long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < vertices; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 0; i < edges; i++) {
+            int a = random.nextInt(vertices);
+            int b = random.nextInt(vertices);
+            if (a != b) {
+                g.addEdge(a, b, random.nextInt(maxValue));
+            }
+        }
+    }
+
 }
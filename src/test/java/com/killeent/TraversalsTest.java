@@ -0,0 +1,227 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link com.killeent.Graph.Traversals}.
+ */
+public class TraversalsTest {
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGraph() {
+        Traversals.breadthFirstIterator(null, 1);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null visitor.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullVisitor() {
+        Traversals.depthFirst(chain(3), 0, null);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when the start vertex is not in the
+     * graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingStart() {
+        Traversals.djikstraStream(chain(3), 5);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when creating a topological order
+     * of a graph with a cycle, even though a vertex comes before the cycle.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTopologicalCycle() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        for (int v = 0; v < 3; v++) {
+            g.addVertex(v);
+        }
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 1, 1);
+        Traversals.topologicalIterator(new CompactGraph<Integer, Integer>(g));
+    }
+
+    /**
+     * Tests the orders on a small graph: 0 -> 1, 0 -> 2, 1 -> 3, 2 -> 3, 3 -> 4, with the
+     * edge 0 -> 2 heavier than the path 0 -> 1 -> 3.
+     */
+    @Test
+    public void testOrders() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        for (int v = 0; v < 5; v++) {
+            g.addVertex(v);
+        }
+        g.addEdge(0, 1, 1);
+        g.addEdge(0, 2, 5);
+        g.addEdge(1, 3, 1);
+        g.addEdge(2, 3, 1);
+        g.addEdge(3, 4, 1);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+
+        List<Integer> bfs = Traversals.breadthFirstStream(compact, 0)
+                .collect(Collectors.<Integer>toList());
+        Assert.assertEquals(5, bfs.size());
+        Assert.assertEquals(0, (int) bfs.get(0));
+        Assert.assertEquals(new HashSet<Integer>(Arrays.asList(1, 2)),
+                new HashSet<Integer>(bfs.subList(1, 3)));
+        Assert.assertEquals(Arrays.asList(3, 4), bfs.subList(3, 5));
+
+        List<Integer> djikstra = Traversals.djikstraStream(compact, 0)
+                .collect(Collectors.<Integer>toList());
+        Assert.assertEquals(Arrays.asList(0, 1, 3, 4, 2), djikstra);
+
+        List<Integer> topological = Graphs.topologicalStream(g)
+                .collect(Collectors.<Integer>toList());
+        Assert.assertEquals(5, topological.size());
+        Assert.assertTrue(topological.indexOf(2) < topological.indexOf(3));
+        Assert.assertTrue(topological.indexOf(1) < topological.indexOf(3));
+        Assert.assertEquals(4, (int) topological.get(4));
+
+        List<Integer> dfs = Graphs.depthFirstStream(g, 1).collect(Collectors.<Integer>toList());
+        Assert.assertEquals(Arrays.asList(1, 3, 4), dfs);
+    }
+
+    /**
+     * Tests that short-circuiting stream operations and a visitor returning false end the
+     * searches of a long chain early.
+     */
+    @Test
+    public void testEarlyTermination() {
+        CompactGraph<Integer, Integer> g = chain(100000);
+        Assert.assertEquals(10, (int) Traversals.breadthFirstStream(g, 0)
+                .filter(new Predicate<Integer>() {
+                    @Override
+                    public boolean test(Integer v) {
+                        return v >= 10;
+                    }
+                }).findFirst().get());
+        Assert.assertEquals(Arrays.asList(0, 1, 2),
+                Graphs.djikstraStream(chainGraph(100000), 0).limit(3)
+                        .collect(Collectors.<Integer>toList()));
+
+        final int[] discovered = new int[1];
+        Assert.assertFalse(Traversals.depthFirst(g, 0, new GraphVisitor() {
+            @Override
+            public boolean discover(int vertex, int parent, long distance) {
+                discovered[0]++;
+                return distance < 20;
+            }
+        }));
+        Assert.assertEquals(21, discovered[0]);
+    }
+
+    /**
+     * Tests that the visitor events of every search are consistent with the BFS tree and
+     * Djikstra distances, and that depth first discover and finish events nest.
+     */
+    @Test
+    public void testVisitorEvents() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        TestUtil.populateRandomGraph(g, 400, 1600, 10, 4);
+        final CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+
+        final int[] distances = Graphs.parallelBreadthFirstSearch(compact, 0).getDistances();
+        final int[] discovered = new int[1];
+        Assert.assertTrue(Traversals.breadthFirst(compact, 0, new GraphVisitor() {
+            @Override
+            public boolean discover(int vertex, int parent, long distance) {
+                Assert.assertEquals(distances[vertex], distance);
+                discovered[0]++;
+                return true;
+            }
+
+            @Override
+            public void relax(int edge, int from, int to, long distance) {
+                Assert.assertEquals(distances[from] + 1, distance);
+            }
+        }));
+        int reachable = 0;
+        for (int distance : distances) {
+            if (distance >= 0) {
+                reachable++;
+            }
+        }
+        Assert.assertEquals(reachable, discovered[0]);
+
+        // finishing order is by distance, and matches djikstrasPath
+        final long[] last = {0};
+        final long[] settled = new long[compact.size()];
+        Arrays.fill(settled, -1);
+        final long[] tentative = new long[compact.size()];
+        Traversals.djikstra(compact, 0, new GraphVisitor() {
+            @Override
+            public void relax(int edge, int from, int to, long distance) {
+                tentative[to] = distance;
+            }
+
+            @Override
+            public void finish(int vertex) {
+                Assert.assertTrue(tentative[vertex] >= last[0]);
+                last[0] = tentative[vertex];
+                settled[vertex] = tentative[vertex];
+            }
+        });
+        for (int v = 0; v < compact.size(); v += 13) {
+            List<Edge<Integer, Integer>> path = new ArrayList<Edge<Integer, Integer>>();
+            if (Graphs.djikstrasPath(g, 0, compact.vertex(v), path)) {
+                long weight = 0;
+                for (Edge<Integer, Integer> edge : path) {
+                    weight += edge.getValue();
+                }
+                Assert.assertEquals(weight, settled[v]);
+            } else {
+                Assert.assertEquals(-1, settled[v]);
+            }
+        }
+
+        final Deque<Integer> open = new ArrayDeque<Integer>();
+        Traversals.depthFirst(compact, 0, new GraphVisitor() {
+            @Override
+            public boolean discover(int vertex, int parent, long distance) {
+                Assert.assertEquals(open.size(), distance);
+                if (parent >= 0) {
+                    Assert.assertEquals(parent, (int) open.peek());
+                }
+                open.push(vertex);
+                return true;
+            }
+
+            @Override
+            public void finish(int vertex) {
+                Assert.assertEquals(vertex, (int) open.pop());
+            }
+        });
+        Assert.assertTrue(open.isEmpty());
+    }
+
+    /**
+     * @return The graph 0 -> 1 -> ... -> n - 1, with unit weights.
+     */
+    private static DirectedGraph<Integer, Integer> chainGraph(int n) {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        for (int v = 0; v < n; v++) {
+            g.addVertex(v);
+            if (v > 0) {
+                g.addEdge(v - 1, v, 1);
+            }
+        }
+        return g;
+    }
+
+    private static CompactGraph<Integer, Integer> chain(int n) {
+        return new CompactGraph<Integer, Integer>(chainGraph(n));
+    }
+}
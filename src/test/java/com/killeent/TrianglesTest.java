@@ -0,0 +1,144 @@
+package com.killeent;
+
+import com.killeent.Graph.*;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests for {@link com.killeent.Graph.Triangles} and {@link com.killeent.Graph.CoreDecomposition}.
+ */
+public class TrianglesTest {
+
+    private static final double DELTA = 1e-9;
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a null graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCountNullGraph() {
+        Triangles.count(null);
+    }
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when passing in a directed graph.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCoreNumbersDirectedGraph() {
+        DirectedGraph<Integer, Integer> g = new DirectedHashGraph<Integer, Integer>();
+        g.addVertex(1);
+        CoreDecomposition.coreNumbers(new CompactGraph<Integer, Integer>(g));
+    }
+
+    /**
+     * Tests a small graph: a 4-clique {0, 1, 2, 3} with a pendant path 3 - 4 - 5 and a
+     * parallel edge, which must not count twice.
+     */
+    @Test
+    public void testSmallGraph() {
+        UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+        for (int i = 0; i < 6; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 0; i < 4; i++) {
+            for (int j = i + 1; j < 4; j++) {
+                g.addEdge(i, j, 1);
+            }
+        }
+        g.addEdge(0, 1, 2);
+        g.addEdge(3, 4, 1);
+        g.addEdge(4, 5, 1);
+        CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+
+        Assert.assertEquals(4, Triangles.count(compact));
+        long[] triangles = Triangles.perVertex(compact);
+        double[] clustering = Triangles.clustering(compact);
+        int[] cores = CoreDecomposition.coreNumbers(compact);
+        int[] expectedTriangles = {3, 3, 3, 3, 0, 0};
+        double[] expectedClustering = {1, 1, 1, 0.5, 0, 0};
+        int[] expectedCores = {3, 3, 3, 3, 1, 1};
+        for (int i = 0; i < 6; i++) {
+            int v = compact.id(i);
+            Assert.assertEquals(expectedTriangles[i], triangles[v]);
+            Assert.assertEquals(expectedClustering[i], clustering[v], DELTA);
+            Assert.assertEquals(expectedCores[i], cores[v]);
+        }
+        // 12 closed of 3 * 3 + 6 + 1 = 16 paths of length two
+        Assert.assertEquals(12.0 / 16, Triangles.transitivity(compact), DELTA);
+        Assert.assertEquals(3, CoreDecomposition.degeneracy(cores));
+    }
+
+    /**
+     * Tests triangle counts and core numbers of random graphs against brute force.
+     */
+    @Test
+    public void testRandomGraphs() {
+        for (int seed = 0; seed < 5; seed++) {
+            UndirectedGraph<Integer, Integer> g = new UndirectedHashGraph<Integer, Integer>();
+            TestUtil.populateRandomGraph(g, 120, 200 + 400 * seed, 3, seed);
+            CompactGraph<Integer, Integer> compact = new CompactGraph<Integer, Integer>(g);
+            int n = compact.size();
+            boolean[][] adjacent = new boolean[n][n];
+            for (int v = 0; v < n; v++) {
+                for (int i = 0; i < compact.outDegree(v); i++) {
+                    adjacent[v][compact.target(v, i)] = true;
+                }
+            }
+
+            long[] expected = new long[n];
+            long total = 0;
+            for (int a = 0; a < n; a++) {
+                for (int b = a + 1; b < n; b++) {
+                    for (int c = b + 1; c < n && adjacent[a][b]; c++) {
+                        if (adjacent[a][c] && adjacent[b][c]) {
+                            expected[a]++;
+                            expected[b]++;
+                            expected[c]++;
+                            total++;
+                        }
+                    }
+                }
+            }
+            Assert.assertEquals(total, Triangles.count(compact));
+            Assert.assertTrue(Arrays.equals(expected, Triangles.perVertex(compact)));
+            Assert.assertTrue(Arrays.equals(naiveCores(adjacent),
+                    CoreDecomposition.coreNumbers(compact)));
+        }
+    }
+
+    /**
+     * Computes core numbers by repeatedly deleting every vertex with fewer than k remaining
+     * neighbours, for increasing k.
+     */
+    private static int[] naiveCores(boolean[][] adjacent) {
+        int n = adjacent.length;
+        int[] cores = new int[n];
+        Set<Integer> remaining = new HashSet<Integer>();
+        for (int v = 0; v < n; v++) {
+            remaining.add(v);
+        }
+        for (int k = 1; !remaining.isEmpty(); k++) {
+            boolean removed = true;
+            while (removed) {
+                removed = false;
+                for (Integer v : new HashSet<Integer>(remaining)) {
+                    int degree = 0;
+                    for (Integer w : remaining) {
+                        if (adjacent[v][w]) {
+                            degree++;
+                        }
+                    }
+                    if (degree < k) {
+                        cores[v] = k - 1;
+                        remaining.remove(v);
+                        removed = true;
+                    }
+                }
+            }
+        }
+        return cores;
+    }
+}
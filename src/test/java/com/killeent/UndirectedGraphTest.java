@@ -119,4 +119,17 @@ public class UndirectedGraphTest extends BaseSimpleLabeledGraphTest {
         instance.clear();
     }
 
+    /**
+     * Tests that the two directions of an undirected edge have different hashes.
+     */
+    @Test
+    public void testEdgeHashCodeAsymmetric() {
+        Assert.assertNotEquals(new Edge<Integer, Integer>(1, 2, 0).hashCode(),
+                new Edge<Integer, Integer>(2, 1, 0).hashCode());
+        Assert.assertNotEquals(new Edge<Integer, Integer>(1, 2, 0).hashCode(),
+                new Edge<Integer, Integer>(1, 2, 1).hashCode());
+        Assert.assertEquals(new Edge<Integer, Integer>(1, 2, 0).hashCode(),
+                new Edge<Integer, Integer>(1, 2, 0).hashCode());
+    }
+
 }
@@ -0,0 +1,171 @@
+package com.killeent;
+
+import com.killeent.UnionFind.ConcurrentUnionFind;
+import com.killeent.UnionFind.UnionFind;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the {@link com.killeent.UnionFind.UnionFind} and the
+ * {@link com.killeent.UnionFind.ConcurrentUnionFind}.
+ */
+public class UnionFindTest {
+
+    // tests that a negative size is rejected
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSize() {
+        new UnionFind(-1);
+    }
+
+    // tests that elements outside the range are rejected
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testFindOutOfRange() {
+        new UnionFind(3).find(3);
+    }
+
+    // tests that unions merge sets and report whether they did
+    @Test
+    public void testUnion() {
+        UnionFind sets = new UnionFind(6);
+        Assert.assertEquals(6, sets.sets());
+        Assert.assertTrue(sets.union(0, 1));
+        Assert.assertTrue(sets.union(2, 3));
+        Assert.assertTrue(sets.union(1, 3));
+        Assert.assertFalse(sets.union(0, 2));
+        Assert.assertEquals(3, sets.sets());
+        Assert.assertTrue(sets.sameSet(0, 3));
+        Assert.assertEquals(sets.find(0), sets.find(2));
+        Assert.assertFalse(sets.sameSet(0, 4));
+        Assert.assertFalse(sets.sameSet(4, 5));
+    }
+
+    // tests that added elements start as singletons and can be merged
+    @Test
+    public void testAdd() {
+        UnionFind sets = new UnionFind(0);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i, sets.add());
+        }
+        Assert.assertEquals(100, sets.size());
+        Assert.assertEquals(100, sets.sets());
+        for (int i = 1; i < 100; i++) {
+            sets.union(i - 1, i);
+        }
+        Assert.assertEquals(1, sets.sets());
+        Assert.assertTrue(sets.sameSet(0, 99));
+    }
+
+    // tests that a sequence of random unions matches a naive labelling
+    @Test
+    public void testRandomUnions() {
+        Random random = new Random(5);
+        int n = 200;
+        UnionFind sets = new UnionFind(n);
+        int[] labels = new int[n];
+        for (int i = 0; i < n; i++) {
+            labels[i] = i;
+        }
+        for (int i = 0; i < 150; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            boolean merged = labels[a] != labels[b];
+            Assert.assertEquals(merged, sets.union(a, b));
+            if (merged) {
+                int old = labels[b];
+                for (int j = 0; j < n; j++) {
+                    if (labels[j] == old) {
+                        labels[j] = labels[a];
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                Assert.assertEquals(labels[i] == labels[j], sets.sameSet(i, j));
+            }
+        }
+    }
+
+    // tests that the concurrent union-find behaves like the sequential one on one thread
+    @Test
+    public void testConcurrentMatchesSequential() {
+        Random random = new Random(8);
+        int n = 500;
+        UnionFind expected = new UnionFind(n);
+        ConcurrentUnionFind actual = new ConcurrentUnionFind(n);
+        for (int i = 0; i < 400; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            Assert.assertEquals(expected.union(a, b), actual.union(a, b));
+        }
+        Assert.assertEquals(expected.sets(), actual.sets());
+        for (int i = 0; i < 2000; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            Assert.assertEquals(expected.sameSet(a, b), actual.sameSet(a, b));
+        }
+    }
+
+    // tests that elements outside the range are rejected by the concurrent union-find
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testConcurrentFindOutOfRange() {
+        new ConcurrentUnionFind(3).union(0, -1);
+    }
+
+    // tests that threads racing to merge overlapping chains produce one set, and that
+    // exactly n - 1 unions succeed
+    @Test
+    public void testConcurrentUnions() throws InterruptedException {
+        final int n = 20000;
+        final int threads = 4;
+        final ConcurrentUnionFind sets = new ConcurrentUnionFind(n);
+        final AtomicInteger merged = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final long seed = t;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(seed);
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    // every thread links the whole chain, in a different random order
+                    int[] order = new int[n - 1];
+                    for (int i = 0; i < order.length; i++) {
+                        order[i] = i;
+                    }
+                    for (int i = order.length - 1; i > 0; i--) {
+                        int j = random.nextInt(i + 1);
+                        int temp = order[i];
+                        order[i] = order[j];
+                        order[j] = temp;
+                    }
+                    for (int i : order) {
+                        if (sets.union(i, i + 1)) {
+                            merged.incrementAndGet();
+                        }
+                        sets.sameSet(i, random.nextInt(n));
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Assert.assertEquals(n - 1, merged.get());
+        Assert.assertEquals(1, sets.sets());
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(sets.sameSet(0, i));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.killeent;
+
+import com.killeent.Graph.VertexIndex;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link com.killeent.Graph.VertexIndex}.
+ */
+public class VertexIndexTest {
+
+    /**
+     * Tests for {@link java.lang.IllegalArgumentException} when interning null.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInternNull() {
+        new VertexIndex<String>().intern(null);
+    }
+
+    /**
+     * Tests for {@link java.lang.IndexOutOfBoundsException} when looking up an unused id.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testVertexUnusedId() {
+        VertexIndex<String> index = new VertexIndex<String>();
+        index.intern("a");
+        index.vertex(1);
+    }
+
+    /**
+     * Tests that ids are dense, assigned in order of first appearance, and map back to their
+     * vertices.
+     */
+    @Test
+    public void testInternDenseIds() {
+        VertexIndex<String> index = new VertexIndex<String>(1);
+        String[] vertices = {"d", "a", "c", "a", "b", "d"};
+        int[] expected = {0, 1, 2, 1, 3, 0};
+        for (int i = 0; i < vertices.length; i++) {
+            Assert.assertEquals(expected[i], index.intern(vertices[i]));
+        }
+        Assert.assertEquals(4, index.size());
+        for (int id = 0; id < index.size(); id++) {
+            Assert.assertEquals(id, index.id(index.vertex(id)));
+        }
+        Assert.assertEquals(-1, index.id("e"));
+        Assert.assertEquals(-1, index.id(null));
+        Assert.assertFalse(index.contains("e"));
+        Assert.assertTrue(index.contains("c"));
+    }
+
+    /**
+     * Tests that packed edges round trip and sort by source, then destination.
+     */
+    @Test
+    public void testPackedEdges() {
+        long edge = VertexIndex.edge(Integer.MAX_VALUE, 7);
+        Assert.assertEquals(Integer.MAX_VALUE, VertexIndex.source(edge));
+        Assert.assertEquals(7, VertexIndex.destination(edge));
+        edge = VertexIndex.edge(3, Integer.MAX_VALUE);
+        Assert.assertEquals(3, VertexIndex.source(edge));
+        Assert.assertEquals(Integer.MAX_VALUE, VertexIndex.destination(edge));
+        Assert.assertTrue(VertexIndex.edge(1, 9) < VertexIndex.edge(2, 0));
+        Assert.assertTrue(VertexIndex.edge(2, 0) < VertexIndex.edge(2, 1));
+    }
+}